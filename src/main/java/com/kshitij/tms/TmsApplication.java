@@ -2,9 +2,11 @@ package com.kshitij.tms;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
 
-@SpringBootApplication
+// R2DBC is only for the separate reactive read application (com.kshitij.tms.reactive)
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class TmsApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,66 @@
+package com.kshitij.tms.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded map that drops its eldest entry on overflow
+ *
+ * Replaces Collections.synchronizedMap(LinkedHashMap) on request paths: it
+ * is guarded by a ReentrantLock instead of a monitor, so a virtual thread
+ * contending for it parks without pinning its carrier thread.
+ */
+public class BoundedMap<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param accessOrder evict the least recently read entry rather than the oldest insert
+     */
+    public BoundedMap(int maxEntries, boolean accessOrder) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, accessOrder) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            entries.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
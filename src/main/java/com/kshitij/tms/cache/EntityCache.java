@@ -0,0 +1,98 @@
+package com.kshitij.tms.cache;
+
+import com.kshitij.tms.dto.HotKeyResponse;
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.dto.TransporterResponse;
+import com.kshitij.tms.entity.ChangeEntityType;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.event.TransporterEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Access tracking for load, bid and transporter IDs, and the in-process
+ * caches it protects
+ *
+ * Reads of a few big tenders dominate, so each entity type gets a frequency
+ * sketch; the load and transporter caches admit a new entry only when it is
+ * hotter than the one it would evict. Values are immutable response records,
+ * evicted when a LoadEvent or TransporterEvent commits and expired after a
+ * short TTL.
+ */
+@Component
+public class EntityCache {
+
+    private final Map<ChangeEntityType, HotKeyTracker<UUID>> trackers = new EnumMap<>(ChangeEntityType.class);
+    private final TinyLfuCache<UUID, LoadResponse> loads;
+    private final TinyLfuCache<UUID, TransporterResponse> transporters;
+
+    public EntityCache(MeterRegistry meterRegistry,
+                       @Value("${tms.entity-cache.maximum-size:10000}") int maximumSize,
+                       @Value("${tms.entity-cache.ttl-ms:10000}") long ttlMs,
+                       @Value("${tms.entity-cache.sketch-expected-keys:100000}") int expectedKeys,
+                       @Value("${tms.entity-cache.hot-key-candidates:100}") int hotKeyCandidates) {
+        for (ChangeEntityType type : List.of(ChangeEntityType.LOAD, ChangeEntityType.BID, ChangeEntityType.TRANSPORTER)) {
+            trackers.put(type, new HotKeyTracker<>(expectedKeys, hotKeyCandidates));
+        }
+        this.loads = new TinyLfuCache<>("load", maximumSize, ttlMs, trackers.get(ChangeEntityType.LOAD), meterRegistry);
+        this.transporters = new TinyLfuCache<>("transporter", maximumSize, ttlMs,
+                trackers.get(ChangeEntityType.TRANSPORTER), meterRegistry);
+    }
+
+    public LoadResponse load(UUID loadId, Supplier<LoadResponse> loader) {
+        return loads.get(loadId, loader);
+    }
+
+    public TransporterResponse transporter(UUID transporterId, Supplier<TransporterResponse> loader) {
+        return transporters.get(transporterId, loader);
+    }
+
+    /**
+     * Counts an access to an entity that has no cache of its own (bids)
+     */
+    public void recordAccess(ChangeEntityType type, UUID id) {
+        HotKeyTracker<UUID> tracker = trackers.get(type);
+        if (tracker != null) {
+            tracker.record(id);
+        }
+    }
+
+    /**
+     * The most accessed IDs of a type, hottest first; empty for untracked types
+     */
+    public List<HotKeyResponse> hotKeys(ChangeEntityType type, int limit) {
+        HotKeyTracker<UUID> tracker = trackers.get(type);
+        if (tracker == null) {
+            return List.of();
+        }
+        return tracker.top(Math.max(0, limit)).stream()
+                .map(entry -> new HotKeyResponse(type, entry.getKey(), entry.getValue(), isCached(type, entry.getKey())))
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoadEvent(LoadEvent event) {
+        loads.invalidate(event.loadId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransporterEvent(TransporterEvent event) {
+        transporters.invalidate(event.transporterId());
+    }
+
+    private boolean isCached(ChangeEntityType type, UUID id) {
+        return switch (type) {
+            case LOAD -> loads.contains(id);
+            case TRANSPORTER -> transporters.contains(id);
+            default -> false;
+        };
+    }
+}
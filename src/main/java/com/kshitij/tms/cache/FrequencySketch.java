@@ -0,0 +1,95 @@
+package com.kshitij.tms.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch of recent access frequency, TinyLFU style
+ *
+ * Four rows of counters, one hashed slot per row; the estimate is the
+ * smallest of the key's four counters, so collisions can only inflate it.
+ * Only the counters at that minimum are incremented (conservative update),
+ * which keeps collision noise low. After ten increments per slot every
+ * counter is halved, so the estimates describe recent popularity and
+ * yesterday's hot tender fades out.
+ *
+ * Memory is fixed: 4 x width ints, whatever the number of keys.
+ */
+public class FrequencySketch<K> {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray counters;
+    private final int width;
+    private final int mask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * @param expectedKeys number of distinct keys worth telling apart; rounded up to a power of two
+     */
+    public FrequencySketch(int expectedKeys) {
+        this.width = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+    }
+
+    /**
+     * Records one access and returns the key's new estimated frequency
+     */
+    public int increment(K key) {
+        int hash = spread(key.hashCode());
+        int min = estimate(hash);
+        for (int row = 0; row < DEPTH; row++) {
+            int slot = slot(hash, row);
+            if (counters.get(slot) == min) {
+                counters.incrementAndGet(slot);
+            }
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            age();
+        }
+        return min + 1;
+    }
+
+    public int frequency(K key) {
+        return estimate(spread(key.hashCode()));
+    }
+
+    int width() {
+        return width;
+    }
+
+    private int estimate(int hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters.get(slot(hash, row)));
+        }
+        return min;
+    }
+
+    /**
+     * Halves every counter; the thread that crosses the sample size does it,
+     * concurrent increments during the sweep are simply kept or halved
+     */
+    private void age() {
+        if (additions.getAndSet(0) < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    private int slot(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        return row * width + ((h ^ (h >>> 16)) & mask);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,70 @@
+package com.kshitij.tms.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Access frequencies of one kind of key, plus the current heavy hitters
+ *
+ * The sketch estimates every key's frequency; a small candidate set keeps
+ * the keys with the highest estimates seen so far, so the top-N can be
+ * listed without storing every key. A key enters the set by outscoring its
+ * weakest member, and since the sketch ages, a cooled-down key is soon
+ * replaced by whatever is hot now.
+ */
+public class HotKeyTracker<K> {
+
+    private final FrequencySketch<K> sketch;
+    private final int candidates;
+    private final Map<K, Integer> top = new ConcurrentHashMap<>();
+    private final ReentrantLock topLock = new ReentrantLock();
+    private volatile int admissionFloor;
+
+    public HotKeyTracker(int expectedKeys, int candidates) {
+        this.sketch = new FrequencySketch<>(expectedKeys);
+        this.candidates = candidates;
+    }
+
+    public void record(K key) {
+        int frequency = sketch.increment(key);
+        if (top.replace(key, frequency) != null || frequency <= admissionFloor && top.size() >= candidates) {
+            return;
+        }
+        topLock.lock();
+        try {
+            top.put(key, frequency);
+            if (top.size() > candidates) {
+                evictWeakest();
+            }
+        } finally {
+            topLock.unlock();
+        }
+    }
+
+    public int frequency(K key) {
+        return sketch.frequency(key);
+    }
+
+    /**
+     * Hottest keys first, with their current estimated frequency
+     */
+    public List<Map.Entry<K, Integer>> top(int limit) {
+        return top.keySet().stream()
+                .map(key -> Map.entry(key, sketch.frequency(key)))
+                .sorted(Map.Entry.<K, Integer>comparingByValue().reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private void evictWeakest() {
+        // Refresh from the sketch first: stored values go stale once counters age
+        top.replaceAll((key, frequency) -> sketch.frequency(key));
+        top.entrySet().stream()
+                .min(Comparator.comparingInt(Map.Entry::getValue))
+                .ifPresent(weakest -> top.remove(weakest.getKey()));
+        admissionFloor = top.values().stream().mapToInt(Integer::intValue).min().orElse(0);
+    }
+}
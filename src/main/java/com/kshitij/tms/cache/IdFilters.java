@@ -0,0 +1,331 @@
+package com.kshitij.tms.cache;
+
+import com.kshitij.tms.dto.ChangeFeedResponse;
+import com.kshitij.tms.dto.ChangeRecordResponse;
+import com.kshitij.tms.entity.ChangeEntityType;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.service.ChangeFeedService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bloom filters of existing load, bid and booking IDs
+ *
+ * Lookups by ID consult the entity's filter first: an ID the filter has
+ * never seen gets a 404 without a database round trip, which is what random
+ * UUIDs from scrapers and broken clients produce.
+ *
+ * The filters are built from the tables on startup (one scan per entity, in
+ * parallel) and rebuilt larger when they fill past their expected size.
+ * Until the first build finishes every lookup goes to the database. IDs
+ * created here are added just before their transaction commits; IDs created
+ * by other instances arrive through the change feed, so for about a sync
+ * interval after a create elsewhere this instance may still answer 404.
+ *
+ * Metrics: tms.bloom.lookups{entity,outcome=rejected|passed},
+ * tms.bloom.false-positives{entity}, tms.bloom.false-positive-rate{entity}
+ * (estimated from the fill ratio), tms.bloom.memory{entity} (bytes) and
+ * tms.bloom.insertions{entity}.
+ */
+@Slf4j
+@Component
+public class IdFilters {
+
+    static final List<ChangeEntityType> ENTITY_TYPES =
+            List.of(ChangeEntityType.LOAD, ChangeEntityType.BID, ChangeEntityType.BOOKING);
+
+    private static final Map<ChangeEntityType, String> TABLES = Map.of(
+            ChangeEntityType.LOAD, "load",
+            ChangeEntityType.BID, "bid",
+            ChangeEntityType.BOOKING, "booking");
+
+    // Changes committed this long before startup are covered by the table scans
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+    private static final int SCAN_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ChangeFeedService changeFeedService;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final long expectedInsertions;
+    private final long maxBytes;
+    private final long previousGraceNanos;
+    private final Map<ChangeEntityType, Slot> slots = new EnumMap<>(ChangeEntityType.class);
+    private final ExecutorService builder = Executors.newFixedThreadPool(ENTITY_TYPES.size(), runnable -> {
+        Thread thread = new Thread(runnable, "id-filter-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long syncCursor = -1;
+
+    public IdFilters(DataSource dataSource,
+                     PlatformTransactionManager transactionManager,
+                     ChangeFeedService changeFeedService,
+                     MeterRegistry meterRegistry,
+                     @Value("${tms.bloom.enabled:true}") boolean enabled,
+                     @Value("${tms.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                     @Value("${tms.bloom.expected-insertions:1000000}") long expectedInsertions,
+                     @Value("${tms.bloom.max-memory-mb:16}") long maxMemoryMb,
+                     @Value("${tms.bloom.rebuild-grace-ms:10000}") long rebuildGraceMs) {
+        this.jdbcTemplate = dataSource == null ? null : new JdbcTemplate(dataSource);
+        if (jdbcTemplate != null) {
+            jdbcTemplate.setFetchSize(SCAN_FETCH_SIZE);
+        }
+        this.readOnlyTransaction = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (readOnlyTransaction != null) {
+            readOnlyTransaction.setReadOnly(true);
+        }
+        this.changeFeedService = changeFeedService;
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.expectedInsertions = expectedInsertions;
+        this.maxBytes = maxMemoryMb * 1024 * 1024;
+        this.previousGraceNanos = rebuildGraceMs * 1_000_000;
+        ENTITY_TYPES.forEach(type -> slots.put(type, new Slot(type, meterRegistry)));
+    }
+
+    /**
+     * Runs the query unless the filter proves the ID doesn't exist
+     */
+    public <T> Optional<T> find(ChangeEntityType type, UUID id, Supplier<Optional<T>> query) {
+        Slot slot = slots.get(type);
+        if (slot == null || !slot.ready) {
+            return query.get();
+        }
+        if (!slot.mightContain(id)) {
+            slot.rejected.increment();
+            return Optional.empty();
+        }
+        slot.passed.increment();
+        Optional<T> result = query.get();
+        if (result.isEmpty()) {
+            slot.falsePositives.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Adds created IDs inside the creating transaction, so the ID is in the
+     * filter before anyone can read the committed row
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLoadEvent(LoadEvent event) {
+        put(ChangeEntityType.LOAD, event.loadId());
+        put(event.type().entityType(), event.entityId());
+    }
+
+    /**
+     * Initial build, all entity types in parallel, off the startup thread
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        syncCursor = changeFeedService.cursorAt(LocalDateTime.now().minus(SYNC_OVERLAP));
+        slots.values().forEach(slot -> slot.scheduleRebuild(expectedInsertions));
+    }
+
+    /**
+     * Adds IDs created on other instances, ends rebuild grace periods and
+     * grows filters that filled past their expected size
+     */
+    @Scheduled(fixedDelayString = "${tms.bloom.sync-interval-ms:1000}")
+    public void refresh() {
+        if (!enabled || syncCursor < 0) {
+            return;
+        }
+        ChangeFeedResponse batch;
+        do {
+            batch = changeFeedService.getChanges(syncCursor, ChangeFeedService.MAX_BATCH_SIZE);
+            for (ChangeRecordResponse change : batch.changes()) {
+                put(change.entityType(), change.entityId());
+            }
+            syncCursor = batch.nextCursor();
+        } while (batch.hasMore());
+
+        long now = System.nanoTime();
+        for (Slot slot : slots.values()) {
+            slot.expirePrevious(now);
+            BloomFilter filter = slot.filter;
+            if (slot.ready && filter.insertions() > filter.expectedInsertions()) {
+                slot.scheduleRebuild(Math.max(expectedInsertions, filter.insertions() * 2));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    boolean isReady(ChangeEntityType type) {
+        return slots.get(type).ready;
+    }
+
+    private void put(ChangeEntityType type, UUID id) {
+        Slot slot = slots.get(type);
+        if (slot != null && id != null) {
+            slot.put(id);
+        }
+    }
+
+    private BloomFilter newFilter(long insertions) {
+        return new BloomFilter(insertions, falsePositiveRate, maxBytes);
+    }
+
+    /**
+     * One entity's filter; while it is rebuilt, new IDs go to both the live and
+     * the new filter, and after the swap the old one is still consulted for a
+     * grace period, covering IDs whose transactions committed after the scan began
+     */
+    private final class Slot {
+
+        private final ChangeEntityType type;
+        private final AtomicBoolean rebuilding = new AtomicBoolean();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Counter rejected;
+        private final Counter passed;
+        private final Counter falsePositives;
+        private volatile BloomFilter filter;
+        private volatile BloomFilter building;
+        private volatile BloomFilter previous;
+        private volatile long previousExpiresAt;
+        private volatile boolean ready;
+
+        private Slot(ChangeEntityType type, MeterRegistry meterRegistry) {
+            this.type = type;
+            this.filter = newFilter(expectedInsertions);
+            String entity = type.name().toLowerCase();
+            this.rejected = Counter.builder("tms.bloom.lookups").tag("entity", entity).tag("outcome", "rejected")
+                    .description("Lookups answered 404 without a query")
+                    .register(meterRegistry);
+            this.passed = Counter.builder("tms.bloom.lookups").tag("entity", entity).tag("outcome", "passed")
+                    .register(meterRegistry);
+            this.falsePositives = Counter.builder("tms.bloom.false-positives").tag("entity", entity)
+                    .description("Lookups the filter let through that found nothing")
+                    .register(meterRegistry);
+            Gauge.builder("tms.bloom.false-positive-rate", this, slot -> slot.filter.expectedFalsePositiveRate())
+                    .tag("entity", entity)
+                    .register(meterRegistry);
+            Gauge.builder("tms.bloom.memory", this, slot -> slot.filter.memoryBytes())
+                    .tag("entity", entity)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("tms.bloom.insertions", this, slot -> slot.filter.insertions())
+                    .tag("entity", entity)
+                    .register(meterRegistry);
+        }
+
+        private boolean mightContain(UUID id) {
+            if (filter.mightContain(id)) {
+                return true;
+            }
+            BloomFilter old = previous;
+            return old != null && old.mightContain(id);
+        }
+
+        private void put(UUID id) {
+            lock.lock();
+            try {
+                filter.put(id);
+                if (building != null) {
+                    building.put(id);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void scheduleRebuild(long insertions) {
+            if (!rebuilding.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                builder.execute(() -> rebuild(insertions));
+            } catch (RuntimeException e) {
+                // Shutting down
+                rebuilding.set(false);
+            }
+        }
+
+        private void rebuild(long insertions) {
+            try {
+                long started = System.nanoTime();
+                String table = TABLES.get(type);
+                long rows = readOnlyTransaction.execute(status ->
+                        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+                BloomFilter next = newFilter(Math.max(insertions, rows * 2));
+                lock.lock();
+                try {
+                    building = next;
+                } finally {
+                    lock.unlock();
+                }
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                        "SELECT " + table + "_id FROM " + table,
+                        rs -> {
+                            next.put(rs.getObject(1, UUID.class));
+                        }));
+                lock.lock();
+                try {
+                    previous = filter;
+                    previousExpiresAt = System.nanoTime() + previousGraceNanos;
+                    filter = next;
+                    building = null;
+                } finally {
+                    lock.unlock();
+                }
+                ready = true;
+                log.info("Built {} ID filter: {} IDs, {} KiB, estimated false-positive rate {} in {} ms",
+                        type, next.insertions(), next.memoryBytes() / 1024,
+                        String.format("%.4f", next.expectedFalsePositiveRate()),
+                        (System.nanoTime() - started) / 1_000_000);
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    building = null;
+                } finally {
+                    lock.unlock();
+                }
+                log.warn("Building the {} ID filter failed; lookups keep using the database: {}", type, e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+
+        private void expirePrevious(long now) {
+            if (previous != null && now - previousExpiresAt > 0) {
+                previous = null;
+            }
+        }
+    }
+}
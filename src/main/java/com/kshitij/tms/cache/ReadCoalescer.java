@@ -0,0 +1,63 @@
+package com.kshitij.tms.cache;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.BookingResponse;
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.entity.ChangeEntityType;
+import com.kshitij.tms.event.LoadEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer for the hot read endpoints: load by ID, best bids and
+ * booking by ID
+ *
+ * Shares the immutable response records rather than entities, so callers
+ * can't affect each other. Committed LoadEvents evict the affected keys, so
+ * writes made through this instance are visible to the next read.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final SingleFlight<UUID, LoadResponse> loads;
+    private final SingleFlight<UUID, List<BestBidResponse>> bestBids;
+    private final SingleFlight<UUID, BookingResponse> bookings;
+
+    public ReadCoalescer(MeterRegistry meterRegistry,
+                         @Value("${tms.single-flight.stale-window-ms:200}") long staleWindowMs,
+                         @Value("${tms.single-flight.max-entries:10000}") int maxEntries) {
+        this.loads = new SingleFlight<>("load", staleWindowMs, maxEntries, meterRegistry);
+        this.bestBids = new SingleFlight<>("best-bids", staleWindowMs, maxEntries, meterRegistry);
+        this.bookings = new SingleFlight<>("booking", staleWindowMs, maxEntries, meterRegistry);
+    }
+
+    public LoadResponse load(UUID loadId, Supplier<LoadResponse> loader) {
+        return loads.get(loadId, loader);
+    }
+
+    public List<BestBidResponse> bestBids(UUID loadId, Supplier<List<BestBidResponse>> loader) {
+        return bestBids.get(loadId, loader);
+    }
+
+    public BookingResponse booking(UUID bookingId, Supplier<BookingResponse> loader) {
+        return bookings.get(bookingId, loader);
+    }
+
+    /**
+     * Every change to a load, its bids or its bookings is published as a LoadEvent
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoadEvent(LoadEvent event) {
+        loads.invalidate(event.loadId());
+        bestBids.invalidate(event.loadId());
+        if (event.type().entityType() == ChangeEntityType.BOOKING) {
+            bookings.invalidate(event.entityId());
+        }
+    }
+}
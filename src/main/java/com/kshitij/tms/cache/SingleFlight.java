@@ -0,0 +1,141 @@
+package com.kshitij.tms.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads into one computation
+ *
+ * The first caller for a key runs the loader; callers arriving while it
+ * runs wait for and share its result (or its exception). The last result is
+ * kept for a short stale window: while a newer computation for the key is in
+ * flight, callers get that result immediately instead of waiting - stale
+ * while revalidate. Results are never served once the window has passed or
+ * when no revalidation is running, so a value is at most one computation
+ * plus the window old.
+ *
+ * Metrics: tms.singleflight.requests{name,outcome=executed|coalesced|stale}
+ * and tms.singleflight.coalescing.ratio{name}, the share of requests that
+ * did not run the loader.
+ */
+public class SingleFlight<K, V> {
+
+    private final long staleWindowNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, Entry<V>> recent = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter stale;
+
+    public SingleFlight(String name, long staleWindowMs, int maxEntries, MeterRegistry meterRegistry) {
+        this(name, staleWindowMs, maxEntries, meterRegistry, System::nanoTime);
+    }
+
+    SingleFlight(String name, long staleWindowMs, int maxEntries, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.staleWindowNanos = staleWindowMs * 1_000_000;
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        this.executed = counter(meterRegistry, name, "executed");
+        this.coalesced = counter(meterRegistry, name, "coalesced");
+        this.stale = counter(meterRegistry, name, "stale");
+        Gauge.builder("tms.singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .tag("name", name)
+                .description("Share of requests answered without running the loader")
+                .register(meterRegistry);
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = inFlight.get(key);
+        if (flight != null) {
+            return joinOrServeStale(key, flight);
+        }
+
+        CompletableFuture<V> own = new CompletableFuture<>();
+        flight = inFlight.putIfAbsent(key, own);
+        if (flight != null) {
+            return joinOrServeStale(key, flight);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            // Not kept when invalidated meanwhile: it may predate the write
+            if (inFlight.remove(key, own)) {
+                remember(key, value);
+            }
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the kept result and detaches any running computation, so the next
+     * caller reads fresh state; call after a committed write
+     */
+    public void invalidate(K key) {
+        recent.remove(key);
+        inFlight.remove(key);
+    }
+
+    double coalescingRatio() {
+        double shared = coalesced.count() + stale.count();
+        double total = shared + executed.count();
+        return total == 0 ? 0 : shared / total;
+    }
+
+    private V joinOrServeStale(K key, CompletableFuture<V> flight) {
+        Entry<V> entry = recent.get(key);
+        if (entry != null && nanoClock.getAsLong() - entry.storedAt() <= staleWindowNanos) {
+            stale.increment();
+            return entry.value();
+        }
+        coalesced.increment();
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Rethrow the loader's own exception (e.g. ResourceNotFoundException) to every waiter
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void remember(K key, V value) {
+        long now = nanoClock.getAsLong();
+        if (recent.size() >= maxEntries) {
+            recent.values().removeIf(entry -> now - entry.storedAt() > staleWindowNanos);
+            if (recent.size() >= maxEntries) {
+                return;
+            }
+        }
+        recent.put(key, new Entry<>(value, now));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("tms.singleflight.requests")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Entry<V>(V value, long storedAt) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.kshitij.tms.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache with TinyLFU admission
+ *
+ * Every lookup, hit or miss, is counted in the tracker. When the cache is
+ * full a missed key is only admitted if it has been accessed more often
+ * than the entry it would evict, so a scan or a crawler walking IDs once
+ * passes through without displacing the hot entries. Entries also expire
+ * after a TTL, which bounds staleness for writes made by other instances.
+ * The map is guarded by a ReentrantLock rather than a monitor, so virtual
+ * threads queued on a hot cache don't pin their carriers.
+ *
+ * Metrics: tms.cache.requests{name,result=hit|miss},
+ * tms.cache.admissions{name,outcome=admitted|rejected} and tms.cache.size{name}.
+ */
+public class TinyLfuCache<K, V> {
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final HotKeyTracker<K> tracker;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter admitted;
+    private final Counter rejected;
+    private volatile long invalidations;
+
+    public TinyLfuCache(String name, int maximumSize, long ttlMs, HotKeyTracker<K> tracker, MeterRegistry meterRegistry) {
+        this(name, maximumSize, ttlMs, tracker, meterRegistry, System::nanoTime);
+    }
+
+    TinyLfuCache(String name, int maximumSize, long ttlMs, HotKeyTracker<K> tracker, MeterRegistry meterRegistry,
+                 LongSupplier nanoClock) {
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.tracker = tracker;
+        this.nanoClock = nanoClock;
+        this.hits = Counter.builder("tms.cache.requests").tag("name", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("tms.cache.requests").tag("name", name).tag("result", "miss").register(meterRegistry);
+        this.admitted = Counter.builder("tms.cache.admissions").tag("name", name).tag("outcome", "admitted")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("tms.cache.admissions").tag("name", name).tag("outcome", "rejected")
+                .description("Misses not cached because they were colder than the entry they would evict")
+                .register(meterRegistry);
+        Gauge.builder("tms.cache.size", this, TinyLfuCache::size).tag("name", name).register(meterRegistry);
+    }
+
+    /**
+     * Cached value, or the loader's result offered for admission; the loader
+     * runs outside the lock, so a slow query doesn't block other keys
+     */
+    public V get(K key, Supplier<V> loader) {
+        tracker.record(key);
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long invalidationsBeforeLoad = invalidations;
+        V value = loader.get();
+        offer(key, value, invalidationsBeforeLoad);
+        return value;
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            return entry != null && !expired(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private V getIfPresent(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (expired(entry)) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void offer(K key, V value, long invalidationsBeforeLoad) {
+        lock.lock();
+        try {
+            // A write committed while loading: the value may predate it
+            if (invalidations != invalidationsBeforeLoad) {
+                return;
+            }
+            if (entries.size() >= maximumSize && !entries.containsKey(key)) {
+                Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+                Map.Entry<K, Entry<V>> victim = eldest.next();
+                if (!expired(victim.getValue()) && tracker.frequency(key) <= tracker.frequency(victim.getKey())) {
+                    rejected.increment();
+                    return;
+                }
+                eldest.remove();
+            }
+            entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+            admitted.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean expired(Entry<V> entry) {
+        return nanoClock.getAsLong() - entry.storedAt() > ttlNanos;
+    }
+
+    private record Entry<V>(V value, long storedAt) {
+    }
+}
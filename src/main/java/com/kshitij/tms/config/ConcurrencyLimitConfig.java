@@ -0,0 +1,38 @@
+package com.kshitij.tms.config;
+
+import com.kshitij.tms.ratelimit.AdaptiveConcurrencyLimiter;
+import com.kshitij.tms.ratelimit.ConcurrencyLimitInterceptor;
+import com.kshitij.tms.ratelimit.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Adaptive concurrency limiting for the load, bid, booking and transporter APIs
+ * (tms.concurrency-limit.*)
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimitConfig(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(
+                new AdaptiveConcurrencyLimiter("reads", properties.getReads(), meterRegistry),
+                new AdaptiveConcurrencyLimiter("writes", properties.getWrites(), meterRegistry),
+                properties.getRetryAfterSeconds()));
+    }
+}
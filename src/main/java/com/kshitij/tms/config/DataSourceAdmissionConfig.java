@@ -0,0 +1,69 @@
+package com.kshitij.tms.config;
+
+import com.kshitij.tms.datasource.AdmissionControlledDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Semaphore admission guard on every Hikari pool (tms.datasource.admission.*),
+ * on by default in the virtual-threads profile
+ *
+ * Metrics: tms.datasource.admission.waiting{pool},
+ * tms.datasource.admission.available{pool} and tms.datasource.admission.rejected{pool}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tms.datasource.admission", name = "enabled", havingValue = "true")
+public class DataSourceAdmissionConfig {
+
+    // Hikari's default, applied when the pool starts; unset before that
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static BeanPostProcessor dataSourceAdmissionGuard(
+            @Value("${tms.datasource.admission.timeout-ms:1000}") long timeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    String name = pool.getPoolName() != null ? pool.getPoolName() : beanName;
+                    int connections = pool.getMaximumPoolSize() > 0
+                            ? pool.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+                    return new AdmissionControlledDataSource(name, pool, connections, timeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceAdmissionMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                .filter(AdmissionControlledDataSource.class::isInstance)
+                .map(AdmissionControlledDataSource.class::cast)
+                .forEach(guard -> {
+                    Gauge.builder("tms.datasource.admission.waiting", guard, AdmissionControlledDataSource::getWaiting)
+                            .tag("pool", guard.getName())
+                            .description("Requests queued for a connection permit")
+                            .register(registry);
+                    Gauge.builder("tms.datasource.admission.available", guard,
+                                    AdmissionControlledDataSource::getAvailablePermits)
+                            .tag("pool", guard.getName())
+                            .register(registry);
+                    FunctionCounter.builder("tms.datasource.admission.rejected", guard,
+                                    AdmissionControlledDataSource::getRejected)
+                            .tag("pool", guard.getName())
+                            .description("Requests that gave up waiting for a connection permit")
+                            .register(registry);
+                });
+    }
+}
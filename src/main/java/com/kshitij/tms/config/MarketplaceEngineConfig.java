@@ -0,0 +1,13 @@
+package com.kshitij.tms.config;
+
+import com.kshitij.tms.engine.EngineProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in in-memory marketplace engine (tms.engine.*)
+ */
+@Configuration
+@EnableConfigurationProperties(EngineProperties.class)
+public class MarketplaceEngineConfig {
+}
@@ -0,0 +1,93 @@
+package com.kshitij.tms.config;
+
+import com.kshitij.tms.datasource.ReadWriteRoutingDataSource;
+import com.kshitij.tms.datasource.ReadYourWritesFilter;
+import com.kshitij.tms.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write split across the primary and a read replica
+ *
+ * Active only when tms.datasource.replica.url is set; otherwise Spring Boot's
+ * single auto-configured DataSource is used unchanged.
+ *
+ * - spring.datasource.* (and spring.datasource.hikari.*) configure the primary
+ * - tms.datasource.replica.* (and tms.datasource.replica.hikari.*) configure the replica
+ * - @Transactional(readOnly = true) service methods read from the replica
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tms.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("tms.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("tms.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${tms.datasource.replica.lag-query:}") String lagQuery,
+            @Value("${tms.datasource.replica.max-lag-ms:2000}") long maxLagMillis) {
+        return new ReplicaLagMonitor(replica,
+                lagQuery.isBlank() ? ReplicaLagMonitor.POSTGRES_LAG_QUERY : lagQuery, maxLagMillis);
+    }
+
+    /**
+     * The DataSource everything else (JPA, Flyway, JdbcTemplate) uses.
+     * Lazy so the routing decision is made when the first statement runs,
+     * after the transaction's read-only flag is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor));
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${tms.datasource.read-your-writes-window-ms:5000}") long windowMillis,
+            @Value("${tms.datasource.read-your-writes-max-clients:100000}") int maxClients) {
+        return new ReadYourWritesFilter(windowMillis, maxClients);
+    }
+}
@@ -0,0 +1,12 @@
+package com.kshitij.tms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (replica lag checks, cleanup tasks)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,29 @@
+package com.kshitij.tms.controller;
+
+import com.kshitij.tms.cache.EntityCache;
+import com.kshitij.tms.dto.HotKeyResponse;
+import com.kshitij.tms.entity.ChangeEntityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final EntityCache entityCache;
+
+    /**
+     * Most accessed load, bid or transporter IDs right now, hottest first
+     */
+    @GetMapping("/hot-keys")
+    public ResponseEntity<List<HotKeyResponse>> getHotKeys(
+            @RequestParam(defaultValue = "LOAD") ChangeEntityType type,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(entityCache.hotKeys(type, limit));
+    }
+}
@@ -1,15 +1,24 @@
 package com.kshitij.tms.controller;
 
+import com.kshitij.tms.dto.BidIngestionStatus;
 import com.kshitij.tms.dto.BidRequest;
-import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.dto.BidRevisionRequest;
+import com.kshitij.tms.dto.BidRevisionResponse;
+import com.kshitij.tms.engine.MarketplaceEngine;
+import com.kshitij.tms.ratelimit.RateLimiter;
+import com.kshitij.tms.service.BidIngestionService;
 import com.kshitij.tms.service.BidService;
+import com.kshitij.tms.service.IdempotencyService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import com.kshitij.tms.entity.BidStatus;
 
@@ -20,29 +29,87 @@ import com.kshitij.tms.entity.BidStatus;
 public class BidController {
 
     private final BidService bidService;
+    private final IdempotencyService idempotencyService;
+    private final RateLimiter rateLimiter;
+    private final Optional<BidIngestionService> bidIngestionService;
+    private final Optional<MarketplaceEngine> marketplaceEngine;
 
+    /**
+     * Rate limited per transporter before any database work
+     * Retries carrying the same Idempotency-Key return the original bid instead of creating another
+     * With async ingestion enabled the bid is queued and 202 Accepted returned before it is stored
+     * With the marketplace engine enabled the bid is decided in memory and stored by its projection
+     */
     @PostMapping
-    public ResponseEntity<Bid> submitBid(@Valid @RequestBody BidRequest request) {
-        return ResponseEntity.ok(bidService.submitBid(request));
+    public ResponseEntity<BidResponse> submitBid(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BidRequest request
+    ) {
+        rateLimiter.acquire(RateLimiter.BIDS, request.getTransporterId().toString());
+        if (marketplaceEngine.isPresent()) {
+            return idempotencyService.execute("bid", idempotencyKey, request, BidResponse.class,
+                    () -> BidResponse.from(marketplaceEngine.get().submitBid(request))).toResponseEntity();
+        }
+        if (bidIngestionService.isPresent()) {
+            return idempotencyService.execute("bid", idempotencyKey, request, BidResponse.class,
+                    () -> bidIngestionService.get().submit(request)).toResponseEntity(HttpStatus.ACCEPTED);
+        }
+        return idempotencyService.execute("bid", idempotencyKey, request, BidResponse.class,
+                () -> BidResponse.from(bidService.submitBid(request))).toResponseEntity();
+    }
+
+    /**
+     * Progress of a bid accepted by async ingestion: QUEUED, PERSISTED, REVISED or REJECTED
+     */
+    @GetMapping("/ingestion/{bidId}")
+    public ResponseEntity<BidIngestionStatus> getIngestionStatus(@PathVariable UUID bidId) {
+        return ResponseEntity.ok(bidIngestionService
+                .map(service -> service.getStatus(bidId))
+                .orElseGet(() -> BidIngestionStatus.persisted(bidId, bidService.getBidById(bidId).getBidId())));
     }
 
     @GetMapping("/{bidId}")
-    public ResponseEntity<Bid> getBidById(@PathVariable UUID bidId) {
-        return ResponseEntity.ok(bidService.getBidById(bidId));
+    public ResponseEntity<BidResponse> getBidById(@PathVariable UUID bidId) {
+        return ResponseEntity.ok(BidResponse.from(bidService.getBidById(bidId)));
     }
 
+    /**
+     * Bid listing; ?fields=bidId,proposedRate,... returns only those fields
+     */
     @GetMapping
-    public ResponseEntity<List<Bid>> filterBids(
+    public ResponseEntity<List<?>> filterBids(
             @RequestParam(required = false) UUID loadId,
             @RequestParam(required = false) UUID transporterId,
-            @RequestParam(required = false) BidStatus status
+            @RequestParam(required = false) BidStatus status,
+            @RequestParam(required = false) List<String> fields
     ) {
+        if (fields != null) {
+            return ResponseEntity.ok(bidService.filterBidFields(loadId, transporterId, status, fields));
+        }
         return ResponseEntity.ok(bidService.filterBids(loadId, transporterId, status));
     }
 
+    /**
+     * Revise rate/trucks of a pending bid in place; previous terms go to its revision history
+     */
+    @PatchMapping("/{bidId}")
+    public ResponseEntity<BidResponse> reviseBid(
+            @PathVariable UUID bidId,
+            @Valid @RequestBody BidRevisionRequest request
+    ) {
+        return ResponseEntity.ok(BidResponse.from(bidService.reviseBid(bidId, request)));
+    }
+
+    @GetMapping("/{bidId}/revisions")
+    public ResponseEntity<List<BidRevisionResponse>> getBidRevisions(@PathVariable UUID bidId) {
+        return ResponseEntity.ok(bidService.getBidRevisions(bidId).stream()
+                .map(BidRevisionResponse::from)
+                .toList());
+    }
+
     @PatchMapping("/{bidId}/reject")
-    public ResponseEntity<Bid> rejectBid(@PathVariable UUID bidId) {
-        return ResponseEntity.ok(bidService.rejectBid(bidId));
+    public ResponseEntity<BidResponse> rejectBid(@PathVariable UUID bidId) {
+        return ResponseEntity.ok(BidResponse.from(bidService.rejectBid(bidId)));
     }
 
 
@@ -1,12 +1,20 @@
 package com.kshitij.tms.controller;
 
+import com.kshitij.tms.cache.ReadCoalescer;
+import com.kshitij.tms.dto.BatchBookingRequest;
+import com.kshitij.tms.dto.BatchBookingResponse;
 import com.kshitij.tms.dto.BookingRequest;
-import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.dto.BookingResponse;
+import com.kshitij.tms.engine.MarketplaceEngine;
 import com.kshitij.tms.service.BookingService;
+import com.kshitij.tms.service.IdempotencyService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -15,25 +23,54 @@ import java.util.UUID;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
+    private final ReadCoalescer readCoalescer;
+    private final Optional<MarketplaceEngine> marketplaceEngine;
 
     // CREATE BOOKING - Accept Bid
+    // Retries carrying the same Idempotency-Key return the original booking
+    // With the marketplace engine enabled the booking is decided in memory and stored by its projection
     @PostMapping
-    public ResponseEntity<Booking> createBooking(
+    public ResponseEntity<BookingResponse> createBooking(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestParam UUID bidId,
             @RequestBody BookingRequest request
     ) {
-        return ResponseEntity.ok(bookingService.createBooking(bidId, request));
+        return idempotencyService.execute("booking", idempotencyKey, List.of(bidId, request), BookingResponse.class,
+                () -> BookingResponse.from(marketplaceEngine
+                        .map(engine -> engine.createBooking(bidId, request))
+                        .orElseGet(() -> bookingService.createBooking(bidId, request)))).toResponseEntity();
     }
 
-    // GET BOOKING DETAILS
+    // CREATE BOOKINGS - accept several bids of one load in one transaction
+    // Bypasses the marketplace engine like cancellation; retries with the same Idempotency-Key return the original bookings
+    @PostMapping("/batch")
+    public ResponseEntity<BatchBookingResponse> createBookings(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BatchBookingRequest request
+    ) {
+        return idempotencyService.execute("booking-batch", idempotencyKey, request, BatchBookingResponse.class,
+                () -> new BatchBookingResponse(request.getLoadId(), bookingService.createBookings(request).stream()
+                        .map(BookingResponse::from)
+                        .toList())).toResponseEntity();
+    }
+
+    // GET BOOKING DETAILS - concurrent requests for the same booking share one lookup
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Booking> getBookingById(@PathVariable UUID bookingId) {
-        return ResponseEntity.ok(bookingService.getBookingById(bookingId));
+    public ResponseEntity<BookingResponse> getBookingById(@PathVariable UUID bookingId) {
+        return ResponseEntity.ok(readCoalescer.booking(bookingId,
+                () -> BookingResponse.from(bookingService.getBookingById(bookingId))));
     }
 
     // CANCEL BOOKING
     @PatchMapping("/{bookingId}/cancel")
-    public ResponseEntity<Booking> cancelBooking(@PathVariable UUID bookingId) {
-        return ResponseEntity.ok(bookingService.cancelBooking(bookingId));
+    public ResponseEntity<BookingResponse> cancelBooking(@PathVariable UUID bookingId) {
+        return ResponseEntity.ok(BookingResponse.from(bookingService.cancelBooking(bookingId)));
+    }
+
+    // COMPLETE BOOKING - releases the trucks before the reservation window ends
+    @PatchMapping("/{bookingId}/complete")
+    public ResponseEntity<BookingResponse> completeBooking(@PathVariable UUID bookingId) {
+        return ResponseEntity.ok(BookingResponse.from(bookingService.completeBooking(bookingId)));
     }
 }
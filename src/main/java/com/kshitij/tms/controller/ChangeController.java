@@ -0,0 +1,26 @@
+package com.kshitij.tms.controller;
+
+import com.kshitij.tms.dto.ChangeFeedResponse;
+import com.kshitij.tms.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+
+    private final ChangeFeedService changeFeedService;
+
+    /**
+     * Changes after the cursor, oldest first; repeat with nextCursor while hasMore
+     */
+    @GetMapping
+    public ResponseEntity<ChangeFeedResponse> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return ResponseEntity.ok(changeFeedService.getChanges(since, limit));
+    }
+}
@@ -2,19 +2,29 @@ package com.kshitij.tms.controller;
 
 import org.springframework.data.domain.Page;
 
+import com.kshitij.tms.cache.ReadCoalescer;
+import com.kshitij.tms.dto.AllocationResponse;
 import com.kshitij.tms.dto.LoadRequest;
 import com.kshitij.tms.dto.LoadUpdateRequest;
 import com.kshitij.tms.dto.BestBidResponse;
-import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.engine.MarketplaceEngine;
 import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.event.LoadEventBroadcaster;
+import com.kshitij.tms.ratelimit.RateLimiter;
+import com.kshitij.tms.service.AllocationObjective;
+import com.kshitij.tms.service.AllocationService;
 import com.kshitij.tms.service.LoadService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -23,35 +33,93 @@ import java.util.UUID;
 public class LoadController {
 
     private final LoadService loadService;
+    private final AllocationService allocationService;
+    private final RateLimiter rateLimiter;
+    private final LoadEventBroadcaster loadEventBroadcaster;
+    private final ReadCoalescer readCoalescer;
+    private final Optional<MarketplaceEngine> marketplaceEngine;
 
+    // Rate limited per shipper before any database work
     @PostMapping
-    public ResponseEntity<Load> createLoad(@Valid @RequestBody LoadRequest request) {
-        return ResponseEntity.ok(loadService.createLoad(request));
+    public ResponseEntity<LoadResponse> createLoad(@Valid @RequestBody LoadRequest request) {
+        rateLimiter.acquire(RateLimiter.LOADS, request.getShipperId());
+        return ResponseEntity.ok(LoadResponse.from(loadService.createLoad(request)));
     }
 
+    /**
+     * Paged load listing; ?fields=loadId,status,... returns only those fields
+     */
     @GetMapping
-    public Page<Load> filterLoads(
+    public Page<?> filterLoads(
             @RequestParam(required = false) String shipperId,
             @RequestParam(required = false) LoadStatus status,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) List<String> fields
     ) {
+        if (fields != null) {
+            return loadService.filterLoadFields(shipperId, status, page, size, fields);
+        }
         return loadService.filterLoads(shipperId, status, page, size);
     }
 
+    /**
+     * Live bid-added, bid-rejected, booking-created and status-changed events for all of a shipper's loads
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamShipperEvents(@RequestParam String shipperId) {
+        return loadEventBroadcaster.subscribeToShipper(shipperId);
+    }
+
+    /**
+     * Live events for one load; replaces polling the load and its best bids
+     */
+    @GetMapping(value = "/{loadId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLoadEvents(@PathVariable UUID loadId) {
+        loadService.getLoadResponse(loadId);
+        return loadEventBroadcaster.subscribeToLoad(loadId);
+    }
+
+    // Concurrent requests for the same load share one lookup
     @GetMapping("/{id}")
-    public ResponseEntity<Load> getLoadById(@PathVariable UUID id) {
-        return ResponseEntity.ok(loadService.getLoadById(id));
+    public ResponseEntity<LoadResponse> getLoadById(@PathVariable UUID id) {
+        return ResponseEntity.ok(readCoalescer.load(id, () -> loadService.getLoadResponse(id)));
     }
 
     @PatchMapping("/{loadId}/cancel")
-    public ResponseEntity<Load> cancelLoad(@PathVariable UUID loadId) {
-        return ResponseEntity.ok(loadService.cancelLoad(loadId));
+    public ResponseEntity<LoadResponse> cancelLoad(@PathVariable UUID loadId) {
+        return ResponseEntity.ok(LoadResponse.from(loadService.cancelLoad(loadId)));
     }
 
+    // With the marketplace engine enabled, scored from its open bids rather than the database
     @GetMapping("/{loadId}/best-bids")
     public ResponseEntity<List<BestBidResponse>> getBestBids(@PathVariable UUID loadId) {
-        return ResponseEntity.ok(loadService.getBestBids(loadId));
+        return ResponseEntity.ok(readCoalescer.bestBids(loadId, () -> marketplaceEngine
+                .map(engine -> engine.bestBids(loadId))
+                .orElseGet(() -> loadService.getBestBids(loadId))));
+    }
+
+    /**
+     * Preview how the load's remaining trucks would be split across its pending bids
+     * (objective=COST|SCORE; wholeBids=true gives each bid all its offered trucks or none)
+     */
+    @GetMapping("/{loadId}/allocation")
+    public ResponseEntity<AllocationResponse> planAllocation(
+            @PathVariable UUID loadId,
+            @RequestParam(defaultValue = "COST") AllocationObjective objective,
+            @RequestParam(defaultValue = "false") boolean wholeBids
+    ) {
+        return ResponseEntity.ok(allocationService.planAllocation(loadId, objective, wholeBids));
+    }
+
+    // Books every award of the allocation in one transaction; bypasses the marketplace engine like cancellation
+    @PostMapping("/{loadId}/allocation")
+    public ResponseEntity<AllocationResponse> allocate(
+            @PathVariable UUID loadId,
+            @RequestParam(defaultValue = "COST") AllocationObjective objective,
+            @RequestParam(defaultValue = "false") boolean wholeBids
+    ) {
+        return ResponseEntity.ok(allocationService.allocate(loadId, objective, wholeBids));
     }
 
 
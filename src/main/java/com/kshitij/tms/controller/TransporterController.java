@@ -1,9 +1,11 @@
 package com.kshitij.tms.controller;
 
+import com.kshitij.tms.dto.LoadResponse;
 import com.kshitij.tms.dto.TransporterRequest;
-import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.dto.TransporterResponse;
 import com.kshitij.tms.service.TransporterService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -23,23 +25,35 @@ public class TransporterController {
     private final TransporterService transporterService;
 
     @PostMapping
-    public ResponseEntity<Transporter> createTransporter(
+    public ResponseEntity<TransporterResponse> createTransporter(
             @Valid @RequestBody TransporterRequest request
     ) {
-        return ResponseEntity.ok(transporterService.createTransporter(request));
+        return ResponseEntity.ok(TransporterResponse.from(transporterService.createTransporter(request)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Transporter> getTransporterById(@PathVariable UUID id) {
-        return ResponseEntity.ok(transporterService.getTransporterById(id));
+    public ResponseEntity<TransporterResponse> getTransporterById(@PathVariable UUID id) {
+        return ResponseEntity.ok(transporterService.getTransporterResponse(id));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Transporter> updateTransporter(
+    public ResponseEntity<TransporterResponse> updateTransporter(
             @PathVariable UUID id,
             @Valid @RequestBody TransporterUpdateRequest request
     ) {
-        return ResponseEntity.ok(transporterService.updateTransporter(id, request));
+        return ResponseEntity.ok(TransporterResponse.from(transporterService.updateTransporter(id, request)));
+    }
+
+    /**
+     * Open loads this transporter could bid on with the trucks it has, newest first
+     */
+    @GetMapping("/{id}/matching-loads")
+    public Page<LoadResponse> getMatchingLoads(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return transporterService.findMatchingLoads(id, page, size);
     }
 
 
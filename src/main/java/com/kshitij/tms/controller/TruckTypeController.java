@@ -0,0 +1,55 @@
+package com.kshitij.tms.controller;
+
+import com.kshitij.tms.dto.TruckCompatibilityRequest;
+import com.kshitij.tms.dto.TruckTypeRequest;
+import com.kshitij.tms.dto.TruckTypeResponse;
+import com.kshitij.tms.service.TruckTypeService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/truck-types")
+@RequiredArgsConstructor
+public class TruckTypeController {
+
+    private final TruckTypeService truckTypeService;
+
+    @GetMapping
+    public ResponseEntity<List<TruckTypeResponse>> getAllTruckTypes() {
+        return ResponseEntity.ok(truckTypeService.getAllTruckTypes().stream()
+                .map(TruckTypeResponse::from)
+                .toList());
+    }
+
+    @PostMapping
+    public ResponseEntity<TruckTypeResponse> createTruckType(@Valid @RequestBody TruckTypeRequest request) {
+        return ResponseEntity.ok(TruckTypeResponse.from(truckTypeService.createTruckType(request)));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<TruckTypeResponse> renameTruckType(
+            @PathVariable Short id,
+            @Valid @RequestBody TruckTypeRequest request
+    ) {
+        return ResponseEntity.ok(TruckTypeResponse.from(truckTypeService.renameTruckType(id, request)));
+    }
+
+    // Applied on this instance after commit; others pick it up on their next refresh
+    @PutMapping("/{id}/carries")
+    public ResponseEntity<TruckTypeResponse> setCarries(
+            @PathVariable Short id,
+            @Valid @RequestBody TruckCompatibilityRequest request
+    ) {
+        return ResponseEntity.ok(TruckTypeResponse.from(truckTypeService.setCarries(id, request)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteTruckType(@PathVariable Short id) {
+        truckTypeService.deleteTruckType(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.kshitij.tms.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission guard in front of a connection pool
+ *
+ * With a thread per request the Tomcat pool bounds how many requests can
+ * wait for a connection; with virtual threads nothing does, and thousands
+ * of requests would queue inside the pool until its 30 s connection
+ * timeout. This guard holds one permit per pooled connection and lets
+ * callers wait for one in a fair FIFO queue for a short timeout only, after
+ * which they fail fast with SQLTransientConnectionException (a 5xx that
+ * also shrinks the adaptive concurrency limit). The permit is returned when
+ * the connection is closed.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final String name;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final LongAdder rejected = new LongAdder();
+
+    public AdmissionControlledDataSource(String name, DataSource target, int maxConnections, long timeoutMillis) {
+        super(target);
+        this.name = name;
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return admitted(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return admitted(() -> super.getConnection(username, password));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new SQLTransientConnectionException(
+                        "No " + name + " connection available within " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a " + name + " connection", e);
+        }
+    }
+
+    private Connection admitted(ConnectionSource source) throws SQLException {
+        Connection connection;
+        try {
+            connection = source.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> invoke(connection, released, method, args));
+    }
+
+    private Object invoke(Connection connection, AtomicBoolean released, Method method, Object[] args)
+            throws Throwable {
+        boolean closing = "close".equals(method.getName()) || "abort".equals(method.getName());
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        } finally {
+            if (closing && released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+}
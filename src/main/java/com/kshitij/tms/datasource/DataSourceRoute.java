@@ -0,0 +1,9 @@
+package com.kshitij.tms.datasource;
+
+/**
+ * Target of a routed connection: the writable primary or a read replica
+ */
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
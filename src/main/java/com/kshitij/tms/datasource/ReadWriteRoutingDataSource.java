@@ -0,0 +1,45 @@
+package com.kshitij.tms.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes @Transactional(readOnly = true) work to the read replica and
+ * everything else to the primary
+ *
+ * Falls back to the primary when the replica is lagging or unreachable,
+ * and while the current request is pinned for read-your-writes.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy: the transaction's
+ * read-only flag is only published after the transaction manager asks for
+ * a connection, so the routing decision has to wait for the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+
+    public DataSourceRoute currentRoute() {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (!readOnly || RoutingContext.isPinnedToPrimary() || !lagMonitor.isReplicaUsable()) {
+            return DataSourceRoute.PRIMARY;
+        }
+        return DataSourceRoute.REPLICA;
+    }
+}
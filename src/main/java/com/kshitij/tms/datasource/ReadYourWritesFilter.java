@@ -0,0 +1,74 @@
+package com.kshitij.tms.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes stickiness for replica routing
+ *
+ * After a client performs a successful write, its reads go to the primary
+ * for a short window so it never observes a replica that hasn't replayed
+ * that write yet. Clients are identified by the X-Client-Id header, falling
+ * back to the remote address.
+ *
+ * The map only holds clients that wrote within the window; expired entries
+ * are purged whenever it grows past maxClients.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final int maxClients;
+
+    public ReadYourWritesFilter(long windowMillis, int maxClients) {
+        this.windowMillis = windowMillis;
+        this.maxClients = maxClients;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String clientKey = clientKey(request);
+        long now = System.currentTimeMillis();
+
+        Long lastWrite = lastWriteAt.get(clientKey);
+        if (lastWrite != null && now - lastWrite < windowMillis) {
+            RoutingContext.pinToPrimary();
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoutingContext.clear();
+        }
+
+        if (WRITE_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+            recordWrite(clientKey, System.currentTimeMillis());
+        }
+    }
+
+    private void recordWrite(String clientKey, long now) {
+        lastWriteAt.put(clientKey, now);
+        if (lastWriteAt.size() > maxClients) {
+            lastWriteAt.values().removeIf(writtenAt -> now - writtenAt >= windowMillis);
+        }
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,70 @@
+package com.kshitij.tms.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Periodically measures replication lag on the replica
+ *
+ * The replica is taken out of rotation when the lag exceeds the configured
+ * maximum or the check fails, and put back once it catches up. Until the
+ * first successful check the replica is considered unusable.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    /**
+     * Lag in seconds on a PostgreSQL standby; 0 when everything received has
+     * been replayed (an idle primary would otherwise look like it is lagging)
+     */
+    public static final String POSTGRES_LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+                    + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMillis;
+
+    private volatile boolean replicaUsable;
+    private volatile long lastLagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMillis) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${tms.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        boolean wasUsable = replicaUsable;
+        try {
+            Number lagSeconds = replicaJdbcTemplate.queryForObject(lagQuery, Number.class);
+            lastLagMillis = lagSeconds == null ? 0 : Math.round(lagSeconds.doubleValue() * 1000);
+            replicaUsable = lastLagMillis <= maxLagMillis;
+        } catch (RuntimeException e) {
+            lastLagMillis = -1;
+            replicaUsable = false;
+            if (wasUsable) {
+                log.warn("Replica lag check failed, routing reads to primary: {}", e.getMessage());
+            }
+            return;
+        }
+
+        if (wasUsable != replicaUsable) {
+            log.info("Replica {} (lag {} ms, max {} ms)",
+                    replicaUsable ? "back in rotation" : "lagging, routing reads to primary",
+                    lastLagMillis, maxLagMillis);
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+}
@@ -0,0 +1,28 @@
+package com.kshitij.tms.datasource;
+
+/**
+ * Per-thread routing override used for read-your-writes stickiness
+ *
+ * While pinned, read-only transactions on the current thread go to the
+ * primary, so a client that has just written sees its own change even if
+ * the replica hasn't replayed it yet.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    public static void clear() {
+        PINNED_TO_PRIMARY.remove();
+    }
+}
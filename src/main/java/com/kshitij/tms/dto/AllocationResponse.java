@@ -0,0 +1,38 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.service.AllocationObjective;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a load's truck allocation across its pending bids
+ *
+ * @param remainingTrucks trucks the load still needed
+ * @param totalCost       sum of proposed rate times trucks over the awards
+ * @param booked          true when the awards were booked, false for a preview
+ */
+public record AllocationResponse(
+        UUID loadId,
+        AllocationObjective objective,
+        boolean wholeBids,
+        int remainingTrucks,
+        int allocatedTrucks,
+        double totalCost,
+        boolean booked,
+        List<Award> awards
+) {
+
+    /**
+     * @param bookingId the booking created for the award; null in a preview
+     */
+    public record Award(
+            UUID bidId,
+            UUID transporterId,
+            int trucks,
+            double proposedRate,
+            double transporterRating,
+            UUID bookingId
+    ) {
+    }
+}
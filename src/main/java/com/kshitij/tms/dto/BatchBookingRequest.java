@@ -0,0 +1,45 @@
+package com.kshitij.tms.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for booking several pending bids of one load in one transaction
+ * Each entry is validated like a single BookingRequest
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingRequest {
+
+    @NotNull(message = "Load ID is required")
+    private UUID loadId;
+
+    @NotEmpty(message = "At least one booking is required")
+    @Size(max = 100, message = "A batch cannot book more than 100 bids")
+    private List<@Valid Item> bookings;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "Bid ID is required")
+        private UUID bidId;
+
+        @Min(value = 1, message = "Allocated trucks must be at least 1")
+        @Max(value = 100, message = "Allocated trucks cannot exceed 100")
+        private int allocatedTrucks;
+
+        @Positive(message = "Final rate must be positive")
+        @DecimalMin(value = "0.01", message = "Final rate must be at least 0.01")
+        @DecimalMax(value = "1000000.0", message = "Final rate cannot exceed 1000000")
+        private double finalRate;
+    }
+}
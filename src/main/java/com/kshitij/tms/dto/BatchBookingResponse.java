@@ -0,0 +1,13 @@
+package com.kshitij.tms.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a batch of bookings on one load, in request order
+ */
+public record BatchBookingResponse(
+        UUID loadId,
+        List<BookingResponse> bookings
+) {
+}
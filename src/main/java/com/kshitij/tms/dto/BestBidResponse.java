@@ -19,4 +19,11 @@ public class BestBidResponse {
     private double proposedRate;
     private double transporterRating;
     private double score;  // Calculated score: (1/rate)*0.7 + (rating/5)*0.3
+
+    /**
+     * Lower rate is better (1/rate), higher rating is better
+     */
+    public static double score(double proposedRate, double transporterRating) {
+        return (1.0 / proposedRate) * 0.7 + (transporterRating / 5.0) * 0.3;
+    }
 }
\ No newline at end of file
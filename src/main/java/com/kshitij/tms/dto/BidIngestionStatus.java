@@ -0,0 +1,40 @@
+package com.kshitij.tms.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for the progress of an asynchronously submitted bid
+ *
+ * @param bidId          the ID returned when the bid was accepted
+ * @param persistedBidId the bid that holds these terms once written; differs from bidId
+ *                       when the submission revised the transporter's existing pending bid
+ */
+public record BidIngestionStatus(
+        UUID bidId,
+        State state,
+        UUID persistedBidId,
+        String message,
+        LocalDateTime updatedAt
+) {
+
+    public enum State {
+        QUEUED,
+        PERSISTED,
+        REVISED,
+        REJECTED
+    }
+
+    public static BidIngestionStatus queued(UUID bidId) {
+        return new BidIngestionStatus(bidId, State.QUEUED, null, null, LocalDateTime.now());
+    }
+
+    public static BidIngestionStatus persisted(UUID bidId, UUID persistedBidId) {
+        State state = bidId.equals(persistedBidId) ? State.PERSISTED : State.REVISED;
+        return new BidIngestionStatus(bidId, state, persistedBidId, null, LocalDateTime.now());
+    }
+
+    public static BidIngestionStatus rejected(UUID bidId, String message) {
+        return new BidIngestionStatus(bidId, State.REJECTED, null, message, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,34 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for a bid
+ *
+ * Also used as a Spring Data class-based projection for bid list queries.
+ */
+public record BidResponse(
+        UUID bidId,
+        UUID loadId,
+        UUID transporterId,
+        double proposedRate,
+        int trucksOffered,
+        BidStatus status,
+        LocalDateTime submittedAt
+) {
+
+    public static BidResponse from(Bid bid) {
+        return new BidResponse(
+                bid.getBidId(),
+                bid.getLoadId(),
+                bid.getTransporterId(),
+                bid.getProposedRate(),
+                bid.getTrucksOffered(),
+                bid.getStatus(),
+                bid.getSubmittedAt());
+    }
+}
@@ -0,0 +1,24 @@
+package com.kshitij.tms.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+/**
+ * DTO for revising a pending bid's terms
+ * Same limits as BidRequest
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BidRevisionRequest {
+
+    @Positive(message = "Proposed rate must be positive")
+    @DecimalMin(value = "0.01", message = "Proposed rate must be at least 0.01")
+    @DecimalMax(value = "1000000.0", message = "Proposed rate cannot exceed 1000000")
+    private double proposedRate;
+
+    @Min(value = 1, message = "Trucks offered must be at least 1")
+    @Max(value = 100, message = "Trucks offered cannot exceed 100")
+    private int trucksOffered;
+}
@@ -0,0 +1,24 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.entity.BidRevision;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for one superseded set of bid terms
+ */
+public record BidRevisionResponse(
+        double proposedRate,
+        int trucksOffered,
+        LocalDateTime submittedAt,
+        LocalDateTime revisedAt
+) {
+
+    public static BidRevisionResponse from(BidRevision revision) {
+        return new BidRevisionResponse(
+                revision.getProposedRate(),
+                revision.getTrucksOffered(),
+                revision.getSubmittedAt(),
+                revision.getRevisedAt());
+    }
+}
@@ -0,0 +1,36 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for a booking
+ */
+public record BookingResponse(
+        UUID bookingId,
+        UUID loadId,
+        UUID bidId,
+        UUID transporterId,
+        int allocatedTrucks,
+        double finalRate,
+        String truckType,
+        BookingStatus status,
+        LocalDateTime bookedAt
+) {
+
+    public static BookingResponse from(Booking booking) {
+        return new BookingResponse(
+                booking.getBookingId(),
+                booking.getLoadId(),
+                booking.getBidId(),
+                booking.getTransporterId(),
+                booking.getAllocatedTrucks(),
+                booking.getFinalRate(),
+                booking.getTruckType(),
+                booking.getStatus(),
+                booking.getBookedAt());
+    }
+}
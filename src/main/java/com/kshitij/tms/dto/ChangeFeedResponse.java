@@ -0,0 +1,16 @@
+package com.kshitij.tms.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO for one batch of the change feed
+ *
+ * @param nextCursor pass as ?since= to get the following batch
+ * @param hasMore    true when more changes are available right away
+ */
+public record ChangeFeedResponse(
+        List<ChangeRecordResponse> changes,
+        long nextCursor,
+        boolean hasMore
+) {
+}
@@ -0,0 +1,33 @@
+package com.kshitij.tms.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.kshitij.tms.entity.ChangeEntityType;
+import com.kshitij.tms.entity.ChangeRecord;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for one change in the change feed
+ *
+ * @param payload the entity's state after the change, embedded as stored (already JSON)
+ */
+public record ChangeRecordResponse(
+        long changeId,
+        ChangeEntityType entityType,
+        UUID entityId,
+        String changeType,
+        @JsonRawValue String payload,
+        LocalDateTime occurredAt
+) {
+
+    public static ChangeRecordResponse from(ChangeRecord record) {
+        return new ChangeRecordResponse(
+                record.getChangeId(),
+                record.getEntityType(),
+                record.getEntityId(),
+                record.getChangeType(),
+                record.getPayload(),
+                record.getOccurredAt());
+    }
+}
@@ -0,0 +1,52 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.exception.InvalidFieldSelectionException;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset support for list endpoints (?fields=loadId,status,...)
+ *
+ * The selectable fields of a resource are the components of its response
+ * record, so only attributes the API already exposes can be requested.
+ */
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    /**
+     * Validate requested field names against a response type
+     *
+     * @return the requested fields, de-duplicated, in request order
+     * @throws InvalidFieldSelectionException if a field isn't part of the response
+     */
+    public static List<String> of(List<String> requested, Class<? extends Record> responseType) {
+        Set<String> allowed = Arrays.stream(responseType.getRecordComponents())
+                .map(RecordComponent::getName)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : requested) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new InvalidFieldSelectionException(
+                        String.format("Unknown field '%s'. Selectable fields: %s", name, allowed));
+            }
+            fields.add(name);
+        }
+
+        if (fields.isEmpty()) {
+            throw new InvalidFieldSelectionException("At least one field must be selected. Selectable fields: " + allowed);
+        }
+        return List.copyOf(fields);
+    }
+}
@@ -0,0 +1,14 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.entity.ChangeEntityType;
+
+import java.util.UUID;
+
+/**
+ * A frequently accessed entity ID
+ *
+ * @param estimatedAccesses recent accesses from the frequency sketch; decays over time
+ * @param cached            whether the entity is currently held in the in-process cache
+ */
+public record HotKeyResponse(ChangeEntityType entityType, UUID id, int estimatedAccesses, boolean cached) {
+}
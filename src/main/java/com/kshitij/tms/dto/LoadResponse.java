@@ -0,0 +1,49 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.entity.WeightUnit;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for a load
+ *
+ * Also used as a Spring Data class-based projection: component names match
+ * the Load attributes, so list queries select exactly these columns.
+ * The optimistic-locking version is internal and not exposed.
+ */
+public record LoadResponse(
+        UUID loadId,
+        String shipperId,
+        String loadingCity,
+        String unloadingCity,
+        LocalDateTime loadingDate,
+        String productType,
+        double weight,
+        WeightUnit weightUnit,
+        String truckType,
+        int noOfTrucks,
+        int remainingTrucks,
+        LoadStatus status,
+        LocalDateTime datePosted
+) {
+
+    public static LoadResponse from(Load load) {
+        return new LoadResponse(
+                load.getLoadId(),
+                load.getShipperId(),
+                load.getLoadingCity(),
+                load.getUnloadingCity(),
+                load.getLoadingDate(),
+                load.getProductType(),
+                load.getWeight(),
+                load.getWeightUnit(),
+                load.getTruckType(),
+                load.getNoOfTrucks(),
+                load.getRemainingTrucks(),
+                load.getStatus(),
+                load.getDatePosted());
+    }
+}
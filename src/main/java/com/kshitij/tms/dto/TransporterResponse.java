@@ -0,0 +1,33 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Transporter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a transporter and its truck inventory
+ */
+public record TransporterResponse(
+        UUID transporterId,
+        String companyName,
+        double rating,
+        List<Truck> availableTrucks
+) {
+
+    public record Truck(String truckType, int count) {
+
+        static Truck from(AvailableTruck truck) {
+            return new Truck(truck.getTruckType(), truck.getCount());
+        }
+    }
+
+    public static TransporterResponse from(Transporter transporter) {
+        return new TransporterResponse(
+                transporter.getTransporterId(),
+                transporter.getCompanyName(),
+                transporter.getRating(),
+                transporter.getAvailableTrucks().stream().map(Truck::from).toList());
+    }
+}
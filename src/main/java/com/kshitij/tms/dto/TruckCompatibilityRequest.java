@@ -0,0 +1,21 @@
+package com.kshitij.tms.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * DTO for setting which truck types' loads a truck type can carry
+ * Replaces the type's whole list; an empty list means exact matches only
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckCompatibilityRequest {
+
+    @NotNull(message = "Truck type IDs are required")
+    @Size(max = 100, message = "At most 100 compatible truck types")
+    private List<@NotNull Short> truckTypeIds;
+}
@@ -0,0 +1,18 @@
+package com.kshitij.tms.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+/**
+ * DTO for adding or renaming a truck type in the catalog
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckTypeRequest {
+
+    @NotBlank(message = "Truck type name is required")
+    @Size(min = 2, max = 50, message = "Truck type must be between 2 and 50 characters")
+    private String name;
+}
@@ -0,0 +1,20 @@
+package com.kshitij.tms.dto;
+
+import com.kshitij.tms.entity.TruckType;
+
+import java.util.List;
+
+/**
+ * Response DTO for a truck-type catalog entry
+ *
+ * @param carries codes of the types whose loads this type can take directly;
+ *                chains of these are followed when matching
+ */
+public record TruckTypeResponse(short truckTypeId, String name, List<Short> carries) {
+
+    public static TruckTypeResponse from(TruckType truckType) {
+        List<Short> carries = truckType.getCarries() == null ? List.of()
+                : truckType.getCarries().stream().sorted().toList();
+        return new TruckTypeResponse(truckType.getTruckTypeId(), truckType.getName(), carries);
+    }
+}
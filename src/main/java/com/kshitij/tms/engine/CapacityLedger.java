@@ -0,0 +1,116 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.service.ReservationWindow;
+import com.kshitij.tms.service.TruckSchedule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Truck inventory and reservations of the transporters the engine has seen
+ *
+ * The one piece of state shared across partitions: bids on loads in
+ * different partitions check the same transporter, and their bookings
+ * reserve its trucks. Each transporter is guarded by a lock stripe; a
+ * partition holds it while it checks and reserves capacity and journals
+ * the outcome, so journal order matches the order the schedule changed in.
+ */
+final class CapacityLedger {
+
+    /**
+     * A transporter and the reservations of its trucks
+     */
+    record Held(Transporter transporter, TruckSchedule schedule) {
+    }
+
+    private static final int STRIPES = 64;
+
+    private final Map<UUID, Held> transporters = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    CapacityLedger() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T withLock(UUID transporterId, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(transporterId.hashCode(), STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Transporter get(UUID transporterId) {
+        Held held = transporters.get(transporterId);
+        return held != null ? held.transporter() : null;
+    }
+
+    TruckSchedule schedule(UUID transporterId) {
+        Held held = transporters.get(transporterId);
+        return held != null ? held.schedule() : null;
+    }
+
+    void put(Held held) {
+        transporters.put(held.transporter().getTransporterId(), held);
+    }
+
+    boolean remove(UUID transporterId) {
+        return transporters.remove(transporterId) != null;
+    }
+
+    void clear() {
+        transporters.clear();
+    }
+
+    /**
+     * Replay: reserve trucks already known to have been free
+     *
+     * @return the entry reserved from, or null if the transporter isn't held
+     */
+    AvailableTruck reserve(UUID transporterId, short truckTypeId, ReservationWindow window, int trucks) {
+        Held held = transporters.get(transporterId);
+        if (held == null) {
+            // Evicted after the booking; the next hydration reads the projected booking
+            return null;
+        }
+        held.schedule().reserve(truckTypeId, window, trucks);
+        return held.transporter().getAvailableTrucks().stream()
+                .filter(candidate -> candidate.getTruckTypeId() == truckTypeId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    Collection<Held> transporters() {
+        return transporters.values();
+    }
+
+    int size() {
+        return transporters.size();
+    }
+
+    /**
+     * Detached copy, so persistence collections never end up in engine state
+     */
+    static Transporter copyOf(Transporter transporter) {
+        return Transporter.builder()
+                .transporterId(transporter.getTransporterId())
+                .companyName(transporter.getCompanyName())
+                .rating(transporter.getRating())
+                .availableTrucks(transporter.getAvailableTrucks().stream()
+                        .map(truck -> new AvailableTruck(truck.getTruckTypeId(), truck.getTruckType(), truck.getCount()))
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .build();
+    }
+}
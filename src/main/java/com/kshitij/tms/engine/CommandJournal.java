@@ -0,0 +1,180 @@
+package com.kshitij.tms.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of one engine partition
+ *
+ * Record layout: [int length][int crc32][long sequence][byte type][payload],
+ * where length and the CRC cover sequence, type and payload. The length is
+ * written last, so a record torn by a crash reads as the end of the
+ * segment, and the CRC catches pages that only partly reached the disk.
+ *
+ * Segments are preallocated files named by the first sequence they hold; a
+ * record that does not fit in the current segment starts the next one.
+ * Only the partition's own thread appends.
+ */
+@Slf4j
+class CommandJournal implements Closeable {
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int FIXED_BYTES = Long.BYTES + 1;
+    private static final String SUFFIX = ".journal";
+
+    record Entry(long sequence, byte type, byte[] payload) {
+    }
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean syncWrites;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long bytesWritten;
+
+    CommandJournal(Path dir, int segmentBytes, boolean syncWrites) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.syncWrites = syncWrites;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void append(long sequence, byte type, byte[] payload) {
+        int length = FIXED_BYTES + payload.length;
+        if (HEADER_BYTES + length > segmentBytes) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes exceeds the segment size");
+        }
+        if (buffer == null || buffer.remaining() < HEADER_BYTES + length) {
+            roll(sequence);
+        }
+
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.putLong(sequence).put(type).put(payload);
+
+        crc.reset();
+        crc.update(buffer.slice(start + HEADER_BYTES, length));
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(start, length);
+
+        if (syncWrites) {
+            buffer.force(start, HEADER_BYTES + length);
+        }
+        bytesWritten += HEADER_BYTES + length;
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Drop every segment; called once a snapshot covers all of them
+     */
+    void reset() {
+        close();
+        for (Path segment : segments(dir)) {
+            try {
+                Files.delete(segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private void roll(long firstSequence) {
+        close();
+        Path segment = dir.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        try {
+            channel = FileChannel.open(segment,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Every intact record in the directory, in append order
+     */
+    static List<Entry> read(Path dir) {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments(dir)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                readSegment(segment, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), entries);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return entries;
+    }
+
+    private static void readSegment(Path segment, ByteBuffer buffer, List<Entry> entries) {
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < FIXED_BYTES || length > buffer.remaining()) {
+                return;
+            }
+            crc.reset();
+            crc.update(buffer.slice(start + HEADER_BYTES, length));
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Journal {} has a corrupt record at offset {}; ignoring the rest of the segment",
+                        segment.getFileName(), start);
+                return;
+            }
+            long sequence = buffer.getLong();
+            byte type = buffer.get();
+            byte[] payload = new byte[length - FIXED_BYTES];
+            buffer.get(payload);
+            entries.add(new Entry(sequence, type, payload));
+        }
+    }
+
+    private static List<Path> segments(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.service.ReservationWindow;
+import com.kshitij.tms.service.TruckSchedule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary encoding of journal records and snapshot entries
+ *
+ * Only the fields the engine's rules and projection need are kept: a load
+ * is its ID, shipper, truck type (code and name), loading date, truck
+ * counts and status; a transporter is its ID, company name, rating, truck
+ * inventory and reservations.
+ */
+final class EngineCodec {
+
+    static final byte SUBMIT_BID = 1;
+    static final byte CREATE_BOOKING = 2;
+    static final byte OUTCOME = 3;
+    static final byte LOAD_HYDRATED = 4;
+    static final byte TRANSPORTER_HYDRATED = 5;
+    static final byte LOAD_EVICTED = 6;
+    static final byte TRANSPORTER_EVICTED = 7;
+    static final byte BID_REMOVED = 8;
+
+    /**
+     * Outcome.truckTypeId of anything but an accepted booking
+     */
+    static final short NO_TRUCK_TYPE = -1;
+
+    /**
+     * Result of the command journaled at commandSequence; for an accepted
+     * booking, truckTypeId is the inventory entry the trucks came from and
+     * window the time they are reserved for, so replay doesn't depend on the
+     * compatibility graph or reservation settings of the day
+     */
+    record Outcome(long commandSequence, boolean accepted, short truckTypeId, ReservationWindow window) {
+    }
+
+    private EngineCodec() {
+    }
+
+    @FunctionalInterface
+    interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    static byte[] encode(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static <T> T decode(byte[] payload, Reader<T> reader) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return reader.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeCommand(DataOutputStream out, EngineCommand command) throws IOException {
+        if (command instanceof EngineCommand.SubmitBid bid) {
+            writeUuid(out, bid.bidId());
+            writeUuid(out, bid.loadId());
+            writeUuid(out, bid.transporterId());
+            out.writeDouble(bid.proposedRate());
+            out.writeInt(bid.trucksOffered());
+            writeTime(out, bid.submittedAt());
+        } else if (command instanceof EngineCommand.CreateBooking booking) {
+            writeUuid(out, booking.bookingId());
+            writeUuid(out, booking.bidId());
+            out.writeInt(booking.allocatedTrucks());
+            out.writeDouble(booking.finalRate());
+            writeTime(out, booking.bookedAt());
+        }
+    }
+
+    static EngineCommand readCommand(byte type, DataInputStream in) throws IOException {
+        if (type == SUBMIT_BID) {
+            return new EngineCommand.SubmitBid(readUuid(in), readUuid(in), readUuid(in),
+                    in.readDouble(), in.readInt(), readTime(in));
+        }
+        return new EngineCommand.CreateBooking(readUuid(in), readUuid(in), in.readInt(), in.readDouble(),
+                readTime(in));
+    }
+
+    static void writeOutcome(DataOutputStream out, Outcome outcome) throws IOException {
+        out.writeLong(outcome.commandSequence());
+        out.writeBoolean(outcome.accepted());
+        out.writeShort(outcome.truckTypeId());
+        if (outcome.truckTypeId() != NO_TRUCK_TYPE) {
+            writeWindow(out, outcome.window());
+        }
+    }
+
+    static Outcome readOutcome(DataInputStream in) throws IOException {
+        long commandSequence = in.readLong();
+        boolean accepted = in.readBoolean();
+        short truckTypeId = in.readShort();
+        return new Outcome(commandSequence, accepted, truckTypeId,
+                truckTypeId != NO_TRUCK_TYPE ? readWindow(in) : null);
+    }
+
+    static void writeLoadBook(DataOutputStream out, LoadBook book) throws IOException {
+        Load load = book.load();
+        OpenBidStore bids = book.bids();
+        UUID loadId = load.getLoadId();
+        writeUuid(out, loadId);
+        out.writeUTF(load.getShipperId());
+        out.writeShort(load.getTruckTypeId());
+        out.writeUTF(load.getTruckType());
+        writeTime(out, load.getLoadingDate());
+        out.writeInt(load.getNoOfTrucks());
+        out.writeInt(load.getRemainingTrucks());
+        out.writeUTF(load.getStatus().name());
+        out.writeInt(bids.end(loadId) - bids.start(loadId));
+        for (int row = bids.start(loadId); row < bids.end(loadId); row++) {
+            writeUuid(out, bids.bidId(row));
+            writeUuid(out, bids.transporterId(row));
+            out.writeDouble(bids.proposedRate(row));
+            out.writeInt(bids.trucksOffered(row));
+            writeTime(out, bids.submittedAt(row));
+        }
+    }
+
+    static LoadBook readLoadBook(DataInputStream in) throws IOException {
+        Load load = Load.builder()
+                .loadId(readUuid(in))
+                .shipperId(in.readUTF())
+                .truckTypeId(in.readShort())
+                .truckType(in.readUTF())
+                .loadingDate(readTime(in))
+                .noOfTrucks(in.readInt())
+                .remainingTrucks(in.readInt())
+                .status(LoadStatus.valueOf(in.readUTF()))
+                .build();
+        int count = in.readInt();
+        OpenBidStore bids = new OpenBidStore(count);
+        for (int i = 0; i < count; i++) {
+            bids.add(load.getLoadId(), readUuid(in), readUuid(in), in.readDouble(), in.readInt(), readTime(in));
+        }
+        return new LoadBook(load, bids);
+    }
+
+    static void writeTransporter(DataOutputStream out, CapacityLedger.Held held) throws IOException {
+        Transporter transporter = held.transporter();
+        writeUuid(out, transporter.getTransporterId());
+        out.writeUTF(transporter.getCompanyName());
+        out.writeDouble(transporter.getRating());
+        out.writeInt(transporter.getAvailableTrucks().size());
+        for (AvailableTruck truck : transporter.getAvailableTrucks()) {
+            out.writeShort(truck.getTruckTypeId());
+            out.writeUTF(truck.getTruckType());
+            out.writeInt(truck.getCount());
+        }
+        List<TruckSchedule.Reservation> reservations = held.schedule().reservations();
+        out.writeInt(reservations.size());
+        for (TruckSchedule.Reservation reservation : reservations) {
+            out.writeShort(reservation.truckTypeId());
+            writeWindow(out, reservation.window());
+            out.writeInt(reservation.trucks());
+        }
+    }
+
+    static CapacityLedger.Held readTransporter(DataInputStream in) throws IOException {
+        Transporter transporter = Transporter.builder()
+                .transporterId(readUuid(in))
+                .companyName(in.readUTF())
+                .rating(in.readDouble())
+                .build();
+        int trucks = in.readInt();
+        List<AvailableTruck> availableTrucks = new ArrayList<>(trucks);
+        for (int i = 0; i < trucks; i++) {
+            availableTrucks.add(new AvailableTruck(in.readShort(), in.readUTF(), in.readInt()));
+        }
+        transporter.setAvailableTrucks(availableTrucks);
+        int reservations = in.readInt();
+        TruckSchedule schedule = new TruckSchedule();
+        for (int i = 0; i < reservations; i++) {
+            schedule.reserve(in.readShort(), readWindow(in), in.readInt());
+        }
+        return new CapacityLedger.Held(transporter, schedule);
+    }
+
+    static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeWindow(DataOutputStream out, ReservationWindow window) throws IOException {
+        writeTime(out, window.from());
+        writeTime(out, window.until());
+    }
+
+    private static ReservationWindow readWindow(DataInputStream in) throws IOException {
+        return new ReservationWindow(readTime(in), readTime(in));
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
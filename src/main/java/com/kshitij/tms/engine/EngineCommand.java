@@ -0,0 +1,24 @@
+package com.kshitij.tms.engine;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A write handled by the engine; journaled before it is processed
+ *
+ * IDs and timestamps are fixed when the command is created, so replaying it
+ * produces the same bid and booking as the original run.
+ */
+sealed interface EngineCommand {
+
+    /**
+     * @param bidId ID for a new bid; unused if the transporter's pending bid is revised instead
+     */
+    record SubmitBid(UUID bidId, UUID loadId, UUID transporterId, double proposedRate, int trucksOffered,
+                     LocalDateTime submittedAt) implements EngineCommand {
+    }
+
+    record CreateBooking(UUID bookingId, UUID bidId, int allocatedTrucks, double finalRate,
+                         LocalDateTime bookedAt) implements EngineCommand {
+    }
+}
@@ -0,0 +1,43 @@
+package com.kshitij.tms.engine;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-memory marketplace engine settings (tms.engine.*)
+ */
+@Data
+@ConfigurationProperties("tms.engine")
+public class EngineProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Loads are spread over this many single-threaded partitions
+     */
+    private int partitions = 4;
+
+    /**
+     * Journal segments and snapshots; one subdirectory per partition
+     */
+    private String journalDir = "data/engine";
+
+    private int segmentSizeMb = 16;
+
+    /**
+     * Force every journal write to disk; without it a write survives a
+     * process crash (page cache) but not a power failure
+     */
+    private boolean syncWrites = false;
+
+    /**
+     * Snapshot the state and truncate the journals after this many commands
+     */
+    private int snapshotEveryCommands = 100_000;
+
+    private int queueCapacity = 10_000;
+
+    private long commandTimeoutMs = 5_000;
+
+    private int projectionBatchSize = 500;
+}
@@ -0,0 +1,130 @@
+package com.kshitij.tms.engine;
+
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Full engine state as of one journal sequence
+ *
+ * Written to a temporary file and renamed into place, with a CRC32
+ * trailer; older snapshots are deleted once the new one is in place.
+ * Replay starts from the newest snapshot and applies the journal records
+ * after its sequence.
+ */
+final class EngineSnapshot {
+
+    private static final int MAGIC = 0x544D5345;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    record State(long sequence, List<LoadBook> books, List<CapacityLedger.Held> transporters) {
+    }
+
+    private EngineSnapshot() {
+    }
+
+    static Path write(Path dir, long sequence, Collection<LoadBook> books,
+                      Collection<CapacityLedger.Held> transporters) {
+        byte[] body = EngineCodec.encode(out -> {
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(books.size());
+            for (LoadBook book : books) {
+                EngineCodec.writeLoadBook(out, book);
+            }
+            out.writeInt(transporters.size());
+            for (CapacityLedger.Held transporter : transporters) {
+                EngineCodec.writeTransporter(out, transporter);
+            }
+        });
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        Path target = dir.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        try {
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, PREFIX, ".tmp");
+            Files.write(temp, ByteBuffer.allocate(body.length + Integer.BYTES)
+                    .put(body).putInt((int) crc.getValue()).array());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (Path older : snapshots(dir)) {
+                if (!older.equals(target)) {
+                    Files.delete(older);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return target;
+    }
+
+    /**
+     * @throws IllegalStateException if the newest snapshot is damaged; the journal
+     *                               before it is gone, so the state cannot be rebuilt
+     */
+    static Optional<State> readLatest(Path dir) {
+        List<Path> snapshots = snapshots(dir);
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(latest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] body = Arrays.copyOf(bytes, Math.max(0, bytes.length - Integer.BYTES));
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if (bytes.length < Integer.BYTES
+                || ByteBuffer.wrap(bytes, body.length, Integer.BYTES).getInt() != (int) crc.getValue()) {
+            throw new IllegalStateException("Engine snapshot " + latest + " is corrupt");
+        }
+
+        return Optional.of(EngineCodec.decode(body, in -> {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not an engine snapshot: " + latest);
+            }
+            long sequence = in.readLong();
+            int bookCount = in.readInt();
+            List<LoadBook> books = new ArrayList<>(bookCount);
+            for (int i = 0; i < bookCount; i++) {
+                books.add(EngineCodec.readLoadBook(in));
+            }
+            int transporterCount = in.readInt();
+            List<CapacityLedger.Held> transporters = new ArrayList<>(transporterCount);
+            for (int i = 0; i < transporterCount; i++) {
+                transporters.add(EngineCodec.readTransporter(in));
+            }
+            return new State(sequence, books, transporters);
+        }));
+    }
+
+    private static List<Path> snapshots(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
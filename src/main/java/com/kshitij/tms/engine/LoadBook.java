@@ -0,0 +1,13 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.entity.Load;
+
+/**
+ * In-memory state of one load: its bid-relevant fields and the store holding
+ * its open bids
+ *
+ * In a partition the store is the partition's own; a book read from a
+ * snapshot or the journal carries a store of its own until it is restored.
+ */
+record LoadBook(Load load, OpenBidStore bids) {
+}
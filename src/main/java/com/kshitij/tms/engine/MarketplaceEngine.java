@@ -0,0 +1,509 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BookingRequest;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.event.TransporterEvent;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.exception.ServiceOverloadedException;
+import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.TransporterRepository;
+import com.kshitij.tms.service.AvailabilityService;
+import com.kshitij.tms.service.TruckTypeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory marketplace engine for high-volume lanes (tms.engine.enabled=true)
+ *
+ * Loads, their pending bids and transporter truck inventory are held in
+ * memory, spread over partitions by load ID. Bid submissions and bookings
+ * run on their load's partition thread with the same rules as BidService
+ * and BookingService (MarketplaceRules); each command is appended to the
+ * partition's memory-mapped journal before it runs, and the response is
+ * returned without a database round trip. The database is brought up to
+ * date asynchronously by one projection writer per partition.
+ *
+ * On start the newest snapshot is loaded and the journals replayed on top
+ * of it; accepted commands the database has not seen are projected again.
+ * A new snapshot is taken after startup, every snapshot-every-commands
+ * commands and on shutdown, and the journals are truncated behind it.
+ *
+ * Reads still go to the database, so a bid or booking may be missing from
+ * GET responses for the few milliseconds until it is projected. Writes that
+ * bypass the engine (load cancellation, bid revision and rejection, booking
+ * cancellation, truck updates) evict the affected load or transporter once
+ * they commit, and the engine reads it again on next use; a command
+ * processed in between still sees the old state. The engine assumes it is
+ * the only instance writing these loads.
+ *
+ * Metrics: tms.engine.commands{outcome}, tms.engine.loads,
+ * tms.engine.projection.lag, tms.engine.projection{outcome=failed} and
+ * tms.engine.journal.bytes.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "tms.engine.enabled", havingValue = "true")
+public class MarketplaceEngine implements SmartLifecycle {
+
+    private static final String SELECT_POSITIONS = "SELECT partition_id, last_sequence FROM engine_projection";
+
+    private static final String INSERT_POSITION = "INSERT INTO engine_projection (partition_id, last_sequence) "
+            + "VALUES (:partition, 0)";
+
+    private static final long SNAPSHOT_CHECK_INTERVAL_MS = 1000;
+
+    private final EngineProperties properties;
+    private final LoadRepository loadRepository;
+    private final BidRepository bidRepository;
+    private final TransporterRepository transporterRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TruckTypeService truckTypeService;
+    private final AvailabilityService availabilityService;
+    private final Path dir;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong commandsSinceSnapshot = new AtomicLong();
+    private final CapacityLedger ledger = new CapacityLedger();
+    private final Map<UUID, MarketplacePartition.BidKey> bidIndex = new ConcurrentHashMap<>();
+    private final List<MarketplacePartition> partitions = new CopyOnWriteArrayList<>();
+    private final List<MarketplaceProjection> projections = new CopyOnWriteArrayList<>();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter projectionFailed;
+
+    private volatile boolean running;
+    private ScheduledExecutorService snapshotScheduler;
+
+    public MarketplaceEngine(EngineProperties properties,
+                             LoadRepository loadRepository,
+                             BidRepository bidRepository,
+                             TransporterRepository transporterRepository,
+                             NamedParameterJdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             TruckTypeService truckTypeService,
+                             AvailabilityService availabilityService,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.loadRepository = loadRepository;
+        this.bidRepository = bidRepository;
+        this.transporterRepository = transporterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.truckTypeService = truckTypeService;
+        this.availabilityService = availabilityService;
+        this.dir = Path.of(properties.getJournalDir());
+
+        this.accepted = commandCounter(meterRegistry, "accepted");
+        this.rejected = commandCounter(meterRegistry, "rejected");
+        this.projectionFailed = Counter.builder("tms.engine.projection")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        Gauge.builder("tms.engine.loads", this, engine -> engine.partitions.stream()
+                        .mapToInt(MarketplacePartition::size).sum())
+                .description("Loads held in memory")
+                .register(meterRegistry);
+        Gauge.builder("tms.engine.projection.lag", this, engine -> engine.projections.stream()
+                        .mapToInt(MarketplaceProjection::lag).sum())
+                .description("Accepted commands not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("tms.engine.journal.bytes", this, engine -> engine.partitions.stream()
+                        .mapToLong(partition -> partition.journal().bytesWritten()).sum())
+                .description("Journal bytes written since startup")
+                .register(meterRegistry);
+        Gauge.builder("tms.engine.open-bids", this, engine -> engine.partitions.stream()
+                        .mapToInt(partition -> partition.openBids().size()).sum())
+                .description("Pending bids held in memory")
+                .register(meterRegistry);
+        Gauge.builder("tms.engine.open-bids.bytes", this, engine -> engine.partitions.stream()
+                        .mapToLong(partition -> partition.openBids().footprintBytes()).sum())
+                .description("Heap held by the open-bid columns")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submit a bid; see BidService.submitBid for the rules
+     *
+     * @return the bid as stored in memory; the database has it once projected
+     */
+    public Bid submitBid(BidRequest request) {
+        EngineCommand.SubmitBid command = new EngineCommand.SubmitBid(UUID.randomUUID(), request.getLoadId(),
+                request.getTransporterId(), request.getProposedRate(), request.getTrucksOffered(),
+                LocalDateTime.now());
+        MarketplacePartition partition = partitionFor(request.getLoadId());
+        commandsSinceSnapshot.incrementAndGet();
+        return await(partition.submit(() -> partition.submitBid(command)));
+    }
+
+    /**
+     * Create a booking by accepting a bid; see BookingService.createBooking for the rules
+     *
+     * @throws ResourceNotFoundException if bid, load, or transporter doesn't exist
+     */
+    public Booking createBooking(UUID bidId, BookingRequest request) {
+        MarketplacePartition.BidKey key = bidIndex.get(bidId);
+        if (key == null) {
+            // Not pending in memory: look it up once the database has caught up
+            awaitProjection();
+            Bid stored = bidRepository.findById(bidId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Bid", "bidId", bidId));
+            key = new MarketplacePartition.BidKey(stored.getLoadId(), stored.getTransporterId());
+        }
+
+        EngineCommand.CreateBooking command = new EngineCommand.CreateBooking(UUID.randomUUID(), bidId,
+                request.getAllocatedTrucks(), request.getFinalRate(), LocalDateTime.now());
+        MarketplacePartition.BidKey bidKey = key;
+        MarketplacePartition partition = partitionFor(key.loadId());
+        commandsSinceSnapshot.incrementAndGet();
+        return await(partition.submit(() -> partition.createBooking(command, bidKey)));
+    }
+
+    /**
+     * Best bids for a load from memory, including bids not yet projected;
+     * see LoadService.getBestBids
+     *
+     * @throws ResourceNotFoundException if load doesn't exist
+     */
+    public List<BestBidResponse> bestBids(UUID loadId) {
+        MarketplacePartition partition = partitionFor(loadId);
+        return await(partition.submit(() -> partition.bestBids(loadId)));
+    }
+
+    /**
+     * Wait until every accepted command is in the database
+     */
+    public void awaitProjection() {
+        projections.forEach(MarketplaceProjection::awaitDrained);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoadEvent(LoadEvent event) {
+        if (!running || MarketplaceProjection.isProjecting() || event.loadId() == null) {
+            return;
+        }
+        MarketplacePartition partition = partitionFor(event.loadId());
+        if (event.type() == LoadEvent.Type.BID_REJECTED) {
+            evictLater(partition, () -> partition.removeBid(event.loadId(), event.entityId()));
+        } else {
+            evictLater(partition, () -> partition.evictLoad(event.loadId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransporterEvent(TransporterEvent event) {
+        if (!running || MarketplaceProjection.isProjecting()) {
+            return;
+        }
+        MarketplacePartition partition = partitionFor(event.transporterId());
+        evictLater(partition, () -> partition.evictTransporter(event.transporterId()));
+    }
+
+    /**
+     * Pause every partition, write a snapshot and truncate the journals
+     */
+    public void snapshot() {
+        if (!snapshotLock.tryLock()) {
+            return;
+        }
+        CountDownLatch paused = new CountDownLatch(partitions.size());
+        CountDownLatch resume = new CountDownLatch(1);
+        try {
+            for (MarketplacePartition partition : partitions) {
+                partition.submit(() -> {
+                    paused.countDown();
+                    resume.await();
+                    return null;
+                });
+            }
+            if (!paused.await(properties.getCommandTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                log.warn("Engine partitions did not pause for a snapshot; retrying later");
+                return;
+            }
+            writeSnapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            resume.countDown();
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        Map<Integer, Long> projected = projectionPositions();
+        for (int i = 0; i < properties.getPartitions(); i++) {
+            MarketplaceProjection projection = new MarketplaceProjection(i, jdbcTemplate, transactionTemplate,
+                    loadRepository, transporterRepository, eventPublisher, properties.getQueueCapacity(),
+                    properties.getProjectionBatchSize(), properties.getCommandTimeoutMs(),
+                    projected.getOrDefault(i, 0L), projectionFailed);
+            projections.add(projection);
+            partitions.add(new MarketplacePartition(i,
+                    new CommandJournal(dir.resolve("partition-" + i),
+                            properties.getSegmentSizeMb() * 1024 * 1024, properties.isSyncWrites()),
+                    projection, projections, ledger, bidIndex, sequence,
+                    loadRepository, bidRepository, transporterRepository, truckTypeService::compatibility,
+                    availabilityService, accepted, rejected, properties.getQueueCapacity()));
+        }
+
+        List<Journaled> unfinished = replay(projected);
+        projections.forEach(MarketplaceProjection::start);
+        running = true;
+        snapshot();
+        unfinished.forEach(this::rerun);
+
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "engine-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotIfDue,
+                SNAPSHOT_CHECK_INTERVAL_MS, SNAPSHOT_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        log.info("Marketplace engine started: {} partitions, {} loads and {} transporters in memory, sequence {}",
+                partitions.size(), partitions.stream().mapToInt(MarketplacePartition::size).sum(),
+                ledger.size(), sequence.get());
+    }
+
+    /**
+     * Finish queued commands, project them, snapshot and close the journals;
+     * the in-memory state is dropped, so a later start() rebuilds it from disk
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        partitions.forEach(partition -> partition.shutdown(properties.getCommandTimeoutMs()));
+        try {
+            writeSnapshot();
+        } catch (RuntimeException e) {
+            log.error("Engine snapshot on shutdown failed; the journal will be replayed on restart", e);
+        }
+        projections.forEach(MarketplaceProjection::stop);
+        partitions.forEach(partition -> partition.journal().close());
+        partitions.clear();
+        projections.clear();
+        bidIndex.clear();
+        ledger.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the web server, so no request finds the engine gone
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private MarketplacePartition partitionFor(UUID key) {
+        if (partitions.isEmpty()) {
+            throw new ServiceOverloadedException("Marketplace engine is starting. Retry after 1 s", 1);
+        }
+        return partitions.get(Math.floorMod(key.hashCode(), partitions.size()));
+    }
+
+    private <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get(properties.getCommandTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceOverloadedException("Marketplace engine did not respond in time. Retry after 1 s", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the engine", e);
+        }
+    }
+
+    private void evictLater(MarketplacePartition partition, Runnable eviction) {
+        try {
+            partition.submit(() -> {
+                eviction.run();
+                return null;
+            });
+        } catch (ServiceOverloadedException e) {
+            log.warn("Engine partition {} is saturated; an external change was not applied to its state",
+                    partition.id());
+        }
+    }
+
+    private void snapshotIfDue() {
+        if (commandsSinceSnapshot.get() < properties.getSnapshotEveryCommands()) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Engine snapshot failed; retrying later", e);
+        }
+    }
+
+    /**
+     * Partitions are paused or stopped
+     */
+    private void writeSnapshot() {
+        awaitProjection();
+        List<LoadBook> books = partitions.stream().flatMap(partition -> partition.books().stream()).toList();
+        Path path = EngineSnapshot.write(dir, sequence.get(), books, List.copyOf(ledger.transporters()));
+        partitions.forEach(partition -> partition.journal().reset());
+        commandsSinceSnapshot.set(0);
+        log.debug("Engine snapshot {} written: {} loads, {} transporters", path.getFileName(), books.size(),
+                ledger.size());
+    }
+
+    /**
+     * A command read back from the journal; key is set for bookings
+     */
+    private record Journaled(long sequence, MarketplacePartition partition, EngineCommand command,
+                             MarketplacePartition.BidKey key) {
+    }
+
+    private record Tagged(MarketplacePartition partition, CommandJournal.Entry entry) {
+    }
+
+    /**
+     * Rebuild the state from the newest snapshot and every journal record after it
+     *
+     * @return commands journaled without an outcome (the process stopped while
+     * they ran), to be run again
+     */
+    private List<Journaled> replay(Map<Integer, Long> projected) {
+        long snapshotSequence = EngineSnapshot.readLatest(dir).map(state -> {
+            state.books().forEach(book -> partitionFor(book.load().getLoadId()).restore(book));
+            state.transporters().forEach(ledger::put);
+            return state.sequence();
+        }).orElse(0L);
+
+        List<Tagged> entries = new ArrayList<>();
+        for (MarketplacePartition partition : partitions) {
+            CommandJournal.read(dir.resolve("partition-" + partition.id())).stream()
+                    .filter(entry -> entry.sequence() > snapshotSequence)
+                    .forEach(entry -> entries.add(new Tagged(partition, entry)));
+        }
+        entries.sort(Comparator.comparingLong(tagged -> tagged.entry().sequence()));
+
+        long last = Math.max(snapshotSequence,
+                projected.values().stream().mapToLong(Long::longValue).max().orElse(0));
+        Map<Long, Journaled> open = new LinkedHashMap<>();
+        for (Tagged tagged : entries) {
+            CommandJournal.Entry entry = tagged.entry();
+            MarketplacePartition partition = tagged.partition();
+            last = Math.max(last, entry.sequence());
+            switch (entry.type()) {
+                case EngineCodec.SUBMIT_BID, EngineCodec.CREATE_BOOKING ->
+                        open.put(entry.sequence(), decode(partition, entry));
+                case EngineCodec.OUTCOME -> {
+                    EngineCodec.Outcome outcome = EngineCodec.decode(entry.payload(), EngineCodec::readOutcome);
+                    Journaled command = open.remove(outcome.commandSequence());
+                    if (command != null && outcome.accepted()) {
+                        partition.replayCommand(entry.sequence(), command.command(), command.key(),
+                                outcome, entry.sequence() > projected.getOrDefault(partition.id(), 0L));
+                    }
+                }
+                default -> partition.replayState(entry);
+            }
+        }
+        sequence.set(last);
+
+        if (!entries.isEmpty()) {
+            log.info("Replayed {} engine journal records after snapshot sequence {}", entries.size(),
+                    snapshotSequence);
+        }
+        return new ArrayList<>(open.values());
+    }
+
+    private static Journaled decode(MarketplacePartition partition, CommandJournal.Entry entry) {
+        return EngineCodec.decode(entry.payload(), in -> {
+            EngineCommand command = EngineCodec.readCommand(entry.type(), in);
+            MarketplacePartition.BidKey key = entry.type() == EngineCodec.CREATE_BOOKING
+                    ? new MarketplacePartition.BidKey(EngineCodec.readUuid(in), EngineCodec.readUuid(in))
+                    : null;
+            return new Journaled(entry.sequence(), partition, command, key);
+        });
+    }
+
+    private void rerun(Journaled journaled) {
+        MarketplacePartition partition = journaled.partition();
+        try {
+            if (journaled.command() instanceof EngineCommand.SubmitBid submitBid) {
+                await(partition.submit(() -> partition.submitBid(submitBid)));
+            } else {
+                EngineCommand.CreateBooking createBooking = (EngineCommand.CreateBooking) journaled.command();
+                await(partition.submit(() -> partition.createBooking(createBooking, journaled.key())));
+            }
+            log.info("Engine command {} interrupted by the last shutdown has been completed", journaled.sequence());
+        } catch (RuntimeException e) {
+            log.info("Engine command {} interrupted by the last shutdown was rejected: {}",
+                    journaled.sequence(), e.getMessage());
+        }
+    }
+
+    private Map<Integer, Long> projectionPositions() {
+        Map<Integer, Long> positions = new HashMap<>();
+        jdbcTemplate.query(SELECT_POSITIONS, rs -> {
+            positions.put(rs.getInt("partition_id"), rs.getLong("last_sequence"));
+        });
+        for (int i = 0; i < properties.getPartitions(); i++) {
+            if (!positions.containsKey(i)) {
+                jdbcTemplate.update(INSERT_POSITION, new MapSqlParameterSource("partition", i));
+                positions.put(i, 0L);
+            }
+        }
+        return positions;
+    }
+
+    private static Counter commandCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("tms.engine.commands")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
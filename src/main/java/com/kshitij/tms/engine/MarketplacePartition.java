@@ -0,0 +1,569 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidRevision;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.BookingStatus;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.exception.LoadAlreadyBookedException;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.exception.ServiceOverloadedException;
+import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.TransporterRepository;
+import com.kshitij.tms.service.AvailabilityService;
+import com.kshitij.tms.service.MarketplaceRules;
+import com.kshitij.tms.service.ReservationWindow;
+import com.kshitij.tms.service.TruckCompatibility;
+import com.kshitij.tms.service.TruckSchedule;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * One shard of the marketplace: the loads that hash to it, their open bids
+ * (in a columnar OpenBidStore), and a single thread that processes every
+ * command on them
+ *
+ * Each command is journaled before it runs and its outcome after, so
+ * replay applies exactly the commands that were accepted, without
+ * re-checking rules against state that has moved on. Loads and
+ * transporters are read from the database the first time a command needs
+ * them, after the projection has caught up, and the state read is
+ * journaled too.
+ */
+@Slf4j
+class MarketplacePartition {
+
+    /**
+     * Routing key of a pending bid, so a booking can find its partition
+     */
+    record BidKey(UUID loadId, UUID transporterId) {
+    }
+
+    private static final int INITIAL_BID_ROWS = 1024;
+
+    private final int id;
+    private final CommandJournal journal;
+    private final MarketplaceProjection projection;
+    private final List<MarketplaceProjection> allProjections;
+    private final CapacityLedger ledger;
+    private final Map<UUID, BidKey> bidIndex;
+    private final AtomicLong sequence;
+    private final LoadRepository loadRepository;
+    private final BidRepository bidRepository;
+    private final TransporterRepository transporterRepository;
+    private final Supplier<TruckCompatibility> compatibility;
+    private final AvailabilityService availability;
+    private final Counter accepted;
+    private final Counter rejected;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<UUID, LoadBook> books = new HashMap<>();
+    private final OpenBidStore bids = new OpenBidStore(INITIAL_BID_ROWS);
+
+    MarketplacePartition(int id, CommandJournal journal, MarketplaceProjection projection,
+                         List<MarketplaceProjection> allProjections, CapacityLedger ledger,
+                         Map<UUID, BidKey> bidIndex, AtomicLong sequence, LoadRepository loadRepository,
+                         BidRepository bidRepository, TransporterRepository transporterRepository,
+                         Supplier<TruckCompatibility> compatibility, AvailabilityService availability,
+                         Counter accepted, Counter rejected, int queueCapacity) {
+        this.id = id;
+        this.journal = journal;
+        this.projection = projection;
+        this.allProjections = allProjections;
+        this.ledger = ledger;
+        this.bidIndex = bidIndex;
+        this.sequence = sequence;
+        this.loadRepository = loadRepository;
+        this.bidRepository = bidRepository;
+        this.transporterRepository = transporterRepository;
+        this.compatibility = compatibility;
+        this.availability = availability;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> new Thread(task, "engine-partition-" + id));
+    }
+
+    /**
+     * Run a task on the partition thread
+     *
+     * @throws ServiceOverloadedException if the partition's queue is full
+     */
+    <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Engine partition " + id + " is saturated. Retry after 1 s", 1);
+        }
+        return result;
+    }
+
+    /**
+     * Rules and order of checks as in BidService.submitBid
+     */
+    Bid submitBid(EngineCommand.SubmitBid command) {
+        long commandSequence = appendCommand(command);
+        try {
+            LoadBook book = book(command.loadId());
+            MarketplaceRules.verifyBiddable(book.load());
+
+            ReservationWindow window = availability.window(book.load().getLoadingDate());
+            return ledger.withLock(command.transporterId(), () -> {
+                Transporter transporter = transporter(command.transporterId());
+                TruckSchedule schedule = ledger.schedule(command.transporterId());
+                MarketplaceRules.verifyCapacity(transporter, book.load(), command.trucksOffered(),
+                        compatibility.get(), truck -> schedule.free(truck, window));
+                Applied<Bid> applied = applySubmitBid(book, command);
+                accept(commandSequence, applied.op(), EngineCodec.NO_TRUCK_TYPE, null);
+                return applied.result();
+            });
+        } catch (RuntimeException e) {
+            reject(commandSequence);
+            throw e;
+        }
+    }
+
+    /**
+     * Rules and order of checks as in BookingService.createBooking; the engine
+     * has already resolved the bid to this load
+     */
+    Booking createBooking(EngineCommand.CreateBooking command, BidKey key) {
+        long commandSequence = appendCommand(command, key);
+        try {
+            LoadBook book = book(key.loadId());
+            int row = bids.find(key.loadId(), command.bidId());
+            Bid bid = row >= 0 ? bids.toBid(key.loadId(), row) : storedBid(command.bidId());
+            MarketplaceRules.verifyBookable(book.load());
+
+            ReservationWindow window = availability.window(book.load().getLoadingDate());
+            return ledger.withLock(key.transporterId(), () -> {
+                Transporter transporter = transporter(key.transporterId());
+                TruckSchedule schedule = ledger.schedule(key.transporterId());
+                AvailableTruck allocated = MarketplaceRules.allocateTrucks(transporter, book.load(),
+                        command.allocatedTrucks(), compatibility.get(), truck -> schedule.free(truck, window));
+                schedule.reserve(allocated.getTruckTypeId(), window, command.allocatedTrucks());
+                Applied<Booking> applied = applyBooking(book, bid, command, allocated.getTruckTypeId(),
+                        allocated.getTruckType(), window);
+                accept(commandSequence, applied.op(), allocated.getTruckTypeId(), window);
+                return applied.result();
+            });
+        } catch (RuntimeException e) {
+            reject(commandSequence);
+            throw e;
+        }
+    }
+
+    /**
+     * Pending bids of the load, best first, scored as in LoadService.getBestBids
+     *
+     * @throws ResourceNotFoundException if load or a bidding transporter doesn't exist
+     */
+    List<BestBidResponse> bestBids(UUID loadId) {
+        book(loadId);
+        int start = bids.start(loadId);
+        double[] ratings = new double[bids.end(loadId) - start];
+        for (int i = 0; i < ratings.length; i++) {
+            ratings[i] = rating(bids.transporterId(start + i));
+        }
+
+        int[] ranked = bids.ranked(loadId, BidStatus.PENDING, ratings);
+        List<BestBidResponse> bestBids = new ArrayList<>(ranked.length);
+        for (int row : ranked) {
+            double rating = ratings[row - start];
+            bestBids.add(BestBidResponse.builder()
+                    .bidId(bids.bidId(row))
+                    .transporterId(bids.transporterId(row))
+                    .proposedRate(bids.proposedRate(row))
+                    .transporterRating(rating)
+                    .score(BestBidResponse.score(bids.proposedRate(row), rating))
+                    .build());
+        }
+        return bestBids;
+    }
+
+    /**
+     * A write that bypassed the engine changed this load; read it again on next use
+     */
+    void evictLoad(UUID loadId) {
+        if (books.containsKey(loadId)) {
+            append(EngineCodec.LOAD_EVICTED, EngineCodec.encode(out -> EngineCodec.writeUuid(out, loadId)));
+            removeBook(loadId);
+        }
+    }
+
+    /**
+     * A bid was rejected outside the engine; drop it without reloading its load
+     */
+    void removeBid(UUID loadId, UUID bidId) {
+        if (bids.find(loadId, bidId) >= 0) {
+            append(EngineCodec.BID_REMOVED, EngineCodec.encode(out -> {
+                EngineCodec.writeUuid(out, loadId);
+                EngineCodec.writeUuid(out, bidId);
+            }));
+            dropBid(loadId, bidId);
+        }
+    }
+
+    void evictTransporter(UUID transporterId) {
+        ledger.withLock(transporterId, () -> {
+            if (ledger.get(transporterId) != null) {
+                append(EngineCodec.TRANSPORTER_EVICTED,
+                        EngineCodec.encode(out -> EngineCodec.writeUuid(out, transporterId)));
+                ledger.remove(transporterId);
+            }
+            return null;
+        });
+    }
+
+    void restore(LoadBook book) {
+        UUID loadId = book.load().getLoadId();
+        if (book.bids() != bids) {
+            bids.addAll(loadId, book.bids());
+        }
+        books.put(loadId, new LoadBook(book.load(), bids));
+        for (int row = bids.start(loadId); row < bids.end(loadId); row++) {
+            bidIndex.put(bids.bidId(row), new BidKey(loadId, bids.transporterId(row)));
+        }
+    }
+
+    /**
+     * Apply a hydration or eviction record
+     */
+    void replayState(CommandJournal.Entry entry) {
+        switch (entry.type()) {
+            case EngineCodec.LOAD_HYDRATED -> restore(EngineCodec.decode(entry.payload(), EngineCodec::readLoadBook));
+            case EngineCodec.LOAD_EVICTED -> removeBook(EngineCodec.decode(entry.payload(), EngineCodec::readUuid));
+            case EngineCodec.TRANSPORTER_HYDRATED ->
+                    ledger.put(EngineCodec.decode(entry.payload(), EngineCodec::readTransporter));
+            case EngineCodec.TRANSPORTER_EVICTED ->
+                    ledger.remove(EngineCodec.decode(entry.payload(), EngineCodec::readUuid));
+            case EngineCodec.BID_REMOVED -> EngineCodec.decode(entry.payload(), in -> {
+                dropBid(EngineCodec.readUuid(in), EngineCodec.readUuid(in));
+                return null;
+            });
+            default -> throw new IllegalArgumentException("Not a state record: " + entry.type());
+        }
+    }
+
+    /**
+     * Apply an accepted command's effects; its rules passed when it first ran
+     *
+     * @param outcome accepted outcome; for a booking, the inventory entry and window it reserved
+     * @param project whether the database has yet to see this outcome
+     */
+    void replayCommand(long outcomeSequence, EngineCommand command, BidKey key, EngineCodec.Outcome outcome,
+                       boolean project) {
+        MarketplaceProjection.Op op;
+        if (command instanceof EngineCommand.SubmitBid submitBid) {
+            LoadBook book = books.get(submitBid.loadId());
+            if (book == null) {
+                log.warn("Replayed bid for load {} that the journal never loaded; skipping", submitBid.loadId());
+                return;
+            }
+            op = applySubmitBid(book, submitBid).op();
+        } else {
+            EngineCommand.CreateBooking createBooking = (EngineCommand.CreateBooking) command;
+            LoadBook book = books.get(key.loadId());
+            if (book == null) {
+                log.warn("Replayed booking for load {} that the journal never loaded; skipping", key.loadId());
+                return;
+            }
+            int row = bids.find(key.loadId(), createBooking.bidId());
+            Bid bid = row >= 0 ? bids.toBid(key.loadId(), row) : Bid.builder()
+                    .bidId(createBooking.bidId())
+                    .loadId(key.loadId())
+                    .transporterId(key.transporterId())
+                    .build();
+            short truckTypeId = outcome.truckTypeId();
+            AvailableTruck allocated = ledger.reserve(key.transporterId(), truckTypeId, outcome.window(),
+                    createBooking.allocatedTrucks());
+            String truckType = allocated != null ? allocated.getTruckType()
+                    : truckTypeId == book.load().getTruckTypeId() ? book.load().getTruckType() : null;
+            op = applyBooking(book, bid, createBooking, truckTypeId, truckType, outcome.window()).op();
+        }
+        if (project && op != null) {
+            projection.enqueue(outcomeSequence, op);
+        }
+    }
+
+    private record Applied<T>(T result, MarketplaceProjection.Op op) {
+    }
+
+    private Applied<Bid> applySubmitBid(LoadBook book, EngineCommand.SubmitBid command) {
+        Load load = book.load();
+        UUID loadId = load.getLoadId();
+        boolean opened = MarketplaceRules.openForBids(load);
+
+        // Upsert: a repeat bid from the same transporter revises its active bid in place
+        int row = bids.findByTransporter(loadId, command.transporterId(), BidStatus.PENDING);
+        boolean created = row < 0;
+        BidRevision previous = null;
+        if (created) {
+            row = bids.add(loadId, command.bidId(), command.transporterId(), command.proposedRate(),
+                    command.trucksOffered(), command.submittedAt());
+            bidIndex.put(command.bidId(), new BidKey(loadId, command.transporterId()));
+        } else if (MarketplaceRules.isRevision(bids.proposedRate(row), bids.trucksOffered(row),
+                command.proposedRate(), command.trucksOffered())) {
+            previous = BidRevision.builder()
+                    .bidId(bids.bidId(row))
+                    .proposedRate(bids.proposedRate(row))
+                    .trucksOffered(bids.trucksOffered(row))
+                    .submittedAt(bids.submittedAt(row))
+                    .revisedAt(command.submittedAt())
+                    .build();
+            bids.revise(row, command.proposedRate(), command.trucksOffered(), command.submittedAt());
+        } else if (!opened) {
+            return new Applied<>(bids.toBid(loadId, row), null);
+        }
+
+        Bid result = bids.toBid(loadId, row);
+        return new Applied<>(result, new MarketplaceProjection.BidWritten(load.getShipperId(), result,
+                created, previous, opened));
+    }
+
+    private Applied<Booking> applyBooking(LoadBook book, Bid bid, EngineCommand.CreateBooking command,
+                                          short truckTypeId, String truckType, ReservationWindow window) {
+        Load load = book.load();
+
+        // Accept this bid, reject every other pending bid for the load
+        UUID loadId = load.getLoadId();
+        int acceptedRow = bids.find(loadId, bid.getBidId());
+        if (acceptedRow >= 0) {
+            bids.setStatus(acceptedRow, BidStatus.ACCEPTED);
+        }
+        List<Bid> rejectedBids = new ArrayList<>();
+        for (int row = bids.start(loadId); row < bids.end(loadId); row++) {
+            bidIndex.remove(bids.bidId(row));
+            if (bids.status(row) == BidStatus.PENDING) {
+                Bid rejectedBid = bids.toBid(loadId, row);
+                rejectedBid.setStatus(BidStatus.REJECTED);
+                rejectedBids.add(rejectedBid);
+            }
+        }
+        bids.removeLoad(loadId);
+
+        Booking booking = Booking.builder()
+                .bookingId(command.bookingId())
+                .loadId(load.getLoadId())
+                .bidId(bid.getBidId())
+                .transporterId(bid.getTransporterId())
+                .allocatedTrucks(command.allocatedTrucks())
+                .finalRate(command.finalRate())
+                .truckTypeId(truckTypeId)
+                .truckType(truckType)
+                .reservedFrom(window.from())
+                .reservedUntil(window.until())
+                .status(BookingStatus.CONFIRMED)
+                .bookedAt(command.bookedAt())
+                .build();
+
+        MarketplaceRules.applyAllocation(load, command.allocatedTrucks());
+
+        return new Applied<>(booking, new MarketplaceProjection.BookingWritten(load.getShipperId(), booking,
+                rejectedBids, load.getRemainingTrucks(), load.getStatus()));
+    }
+
+    private LoadBook book(UUID loadId) {
+        LoadBook book = books.get(loadId);
+        if (book != null) {
+            return book;
+        }
+
+        // The database must reflect this partition's own writes before it is read back
+        projection.awaitDrained();
+        Load stored = loadRepository.findById(loadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", loadId));
+        Load load = Load.builder()
+                .loadId(stored.getLoadId())
+                .shipperId(stored.getShipperId())
+                .truckTypeId(stored.getTruckTypeId())
+                .truckType(stored.getTruckType())
+                .loadingDate(stored.getLoadingDate())
+                .noOfTrucks(stored.getNoOfTrucks())
+                .remainingTrucks(stored.getRemainingTrucks())
+                .status(stored.getStatus())
+                .build();
+        for (Bid pending : bidRepository.findByLoadIdAndStatus(loadId, BidStatus.PENDING)) {
+            bids.add(loadId, pending.getBidId(), pending.getTransporterId(), pending.getProposedRate(),
+                    pending.getTrucksOffered(), pending.getSubmittedAt());
+        }
+
+        book = new LoadBook(load, bids);
+        LoadBook hydrated = book;
+        append(EngineCodec.LOAD_HYDRATED, EngineCodec.encode(out -> EngineCodec.writeLoadBook(out, hydrated)));
+        restore(book);
+        return book;
+    }
+
+    /**
+     * Caller holds the transporter's ledger lock
+     */
+    private Transporter transporter(UUID transporterId) {
+        Transporter transporter = ledger.get(transporterId);
+        if (transporter != null) {
+            return transporter;
+        }
+
+        // Every partition's bookings reserve its trucks, so all projections must have caught up
+        allProjections.forEach(MarketplaceProjection::awaitDrained);
+        transporter = transporterRepository.findById(transporterId)
+                .map(CapacityLedger::copyOf)
+                .orElseThrow(() -> new ResourceNotFoundException("Transporter", "transporterId", transporterId));
+
+        CapacityLedger.Held hydrated = new CapacityLedger.Held(transporter, availability.readSchedule(transporterId));
+        append(EngineCodec.TRANSPORTER_HYDRATED,
+                EngineCodec.encode(out -> EngineCodec.writeTransporter(out, hydrated)));
+        ledger.put(hydrated);
+        return transporter;
+    }
+
+    /**
+     * Ratings never change through the engine, so any copy will do
+     */
+    private double rating(UUID transporterId) {
+        Transporter transporter = ledger.get(transporterId);
+        if (transporter != null) {
+            return transporter.getRating();
+        }
+        return transporterRepository.findById(transporterId)
+                .map(Transporter::getRating)
+                .orElseThrow(() -> new ResourceNotFoundException("Transporter", "transporterId", transporterId));
+    }
+
+    /**
+     * A bid that is no longer pending; booking it goes ahead as in BookingService,
+     * except that a bid which already has a booking is refused here, where the
+     * database would refuse the second booking row (uk_booking_bid)
+     */
+    private Bid storedBid(UUID bidId) {
+        projection.awaitDrained();
+        Bid bid = bidRepository.findById(bidId)
+                .orElseThrow(() -> new ResourceNotFoundException("Bid", "bidId", bidId));
+        if (bid.getStatus() == BidStatus.ACCEPTED) {
+            throw new LoadAlreadyBookedException("Bid has already been booked. Bid ID: " + bidId);
+        }
+        return bid;
+    }
+
+    private void removeBook(UUID loadId) {
+        if (books.remove(loadId) != null) {
+            for (int row = bids.start(loadId); row < bids.end(loadId); row++) {
+                bidIndex.remove(bids.bidId(row));
+            }
+            bids.removeLoad(loadId);
+        }
+    }
+
+    private void dropBid(UUID loadId, UUID bidId) {
+        int row = bids.find(loadId, bidId);
+        if (row >= 0) {
+            bids.remove(loadId, row);
+            bidIndex.remove(bidId);
+        }
+    }
+
+    private long appendCommand(EngineCommand.SubmitBid command) {
+        return append(EngineCodec.SUBMIT_BID, EngineCodec.encode(out -> EngineCodec.writeCommand(out, command)));
+    }
+
+    private long appendCommand(EngineCommand.CreateBooking command, BidKey key) {
+        return append(EngineCodec.CREATE_BOOKING, EngineCodec.encode(out -> {
+            EngineCodec.writeCommand(out, command);
+            EngineCodec.writeUuid(out, key.loadId());
+            EngineCodec.writeUuid(out, key.transporterId());
+        }));
+    }
+
+    private void accept(long commandSequence, MarketplaceProjection.Op op, short truckTypeId,
+                        ReservationWindow window) {
+        long outcomeSequence = appendOutcome(commandSequence, true, truckTypeId, window);
+        if (op != null) {
+            projection.enqueue(outcomeSequence, op);
+        }
+        accepted.increment();
+    }
+
+    private void reject(long commandSequence) {
+        appendOutcome(commandSequence, false, EngineCodec.NO_TRUCK_TYPE, null);
+        rejected.increment();
+    }
+
+    private long appendOutcome(long commandSequence, boolean accepted, short truckTypeId,
+                               ReservationWindow window) {
+        EngineCodec.Outcome outcome = new EngineCodec.Outcome(commandSequence, accepted, truckTypeId, window);
+        return append(EngineCodec.OUTCOME, EngineCodec.encode(out -> EngineCodec.writeOutcome(out, outcome)));
+    }
+
+    private long append(byte type, byte[] payload) {
+        long next = sequence.incrementAndGet();
+        journal.append(next, type, payload);
+        return next;
+    }
+
+    int id() {
+        return id;
+    }
+
+    CommandJournal journal() {
+        return journal;
+    }
+
+    MarketplaceProjection projection() {
+        return projection;
+    }
+
+    OpenBidStore openBids() {
+        return bids;
+    }
+
+    Collection<LoadBook> books() {
+        return books.values();
+    }
+
+    int size() {
+        return books.size();
+    }
+
+    /**
+     * Finish queued commands and stop the thread
+     */
+    void shutdown(long timeoutMs) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Engine partition {} did not drain within {} ms", id, timeoutMs);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
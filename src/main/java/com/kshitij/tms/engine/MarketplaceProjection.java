@@ -0,0 +1,370 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidRevision;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.event.TransporterEvent;
+import com.kshitij.tms.exception.ServiceOverloadedException;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.TransporterRepository;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes one partition's accepted commands to the database, in order
+ *
+ * A writer thread drains the queue in micro-batches; each batch is one
+ * transaction that also records the last projected sequence in
+ * engine_projection, so after a restart replay re-projects exactly what is
+ * missing. The live-update and change-feed events the services would have
+ * published are published from the same transaction.
+ *
+ * A batch that fails is retried one command at a time; a command that still
+ * fails is logged and skipped (tms.engine.projection{outcome=failed}).
+ */
+@Slf4j
+class MarketplaceProjection {
+
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final int ATTEMPTS = 3;
+
+    private static final ThreadLocal<Boolean> PROJECTING = ThreadLocal.withInitial(() -> false);
+
+    private static final String INSERT_BID = "INSERT INTO bid "
+            + "(bid_id, load_id, transporter_id, proposed_rate, trucks_offered, status, submitted_at, version) "
+            + "VALUES (:bidId, :loadId, :transporterId, :rate, :trucks, 'PENDING', :submittedAt, 0)";
+
+    private static final String OPEN_LOAD_FOR_BIDS = "UPDATE load SET status = 'OPEN_FOR_BIDS', version = version + 1 "
+            + "WHERE load_id = :loadId AND status = 'POSTED'";
+
+    private static final String INSERT_REVISION = "INSERT INTO bid_revision "
+            + "(bid_id, proposed_rate, trucks_offered, submitted_at, revised_at) "
+            + "VALUES (:bidId, :rate, :trucks, :submittedAt, :revisedAt)";
+
+    private static final String REVISE_BID = "UPDATE bid SET proposed_rate = :rate, trucks_offered = :trucks, "
+            + "submitted_at = :submittedAt, version = version + 1 WHERE bid_id = :bidId";
+
+    private static final String TOUCH_TRANSPORTER = "UPDATE transporter SET version = version + 1 "
+            + "WHERE transporter_id = :transporterId";
+
+    private static final String SET_BID_STATUS = "UPDATE bid SET status = :status, version = version + 1 "
+            + "WHERE bid_id IN (:bidIds)";
+
+    private static final String INSERT_BOOKING = "INSERT INTO booking "
+            + "(booking_id, load_id, bid_id, transporter_id, allocated_trucks, final_rate, status, booked_at, "
+            + "truck_type_id, reserved_from, reserved_until, version) VALUES (:bookingId, :loadId, :bidId, "
+            + ":transporterId, :trucks, :rate, :status, :bookedAt, :truckTypeId, :reservedFrom, :reservedUntil, 0)";
+
+    private static final String UPDATE_LOAD = "UPDATE load SET remaining_trucks = :remaining, status = :status, "
+            + "version = version + 1 WHERE load_id = :loadId";
+
+    private static final String UPDATE_POSITION = "UPDATE engine_projection SET last_sequence = :sequence "
+            + "WHERE partition_id = :partition";
+
+    /**
+     * Database changes of one accepted command
+     */
+    sealed interface Op {
+    }
+
+    /**
+     * @param created  the bid is new
+     * @param previous superseded terms when a pending bid was revised, otherwise null
+     */
+    record BidWritten(String shipperId, Bid bid, boolean created, BidRevision previous, boolean loadOpened)
+            implements Op {
+    }
+
+    record BookingWritten(String shipperId, Booking booking, List<Bid> rejectedBids,
+                          int remainingTrucks, LoadStatus loadStatus) implements Op {
+    }
+
+    private record Pending(long sequence, Op op) {
+    }
+
+    private final int partition;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LoadRepository loadRepository;
+    private final TransporterRepository transporterRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatchSize;
+    private final long awaitTimeoutMs;
+    private final Counter failed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition progressed = lock.newCondition();
+    private volatile long enqueuedSequence;
+    private volatile long projectedSequence;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    MarketplaceProjection(int partition, NamedParameterJdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate, LoadRepository loadRepository,
+                          TransporterRepository transporterRepository, ApplicationEventPublisher eventPublisher,
+                          int capacity, int maxBatchSize, long awaitTimeoutMs, long projectedSequence,
+                          Counter failed) {
+        this.partition = partition;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.loadRepository = loadRepository;
+        this.transporterRepository = transporterRepository;
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.awaitTimeoutMs = awaitTimeoutMs;
+        this.enqueuedSequence = projectedSequence;
+        this.projectedSequence = projectedSequence;
+        this.failed = failed;
+    }
+
+    /**
+     * True while the current thread writes a projection, so the engine can
+     * tell its own events from writes that bypassed it
+     */
+    static boolean isProjecting() {
+        return PROJECTING.get();
+    }
+
+    long projectedSequence() {
+        return projectedSequence;
+    }
+
+    /**
+     * Queue an accepted command; blocks while the writer is a full queue behind
+     */
+    void enqueue(long sequence, Op op) {
+        try {
+            queue.put(new Pending(sequence, op));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing projection", e);
+        }
+        enqueuedSequence = sequence;
+    }
+
+    int lag() {
+        return queue.size();
+    }
+
+    /**
+     * Wait until everything queued so far is in the database
+     *
+     * @throws ServiceOverloadedException if the writer does not catch up in time
+     */
+    void awaitDrained() {
+        long target = enqueuedSequence;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(awaitTimeoutMs);
+        lock.lock();
+        try {
+            while (projectedSequence < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new ServiceOverloadedException(
+                            "Engine projection of partition " + partition + " is behind. Retry after 1 s", 1);
+                }
+                progressed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for projection", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "engine-projection-" + partition);
+        writer.start();
+    }
+
+    /**
+     * Stop after writing everything already queued
+     */
+    void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+                markProjected(batch.get(batch.size() - 1).sequence());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        try {
+            inTransaction(batch);
+        } catch (RuntimeException e) {
+            log.warn("Projection batch of {} in partition {} failed, retrying one by one", batch.size(), partition, e);
+            batch.forEach(this::writeWithRetry);
+        }
+    }
+
+    private void writeWithRetry(Pending pending) {
+        for (int attempt = 1; attempt <= ATTEMPTS; attempt++) {
+            try {
+                inTransaction(List.of(pending));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == ATTEMPTS) {
+                    log.error("Projection of sequence {} in partition {} failed; skipping it",
+                            pending.sequence(), partition, e);
+                    failed.increment();
+                }
+            }
+        }
+    }
+
+    private void inTransaction(List<Pending> batch) {
+        PROJECTING.set(true);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batch.forEach(pending -> apply(pending.op()));
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.update(UPDATE_POSITION, new MapSqlParameterSource()
+                            .addValue("sequence", batch.get(batch.size() - 1).sequence())
+                            .addValue("partition", partition));
+                }
+            });
+        } finally {
+            PROJECTING.set(false);
+        }
+    }
+
+    private void apply(Op op) {
+        if (op instanceof BidWritten written) {
+            applyBid(written);
+        } else if (op instanceof BookingWritten written) {
+            applyBooking(written);
+        }
+    }
+
+    private void applyBid(BidWritten written) {
+        Bid bid = written.bid();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("bidId", bid.getBidId())
+                .addValue("loadId", bid.getLoadId())
+                .addValue("transporterId", bid.getTransporterId())
+                .addValue("rate", bid.getProposedRate())
+                .addValue("trucks", bid.getTrucksOffered())
+                .addValue("submittedAt", Timestamp.valueOf(bid.getSubmittedAt()));
+
+        // Same order as BidService: status change first, then the bid
+        if (written.loadOpened()) {
+            jdbcTemplate.update(OPEN_LOAD_FOR_BIDS, params);
+            loadRepository.findById(bid.getLoadId())
+                    .ifPresent(load -> eventPublisher.publishEvent(LoadEvent.statusChanged(load)));
+        }
+
+        BidRevision previous = written.previous();
+        if (written.created()) {
+            jdbcTemplate.update(INSERT_BID, params);
+        } else if (previous != null) {
+            jdbcTemplate.update(INSERT_REVISION, new MapSqlParameterSource()
+                    .addValue("bidId", previous.getBidId())
+                    .addValue("rate", previous.getProposedRate())
+                    .addValue("trucks", previous.getTrucksOffered())
+                    .addValue("submittedAt", Timestamp.valueOf(previous.getSubmittedAt()))
+                    .addValue("revisedAt", Timestamp.valueOf(previous.getRevisedAt())));
+            jdbcTemplate.update(REVISE_BID, params);
+        } else {
+            return;
+        }
+        eventPublisher.publishEvent(LoadEvent.bidAdded(written.shipperId(), bid));
+    }
+
+    private void applyBooking(BookingWritten written) {
+        Booking booking = written.booking();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("bookingId", booking.getBookingId())
+                .addValue("loadId", booking.getLoadId())
+                .addValue("bidId", booking.getBidId())
+                .addValue("transporterId", booking.getTransporterId())
+                .addValue("trucks", booking.getAllocatedTrucks())
+                .addValue("rate", booking.getFinalRate())
+                .addValue("status", booking.getStatus().name())
+                .addValue("bookedAt", Timestamp.valueOf(booking.getBookedAt()))
+                .addValue("truckTypeId", booking.getTruckTypeId())
+                .addValue("reservedFrom", Timestamp.valueOf(booking.getReservedFrom()))
+                .addValue("reservedUntil", Timestamp.valueOf(booking.getReservedUntil()));
+
+        // Same order as BookingService: transporter, accepted bid, rejected bids, booking, load.
+        // The booking row is the reservation; the version bump tells cached schedules it changed
+        jdbcTemplate.update(TOUCH_TRANSPORTER, params);
+        transporterRepository.findById(booking.getTransporterId())
+                .ifPresent(transporter -> eventPublisher.publishEvent(TransporterEvent.updated(transporter)));
+
+        jdbcTemplate.update(SET_BID_STATUS, new MapSqlParameterSource()
+                .addValue("status", "ACCEPTED")
+                .addValue("bidIds", List.of(booking.getBidId())));
+
+        if (!written.rejectedBids().isEmpty()) {
+            jdbcTemplate.update(SET_BID_STATUS, new MapSqlParameterSource()
+                    .addValue("status", "REJECTED")
+                    .addValue("bidIds", written.rejectedBids().stream().map(Bid::getBidId).toList()));
+            written.rejectedBids().forEach(bid ->
+                    eventPublisher.publishEvent(LoadEvent.bidRejected(written.shipperId(), bid)));
+        }
+
+        jdbcTemplate.update(INSERT_BOOKING, params);
+        eventPublisher.publishEvent(LoadEvent.bookingCreated(written.shipperId(), booking));
+
+        jdbcTemplate.update(UPDATE_LOAD, new MapSqlParameterSource()
+                .addValue("remaining", written.remainingTrucks())
+                .addValue("status", written.loadStatus().name())
+                .addValue("loadId", booking.getLoadId()));
+        loadRepository.findById(booking.getLoadId())
+                .ifPresent(load -> eventPublisher.publishEvent(LoadEvent.statusChanged(load)));
+    }
+
+    private void markProjected(long sequence) {
+        lock.lock();
+        try {
+            projectedSequence = sequence;
+            progressed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Open bids of a partition's loads, stored column by column in primitive arrays
+ *
+ * A Bid entity with its UUIDs and LocalDateTime is five objects and a few
+ * hundred bytes of heap; here a bid is one row across eight arrays
+ * (ROW_BYTES). Each load owns a contiguous slice of rows, so scanning,
+ * filtering and scoring a load's bids read neighbouring memory and allocate
+ * nothing per bid. A slice that outgrows its capacity moves to the end of
+ * the arrays with half as much room again; the rows it leaves behind are
+ * reclaimed by compaction, which runs before the arrays are ever grown and
+ * also trims every slice to at most its size plus a quarter.
+ *
+ * Row numbers are only valid until the next add or remove on the store.
+ * Owned by a single partition thread, so nothing here is synchronized.
+ */
+final class OpenBidStore {
+
+    /**
+     * Bytes per row: bid and transporter IDs, submission time, rate, trucks, status
+     */
+    static final int ROW_BYTES = 5 * Long.BYTES + Double.BYTES + Integer.BYTES + 1;
+
+    private static final int MIN_SLICE_CAPACITY = 4;
+    private static final BidStatus[] STATUSES = BidStatus.values();
+
+    private static final class Slice {
+        private int offset;
+        private int capacity;
+        private int size;
+    }
+
+    private final Map<UUID, Slice> slices = new HashMap<>();
+
+    private long[] bidIdMost;
+    private long[] bidIdLeast;
+    private long[] transporterIdMost;
+    private long[] transporterIdLeast;
+    private long[] submittedAtMicros;
+    private double[] proposedRates;
+    private int[] trucksOffered;
+    private byte[] statuses;
+
+    private int top;       // first row not yet handed to a slice
+    private int reserved;  // rows held by live slices, used or not
+    private int size;      // bids stored
+
+    OpenBidStore(int initialRows) {
+        allocateColumns(Math.max(MIN_SLICE_CAPACITY, initialRows));
+    }
+
+    /**
+     * Append a PENDING bid to the load's slice
+     *
+     * @return its row
+     */
+    int add(UUID loadId, UUID bidId, UUID transporterId, double proposedRate, int trucks,
+            LocalDateTime submittedAt) {
+        return addRow(slices.computeIfAbsent(loadId, id -> new Slice()),
+                bidId.getMostSignificantBits(), bidId.getLeastSignificantBits(),
+                transporterId.getMostSignificantBits(), transporterId.getLeastSignificantBits(),
+                toMicros(submittedAt), proposedRate, trucks, (byte) BidStatus.PENDING.ordinal());
+    }
+
+    /**
+     * Copy every bid another store holds for the load into this one
+     */
+    void addAll(UUID loadId, OpenBidStore from) {
+        Slice slice = slices.computeIfAbsent(loadId, id -> new Slice());
+        for (int row = from.start(loadId); row < from.end(loadId); row++) {
+            addRow(slice, from.bidIdMost[row], from.bidIdLeast[row],
+                    from.transporterIdMost[row], from.transporterIdLeast[row],
+                    from.submittedAtMicros[row], from.proposedRates[row], from.trucksOffered[row],
+                    from.statuses[row]);
+        }
+    }
+
+    /**
+     * First row of the load's slice; rows start(loadId) until end(loadId) are its bids
+     */
+    int start(UUID loadId) {
+        Slice slice = slices.get(loadId);
+        return slice == null ? 0 : slice.offset;
+    }
+
+    int end(UUID loadId) {
+        Slice slice = slices.get(loadId);
+        return slice == null ? 0 : slice.offset + slice.size;
+    }
+
+    /**
+     * @return the bid's row, or -1 if the load has no such bid
+     */
+    int find(UUID loadId, UUID bidId) {
+        long most = bidId.getMostSignificantBits();
+        long least = bidId.getLeastSignificantBits();
+        for (int row = start(loadId), end = end(loadId); row < end; row++) {
+            if (bidIdLeast[row] == least && bidIdMost[row] == most) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the row of the transporter's bid on the load with that status, or -1
+     */
+    int findByTransporter(UUID loadId, UUID transporterId, BidStatus status) {
+        long most = transporterId.getMostSignificantBits();
+        long least = transporterId.getLeastSignificantBits();
+        for (int row = start(loadId), end = end(loadId); row < end; row++) {
+            if (transporterIdLeast[row] == least && transporterIdMost[row] == most
+                    && statuses[row] == status.ordinal()) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    int count(UUID loadId, BidStatus status) {
+        int count = 0;
+        for (int row = start(loadId), end = end(loadId); row < end; row++) {
+            if (statuses[row] == status.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Rows of the load's bids with the given status, best score first
+     * (see BestBidResponse.score)
+     *
+     * @param ratings transporter rating of each row in the slice:
+     *                ratings[i] belongs to row start(loadId) + i
+     */
+    int[] ranked(UUID loadId, BidStatus status, double[] ratings) {
+        int start = start(loadId);
+        int[] rows = new int[count(loadId, status)];
+        double[] scores = new double[rows.length];
+        int n = 0;
+        for (int row = start, end = end(loadId); row < end; row++) {
+            if (statuses[row] != status.ordinal()) {
+                continue;
+            }
+            double score = BestBidResponse.score(proposedRates[row], ratings[row - start]);
+
+            // Insertion sort: a load has tens of open bids, not thousands
+            int i = n++;
+            while (i > 0 && scores[i - 1] < score) {
+                rows[i] = rows[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            rows[i] = row;
+            scores[i] = score;
+        }
+        return rows;
+    }
+
+    /**
+     * Remove one bid; the last bid of its slice takes its row
+     */
+    void remove(UUID loadId, int row) {
+        Slice slice = slices.get(loadId);
+        if (slice == null || row < slice.offset || row >= slice.offset + slice.size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is not a bid of load " + loadId);
+        }
+        int last = slice.offset + slice.size - 1;
+        if (row != last) {
+            copyRows(last, row, 1);
+        }
+        slice.size--;
+        size--;
+    }
+
+    /**
+     * Remove every bid of the load and release its slice
+     */
+    void removeLoad(UUID loadId) {
+        Slice slice = slices.remove(loadId);
+        if (slice == null) {
+            return;
+        }
+        reserved -= slice.capacity;
+        size -= slice.size;
+        if (slices.isEmpty()) {
+            top = 0;
+        }
+    }
+
+    void revise(int row, double proposedRate, int trucks, LocalDateTime submittedAt) {
+        proposedRates[row] = proposedRate;
+        trucksOffered[row] = trucks;
+        submittedAtMicros[row] = toMicros(submittedAt);
+    }
+
+    void setStatus(int row, BidStatus status) {
+        statuses[row] = (byte) status.ordinal();
+    }
+
+    UUID bidId(int row) {
+        return new UUID(bidIdMost[row], bidIdLeast[row]);
+    }
+
+    UUID transporterId(int row) {
+        return new UUID(transporterIdMost[row], transporterIdLeast[row]);
+    }
+
+    double proposedRate(int row) {
+        return proposedRates[row];
+    }
+
+    int trucksOffered(int row) {
+        return trucksOffered[row];
+    }
+
+    LocalDateTime submittedAt(int row) {
+        long micros = submittedAtMicros[row];
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    BidStatus status(int row) {
+        return STATUSES[statuses[row]];
+    }
+
+    /**
+     * The row as a detached entity, for results and the projection
+     */
+    Bid toBid(UUID loadId, int row) {
+        return Bid.builder()
+                .bidId(bidId(row))
+                .loadId(loadId)
+                .transporterId(transporterId(row))
+                .proposedRate(proposedRates[row])
+                .trucksOffered(trucksOffered[row])
+                .status(status(row))
+                .submittedAt(submittedAt(row))
+                .build();
+    }
+
+    /**
+     * Bids stored across all loads
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Heap held by the columns, including rows not in use
+     */
+    long footprintBytes() {
+        return (long) bidIdMost.length * ROW_BYTES;
+    }
+
+    private int addRow(Slice slice, long bidMost, long bidLeast, long transporterMost, long transporterLeast,
+                       long micros, double rate, int trucks, byte status) {
+        if (slice.size == slice.capacity) {
+            grow(slice);
+        }
+        int row = slice.offset + slice.size++;
+        bidIdMost[row] = bidMost;
+        bidIdLeast[row] = bidLeast;
+        transporterIdMost[row] = transporterMost;
+        transporterIdLeast[row] = transporterLeast;
+        submittedAtMicros[row] = micros;
+        proposedRates[row] = rate;
+        trucksOffered[row] = trucks;
+        statuses[row] = status;
+        size++;
+        return row;
+    }
+
+    /**
+     * Move the slice to a region half as large again at the end of the arrays
+     */
+    private void grow(Slice slice) {
+        int capacity = headroom(slice.capacity);
+        reserve(capacity);
+        int offset = top;
+        copyRows(slice.offset, offset, slice.size);
+        top += capacity;
+        reserved += capacity - slice.capacity;
+        slice.offset = offset;
+        slice.capacity = capacity;
+    }
+
+    /**
+     * Make room for that many rows after top, compacting before growing the arrays
+     */
+    private void reserve(int rows) {
+        int length = bidIdMost.length;
+        if (top + rows <= length) {
+            return;
+        }
+        if (top - reserved >= length / 8) {
+            compact();
+        }
+        if (top + rows > length) {
+            resize(Math.max(length + (length >> 1), top + rows));
+        }
+    }
+
+    /**
+     * Slide every slice down over the rows released by moved or removed slices,
+     * trimming each to at most its size plus a quarter
+     */
+    private void compact() {
+        List<Slice> ordered = new ArrayList<>(slices.values());
+        ordered.sort(Comparator.comparingInt(slice -> slice.offset));
+        int next = 0;
+        for (Slice slice : ordered) {
+            if (slice.offset != next) {
+                copyRows(slice.offset, next, slice.size);
+                slice.offset = next;
+            }
+            // Never above the old capacity, so no slice overtakes the next one
+            slice.capacity = Math.min(slice.capacity,
+                    Math.max(MIN_SLICE_CAPACITY, slice.size + (slice.size >> 2)));
+            next += slice.capacity;
+        }
+        top = next;
+        reserved = next;
+    }
+
+    private static int headroom(int rows) {
+        return Math.max(MIN_SLICE_CAPACITY, rows + (rows >> 1));
+    }
+
+    private void copyRows(int from, int to, int rows) {
+        System.arraycopy(bidIdMost, from, bidIdMost, to, rows);
+        System.arraycopy(bidIdLeast, from, bidIdLeast, to, rows);
+        System.arraycopy(transporterIdMost, from, transporterIdMost, to, rows);
+        System.arraycopy(transporterIdLeast, from, transporterIdLeast, to, rows);
+        System.arraycopy(submittedAtMicros, from, submittedAtMicros, to, rows);
+        System.arraycopy(proposedRates, from, proposedRates, to, rows);
+        System.arraycopy(trucksOffered, from, trucksOffered, to, rows);
+        System.arraycopy(statuses, from, statuses, to, rows);
+    }
+
+    private void allocateColumns(int rows) {
+        bidIdMost = new long[rows];
+        bidIdLeast = new long[rows];
+        transporterIdMost = new long[rows];
+        transporterIdLeast = new long[rows];
+        submittedAtMicros = new long[rows];
+        proposedRates = new double[rows];
+        trucksOffered = new int[rows];
+        statuses = new byte[rows];
+    }
+
+    private void resize(int rows) {
+        bidIdMost = Arrays.copyOf(bidIdMost, rows);
+        bidIdLeast = Arrays.copyOf(bidIdLeast, rows);
+        transporterIdMost = Arrays.copyOf(transporterIdMost, rows);
+        transporterIdLeast = Arrays.copyOf(transporterIdLeast, rows);
+        submittedAtMicros = Arrays.copyOf(submittedAtMicros, rows);
+        proposedRates = Arrays.copyOf(proposedRates, rows);
+        trucksOffered = Arrays.copyOf(trucksOffered, rows);
+        statuses = Arrays.copyOf(statuses, rows);
+    }
+
+    /**
+     * Microseconds since the epoch (UTC), the precision of the bid.submitted_at column
+     */
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+}
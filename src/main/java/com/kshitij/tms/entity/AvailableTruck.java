@@ -2,6 +2,7 @@ package com.kshitij.tms.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 
 /**
  * AvailableTruck - Embeddable entity for truck availability
@@ -16,9 +17,22 @@ import lombok.*;
 @Builder
 public class AvailableTruck {
 
-    @Column(nullable = false, length = 50)
+    /**
+     * Code in the truck-type catalog; capacity matching compares these
+     */
+    @Column(nullable = false)
+    private short truckTypeId;
+
+    /**
+     * Display name of truckTypeId, read from the catalog
+     */
+    @Formula("(SELECT t.name FROM truck_type t WHERE t.truck_type_id = truck_type_id)")
     private String truckType;
 
+    /**
+     * Trucks of this type in the fleet; bookings reserve them for a window
+     * instead of decrementing this (see AvailabilityService)
+     */
     @Column(nullable = false)
     private int count;
 }
\ No newline at end of file
@@ -9,18 +9,14 @@ import java.util.UUID;
  * Bid Entity - Represents a transporter's bid on a load
  *
  * Foreign Keys: loadId and transporterId reference Load and Transporter tables
- * Unique Constraint: Only one ACCEPTED bid allowed per load (via partial index in DB)
- * Indexes: Added on loadId, transporterId, status for query performance
+ * Unique Constraint (partial index in DB): only one PENDING bid per transporter
+ * per load - repeat bids revise it in place. A load split across transporters
+ * has several ACCEPTED bids.
+ * Optimistic Locking: @Version prevents a revision and a booking overwriting each other
+ * Indexes: Defined in the Flyway migrations under db/migration
  */
 @Entity
-@Table(name = "bid",
-        indexes = {
-                @Index(name = "idx_bid_load", columnList = "loadId"),
-                @Index(name = "idx_bid_transporter", columnList = "transporterId"),
-                @Index(name = "idx_bid_status", columnList = "status"),
-                @Index(name = "idx_bid_submitted", columnList = "submittedAt")
-        }
-)
+@Table(name = "bid")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,21 +51,19 @@ public class Bid {
     @Column(nullable = false, length = 20)
     private BidStatus status;
 
+    /**
+     * When the current terms were submitted; updated on each revision
+     */
     @Column(nullable = false)
     private LocalDateTime submittedAt;
 
+    @Version
+    private Long version;
+
     /**
-     * Note: The unique constraint "only one ACCEPTED bid per load"
-     * is best implemented as a partial unique index in PostgreSQL:
-     *
-     * CREATE UNIQUE INDEX uk_one_accepted_bid_per_load
-     * ON bid (loadId)
-     * WHERE status = 'ACCEPTED';
-     *
-     * This can be added via SQL migration script or manually in PostgreSQL.
-     *
-     * To add manually, connect to your PostgreSQL and run:
-     * CREATE UNIQUE INDEX IF NOT EXISTS uk_one_accepted_bid_per_load
-     * ON bid (load_id) WHERE status = 'ACCEPTED';
+     * Note: "One PENDING bid per transporter per load" is uk_bid_pending_load_transporter,
+     * created by db/migration/postgresql/V8__one_pending_bid_per_transporter.sql.
+     * The earlier "only one ACCEPTED bid per load" index (V3) was dropped by V15
+     * so a load can be allocated across several bids.
      */
 }
\ No newline at end of file
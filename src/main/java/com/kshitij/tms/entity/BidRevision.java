@@ -0,0 +1,44 @@
+package com.kshitij.tms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * BidRevision Entity - Terms of a bid before it was revised
+ *
+ * The bid table keeps one row per transporter per load with the current
+ * terms; every superseded rate/truck count is appended here.
+ * Foreign Key: bidId references Bid (rows are removed with the bid)
+ */
+@Entity
+@Table(name = "bid_revision")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BidRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long revisionId;
+
+    @Column(nullable = false, name = "bidId")
+    private UUID bidId;
+
+    @Column(nullable = false)
+    private double proposedRate;
+
+    @Column(nullable = false)
+    private int trucksOffered;
+
+    /**
+     * When these terms were originally submitted
+     */
+    @Column(nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime revisedAt;
+}
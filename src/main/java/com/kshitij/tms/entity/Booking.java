@@ -2,6 +2,7 @@ package com.kshitij.tms.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -10,18 +11,10 @@ import java.util.UUID;
  *
  * Foreign Keys: loadId, bidId, and transporterId reference respective tables
  * Optimistic Locking: @Version prevents concurrent modifications
- * Indexes: Added on loadId, transporterId, status for query performance
+ * Indexes: Defined in the Flyway migrations under db/migration
  */
 @Entity
-@Table(name = "booking",
-        indexes = {
-                @Index(name = "idx_booking_load", columnList = "loadId"),
-                @Index(name = "idx_booking_transporter", columnList = "transporterId"),
-                @Index(name = "idx_booking_bid", columnList = "bidId"),
-                @Index(name = "idx_booking_status", columnList = "status"),
-                @Index(name = "idx_booking_date", columnList = "bookedAt")
-        }
-)
+@Table(name = "booking")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -66,9 +59,29 @@ public class Booking {
     @Column(nullable = false)
     private LocalDateTime bookedAt;
 
-    @Column(nullable = false, length = 50)
+    /**
+     * Code of the truck type the trucks were allocated from: the load's own
+     * or a compatible one. Cancellation returns the trucks to it.
+     */
+    @Column(nullable = false)
+    private short truckTypeId;
+
+    /**
+     * Display name of truckTypeId, read from the catalog
+     */
+    @Formula("(SELECT t.name FROM truck_type t WHERE t.truck_type_id = truck_type_id)")
     private String truckType;
 
+    /**
+     * Window the allocated trucks are reserved for, around the load's loading
+     * date; while CONFIRMED they are not free for other loads in it
+     */
+    @Column(nullable = false)
+    private LocalDateTime reservedFrom;
+
+    @Column(nullable = false)
+    private LocalDateTime reservedUntil;
+
     /**
      * Optimistic Locking: Prevents concurrent modifications
      * Automatically incremented by JPA on each update
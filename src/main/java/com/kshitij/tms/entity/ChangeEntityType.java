@@ -0,0 +1,8 @@
+package com.kshitij.tms.entity;
+
+public enum ChangeEntityType {
+    LOAD,
+    BID,
+    BOOKING,
+    TRANSPORTER
+}
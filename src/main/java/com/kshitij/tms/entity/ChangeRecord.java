@@ -0,0 +1,56 @@
+package com.kshitij.tms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * ChangeRecord Entity - Outbox row for one state change, served by the change feed
+ *
+ * Written in the same transaction as the change, so the feed never shows a
+ * change that rolled back and never misses one that committed.
+ * Primary Key: changeId, increasing; consumers use it as their cursor
+ * Pruned after the retention period (tms.changes.retention-hours)
+ */
+@Entity
+@Table(name = "change_record")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long changeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChangeEntityType entityType;
+
+    @Column(nullable = false)
+    private UUID entityId;
+
+    /**
+     * e.g. status-changed, bid-added, booking-cancelled, transporter-updated
+     */
+    @Column(nullable = false, length = 30)
+    private String changeType;
+
+    /**
+     * State of the entity after the change, serialized as JSON; unbounded
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    /**
+     * Database clock at insert, so records from different instances compare correctly
+     */
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+}
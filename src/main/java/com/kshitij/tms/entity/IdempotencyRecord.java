@@ -0,0 +1,47 @@
+package com.kshitij.tms.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * IdempotencyRecord - Stored outcome of a write made with an Idempotency-Key
+ *
+ * Primary Key: scope and client key ("bid:abc-123"), so the same key can be
+ * used independently for bids and bookings
+ * Request Hash: SHA-256 of the original request, to reject key reuse with a different payload
+ */
+@Entity
+@Table(name = "idempotency_key")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 140)
+    private String recordKey;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Response serialized as JSON; unbounded, since a batch booking response lists up to 100 bookings
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -2,6 +2,7 @@ package com.kshitij.tms.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -9,14 +10,10 @@ import java.util.UUID;
  * Load Entity - Represents a shipment request
  *
  * Optimistic Locking: @Version prevents concurrent modifications
- * Indexes: Added on frequently queried fields (status, shipperId)
+ * Indexes: Defined in the Flyway migrations under db/migration
  */
 @Entity
-@Table(name = "load", indexes = {
-        @Index(name = "idx_load_status", columnList = "status"),
-        @Index(name = "idx_load_shipper", columnList = "shipperId"),
-        @Index(name = "idx_load_date_posted", columnList = "datePosted")
-})
+@Table(name = "load")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,7 +46,16 @@ public class Load {
     @Column(nullable = false, length = 10)
     private WeightUnit weightUnit;
 
-    @Column(nullable = false, length = 50)
+    /**
+     * Code in the truck-type catalog; capacity matching compares these
+     */
+    @Column(nullable = false)
+    private short truckTypeId;
+
+    /**
+     * Display name of truckTypeId, read from the catalog
+     */
+    @Formula("(SELECT t.name FROM truck_type t WHERE t.truck_type_id = truck_type_id)")
     private String truckType;
 
     @Column(nullable = false)
@@ -0,0 +1,53 @@
+package com.kshitij.tms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * TruckType Entity - One entry of the truck-type catalog
+ *
+ * Loads, bookings and transporter inventories store the SMALLINT code and
+ * match on it; the name is only for display. carries lists the other types
+ * whose loads trucks of this type may take (see TruckCompatibility).
+ * Constraints: normalizedName (trimmed, lower case) is unique
+ */
+@Entity
+@Table(name = "truck_type")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TruckType {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short truckTypeId;
+
+    @Column(nullable = false, length = 50)
+    private String name;
+
+    @Column(nullable = false, unique = true, length = 50)
+    private String normalizedName;
+
+    /**
+     * Codes of truck types this type can stand in for; the catalog is small, so fetched eagerly
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(
+            name = "truck_type_compatibility",
+            joinColumns = @JoinColumn(name = "truck_type_id"),
+            foreignKey = @ForeignKey(name = "fk_compatibility_truck_type")
+    )
+    @Column(name = "carries_truck_type_id")
+    private Set<Short> carries;
+
+    /**
+     * Matching key for a free-form truck type: surrounding whitespace and case are ignored
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,84 @@
+package com.kshitij.tms.event;
+
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.dto.BookingResponse;
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.ChangeEntityType;
+import com.kshitij.tms.entity.Load;
+
+import java.util.UUID;
+
+/**
+ * A change to a load or its bids, published by the services inside the
+ * writing transaction and pushed to live subscribers once it commits
+ *
+ * @param shipperId routes the event to the shipper's stream; null when unknown
+ * @param entityId  ID of the changed bid, booking or load
+ * @param payload   the response record of whatever changed
+ */
+public record LoadEvent(Type type, UUID loadId, String shipperId, UUID entityId, Object payload) {
+
+    public enum Type {
+        BID_ADDED("bid-added", ChangeEntityType.BID),
+        BID_REJECTED("bid-rejected", ChangeEntityType.BID),
+        BOOKING_CREATED("booking-created", ChangeEntityType.BOOKING),
+        BOOKING_CANCELLED("booking-cancelled", ChangeEntityType.BOOKING),
+        BOOKING_COMPLETED("booking-completed", ChangeEntityType.BOOKING),
+        STATUS_CHANGED("status-changed", ChangeEntityType.LOAD);
+
+        private final String eventName;
+        private final ChangeEntityType entityType;
+
+        Type(String eventName, ChangeEntityType entityType) {
+            this.eventName = eventName;
+            this.entityType = entityType;
+        }
+
+        /**
+         * SSE event name, also the change type in the change feed
+         */
+        public String eventName() {
+            return eventName;
+        }
+
+        public ChangeEntityType entityType() {
+            return entityType;
+        }
+    }
+
+    /**
+     * A new bid, or new terms for a pending bid (same bidId)
+     */
+    public static LoadEvent bidAdded(String shipperId, Bid bid) {
+        return new LoadEvent(Type.BID_ADDED, bid.getLoadId(), shipperId, bid.getBidId(), BidResponse.from(bid));
+    }
+
+    public static LoadEvent bidRejected(String shipperId, Bid bid) {
+        return new LoadEvent(Type.BID_REJECTED, bid.getLoadId(), shipperId, bid.getBidId(), BidResponse.from(bid));
+    }
+
+    public static LoadEvent bookingCreated(String shipperId, Booking booking) {
+        return new LoadEvent(Type.BOOKING_CREATED, booking.getLoadId(), shipperId,
+                booking.getBookingId(), BookingResponse.from(booking));
+    }
+
+    public static LoadEvent bookingCancelled(String shipperId, Booking booking) {
+        return new LoadEvent(Type.BOOKING_CANCELLED, booking.getLoadId(), shipperId,
+                booking.getBookingId(), BookingResponse.from(booking));
+    }
+
+    public static LoadEvent bookingCompleted(String shipperId, Booking booking) {
+        return new LoadEvent(Type.BOOKING_COMPLETED, booking.getLoadId(), shipperId,
+                booking.getBookingId(), BookingResponse.from(booking));
+    }
+
+    /**
+     * Status or remaining trucks of the load changed
+     */
+    public static LoadEvent statusChanged(Load load) {
+        return new LoadEvent(Type.STATUS_CHANGED, load.getLoadId(), load.getShipperId(),
+                load.getLoadId(), LoadResponse.from(load));
+    }
+}
@@ -0,0 +1,261 @@
+package com.kshitij.tms.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events fan-out of LoadEvents to live subscribers
+ *
+ * Subscribers attach to a topic - one per load and one per shipper. Each
+ * committed event is serialized once and queued on the topics it belongs
+ * to; a topic delivers its queue to all of its subscribers from a single
+ * task, so the work per event doesn't depend on how many browser tabs are
+ * watching and events reach each subscriber in commit order. Topics exist
+ * only while they have subscribers, so events nobody watches cost nothing.
+ *
+ * Delivery and heartbeats run on virtual threads on Java 21+ (a cached
+ * platform thread pool on older JVMs), off the committing request thread.
+ *
+ * Metrics: tms.live-updates.subscribers and tms.live-updates.events.
+ */
+@Slf4j
+@Component
+public class LoadEventBroadcaster {
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int maxQueuedPerTopic;
+    private final ExecutorService executor = newDeliveryExecutor();
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter published;
+    private final Counter dropped;
+
+    public LoadEventBroadcaster(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${tms.live-updates.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${tms.live-updates.max-queued-per-topic:1000}") int maxQueuedPerTopic) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.maxQueuedPerTopic = maxQueuedPerTopic;
+
+        Gauge.builder("tms.live-updates.subscribers", subscribers, AtomicInteger::get)
+                .description("Open SSE connections")
+                .register(meterRegistry);
+        this.published = Counter.builder("tms.live-updates.events")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("tms.live-updates.events")
+                .tag("outcome", "dropped")
+                .description("Events not queued because a topic's subscribers fell too far behind")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribeToLoad(UUID loadId) {
+        return subscribe(loadTopic(loadId));
+    }
+
+    public SseEmitter subscribeToShipper(String shipperId) {
+        return subscribe(shipperTopic(shipperId));
+    }
+
+    /**
+     * Runs after the publishing transaction commits, or immediately when published outside one
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoadEvent(LoadEvent event) {
+        Topic loadTopic = topics.get(loadTopic(event.loadId()));
+        Topic shipperTopic = event.shipperId() == null ? null : topics.get(shipperTopic(event.shipperId()));
+        if (loadTopic == null && shipperTopic == null) {
+            return;
+        }
+
+        Set<DataWithMediaType> frame = SseEmitter.event()
+                .id(String.valueOf(sequence.incrementAndGet()))
+                .name(event.type().eventName())
+                .data(toJson(event.payload()))
+                .build();
+        published.increment();
+        if (loadTopic != null) {
+            loadTopic.enqueue(frame);
+        }
+        if (shipperTopic != null) {
+            shipperTopic.enqueue(frame);
+        }
+    }
+
+    /**
+     * Comment line on every open stream, so proxies don't close idle connections
+     * and dead clients are detected
+     */
+    @Scheduled(fixedDelayString = "${tms.live-updates.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        topics.values().forEach(topic -> topic.enqueue(heartbeat));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        topics.keySet().forEach(key -> {
+            Topic topic = topics.remove(key);
+            if (topic != null) {
+                subscribers.addAndGet(-topic.subscribers.size());
+                topic.subscribers.forEach(SseEmitter::complete);
+            }
+        });
+        executor.shutdown();
+    }
+
+    int subscriberCount() {
+        return subscribers.get();
+    }
+
+    private SseEmitter subscribe(String key) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        topics.compute(key, (k, topic) -> {
+            Topic target = topic == null ? new Topic(k) : topic;
+            target.subscribers.add(emitter);
+            return target;
+        });
+        subscribers.incrementAndGet();
+
+        Runnable unsubscribe = () -> unsubscribe(key, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
+    private void unsubscribe(String key, SseEmitter emitter) {
+        topics.computeIfPresent(key, (k, topic) -> {
+            if (topic.subscribers.remove(emitter)) {
+                subscribers.decrementAndGet();
+            }
+            return topic.subscribers.isEmpty() ? null : topic;
+        });
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize live update", e);
+        }
+    }
+
+    private static String loadTopic(UUID loadId) {
+        return "load:" + loadId;
+    }
+
+    private static String shipperTopic(String shipperId) {
+        return "shipper:" + shipperId;
+    }
+
+    /**
+     * Virtual-thread-per-task executor when running on Java 21+, falling back
+     * to a cached pool of daemon platform threads on older JVMs (the project targets 17).
+     */
+    private static ExecutorService newDeliveryExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "live-updates");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Subscribers of one load or shipper, with at most one delivery task running at a time
+     */
+    private final class Topic {
+
+        private final String key;
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        private final Queue<Set<DataWithMediaType>> queued = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queuedCount = new AtomicInteger();
+        private final AtomicBoolean delivering = new AtomicBoolean();
+
+        private Topic(String key) {
+            this.key = key;
+        }
+
+        private void enqueue(Set<DataWithMediaType> frame) {
+            if (queuedCount.incrementAndGet() > maxQueuedPerTopic) {
+                queuedCount.decrementAndGet();
+                dropped.increment();
+                return;
+            }
+            queued.add(frame);
+            scheduleDelivery();
+        }
+
+        private void scheduleDelivery() {
+            if (delivering.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::deliver);
+                } catch (RuntimeException e) {
+                    // Executor shut down: nothing left to deliver to
+                    delivering.set(false);
+                }
+            }
+        }
+
+        private void deliver() {
+            try {
+                Set<DataWithMediaType> frame;
+                while ((frame = queued.poll()) != null) {
+                    queuedCount.decrementAndGet();
+                    for (SseEmitter emitter : subscribers) {
+                        send(emitter, frame);
+                    }
+                }
+            } finally {
+                delivering.set(false);
+                if (!queued.isEmpty()) {
+                    scheduleDelivery();
+                }
+            }
+        }
+
+        private void send(SseEmitter emitter, Set<DataWithMediaType> frame) {
+            try {
+                emitter.send(frame);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                log.debug("Dropping live update subscriber of {}: {}", key, e.getMessage());
+                unsubscribe(key, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
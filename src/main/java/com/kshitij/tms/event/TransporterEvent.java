@@ -0,0 +1,19 @@
+package com.kshitij.tms.event;
+
+import com.kshitij.tms.dto.TransporterResponse;
+import com.kshitij.tms.entity.Transporter;
+
+import java.util.UUID;
+
+/**
+ * A transporter was registered or its truck inventory changed
+ * Recorded in the change feed; not pushed to live load streams
+ */
+public record TransporterEvent(UUID transporterId, TransporterResponse payload) {
+
+    public static final String CHANGE_TYPE = "transporter-updated";
+
+    public static TransporterEvent updated(Transporter transporter) {
+        return new TransporterEvent(transporter.getTransporterId(), TransporterResponse.from(transporter));
+    }
+}
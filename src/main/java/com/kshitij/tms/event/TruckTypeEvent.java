@@ -0,0 +1,8 @@
+package com.kshitij.tms.event;
+
+/**
+ * A truck type was renamed or removed, or the types it can carry changed
+ * After commit this instance clears its name cache and rebuilds its compatibility closure; not recorded in the change feed
+ */
+public record TruckTypeEvent(short truckTypeId) {
+}
@@ -2,6 +2,7 @@ package com.kshitij.tms.exception;
 
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -72,6 +73,80 @@ public class GlobalExceptionHandler {
                 .body(createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST, request));
     }
 
+    /**
+     * Handle InvalidFieldSelectionException - 400 Bad Request
+     * Thrown when ?fields= names a field the resource doesn't expose
+     */
+    @ExceptionHandler(InvalidFieldSelectionException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidFieldSelection(
+            InvalidFieldSelectionException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST, request));
+    }
+
+    /**
+     * Handle InvalidBatchBookingException - 400 Bad Request
+     * Thrown when a batch booking names the same bid more than once
+     */
+    @ExceptionHandler(InvalidBatchBookingException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidBatchBooking(
+            InvalidBatchBookingException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST, request));
+    }
+
+    /**
+     * Handle InvalidTruckTypeException - 400 Bad Request
+     * Thrown when a truck type isn't in the catalog and auto-registration is off
+     */
+    @ExceptionHandler(InvalidTruckTypeException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidTruckType(
+            InvalidTruckTypeException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST, request));
+    }
+
+    /**
+     * Handle InvalidIdempotencyKeyException - 422 Unprocessable Entity
+     * Thrown when an Idempotency-Key is malformed or reused with a different payload
+     */
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidIdempotencyKey(
+            InvalidIdempotencyKeyException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(createErrorResponse(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY, request));
+    }
+
+    /**
+     * Handle RateLimitExceededException - 429 Too Many Requests
+     * Thrown when a transporter or shipper exceeds its write rate limit
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleRateLimitExceeded(
+            RateLimitExceededException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(createErrorResponse(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS, request));
+    }
+
+    /**
+     * Handle ServiceOverloadedException - 503 Service Unavailable
+     * Thrown when a request is shed at the adaptive concurrency limit
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceOverloaded(
+            ServiceOverloadedException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(createErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE, request));
+    }
+
     /**
      * Handle LoadAlreadyBookedException - 409 Conflict
      * Thrown when load is already booked or concurrent modification occurs
@@ -4,7 +4,8 @@ package com.kshitij.tms.exception;
  * Thrown when a transporter doesn't have enough trucks available.
  * Used during:
  * - Bid submission (transporter must have trucks to offer)
- * - Booking creation (verify capacity before deducting)
+ * - Booking creation (verify capacity before reserving)
+ * - Batch booking (trucks allocated exceed the load's remaining trucks)
  * Returns HTTP 400 Bad Request status.
  */
 public class InsufficientCapacityException extends RuntimeException {
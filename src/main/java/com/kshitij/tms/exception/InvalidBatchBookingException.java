@@ -0,0 +1,12 @@
+package com.kshitij.tms.exception;
+
+/**
+ * Thrown when a batch booking request is invalid as a whole, e.g. it names the same bid twice.
+ * Returns HTTP 400 Bad Request status.
+ */
+public class InvalidBatchBookingException extends RuntimeException {
+
+    public InvalidBatchBookingException(String message) {
+        super(message);
+    }
+}
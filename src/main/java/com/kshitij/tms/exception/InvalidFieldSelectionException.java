@@ -0,0 +1,12 @@
+package com.kshitij.tms.exception;
+
+/**
+ * Thrown when a sparse fieldset (?fields=...) names a field the resource doesn't expose.
+ * Returns HTTP 400 Bad Request status.
+ */
+public class InvalidFieldSelectionException extends RuntimeException {
+
+    public InvalidFieldSelectionException(String message) {
+        super(message);
+    }
+}
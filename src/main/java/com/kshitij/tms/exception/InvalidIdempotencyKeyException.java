@@ -0,0 +1,12 @@
+package com.kshitij.tms.exception;
+
+/**
+ * Thrown when an Idempotency-Key is malformed or reused with a different request payload.
+ * Returns HTTP 422 Unprocessable Entity status.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.kshitij.tms.exception;
+
+/**
+ * Thrown when a truck type isn't in the catalog and auto-registration is off.
+ * Returns HTTP 400 Bad Request status.
+ */
+public class InvalidTruckTypeException extends RuntimeException {
+
+    public InvalidTruckTypeException(String message) {
+        super(message);
+    }
+}
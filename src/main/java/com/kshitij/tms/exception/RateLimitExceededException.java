@@ -0,0 +1,19 @@
+package com.kshitij.tms.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a client exceeds its write rate limit (per transporter or shipper),
+ * or when the asynchronous bid ingestion buffer is full.
+ * Returns HTTP 429 Too Many Requests status with a Retry-After header.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
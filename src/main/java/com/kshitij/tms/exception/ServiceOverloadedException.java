@@ -0,0 +1,18 @@
+package com.kshitij.tms.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is shed because the API is at its adaptive concurrency limit.
+ * Returns HTTP 503 Service Unavailable status with a Retry-After header.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,143 @@
+package com.kshitij.tms.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit for one class of requests
+ *
+ * Caps the number of requests in flight instead of their rate. Each
+ * completed request is a sample: a response slower than the latency
+ * threshold or a 5xx means the database is saturated, and the limit is
+ * multiplied by the backoff ratio; otherwise, if the limit was actually
+ * being used, it grows by one. So the limit settles just below the point
+ * where requests start queueing for connections, and excess requests are
+ * rejected immediately instead of waiting behind them.
+ *
+ * Lower-priority requests may only use a share of the limit, so under
+ * pressure they are shed first and the rest stays free for critical work.
+ *
+ * Metrics: tms.concurrency.limit{limiter}, tms.concurrency.inflight{limiter}
+ * and tms.concurrency.requests{limiter,group,outcome=accepted|rejected}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        CRITICAL(1.0),
+        NORMAL(0.9),
+        LOW(0.5);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private final String name;
+    private final ConcurrencyLimitProperties.Limit config;
+    private final long latencyThresholdNanos;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties.Limit config, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.config = config;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getLatencyThresholdMs());
+        this.meterRegistry = meterRegistry;
+        this.limit = config.getInitialLimit();
+
+        Gauge.builder("tms.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("limiter", name)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("tms.concurrency.inflight", inflight, AtomicInteger::get)
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return a permit to release when the request completes, or null if the request must be shed
+     */
+    public Permit tryAcquire(String group, Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                counter(group, "rejected").increment();
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                counter(group, "accepted").increment();
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private void onSample(long latencyNanos, int inflightAtStart, boolean failed) {
+        sampleLock.lock();
+        try {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+            } else if (inflightAtStart * 2 >= limit) {
+                // Only grow when the limit is actually the constraint
+                limit = Math.min(config.getMaxLimit(), limit + 1);
+            }
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    private Counter counter(String group, String outcome) {
+        return counters.computeIfAbsent(group + ":" + outcome, key -> Counter.builder("tms.concurrency.requests")
+                .tag("limiter", name)
+                .tag("group", group)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * One admitted request; release exactly once
+     */
+    public final class Permit {
+
+        private final int inflightAtStart;
+
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /**
+         * Completed request; its latency and outcome adjust the limit
+         */
+        public void release(long latencyNanos, boolean failed) {
+            inflight.decrementAndGet();
+            onSample(latencyNanos, inflightAtStart, failed);
+        }
+
+        /**
+         * Request handed off (async or streaming); frees the slot without a sample
+         */
+        public void releaseWithoutSample() {
+            inflight.decrementAndGet();
+        }
+    }
+}
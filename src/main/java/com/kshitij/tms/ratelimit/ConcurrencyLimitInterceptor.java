@@ -0,0 +1,108 @@
+package com.kshitij.tms.ratelimit;
+
+import com.kshitij.tms.controller.BidController;
+import com.kshitij.tms.controller.BookingController;
+import com.kshitij.tms.controller.LoadController;
+import com.kshitij.tms.controller.TransporterController;
+import com.kshitij.tms.exception.ServiceOverloadedException;
+import com.kshitij.tms.ratelimit.AdaptiveConcurrencyLimiter.Permit;
+import com.kshitij.tms.ratelimit.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Sheds load at the controller layer before a request reaches the database
+ *
+ * Reads and writes have separate limiters, since reads can be served by the
+ * replica and writes always go to the primary. Within each, booking writes
+ * may use the whole limit, list reads (GETs without a path variable, the most
+ * expensive and least urgent) only half of it, and everything else the rest.
+ * A shed request gets 503 with Retry-After.
+ *
+ * Streaming responses free their slot once the stream is opened and don't
+ * feed the limiter, since their duration says nothing about the database.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Map<Class<?>, String> GROUPS = Map.of(
+            LoadController.class, "loads",
+            BidController.class, "bids",
+            BookingController.class, "bookings",
+            TransporterController.class, "transporters");
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+    private static final String STARTED_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".started";
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter readLimiter,
+                                       AdaptiveConcurrencyLimiter writeLimiter,
+                                       long retryAfterSeconds) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        String group = GROUPS.get(method.getBeanType());
+        if (group == null) {
+            return true;
+        }
+
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        AdaptiveConcurrencyLimiter limiter = read ? readLimiter : writeLimiter;
+        Permit permit = limiter.tryAcquire(group, priority(request, method, read));
+        if (permit == null) {
+            throw new ServiceOverloadedException(
+                    "Server is at capacity; retry after " + retryAfterSeconds + " second(s)", retryAfterSeconds);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        request.setAttribute(STARTED_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        Permit permit = takePermit(request);
+        if (permit != null) {
+            permit.releaseWithoutSample();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Permit permit = takePermit(request);
+        if (permit != null) {
+            long latency = System.nanoTime() - (long) request.getAttribute(STARTED_ATTRIBUTE);
+            permit.release(latency, ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    private Priority priority(HttpServletRequest request, HandlerMethod method, boolean read) {
+        if (!read) {
+            return method.getBeanType() == BookingController.class ? Priority.CRITICAL : Priority.NORMAL;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null && !pattern.toString().contains("{") ? Priority.LOW : Priority.NORMAL;
+    }
+
+    private Permit takePermit(HttpServletRequest request) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        return permit;
+    }
+}
@@ -0,0 +1,51 @@
+package com.kshitij.tms.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive concurrency limits for the API (tms.concurrency-limit.*)
+ *
+ *   tms.concurrency-limit.reads.initial-limit=40
+ *   tms.concurrency-limit.reads.latency-threshold-ms=250
+ *   tms.concurrency-limit.writes.max-limit=100
+ */
+@Data
+@ConfigurationProperties("tms.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Seconds clients are asked to wait after a 503
+     */
+    private long retryAfterSeconds = 1;
+
+    private Limit reads = new Limit(40, 8, 400, 250, 0.9);
+
+    private Limit writes = new Limit(20, 4, 200, 500, 0.9);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        /**
+         * Responses slower than this count as overload and shrink the limit
+         */
+        private long latencyThresholdMs;
+
+        /**
+         * Factor the limit is multiplied by on overload
+         */
+        private double backoffRatio;
+    }
+}
@@ -0,0 +1,65 @@
+package com.kshitij.tms.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Write rate limits (tms.rate-limit.*)
+ *
+ *   tms.rate-limit.policies.bids.requests-per-second=10
+ *   tms.rate-limit.policies.bids.burst=20
+ *   tms.rate-limit.policies.bids.overrides[<transporterId>].requests-per-second=50
+ *   tms.rate-limit.policies.bids.overrides[<transporterId>].burst=100
+ */
+@Data
+@ConfigurationProperties("tms.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on tracked keys per policy; keys beyond it share one bucket
+     */
+    private int maxKeys = 100_000;
+
+    private Map<String, Policy> policies = new HashMap<>();
+
+    @Data
+    public static class Policy {
+
+        private Limit defaults = new Limit(10, 20);
+
+        /**
+         * Per-key limits, e.g. a higher allowance for a large carrier's integration
+         */
+        private Map<String, Limit> overrides = new HashMap<>();
+
+        // Flattened so the common case reads policies.bids.requests-per-second
+        public void setRequestsPerSecond(double requestsPerSecond) {
+            defaults.setRequestsPerSecond(requestsPerSecond);
+        }
+
+        public void setBurst(int burst) {
+            defaults.setBurst(burst);
+        }
+
+        public Limit limitFor(String key) {
+            return overrides.getOrDefault(key, defaults);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private double requestsPerSecond;
+
+        private int burst;
+    }
+}
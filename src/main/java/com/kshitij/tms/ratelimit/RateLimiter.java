@@ -0,0 +1,152 @@
+package com.kshitij.tms.ratelimit;
+
+import com.kshitij.tms.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token-bucket rate limiting for write endpoints
+ *
+ * Each policy (bids, loads) keeps one TokenBucket per key - transporterId
+ * for bids, shipperId for loads - in a concurrent map. Controllers call
+ * acquire() before any database work, so a flooding client is turned away
+ * without touching the connection pool.
+ *
+ * The map is bounded: buckets that have refilled completely are evicted by
+ * a periodic sweep (and eagerly when the map reaches maxKeys), and once the
+ * bound is reached new keys share a single overflow bucket per policy rather
+ * than growing the map.
+ *
+ * Metrics: tms.ratelimit.requests{policy, outcome=allowed|rejected} and
+ * tms.ratelimit.keys{policy}.
+ */
+@Slf4j
+public class RateLimiter {
+
+    public static final String BIDS = "bids";
+    public static final String LOADS = "loads";
+
+    private static final String OVERFLOW_KEY = "";
+    private static final long MIN_EAGER_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final LongSupplier clock;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PolicyState> policies = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Take a permit for the key under the named policy
+     * Policies without configuration are not limited
+     *
+     * @throws RateLimitExceededException if the key's bucket is empty
+     */
+    public void acquire(String policy, String key) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        RateLimitProperties.Policy config = properties.getPolicies().get(policy);
+        if (config == null) {
+            return;
+        }
+
+        PolicyState state = policies.computeIfAbsent(policy, PolicyState::new);
+        long now = clock.getAsLong();
+        long waitNanos = state.bucketFor(key, config, now).tryAcquire(now);
+
+        if (waitNanos > 0) {
+            state.rejected.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            throw new RateLimitExceededException(
+                    String.format("Rate limit exceeded for %s '%s'. Retry after %d s", policy, key, retryAfterSeconds),
+                    retryAfterSeconds);
+        }
+        state.allowed.increment();
+    }
+
+    /**
+     * Drop buckets that have refilled completely; evicting them doesn't change any outcome
+     */
+    @Scheduled(fixedDelayString = "${tms.rate-limit.sweep-interval-ms:30000}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        policies.values().forEach(state -> state.evictIdle(now));
+    }
+
+    int trackedKeys(String policy) {
+        PolicyState state = policies.get(policy);
+        return state == null ? 0 : state.buckets.size();
+    }
+
+    private final class PolicyState {
+
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong lastEagerSweep = new AtomicLong();
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private PolicyState(String policy) {
+            this.allowed = Counter.builder("tms.ratelimit.requests")
+                    .tag("policy", policy).tag("outcome", "allowed")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("tms.ratelimit.requests")
+                    .tag("policy", policy).tag("outcome", "rejected")
+                    .description("Write requests turned away with 429")
+                    .register(meterRegistry);
+            Gauge.builder("tms.ratelimit.keys", buckets, Map::size)
+                    .tag("policy", policy)
+                    .register(meterRegistry);
+        }
+
+        private TokenBucket bucketFor(String key, RateLimitProperties.Policy config, long now) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+
+            if (buckets.size() >= properties.getMaxKeys()) {
+                // At most one eager sweep per second, so a saturated map doesn't cost O(n) per request
+                long lastSweep = lastEagerSweep.get();
+                if (now - lastSweep >= MIN_EAGER_SWEEP_INTERVAL_NANOS && lastEagerSweep.compareAndSet(lastSweep, now)) {
+                    evictIdle(now);
+                }
+                if (buckets.size() >= properties.getMaxKeys()) {
+                    // Too many active keys (or key spraying): new keys share one bucket
+                    return buckets.computeIfAbsent(OVERFLOW_KEY, k -> newBucket(config.limitFor(k), now));
+                }
+            }
+            return buckets.computeIfAbsent(key, k -> newBucket(config.limitFor(k), now));
+        }
+
+        private void evictIdle(long now) {
+            int before = buckets.size();
+            buckets.entrySet().removeIf(entry -> entry.getValue().isFull(now));
+            int evicted = before - buckets.size();
+            if (evicted > 0) {
+                log.debug("Evicted {} idle rate-limit buckets", evicted);
+            }
+        }
+
+        private TokenBucket newBucket(RateLimitProperties.Limit limit, long now) {
+            return new TokenBucket(limit.getRequestsPerSecond(), limit.getBurst(), now);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.kshitij.tms.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket
+ *
+ * Implemented in its "virtual scheduling" form (GCRA): instead of a token
+ * count and a refill timestamp, the whole state is one theoretical arrival
+ * time (TAT). Each request pushes the TAT forward by one emission interval
+ * (1 / rate); a request is rejected when that would put the TAT more than
+ * the burst allowance ahead of now. This is exactly a bucket of capacity
+ * burst refilled at rate, updated with a single compare-and-set.
+ *
+ * A bucket whose TAT is in the past is full, so dropping it and creating a
+ * fresh one later is indistinguishable - which is what makes idle buckets
+ * safe to evict.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, Math.round(1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if a permit was taken, otherwise nanoseconds until one is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = Math.max(tat, nowNanos);
+            long waitNanos = start - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * True when the bucket has refilled completely, i.e. evicting it changes nothing
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,35 @@
+package com.kshitij.tms.reactive;
+
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.entity.BidStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Reactive GET /api/bids, same filters as BidController
+ */
+@RestController
+@Profile(ReactiveReadApplication.PROFILE)
+@RequestMapping("/api/bids")
+@RequiredArgsConstructor
+public class ReactiveBidController {
+
+    private final ReactiveBidRepository bidRepository;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BidResponse> filterBids(
+            @RequestParam(required = false) UUID loadId,
+            @RequestParam(required = false) UUID transporterId,
+            @RequestParam(required = false) BidStatus status
+    ) {
+        return bidRepository.findBids(loadId, transporterId, status);
+    }
+}
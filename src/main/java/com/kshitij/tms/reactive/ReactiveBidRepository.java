@@ -0,0 +1,89 @@
+package com.kshitij.tms.reactive;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.entity.BidStatus;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * R2DBC counterpart of BidRepository's filter queries, plus the pending
+ * bids of a load joined with their transporters' ratings for best-bids
+ */
+@Repository
+@Profile(ReactiveReadApplication.PROFILE)
+@RequiredArgsConstructor
+public class ReactiveBidRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<BidResponse> findBids(UUID loadId, UUID transporterId, BidStatus status) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (loadId != null) {
+            conditions.add("load_id = :loadId");
+            parameters.put("loadId", loadId);
+        }
+        if (transporterId != null) {
+            conditions.add("transporter_id = :transporterId");
+            parameters.put("transporterId", transporterId);
+        }
+        if (status != null) {
+            conditions.add("status = :status");
+            parameters.put("status", status.name());
+        }
+
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT bid_id, load_id, transporter_id, "
+                + "proposed_rate, trucks_offered, status, submitted_at FROM bid" + where);
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map((row, metadata) -> toResponse(row)).all();
+    }
+
+    /**
+     * Unranked; the caller scores and sorts them
+     */
+    public Flux<BestBidResponse> findPendingWithRating(UUID loadId) {
+        return databaseClient.sql("SELECT b.bid_id, b.transporter_id, b.proposed_rate, t.rating "
+                        + "FROM bid b JOIN transporter t ON t.transporter_id = b.transporter_id "
+                        + "WHERE b.load_id = :loadId AND b.status = :status")
+                .bind("loadId", loadId)
+                .bind("status", BidStatus.PENDING.name())
+                .map((row, metadata) -> {
+                    double proposedRate = row.get("proposed_rate", Double.class);
+                    double rating = row.get("rating", Double.class);
+                    return BestBidResponse.builder()
+                            .bidId(row.get("bid_id", UUID.class))
+                            .transporterId(row.get("transporter_id", UUID.class))
+                            .proposedRate(proposedRate)
+                            .transporterRating(rating)
+                            .score(BestBidResponse.score(proposedRate, rating))
+                            .build();
+                })
+                .all();
+    }
+
+    private static BidResponse toResponse(Row row) {
+        return new BidResponse(
+                row.get("bid_id", UUID.class),
+                row.get("load_id", UUID.class),
+                row.get("transporter_id", UUID.class),
+                row.get("proposed_rate", Double.class),
+                row.get("trucks_offered", Integer.class),
+                BidStatus.valueOf(row.get("status", String.class)),
+                row.get("submitted_at", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,33 @@
+package com.kshitij.tms.reactive;
+
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Error responses of the reactive API, in the same shape as GlobalExceptionHandler's
+ */
+@RestControllerAdvice
+@Profile(ReactiveReadApplication.PROFILE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleResourceNotFound(
+            ResourceNotFoundException ex, ServerHttpRequest request) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", HttpStatus.NOT_FOUND.value());
+        error.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());
+        error.put("message", ex.getMessage());
+        error.put("path", request.getPath().value());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+}
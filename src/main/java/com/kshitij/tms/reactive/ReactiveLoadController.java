@@ -0,0 +1,62 @@
+package com.kshitij.tms.reactive;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Reactive GET /api/loads and /api/loads/{loadId}/best-bids
+ *
+ * Same parameters as LoadController, but the listing is the page's rows
+ * without the Page envelope (no count query). With Accept:
+ * application/x-ndjson rows are written as they are read.
+ */
+@RestController
+@Profile(ReactiveReadApplication.PROFILE)
+@RequestMapping("/api/loads")
+@RequiredArgsConstructor
+public class ReactiveLoadController {
+
+    private final ReactiveLoadRepository loadRepository;
+    private final ReactiveBidRepository bidRepository;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<LoadResponse> filterLoads(
+            @RequestParam(required = false) String shipperId,
+            @RequestParam(required = false) LoadStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        if (page < 0 || size < 1) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "page must be >= 0 and size >= 1"));
+        }
+        return loadRepository.findLoads(shipperId, status, page, size);
+    }
+
+    @GetMapping(value = "/{loadId}/best-bids",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BestBidResponse> getBestBids(@PathVariable UUID loadId) {
+        return loadRepository.existsById(loadId)
+                .flatMapMany(exists -> exists
+                        ? bidRepository.findPendingWithRating(loadId)
+                                .sort(Comparator.comparingDouble(BestBidResponse::getScore).reversed())
+                        : Mono.error(new ResourceNotFoundException("Load", "loadId", loadId)));
+    }
+}
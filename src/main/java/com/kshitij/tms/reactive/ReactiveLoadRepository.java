@@ -0,0 +1,86 @@
+package com.kshitij.tms.reactive;
+
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.entity.WeightUnit;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * R2DBC counterpart of LoadRepository's list queries
+ *
+ * Same filters and order (newest first, so every combination reads an index
+ * ending in date_posted), selecting only LoadResponse's columns.
+ */
+@Repository
+@Profile(ReactiveReadApplication.PROFILE)
+@RequiredArgsConstructor
+public class ReactiveLoadRepository {
+
+    private static final String COLUMNS = "load_id, shipper_id, loading_city, unloading_city, loading_date, "
+            + "product_type, weight, weight_unit, "
+            + "(SELECT t.name FROM truck_type t WHERE t.truck_type_id = load.truck_type_id) AS truck_type, "
+            + "no_of_trucks, remaining_trucks, status, date_posted";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<LoadResponse> findLoads(String shipperId, LoadStatus status, int page, int size) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (shipperId != null) {
+            conditions.add("shipper_id = :shipperId");
+            parameters.put("shipperId", shipperId);
+        }
+        if (status != null) {
+            conditions.add("status = :status");
+            parameters.put("status", status.name());
+        }
+        parameters.put("limit", size);
+        parameters.put("offset", (long) page * size);
+
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT " + COLUMNS + " FROM load" + where
+                + " ORDER BY date_posted DESC LIMIT :limit OFFSET :offset");
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map((row, metadata) -> toResponse(row)).all();
+    }
+
+    public Mono<Boolean> existsById(UUID loadId) {
+        return databaseClient.sql("SELECT 1 FROM load WHERE load_id = :loadId")
+                .bind("loadId", loadId)
+                .map((row, metadata) -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    private static LoadResponse toResponse(Row row) {
+        return new LoadResponse(
+                row.get("load_id", UUID.class),
+                row.get("shipper_id", String.class),
+                row.get("loading_city", String.class),
+                row.get("unloading_city", String.class),
+                row.get("loading_date", LocalDateTime.class),
+                row.get("product_type", String.class),
+                row.get("weight", Double.class),
+                WeightUnit.valueOf(row.get("weight_unit", String.class)),
+                row.get("truck_type", String.class),
+                row.get("no_of_trucks", Integer.class),
+                row.get("remaining_trucks", Integer.class),
+                LoadStatus.valueOf(row.get("status", String.class)),
+                row.get("date_posted", LocalDateTime.class));
+    }
+}
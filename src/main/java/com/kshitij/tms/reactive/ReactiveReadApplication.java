@@ -0,0 +1,57 @@
+package com.kshitij.tms.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Read-only reactive API on WebFlux and R2DBC
+ *
+ * Serves GET /api/loads, /api/bids and /api/loads/{loadId}/best-bids for the
+ * read traffic that is mostly waiting on Postgres: no request holds a thread
+ * while its query runs, so a few event-loop threads serve many thousands of
+ * concurrent readers over a small connection pool. Runs as its own process
+ * next to the servlet application, usually against the read replica
+ * (application-reactive-reads.properties):
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.main-class=com.kshitij.tms.reactive.ReactiveReadApplication
+ *
+ * Only this package is scanned. Its beans are limited to the reactive-reads
+ * profile, so TmsApplication, which scans all of com.kshitij.tms, skips them.
+ */
+@Profile(ReactiveReadApplication.PROFILE)
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        FlywayAutoConfiguration.class
+})
+@ComponentScan
+public class ReactiveReadApplication {
+
+    public static final String PROFILE = "reactive-reads";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveReadApplication.class);
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+
+    /**
+     * Netty's event loop rather than Tomcat, which Boot would pick since the
+     * servlet application puts it on the classpath
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -4,20 +4,32 @@ import com.kshitij.tms.entity.Bid;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import com.kshitij.tms.entity.BidStatus;
 
 
+/**
+ * Filter queries take the result type as a parameter (dynamic projection):
+ * pass a response record to select only its columns, or Bid.class for entities.
+ */
 public interface BidRepository extends JpaRepository<Bid, UUID> {
     List<Bid> findByLoadId(UUID loadId);
-    List<Bid> findByTransporterId(UUID transporterId);
-    List<Bid> findByStatus(BidStatus status);
-
-    List<Bid> findByLoadIdAndTransporterId(UUID loadId, UUID transporterId);
     List<Bid> findByLoadIdAndStatus(UUID loadId, BidStatus status);
-    List<Bid> findByTransporterIdAndStatus(UUID transporterId, BidStatus status);
 
-    List<Bid> findByLoadIdAndTransporterIdAndStatus(UUID loadId, UUID transporterId, BidStatus status);
+    <T> List<T> findAllBy(Class<T> type);
+    <T> List<T> findByLoadId(UUID loadId, Class<T> type);
+    <T> List<T> findByTransporterId(UUID transporterId, Class<T> type);
+    <T> List<T> findByStatus(BidStatus status, Class<T> type);
+
+    <T> List<T> findByLoadIdAndTransporterId(UUID loadId, UUID transporterId, Class<T> type);
+    <T> List<T> findByLoadIdAndStatus(UUID loadId, BidStatus status, Class<T> type);
+    <T> List<T> findByTransporterIdAndStatus(UUID transporterId, BidStatus status, Class<T> type);
+
+    <T> List<T> findByLoadIdAndTransporterIdAndStatus(UUID loadId, UUID transporterId, BidStatus status, Class<T> type);
 
-    boolean existsByLoadIdAndTransporterId(UUID loadId, UUID transporterId);
+    /**
+     * The transporter's active bid on a load; at most one PENDING bid exists per pair
+     */
+    Optional<Bid> findByLoadIdAndTransporterIdAndStatus(UUID loadId, UUID transporterId, BidStatus status);
 }
@@ -0,0 +1,12 @@
+package com.kshitij.tms.repository;
+
+import com.kshitij.tms.entity.BidRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface BidRevisionRepository extends JpaRepository<BidRevision, Long> {
+
+    List<BidRevision> findByBidIdOrderByRevisionIdAsc(UUID bidId);
+}
@@ -1,8 +1,20 @@
 package com.kshitij.tms.repository;
 
 import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.BookingStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,4 +22,27 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
 
     List<Booking> findByLoadId(UUID loadId);
 
+    List<Booking> findByTransporterIdAndStatusAndReservedUntilAfter(UUID transporterId, BookingStatus status,
+                                                                    LocalDateTime after);
+
+    List<Booking> findByTransporterIdInAndStatusAndReservedUntilAfter(Collection<UUID> transporterIds,
+                                                                      BookingStatus status, LocalDateTime after);
+
+    /**
+     * Lock a page of CONFIRMED bookings whose reservation has ended, oldest
+     * first; a lock timeout of -2 skips rows another transaction has locked
+     * (FOR UPDATE SKIP LOCKED), so instances running the completion job
+     * concurrently claim disjoint batches
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("select b from Booking b where b.status = com.kshitij.tms.entity.BookingStatus.CONFIRMED "
+            + "and b.reservedUntil <= :now order by b.reservedUntil")
+    List<Booking> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = com.kshitij.tms.entity.BookingStatus.COMPLETED, "
+            + "b.version = b.version + 1 "
+            + "where b.bookingId in :bookingIds and b.status = com.kshitij.tms.entity.BookingStatus.CONFIRMED")
+    int completeAll(@Param("bookingIds") Collection<UUID> bookingIds);
 }
@@ -0,0 +1,26 @@
+package com.kshitij.tms.repository;
+
+import com.kshitij.tms.entity.ChangeRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChangeRecordRepository extends JpaRepository<ChangeRecord, Long> {
+
+    /**
+     * Changes after the cursor in cursor order; a primary-key range scan
+     */
+    List<ChangeRecord> findByChangeIdGreaterThanOrderByChangeIdAsc(long since, Pageable pageable);
+
+    @Query("select coalesce(max(c.changeId), 0) from ChangeRecord c where c.occurredAt < :before")
+    long findLastChangeIdBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("delete from ChangeRecord c where c.occurredAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
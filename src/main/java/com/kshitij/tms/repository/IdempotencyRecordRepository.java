@@ -0,0 +1,33 @@
+package com.kshitij.tms.repository;
+
+import com.kshitij.tms.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Plain INSERT (save() would merge): a concurrent duplicate fails on the
+     * primary key instead of silently overwriting the first outcome
+     */
+    @Modifying
+    @Query("insert into IdempotencyRecord (recordKey, requestHash, responseBody, createdAt, expiresAt) "
+            + "values (:recordKey, :requestHash, :responseBody, :createdAt, :expiresAt)")
+    void insert(@Param("recordKey") String recordKey,
+                @Param("requestHash") String requestHash,
+                @Param("responseBody") String responseBody,
+                @Param("createdAt") LocalDateTime createdAt,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.recordKey = :recordKey and r.expiresAt <= :now")
+    int deleteIfExpired(@Param("recordKey") String recordKey, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -3,18 +3,32 @@ package com.kshitij.tms.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.kshitij.tms.entity.Load;
 import com.kshitij.tms.entity.LoadStatus;
 
+import java.util.Collection;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * List queries take the result type as a parameter (dynamic projection):
+ * pass a response record to select only its columns, or Load.class for entities.
+ */
 public interface LoadRepository extends JpaRepository<Load, UUID> {
 
-    Page<Load> findByShipperId(String shipperId, Pageable pageable);
+    <T> Page<T> findAllBy(Pageable pageable, Class<T> type);
 
-    Page<Load> findByStatus(LoadStatus status, Pageable pageable);
+    <T> Page<T> findByShipperId(String shipperId, Pageable pageable, Class<T> type);
 
-    Page<Load> findByShipperIdAndStatus(String shipperId, LoadStatus status, Pageable pageable);
-}
+    <T> Page<T> findByStatus(LoadStatus status, Pageable pageable, Class<T> type);
+
+    <T> Page<T> findByShipperIdAndStatus(String shipperId, LoadStatus status, Pageable pageable, Class<T> type);
 
+    <T> Page<T> findByStatusInAndTruckTypeIdIn(Collection<LoadStatus> statuses, Collection<Short> truckTypeIds,
+                                               Pageable pageable, Class<T> type);
+
+    @Query("SELECT l.shipperId FROM Load l WHERE l.loadId = :loadId")
+    Optional<String> findShipperIdByLoadId(UUID loadId);
+}
@@ -0,0 +1,99 @@
+package com.kshitij.tms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse fieldset queries (?fields=...)
+ *
+ * Selects only the requested attributes of an entity as tuples, so neither
+ * the database nor the serializer touches columns the client didn't ask for.
+ * Field names must be validated by the caller (see FieldSelection) - they are
+ * resolved as entity attributes, never concatenated into SQL.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SparseFieldsetRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Select fields of all rows matching the equality filters
+     * Filters with a null value are ignored
+     */
+    public List<Map<String, Object>> findFields(Class<?> entityType, Map<String, Object> filters,
+                                                List<String> fields, Sort sort) {
+        return toMaps(buildQuery(entityType, filters, fields, sort).getResultList());
+    }
+
+    /**
+     * Paged variant; the count query only runs when the page size doesn't
+     * already tell the total
+     */
+    public Page<Map<String, Object>> findFields(Class<?> entityType, Map<String, Object> filters,
+                                                List<String> fields, Pageable pageable) {
+        TypedQuery<Tuple> query = buildQuery(entityType, filters, fields, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+
+        List<Map<String, Object>> content = toMaps(query.getResultList());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityType, filters));
+    }
+
+    private <E> TypedQuery<Tuple> buildQuery(Class<E> entityType, Map<String, Object> filters,
+                                             List<String> fields, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityType);
+
+        query.multiselect(fields.stream()
+                .<Selection<?>>map(field -> root.get(field).alias(field))
+                .toList());
+        query.where(predicates(cb, root, filters));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private <E> long count(Class<E> entityType, Map<String, Object> filters) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(entityType);
+        query.select(cb.count(root)).where(predicates(cb, root, filters));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<?> root, Map<String, Object> filters) {
+        return filters.entrySet().stream()
+                .filter(filter -> filter.getValue() != null)
+                .map(filter -> cb.equal(root.get(filter.getKey()), filter.getValue()))
+                .toArray(Predicate[]::new);
+    }
+
+    private static List<Map<String, Object>> toMaps(List<Tuple> tuples) {
+        return tuples.stream().map(tuple -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            return row;
+        }).toList();
+    }
+}
@@ -1,10 +1,36 @@
 package com.kshitij.tms.repository;
 
 import com.kshitij.tms.entity.Transporter;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface TransporterRepository extends JpaRepository<Transporter, UUID> {
 
+    /**
+     * For bookings and cancellations, which change the transporter's
+     * availability without changing its row: the version is bumped on commit
+     * regardless, so concurrent ones conflict and cached schedules go stale
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    Optional<Transporter> findForReservationByTransporterId(UUID transporterId);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    List<Transporter> findForReservationByTransporterIdIn(Collection<UUID> transporterIds);
+
+    /**
+     * Set-based counterpart of findForReservationByTransporterId for bulk
+     * booking completion
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Transporter t set t.version = t.version + 1 where t.transporterId in :transporterIds")
+    int touchAll(@Param("transporterIds") Collection<UUID> transporterIds);
 }
@@ -0,0 +1,25 @@
+package com.kshitij.tms.repository;
+
+import com.kshitij.tms.entity.TruckType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface TruckTypeRepository extends JpaRepository<TruckType, Short> {
+
+    Optional<TruckType> findByNormalizedName(String normalizedName);
+
+    /**
+     * Adds a name unless it is already in the catalog, including from a
+     * concurrent transaction, which this one waits for instead of failing
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO truck_type (name, normalized_name) VALUES (:name, :normalizedName) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("normalizedName") String normalizedName);
+}
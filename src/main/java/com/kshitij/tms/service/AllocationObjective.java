@@ -0,0 +1,23 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.dto.BestBidResponse;
+
+/**
+ * What a load's truck allocation optimizes
+ */
+public enum AllocationObjective {
+
+    /**
+     * Lowest total of proposed rate times trucks
+     */
+    COST,
+
+    /**
+     * Highest total of best-bid score times trucks, weighing rate against transporter rating
+     */
+    SCORE;
+
+    double unitValue(double proposedRate, double transporterRating) {
+        return this == COST ? -proposedRate : BestBidResponse.score(proposedRate, transporterRating);
+    }
+}
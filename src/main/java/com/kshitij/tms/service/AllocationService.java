@@ -0,0 +1,166 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.dto.AllocationResponse;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.exception.InsufficientCapacityException;
+import com.kshitij.tms.exception.InvalidStatusTransitionException;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.TransporterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Splits a multi-truck load's remaining trucks across its pending bids
+ *
+ * Each bid can take up to its trucksOffered, capped by the trucks its
+ * transporter has free around the load's loading date. AllocationSolver
+ * picks the split that covers the most trucks at the lowest cost or the
+ * highest best-bid score; allocate then books every award at its proposed
+ * rate in one transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class AllocationService {
+
+    private final LoadRepository loadRepository;
+    private final BidRepository bidRepository;
+    private final TransporterRepository transporterRepository;
+    private final TruckTypeService truckTypeService;
+    private final AvailabilityService availabilityService;
+    private final BookingService bookingService;
+
+    /**
+     * The allocation allocate would book now, without booking it
+     *
+     * @param wholeBids give each bid all its offered trucks or none
+     * @throws ResourceNotFoundException if the load doesn't exist
+     * @throws InvalidStatusTransitionException if the load is cancelled
+     */
+    @Transactional(readOnly = true)
+    public AllocationResponse planAllocation(UUID loadId, AllocationObjective objective, boolean wholeBids) {
+        Load load = findBookableLoad(loadId);
+        List<Bid> bids = pendingBids(loadId);
+        List<Transporter> transporters = transporterRepository.findAllById(transporterIds(bids));
+        List<BidAward> awards = solve(load, bids, transporters, objective, wholeBids);
+        return response(load.getLoadId(), objective, wholeBids, load.getRemainingTrucks(), awards, null);
+    }
+
+    /**
+     * Allocate the load's remaining trucks across its pending bids and book
+     * every award; the other pending bids are rejected if the load ends up BOOKED
+     *
+     * @param wholeBids give each bid all its offered trucks or none
+     * @throws ResourceNotFoundException if the load doesn't exist
+     * @throws InvalidStatusTransitionException if the load is cancelled or already fully booked
+     * @throws InsufficientCapacityException if no pending bid's transporter has free trucks
+     */
+    @Transactional
+    public AllocationResponse allocate(UUID loadId, AllocationObjective objective, boolean wholeBids) {
+        Load load = findBookableLoad(loadId);
+        if (load.getRemainingTrucks() <= 0) {
+            throw new InvalidStatusTransitionException("Load is already fully booked. Load ID: " + loadId);
+        }
+        List<Bid> bids = pendingBids(loadId);
+        List<Transporter> transporters =
+                transporterRepository.findForReservationByTransporterIdIn(transporterIds(bids));
+        List<BidAward> awards = solve(load, bids, transporters, objective, wholeBids);
+        if (awards.isEmpty()) {
+            throw new InsufficientCapacityException(
+                    "No pending bid on load " + loadId + " has trucks free around " + load.getLoadingDate());
+        }
+        int remainingTrucks = load.getRemainingTrucks();
+        List<Booking> bookings = bookingService.bookAll(load, awards);
+        return response(loadId, objective, wholeBids, remainingTrucks, awards, bookings);
+    }
+
+    private Load findBookableLoad(UUID loadId) {
+        Load load = loadRepository.findById(loadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", loadId));
+        MarketplaceRules.verifyBookable(load);
+        return load;
+    }
+
+    /**
+     * Pending bids, oldest first so earlier bids win ties
+     */
+    private List<Bid> pendingBids(UUID loadId) {
+        List<Bid> bids = new ArrayList<>(bidRepository.findByLoadIdAndStatus(loadId, BidStatus.PENDING));
+        bids.sort(Comparator.comparing(Bid::getSubmittedAt));
+        return bids;
+    }
+
+    private static List<UUID> transporterIds(List<Bid> bids) {
+        return bids.stream().map(Bid::getTransporterId).distinct().toList();
+    }
+
+    private List<BidAward> solve(Load load, List<Bid> bids, List<Transporter> transporters,
+                                 AllocationObjective objective, boolean wholeBids) {
+        if (load.getRemainingTrucks() <= 0 || bids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Transporter> byId = transporters.stream()
+                .collect(Collectors.toMap(Transporter::getTransporterId, Function.identity()));
+        availabilityService.prefetch(transporters);
+        ReservationWindow window = availabilityService.window(load.getLoadingDate());
+        TruckCompatibility compatibility = truckTypeService.compatibility();
+
+        AllocationSolver.Option[] options = new AllocationSolver.Option[bids.size()];
+        for (int i = 0; i < options.length; i++) {
+            Bid bid = bids.get(i);
+            Transporter transporter = byId.get(bid.getTransporterId());
+            int capacity = transporter == null ? 0 : Math.min(bid.getTrucksOffered(), MarketplaceRules.freeCapacity(
+                    transporter, load, compatibility, availabilityService.freeTrucks(transporter, window)));
+            double rating = transporter == null ? 0 : transporter.getRating();
+            options[i] = new AllocationSolver.Option(capacity, objective.unitValue(bid.getProposedRate(), rating));
+        }
+
+        int[] trucks = AllocationSolver.solve(load.getRemainingTrucks(), options, wholeBids);
+        List<BidAward> awards = new ArrayList<>();
+        for (int i = 0; i < trucks.length; i++) {
+            if (trucks[i] > 0) {
+                Bid bid = bids.get(i);
+                awards.add(new BidAward(bid, byId.get(bid.getTransporterId()), trucks[i], bid.getProposedRate()));
+            }
+        }
+        return awards;
+    }
+
+    /**
+     * @param bookings the awards' bookings in award order; null for a preview
+     */
+    private static AllocationResponse response(UUID loadId, AllocationObjective objective, boolean wholeBids,
+                                               int remainingTrucks, List<BidAward> awards, List<Booking> bookings) {
+        List<AllocationResponse.Award> items = new ArrayList<>(awards.size());
+        int allocatedTrucks = 0;
+        double totalCost = 0;
+        for (int i = 0; i < awards.size(); i++) {
+            BidAward award = awards.get(i);
+            allocatedTrucks += award.trucks();
+            totalCost += award.trucks() * award.finalRate();
+            items.add(new AllocationResponse.Award(
+                    award.bid().getBidId(),
+                    award.bid().getTransporterId(),
+                    award.trucks(),
+                    award.bid().getProposedRate(),
+                    award.transporter().getRating(),
+                    bookings == null ? null : bookings.get(i).getBookingId()));
+        }
+        return new AllocationResponse(loadId, objective, wholeBids, remainingTrucks, allocatedTrucks,
+                totalCost, bookings != null, items);
+    }
+}
@@ -0,0 +1,90 @@
+package com.kshitij.tms.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Splits a load's remaining trucks across its pending bids
+ *
+ * Every solution first covers as many trucks as the bids allow, then
+ * maximizes the total value (value per truck times trucks) among those.
+ * Bids that may be split are a min-cost flow from the bids to the load in
+ * which each bid is one arc, so filling the best value per truck first is
+ * optimal: O(n log n). Bids taken whole or not at all are a 0/1 knapsack
+ * over truck counts: O(n * trucks), with trucks at most 100.
+ */
+final class AllocationSolver {
+
+    /**
+     * @param capacity  most trucks the bid can take: its offer, capped by the transporter's free trucks
+     * @param unitValue value of each truck given to the bid; higher is better
+     */
+    record Option(int capacity, double unitValue) {
+    }
+
+    private AllocationSolver() {
+    }
+
+    /**
+     * Trucks given to each option, in option order; earlier options win ties
+     *
+     * @param wholeBids give each option its whole capacity or nothing
+     */
+    static int[] solve(int trucks, Option[] options, boolean wholeBids) {
+        return wholeBids ? knapsack(trucks, options) : greedy(trucks, options);
+    }
+
+    private static int[] greedy(int trucks, Option[] options) {
+        int[] awarded = new int[options.length];
+        Integer[] order = IntStream.range(0, options.length).boxed().toArray(Integer[]::new);
+        // Stable sort: equal values keep option order
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> options[i].unitValue()).reversed());
+        int remaining = trucks;
+        for (int i : order) {
+            if (remaining == 0) {
+                break;
+            }
+            awarded[i] = Math.min(remaining, Math.max(0, options[i].capacity()));
+            remaining -= awarded[i];
+        }
+        return awarded;
+    }
+
+    private static int[] knapsack(int trucks, Option[] options) {
+        // best[k]: highest value of whole options adding up to exactly k trucks
+        double[] best = new double[trucks + 1];
+        Arrays.fill(best, Double.NEGATIVE_INFINITY);
+        best[0] = 0;
+        // taken[i][k]: option i improved best[k] when it was considered
+        boolean[][] taken = new boolean[options.length][];
+        for (int i = 0; i < options.length; i++) {
+            int capacity = options[i].capacity();
+            taken[i] = new boolean[trucks + 1];
+            if (capacity <= 0 || capacity > trucks) {
+                continue;
+            }
+            double value = capacity * options[i].unitValue();
+            for (int k = trucks; k >= capacity; k--) {
+                double candidate = best[k - capacity] + value;
+                if (candidate > best[k]) {
+                    best[k] = candidate;
+                    taken[i][k] = true;
+                }
+            }
+        }
+
+        int k = trucks;
+        while (best[k] == Double.NEGATIVE_INFINITY) {
+            k--;
+        }
+        int[] awarded = new int[options.length];
+        for (int i = options.length - 1; i >= 0 && k > 0; i--) {
+            if (taken[i][k]) {
+                awarded[i] = options[i].capacity();
+                k -= awarded[i];
+            }
+        }
+        return awarded;
+    }
+}
@@ -0,0 +1,134 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.cache.BoundedMap;
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.BookingStatus;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Truck availability over time
+ *
+ * A transporter's truck counts are its fleet; each CONFIRMED booking
+ * reserves its trucks from tms.availability.lead-hours before its load's
+ * loading date to tms.availability.trip-hours after. Schedules are cached
+ * with the transporter version they were read at. Bookings and
+ * cancellations bump that version, so a schedule is read again only after
+ * the transporter changed, on this instance or another.
+ */
+@Service
+public class AvailabilityService {
+
+    private record Cached(long version, TruckSchedule schedule) {
+    }
+
+    private final BookingRepository bookingRepository;
+    private final Duration lead;
+    private final Duration trip;
+    private final BoundedMap<UUID, Cached> schedules;
+
+    public AvailabilityService(BookingRepository bookingRepository,
+                               @Value("${tms.availability.lead-hours:12}") long leadHours,
+                               @Value("${tms.availability.trip-hours:72}") long tripHours,
+                               @Value("${tms.availability.cache-size:10000}") int cacheSize) {
+        this.bookingRepository = bookingRepository;
+        this.lead = Duration.ofHours(leadHours);
+        this.trip = Duration.ofHours(tripHours);
+        this.schedules = new BoundedMap<>(cacheSize, true);
+    }
+
+    /**
+     * Window a booking of a load with this loading date reserves its trucks for
+     */
+    public ReservationWindow window(LocalDateTime loadingDate) {
+        return ReservationWindow.around(loadingDate, lead, trip);
+    }
+
+    /**
+     * Trucks of each of the transporter's inventory entries free for the whole window
+     */
+    public ToIntFunction<AvailableTruck> freeTrucks(Transporter transporter, ReservationWindow window) {
+        TruckSchedule schedule = schedule(transporter);
+        return truck -> schedule.free(truck, window);
+    }
+
+    /**
+     * Reservations of the transporter that haven't ended, read from the database
+     */
+    public TruckSchedule readSchedule(UUID transporterId) {
+        return TruckSchedule.of(bookingRepository.findByTransporterIdAndStatusAndReservedUntilAfter(
+                transporterId, BookingStatus.CONFIRMED, LocalDateTime.now()));
+    }
+
+    /**
+     * Read the schedules of the transporters not cached at their current
+     * version with one query, before checking many of them
+     */
+    public void prefetch(Collection<Transporter> transporters) {
+        Map<UUID, Long> stale = new HashMap<>();
+        for (Transporter transporter : transporters) {
+            long version = version(transporter);
+            Cached cached = schedules.get(transporter.getTransporterId());
+            if (cached == null || cached.version() < version) {
+                stale.put(transporter.getTransporterId(), version);
+            }
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+        Map<UUID, List<Booking>> bookings = bookingRepository.findByTransporterIdInAndStatusAndReservedUntilAfter(
+                        stale.keySet(), BookingStatus.CONFIRMED, LocalDateTime.now()).stream()
+                .collect(Collectors.groupingBy(Booking::getTransporterId));
+        stale.forEach((transporterId, version) -> schedules.put(transporterId,
+                new Cached(version, TruckSchedule.of(bookings.getOrDefault(transporterId, List.of())))));
+    }
+
+    /**
+     * The transporter's reservations changed in the current transaction: drop
+     * its schedule now, so later checks in the transaction see the change, and
+     * again on completion, so a schedule read in between doesn't outlive a rollback
+     */
+    public void invalidate(UUID transporterId) {
+        schedules.remove(transporterId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    schedules.remove(transporterId);
+                }
+            });
+        }
+    }
+
+    private TruckSchedule schedule(Transporter transporter) {
+        UUID transporterId = transporter.getTransporterId();
+        long version = version(transporter);
+        Cached cached = schedules.get(transporterId);
+        // A cached transporter older than the schedule is fine: the schedule is the newer view
+        if (cached != null && cached.version() >= version) {
+            return cached.schedule();
+        }
+        TruckSchedule schedule = readSchedule(transporterId);
+        schedules.put(transporterId, new Cached(version, schedule));
+        return schedule;
+    }
+
+    private static long version(Transporter transporter) {
+        return transporter.getVersion() != null ? transporter.getVersion() : -1;
+    }
+}
@@ -0,0 +1,10 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.Transporter;
+
+/**
+ * Trucks of a load given to one of its pending bids, at a final rate
+ */
+public record BidAward(Bid bid, Transporter transporter, int trucks, double finalRate) {
+}
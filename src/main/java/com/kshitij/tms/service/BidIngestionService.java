@@ -0,0 +1,496 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.cache.BoundedMap;
+import com.kshitij.tms.dto.BidIngestionStatus;
+import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.exception.RateLimitExceededException;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.TransporterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous bid ingestion for auction peaks (tms.bids.async.enabled=true)
+ *
+ * POST /api/bids validates the bid against briefly cached load and
+ * transporter state, assigns the bid ID and returns 202 Accepted as soon as
+ * the bid is on a bounded queue; a full queue is reported as 429. A single
+ * writer thread drains the queue in micro-batches and persists each batch
+ * with one multi-row INSERT in one transaction.
+ *
+ * The writer re-checks what the cache may have missed: bids on loads that
+ * were booked or cancelled in the meantime are rejected, and a bid from a
+ * transporter that already has a pending bid on the load goes through
+ * BidService.submitBid, which revises that bid in place. Clients follow a
+ * bid through GET /api/bids/ingestion/{bidId}.
+ *
+ * Stops after the web server (lower lifecycle phase), draining the queue
+ * before the connection pool closes. A writer that hasn't finished within
+ * spring.lifecycle.timeout-per-shutdown-phase is interrupted, and the bids
+ * still queued are rejected.
+ *
+ * Metrics: tms.bids.ingestion.queue, tms.bids.ingestion{outcome} and
+ * tms.bids.ingestion.batch.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "tms.bids.async.enabled", havingValue = "true")
+public class BidIngestionService implements SmartLifecycle {
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final String INSERT_BIDS = "INSERT INTO bid "
+            + "(bid_id, load_id, transporter_id, proposed_rate, trucks_offered, status, submitted_at, version) VALUES ";
+
+    // In load_id order, so concurrent batches lock shared loads in the same order
+    private static final String LOCK_LOADS = "SELECT load_id, status FROM load "
+            + "WHERE load_id IN (:loadIds) ORDER BY load_id FOR UPDATE";
+
+    private static final String OPEN_LOADS_FOR_BIDS = "UPDATE load SET status = 'OPEN_FOR_BIDS', version = version + 1 "
+            + "WHERE load_id IN (:loadIds) AND status = 'POSTED'";
+
+    private static final String SELECT_PENDING_PAIRS = "SELECT load_id, transporter_id FROM bid "
+            + "WHERE load_id IN (:loadIds) AND transporter_id IN (:transporterIds) AND status = 'PENDING'";
+
+    private final BidService bidService;
+    private final BidRepository bidRepository;
+    private final LoadRepository loadRepository;
+    private final TransporterRepository transporterRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlockingQueue<PendingBid> queue;
+    private final int maxBatchSize;
+    private final long cacheTtlNanos;
+    private final int cacheSize;
+    private final Duration statusRetention;
+    private final Duration shutdownTimeout;
+
+    private final Map<UUID, Cached<Load>> loadCache = new ConcurrentHashMap<>();
+    private final Map<UUID, Cached<Transporter>> transporterCache = new ConcurrentHashMap<>();
+    private final BoundedMap<UUID, BidIngestionStatus> statuses;
+
+    private final Counter accepted;
+    private final Counter bufferFull;
+    private final Counter persisted;
+    private final Counter revised;
+    private final Counter rejected;
+    private final Timer batchTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public BidIngestionService(BidService bidService,
+                               BidRepository bidRepository,
+                               LoadRepository loadRepository,
+                               TransporterRepository transporterRepository,
+                               NamedParameterJdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${tms.bids.async.queue-capacity:10000}") int queueCapacity,
+                               @Value("${tms.bids.async.max-batch-size:500}") int maxBatchSize,
+                               @Value("${tms.bids.async.cache-ttl-ms:2000}") long cacheTtlMs,
+                               @Value("${tms.bids.async.cache-size:10000}") int cacheSize,
+                               @Value("${tms.bids.async.status-retention-ms:600000}") long statusRetentionMs,
+                               @Value("${tms.bids.async.status-size:100000}") int statusSize,
+                               @Value("${spring.lifecycle.timeout-per-shutdown-phase:30s}") Duration shutdownTimeout) {
+        this.bidService = bidService;
+        this.bidRepository = bidRepository;
+        this.loadRepository = loadRepository;
+        this.transporterRepository = transporterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMs);
+        this.cacheSize = cacheSize;
+        this.statusRetention = Duration.ofMillis(statusRetentionMs);
+        this.statuses = new BoundedMap<>(statusSize, false);
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("tms.bids.ingestion.queue", queue, BlockingQueue::size)
+                .description("Accepted bids waiting for the writer")
+                .register(meterRegistry);
+        this.accepted = outcomeCounter(meterRegistry, "accepted");
+        this.bufferFull = outcomeCounter(meterRegistry, "buffer_full");
+        this.persisted = outcomeCounter(meterRegistry, "persisted");
+        this.revised = outcomeCounter(meterRegistry, "revised");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+        this.batchTimer = Timer.builder("tms.bids.ingestion.batch")
+                .description("Time to persist one micro-batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validate a bid and queue it for the writer
+     *
+     * @return the bid as it will be stored, with status PENDING
+     * @throws ResourceNotFoundException if load or transporter doesn't exist
+     * @throws RateLimitExceededException if the queue is full
+     */
+    public BidResponse submit(BidRequest request) {
+        Load load = cached(loadCache, request.getLoadId(), id -> loadRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", id)));
+        Transporter transporter = cached(transporterCache, request.getTransporterId(), id -> transporterRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transporter", "transporterId", id)));
+
+        bidService.validateBid(load, transporter, request.getTrucksOffered());
+
+        if (!running) {
+            // Starting up or draining for shutdown
+            return BidResponse.from(bidService.submitBid(request));
+        }
+
+        PendingBid bid = new PendingBid(UUID.randomUUID(), request.getLoadId(), load.getShipperId(),
+                request.getTransporterId(), request.getProposedRate(), request.getTrucksOffered(), LocalDateTime.now());
+        statuses.put(bid.bidId(), BidIngestionStatus.queued(bid.bidId()));
+
+        if (!queue.offer(bid)) {
+            statuses.remove(bid.bidId());
+            bufferFull.increment();
+            throw new RateLimitExceededException("Bid ingestion buffer is full. Retry after 1 s", 1);
+        }
+        accepted.increment();
+
+        return new BidResponse(bid.bidId(), bid.loadId(), bid.transporterId(),
+                bid.proposedRate(), bid.trucksOffered(), BidStatus.PENDING, bid.submittedAt());
+    }
+
+    /**
+     * Progress of an accepted bid; bids no longer tracked are looked up directly
+     *
+     * @throws ResourceNotFoundException if the bid is neither tracked nor stored
+     */
+    public BidIngestionStatus getStatus(UUID bidId) {
+        BidIngestionStatus status = statuses.get(bidId);
+        if (status != null && status.updatedAt().plus(statusRetention).isAfter(LocalDateTime.now())) {
+            return status;
+        }
+        Bid bid = bidRepository.findById(bidId)
+                .orElseThrow(() -> new ResourceNotFoundException("Bid", "bidId", bidId));
+        return BidIngestionStatus.persisted(bid.getBidId(), bid.getBidId());
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "bid-ingestion-writer");
+        writer.start();
+    }
+
+    /**
+     * Stop accepting bids and persist everything already queued, or reject
+     * it if the writer doesn't finish within the shutdown timeout
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(shutdownTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                // Stuck on the database: don't hold up shutdown, and don't write through the same stuck path
+                writer.interrupt();
+                writer = null;
+                List<PendingBid> abandoned = new ArrayList<>();
+                queue.drainTo(abandoned);
+                abandoned.forEach(bid -> reject(bid, "Not persisted before shutdown"));
+                log.error("Bid ingestion writer did not stop within {}; rejected {} queued bids",
+                        shutdownTimeout, abandoned.size());
+                return;
+            }
+            writer = null;
+        }
+
+        // Bids offered while the writer was finishing its last batch
+        List<PendingBid> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, maxBatchSize) > 0) {
+            writeOrReject(remaining);
+            remaining.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the web server, so no request finds the writer gone
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        List<PendingBid> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingBid first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                writeOrReject(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(bid -> reject(bid, "Not persisted before shutdown"));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * A failed batch is rejected as a whole, so none of its bids stays QUEUED
+     */
+    private void writeOrReject(List<PendingBid> batch) {
+        try {
+            writeBatch(batch);
+        } catch (RuntimeException e) {
+            log.error("Bid ingestion batch of {} failed", batch.size(), e);
+            batch.forEach(bid -> reject(bid, "Could not be persisted"));
+        }
+    }
+
+    /**
+     * Persist one micro-batch: new bids with one multi-row INSERT, everything else per bid
+     */
+    void writeBatch(List<PendingBid> batch) {
+        batchTimer.record(() -> {
+            try {
+                settle(insert(batch));
+            } catch (DataIntegrityViolationException e) {
+                // A synchronous bid or a deleted load got in between: settle each bid on its own
+                log.debug("Bid batch insert conflicted, retrying {} bids individually", batch.size());
+                batch.forEach(this::insertOrSubmit);
+            }
+        });
+    }
+
+    /**
+     * Sort the bids and insert the new ones in one transaction, with the
+     * batch's loads locked so none is booked or cancelled in between
+     */
+    private Written insert(List<PendingBid> bids) {
+        return transactionTemplate.execute(status -> {
+            Map<UUID, LoadStatus> loads = lockLoads(bids);
+            // A repeat bid revises the transporter's pending bid, whether stored or earlier in this batch
+            Set<Pair> pending = pendingPairs(bids);
+
+            Written written = new Written(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+            for (PendingBid bid : bids) {
+                LoadStatus loadStatus = loads.get(bid.loadId());
+                if (loadStatus != LoadStatus.POSTED && loadStatus != LoadStatus.OPEN_FOR_BIDS) {
+                    written.closed().add(bid);
+                } else if (pending.add(new Pair(bid.loadId(), bid.transporterId()))) {
+                    written.inserted().add(bid);
+                } else {
+                    written.revisions().add(bid);
+                }
+            }
+            if (written.inserted().isEmpty()) {
+                return written;
+            }
+
+            List<PendingBid> inserts = written.inserted();
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            List<String> rows = new ArrayList<>(inserts.size());
+            for (int i = 0; i < inserts.size(); i++) {
+                PendingBid bid = inserts.get(i);
+                rows.add(String.format("(:id%1$d, :load%1$d, :transporter%1$d, :rate%1$d, :trucks%1$d, 'PENDING', :at%1$d, 0)", i));
+                params.addValue("id" + i, bid.bidId())
+                        .addValue("load" + i, bid.loadId())
+                        .addValue("transporter" + i, bid.transporterId())
+                        .addValue("rate" + i, bid.proposedRate())
+                        .addValue("trucks" + i, bid.trucksOffered())
+                        .addValue("at" + i, Timestamp.valueOf(bid.submittedAt()));
+            }
+            jdbcTemplate.update(INSERT_BIDS + String.join(", ", rows), params);
+
+            // Status Transition Rule: First bid changes POSTED → OPEN_FOR_BIDS
+            // The loads are locked, so exactly the POSTED ones are opened and get a status-changed event
+            List<UUID> opened = inserts.stream()
+                    .map(PendingBid::loadId)
+                    .distinct()
+                    .filter(loadId -> loads.get(loadId) == LoadStatus.POSTED)
+                    .toList();
+            if (!opened.isEmpty()) {
+                jdbcTemplate.update(OPEN_LOADS_FOR_BIDS, new MapSqlParameterSource("loadIds", opened));
+                loadRepository.findAllById(opened)
+                        .forEach(load -> eventPublisher.publishEvent(LoadEvent.statusChanged(load)));
+            }
+
+            // Bids that go through BidService are announced by it
+            inserts.forEach(bid -> eventPublisher.publishEvent(LoadEvent.bidAdded(bid.shipperId(), bid.toBid())));
+            return written;
+        });
+    }
+
+    /**
+     * Record the outcome of a committed insert; revisions go through BidService afterwards
+     */
+    private void settle(Written written) {
+        written.closed().forEach(bid -> reject(bid, "Load is no longer open for bids. Load ID: " + bid.loadId()));
+        written.inserted().forEach(bid -> complete(bid, bid.bidId()));
+        written.revisions().forEach(this::submit);
+    }
+
+    private void insertOrSubmit(PendingBid bid) {
+        Written written;
+        try {
+            written = insert(List.of(bid));
+        } catch (DataIntegrityViolationException e) {
+            submit(bid);
+            return;
+        }
+        settle(written);
+    }
+
+    /**
+     * Synchronous path: revises an existing pending bid or reports why the bid is invalid now
+     */
+    private void submit(PendingBid bid) {
+        try {
+            Bid stored = bidService.submitBid(BidRequest.builder()
+                    .loadId(bid.loadId())
+                    .transporterId(bid.transporterId())
+                    .proposedRate(bid.proposedRate())
+                    .trucksOffered(bid.trucksOffered())
+                    .build());
+            complete(bid, stored.getBidId());
+        } catch (RuntimeException e) {
+            reject(bid, e.getMessage());
+        }
+    }
+
+    private Map<UUID, LoadStatus> lockLoads(List<PendingBid> batch) {
+        MapSqlParameterSource params = new MapSqlParameterSource(
+                "loadIds", batch.stream().map(PendingBid::loadId).collect(Collectors.toSet()));
+        Map<UUID, LoadStatus> loads = new HashMap<>();
+        jdbcTemplate.query(LOCK_LOADS, params, rs -> {
+            loads.put(rs.getObject("load_id", UUID.class), LoadStatus.valueOf(rs.getString("status")));
+        });
+        return loads;
+    }
+
+    private Set<Pair> pendingPairs(List<PendingBid> batch) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("loadIds", batch.stream().map(PendingBid::loadId).collect(Collectors.toSet()))
+                .addValue("transporterIds", batch.stream().map(PendingBid::transporterId).collect(Collectors.toSet()));
+        return new HashSet<>(jdbcTemplate.query(SELECT_PENDING_PAIRS, params, (rs, rowNum) ->
+                new Pair(rs.getObject("load_id", UUID.class), rs.getObject("transporter_id", UUID.class))));
+    }
+
+    private void complete(PendingBid bid, UUID persistedBidId) {
+        BidIngestionStatus status = BidIngestionStatus.persisted(bid.bidId(), persistedBidId);
+        statuses.put(bid.bidId(), status);
+        (status.state() == BidIngestionStatus.State.PERSISTED ? persisted : revised).increment();
+    }
+
+    private void reject(PendingBid bid, String message) {
+        statuses.put(bid.bidId(), BidIngestionStatus.rejected(bid.bidId(), message));
+        rejected.increment();
+    }
+
+    private <T> T cached(Map<UUID, Cached<T>> cache, UUID id, Function<UUID, T> loader) {
+        long now = System.nanoTime();
+        Cached<T> entry = cache.get(id);
+        if (entry != null && now - entry.loadedAt() < cacheTtlNanos) {
+            return entry.value();
+        }
+        if (cache.size() >= cacheSize) {
+            cache.clear();
+        }
+        T value = loader.apply(id);
+        cache.put(id, new Cached<>(value, now));
+        return value;
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("tms.bids.ingestion")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    record PendingBid(UUID bidId, UUID loadId, String shipperId, UUID transporterId,
+                      double proposedRate, int trucksOffered, LocalDateTime submittedAt) {
+
+        Bid toBid() {
+            return Bid.builder()
+                    .bidId(bidId)
+                    .loadId(loadId)
+                    .transporterId(transporterId)
+                    .proposedRate(proposedRate)
+                    .trucksOffered(trucksOffered)
+                    .status(BidStatus.PENDING)
+                    .submittedAt(submittedAt)
+                    .build();
+        }
+    }
+
+    private record Pair(UUID loadId, UUID transporterId) {
+    }
+
+    /**
+     * How an insert transaction sorted its bids
+     *
+     * @param closed bids on loads that are no longer open for bids
+     */
+    private record Written(List<PendingBid> inserted, List<PendingBid> revisions, List<PendingBid> closed) {
+    }
+
+    private record Cached<T>(T value, long loadedAt) {
+    }
+}
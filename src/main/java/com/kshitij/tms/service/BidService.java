@@ -1,19 +1,33 @@
 package com.kshitij.tms.service;
 
+import com.kshitij.tms.cache.EntityCache;
+import com.kshitij.tms.cache.IdFilters;
 import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.dto.BidRevisionRequest;
+import com.kshitij.tms.dto.FieldSelection;
 import com.kshitij.tms.entity.*;
+import com.kshitij.tms.event.LoadEvent;
 import com.kshitij.tms.exception.InsufficientCapacityException;
+import com.kshitij.tms.exception.InvalidFieldSelectionException;
 import com.kshitij.tms.exception.InvalidStatusTransitionException;
 import com.kshitij.tms.exception.ResourceNotFoundException;
 import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.BidRevisionRepository;
 import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.SparseFieldsetRepository;
 import com.kshitij.tms.repository.TransporterRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -21,16 +35,28 @@ import java.util.UUID;
 public class BidService {
 
     private final BidRepository bidRepository;
+    private final BidRevisionRepository bidRevisionRepository;
     private final LoadRepository loadRepository;
     private final TransporterRepository transporterRepository;
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityCache entityCache;
+    private final IdFilters idFilters;
+    private final TruckTypeService truckTypeService;
+    private final AvailabilityService availabilityService;
 
     /**
      * Submit a bid for a load
      *
      * Business Rules:
      * 1. Cannot bid on CANCELLED or BOOKED loads
-     * 2. Transporter must have sufficient trucks of the required type
+     * 2. Transporter must have sufficient trucks of the required type, or of a
+     *    type the compatibility graph lets carry it
      * 3. First bid changes load status from POSTED to OPEN_FOR_BIDS
+     * 4. A transporter has at most one PENDING bid per load; a repeat bid
+     *    revises it in place (upsert) instead of adding a row
+     *
+     * Live subscribers get bid-added (and status-changed for the first bid) after commit
      *
      * @throws ResourceNotFoundException if load or transporter doesn't exist
      * @throws InvalidStatusTransitionException if load is CANCELLED or BOOKED
@@ -42,44 +68,28 @@ public class BidService {
         // Validate load exists
         Load load = loadRepository.findById(request.getLoadId())
                 .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", request.getLoadId()));
-
-        // Rule: Cannot bid on CANCELLED or BOOKED loads
-        if (load.getStatus() == LoadStatus.CANCELLED) {
-            throw new InvalidStatusTransitionException(
-                    "Cannot bid on CANCELLED load. Load ID: " + request.getLoadId());
-        }
-
-        if (load.getStatus() == LoadStatus.BOOKED) {
-            throw new InvalidStatusTransitionException(
-                    "Cannot bid on BOOKED load. Load ID: " + request.getLoadId());
-        }
+        MarketplaceRules.verifyBiddable(load);
 
         // Validate transporter exists
         Transporter transporter = transporterRepository.findById(request.getTransporterId())
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Transporter", "transporterId", request.getTransporterId()));
 
-        // Rule: Transporter must have enough trucks of the required type
-        boolean hasSufficientTrucks = transporter.getAvailableTrucks().stream()
-                .anyMatch(truck ->
-                        truck.getTruckType().equalsIgnoreCase(load.getTruckType()) &&
-                                truck.getCount() >= request.getTrucksOffered()
-                );
-
-        if (!hasSufficientTrucks) {
-            throw new InsufficientCapacityException(
-                    String.format("Transporter %s does not have %d trucks of type '%s'. Available trucks: %s",
-                            transporter.getCompanyName(),
-                            request.getTrucksOffered(),
-                            load.getTruckType(),
-                            transporter.getAvailableTrucks())
-            );
-        }
+        // Rule: Transporter must have enough trucks of the required (or a compatible) type
+        verifyCapacity(transporter, load, request.getTrucksOffered());
 
         // Status Transition Rule: First bid changes POSTED → OPEN_FOR_BIDS
-        if (load.getStatus() == LoadStatus.POSTED) {
-            load.setStatus(LoadStatus.OPEN_FOR_BIDS);
+        if (MarketplaceRules.openForBids(load)) {
             loadRepository.save(load);
+            eventPublisher.publishEvent(LoadEvent.statusChanged(load));
+        }
+
+        // Upsert: a repeat bid from the same transporter revises its active bid in place
+        Optional<Bid> activeBid = bidRepository.findByLoadIdAndTransporterIdAndStatus(
+                request.getLoadId(), request.getTransporterId(), BidStatus.PENDING);
+        if (activeBid.isPresent()) {
+            return applyRevision(activeBid.get(), request.getProposedRate(), request.getTrucksOffered(),
+                    load.getShipperId());
         }
 
         // Create and save bid
@@ -92,7 +102,94 @@ public class BidService {
                 .submittedAt(LocalDateTime.now())
                 .build();
 
-        return bidRepository.save(bid);
+        Bid saved = bidRepository.save(bid);
+        eventPublisher.publishEvent(LoadEvent.bidAdded(load.getShipperId(), saved));
+        return saved;
+    }
+
+    /**
+     * Bid rules that depend only on the load and transporter state
+     * Shared with asynchronous ingestion, which checks them against cached state
+     *
+     * @throws InvalidStatusTransitionException if load is CANCELLED or BOOKED
+     * @throws InsufficientCapacityException if transporter lacks required trucks
+     */
+    public void validateBid(Load load, Transporter transporter, int trucksOffered) {
+        MarketplaceRules.verifyBiddable(load);
+        verifyCapacity(transporter, load, trucksOffered);
+    }
+
+    /**
+     * Revise the rate and truck count of a pending bid in place
+     * The previous terms are kept in the bid's revision history
+     *
+     * @throws ResourceNotFoundException if bid, load or transporter doesn't exist
+     * @throws InvalidStatusTransitionException if bid is not in PENDING status, or load is CANCELLED or BOOKED
+     * @throws InsufficientCapacityException if transporter lacks the revised truck count
+     */
+    @Transactional
+    public Bid reviseBid(UUID bidId, BidRevisionRequest request) {
+
+        Bid bid = bidRepository.findById(bidId)
+                .orElseThrow(() -> new ResourceNotFoundException("Bid", "bidId", bidId));
+
+        if (bid.getStatus() != BidStatus.PENDING) {
+            throw new InvalidStatusTransitionException(
+                    "Only PENDING bids can be revised. Current status: " + bid.getStatus());
+        }
+
+        // A pending bid can outlive its load's bidding window until the bid is rejected
+        Load load = loadRepository.findById(bid.getLoadId())
+                .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", bid.getLoadId()));
+        MarketplaceRules.verifyBiddable(load);
+
+        if (request.getTrucksOffered() > bid.getTrucksOffered()) {
+            Transporter transporter = transporterRepository.findById(bid.getTransporterId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Transporter", "transporterId", bid.getTransporterId()));
+            verifyCapacity(transporter, load, request.getTrucksOffered());
+        }
+
+        return applyRevision(bid, request.getProposedRate(), request.getTrucksOffered(), load.getShipperId());
+    }
+
+    /**
+     * Superseded terms of a bid, oldest first
+     *
+     * @throws ResourceNotFoundException if bid doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public List<BidRevision> getBidRevisions(UUID bidId) {
+        if (!bidRepository.existsById(bidId)) {
+            throw new ResourceNotFoundException("Bid", "bidId", bidId);
+        }
+        return bidRevisionRepository.findByBidIdOrderByRevisionIdAsc(bidId);
+    }
+
+    private Bid applyRevision(Bid bid, double proposedRate, int trucksOffered, String shipperId) {
+        if (!MarketplaceRules.isRevision(bid, proposedRate, trucksOffered)) {
+            return bid;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        bidRevisionRepository.save(BidRevision.builder()
+                .bidId(bid.getBidId())
+                .proposedRate(bid.getProposedRate())
+                .trucksOffered(bid.getTrucksOffered())
+                .submittedAt(bid.getSubmittedAt())
+                .revisedAt(now)
+                .build());
+
+        bid.setProposedRate(proposedRate);
+        bid.setTrucksOffered(trucksOffered);
+        bid.setSubmittedAt(now);
+        Bid saved = bidRepository.save(bid);
+        eventPublisher.publishEvent(LoadEvent.bidAdded(shipperId, saved));
+        return saved;
+    }
+
+    private String shipperOf(UUID loadId) {
+        return loadRepository.findShipperIdByLoadId(loadId).orElse(null);
     }
 
     /**
@@ -101,6 +198,7 @@ public class BidService {
      * @throws ResourceNotFoundException if bid doesn't exist
      * @throws InvalidStatusTransitionException if bid is not in PENDING status
      */
+    @Transactional
     public Bid rejectBid(UUID bidId) {
 
         Bid bid = bidRepository.findById(bidId)
@@ -115,22 +213,28 @@ public class BidService {
         // Note: Updated timestamp to reflect rejection time
         bid.setSubmittedAt(LocalDateTime.now());
 
-        return bidRepository.save(bid);
+        Bid saved = bidRepository.save(bid);
+        eventPublisher.publishEvent(LoadEvent.bidRejected(shipperOf(bid.getLoadId()), saved));
+        return saved;
     }
 
     /**
-     * Get bid by ID
+     * Get bid by ID; the access counts towards the bid hot-key statistics, and
+     * IDs the Bloom filter has never seen are rejected without a query
      *
      * @throws ResourceNotFoundException if bid doesn't exist
      */
+    @Transactional(readOnly = true)
     public Bid getBidById(UUID bidId) {
-        return bidRepository.findById(bidId)
+        entityCache.recordAccess(ChangeEntityType.BID, bidId);
+        return idFilters.find(ChangeEntityType.BID, bidId, () -> bidRepository.findById(bidId))
                 .orElseThrow(() -> new ResourceNotFoundException("Bid", "bidId", bidId));
     }
 
     /**
      * Get all bids for a specific load
      */
+    @Transactional(readOnly = true)
     public List<Bid> getBidsForLoad(UUID loadId) {
         return bidRepository.findByLoadId(loadId);
     }
@@ -138,42 +242,69 @@ public class BidService {
     /**
      * Filter bids with multiple optional parameters
      * Supports combinations of loadId, transporterId, and status filters
+     * Rows are projected straight into BidResponse; no entities are loaded.
      */
-    public List<Bid> filterBids(UUID loadId, UUID transporterId, BidStatus status) {
+    @Transactional(readOnly = true)
+    public List<BidResponse> filterBids(UUID loadId, UUID transporterId, BidStatus status) {
 
         // All three filters
         if (loadId != null && transporterId != null && status != null) {
-            return bidRepository.findByLoadIdAndTransporterIdAndStatus(loadId, transporterId, status);
+            return bidRepository.findByLoadIdAndTransporterIdAndStatus(loadId, transporterId, status, BidResponse.class);
         }
 
         // Two filter combinations
         if (loadId != null && transporterId != null) {
-            return bidRepository.findByLoadIdAndTransporterId(loadId, transporterId);
+            return bidRepository.findByLoadIdAndTransporterId(loadId, transporterId, BidResponse.class);
         }
 
         if (loadId != null && status != null) {
-            return bidRepository.findByLoadIdAndStatus(loadId, status);
+            return bidRepository.findByLoadIdAndStatus(loadId, status, BidResponse.class);
         }
 
         if (transporterId != null && status != null) {
-            return bidRepository.findByTransporterIdAndStatus(transporterId, status);
+            return bidRepository.findByTransporterIdAndStatus(transporterId, status, BidResponse.class);
         }
 
         // Single filter
         if (loadId != null) {
-            return bidRepository.findByLoadId(loadId);
+            return bidRepository.findByLoadId(loadId, BidResponse.class);
         }
 
         if (transporterId != null) {
-            return bidRepository.findByTransporterId(transporterId);
+            return bidRepository.findByTransporterId(transporterId, BidResponse.class);
         }
 
         if (status != null) {
-            return bidRepository.findByStatus(status);
+            return bidRepository.findByStatus(status, BidResponse.class);
         }
 
         // No filters - return all bids
-        return bidRepository.findAll();
+        return bidRepository.findAllBy(BidResponse.class);
+    }
+
+    /**
+     * Filter bids returning only the requested fields (sparse fieldset)
+     *
+     * @throws InvalidFieldSelectionException if a field isn't part of BidResponse
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> filterBidFields(UUID loadId, UUID transporterId, BidStatus status,
+                                                     List<String> fields) {
+        List<String> selected = FieldSelection.of(fields, BidResponse.class);
+
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("loadId", loadId);
+        filters.put("transporterId", transporterId);
+        filters.put("status", status);
+
+        return sparseFieldsetRepository.findFields(Bid.class, filters, selected, Sort.unsorted());
     }
 
-}
\ No newline at end of file
+    /**
+     * Rule: enough trucks of the load's type, or one that can carry it, free around its loading date
+     */
+    private void verifyCapacity(Transporter transporter, Load load, int trucksOffered) {
+        MarketplaceRules.verifyCapacity(transporter, load, trucksOffered, truckTypeService.compatibility(),
+                availabilityService.freeTrucks(transporter, availabilityService.window(load.getLoadingDate())));
+    }
+}
@@ -0,0 +1,111 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.event.TransporterEvent;
+import com.kshitij.tms.repository.BookingRepository;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.TransporterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Completes CONFIRMED bookings whose reservation window has ended
+ *
+ * Runs every tms.bookings.completion-interval-ms in batches of
+ * tms.bookings.completion-batch-size, one transaction each. A batch claims
+ * its rows with FOR UPDATE SKIP LOCKED, so several instances can run the
+ * job at once without completing the same booking twice or waiting on each
+ * other. Bookings and their transporters are updated with one statement
+ * each; bumping the transporters' versions releases their reservations
+ * from every instance's cached schedule, as a single completion does.
+ */
+@Slf4j
+@Service
+public class BookingCompletionService {
+
+    private final BookingRepository bookingRepository;
+    private final TransporterRepository transporterRepository;
+    private final LoadRepository loadRepository;
+    private final AvailabilityService availabilityService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batch;
+    private final int batchSize;
+
+    public BookingCompletionService(BookingRepository bookingRepository,
+                                    TransporterRepository transporterRepository,
+                                    LoadRepository loadRepository,
+                                    AvailabilityService availabilityService,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${tms.bookings.completion-batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transporterRepository = transporterRepository;
+        this.loadRepository = loadRepository;
+        this.availabilityService = availabilityService;
+        this.eventPublisher = eventPublisher;
+        this.batch = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Complete every booking due now, batch by batch
+     *
+     * @return number of bookings completed
+     */
+    @Scheduled(fixedDelayString = "${tms.bookings.completion-interval-ms:60000}")
+    public int completeDueBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int completed;
+        do {
+            completed = batch.execute(status -> completeBatch(now));
+            total += completed;
+        } while (completed == batchSize);
+        if (total > 0) {
+            log.debug("Completed {} bookings", total);
+        }
+        return total;
+    }
+
+    private int completeBatch(LocalDateTime now) {
+        List<UUID> bookingIds = bookingRepository.claimDue(now, PageRequest.of(0, batchSize)).stream()
+                .map(Booking::getBookingId)
+                .toList();
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        bookingRepository.completeAll(bookingIds);
+
+        List<Booking> bookings = bookingRepository.findAllById(bookingIds);
+        Set<UUID> transporterIds = bookings.stream().map(Booking::getTransporterId).collect(Collectors.toSet());
+        transporterRepository.touchAll(transporterIds);
+        for (Transporter transporter : transporterRepository.findAllById(transporterIds)) {
+            availabilityService.invalidate(transporter.getTransporterId());
+            eventPublisher.publishEvent(TransporterEvent.updated(transporter));
+        }
+
+        Map<UUID, String> shippers = loadRepository.findAllById(
+                        bookings.stream().map(Booking::getLoadId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Load::getLoadId, Load::getShipperId));
+        for (Booking booking : bookings) {
+            eventPublisher.publishEvent(LoadEvent.bookingCompleted(shippers.get(booking.getLoadId()), booking));
+        }
+        return bookingIds.size();
+    }
+}
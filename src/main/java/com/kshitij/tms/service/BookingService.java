@@ -1,18 +1,30 @@
 package com.kshitij.tms.service;
 
+import com.kshitij.tms.cache.IdFilters;
+import com.kshitij.tms.dto.BatchBookingRequest;
 import com.kshitij.tms.dto.BookingRequest;
 import com.kshitij.tms.entity.*;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.event.TransporterEvent;
 import com.kshitij.tms.exception.InsufficientCapacityException;
+import com.kshitij.tms.exception.InvalidBatchBookingException;
 import com.kshitij.tms.exception.InvalidStatusTransitionException;
 import com.kshitij.tms.exception.ResourceNotFoundException;
 import com.kshitij.tms.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,20 +34,27 @@ public class BookingService {
     private final BidRepository bidRepository;
     private final TransporterRepository transporterRepository;
     private final LoadRepository loadRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdFilters idFilters;
+    private final TruckTypeService truckTypeService;
+    private final AvailabilityService availabilityService;
 
     /**
      * Create a booking by accepting a bid
      *
      * Business Rules:
      * 1. Cannot book cancelled loads
-     * 2. Verify truck availability before deducting
-     * 3. Deduct allocated trucks from transporter's available pool
+     * 2. Verify the trucks are free around the load's loading date
+     * 3. Reserve them for that window, from the load's type or a compatible
+     *    one; the booking records which, and the window
      * 4. Mark bid as ACCEPTED
      * 5. Reject all other pending bids for this load
      * 6. Update load's remainingTrucks
      * 7. Mark load as BOOKED when remainingTrucks reaches 0
      * 8. Use @Transactional to ensure atomicity
      *
+     * Live subscribers get booking-created, bid-rejected and status-changed after commit
+     *
      * @throws ResourceNotFoundException if bid, load, or transporter doesn't exist
      * @throws InvalidStatusTransitionException if load is cancelled
      * @throws InsufficientCapacityException if transporter lacks required trucks
@@ -51,85 +70,175 @@ public class BookingService {
         Load load = loadRepository.findById(bid.getLoadId())
                 .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", bid.getLoadId()));
 
-        if (load.getStatus() == LoadStatus.CANCELLED) {
-            throw new InvalidStatusTransitionException(
-                    "Cannot book CANCELLED load. Load ID: " + load.getLoadId());
-        }
+        MarketplaceRules.verifyBookable(load);
 
         // 3. Validate transporter and check truck availability
-        Transporter transporter = transporterRepository.findById(bid.getTransporterId())
+        Transporter transporter = transporterRepository.findForReservationByTransporterId(bid.getTransporterId())
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Transporter", "transporterId", bid.getTransporterId()));
 
-        // Find the specific truck type in transporter's available trucks
-        AvailableTruck availableTruck = transporter.getAvailableTrucks().stream()
-                .filter(truck -> truck.getTruckType().equalsIgnoreCase(load.getTruckType()))
-                .findFirst()
-                .orElseThrow(() -> new InsufficientCapacityException(
-                        String.format("Transporter %s does not have trucks of type '%s'",
-                                transporter.getCompanyName(), load.getTruckType())));
-
-        // Verify sufficient capacity
-        if (availableTruck.getCount() < request.getAllocatedTrucks()) {
-            throw new InsufficientCapacityException(
-                    String.format("Transporter %s only has %d trucks of type '%s' available, but %d requested",
-                            transporter.getCompanyName(),
-                            availableTruck.getCount(),
-                            load.getTruckType(),
-                            request.getAllocatedTrucks()));
+        // 4-7. Reserve the trucks, accept the bid and create the booking
+        Booking booking = book(load, bid, transporter, request.getAllocatedTrucks(), request.getFinalRate());
+
+        // 8. Reject all other pending bids for this load
+        rejectPendingBids(load, Set.of(bidId));
+
+        // 9. Store the load's remaining trucks and status
+        loadRepository.save(load);
+        eventPublisher.publishEvent(LoadEvent.statusChanged(load));
+
+        return booking;
+    }
+
+    /**
+     * Create bookings for several pending bids of one load in one transaction
+     *
+     * The load, bids and transporters are each read with one query, and the
+     * total allocation is checked against the load's remaining trucks once.
+     * The bookings are written together when the transaction flushes.
+     * Other pending bids are rejected only if the load ends up BOOKED.
+     *
+     * @throws InvalidBatchBookingException if the same bid is named more than once
+     * @throws ResourceNotFoundException if the load, a bid, or a transporter doesn't exist
+     * @throws InvalidStatusTransitionException if the load is cancelled, or a bid isn't a PENDING bid on it
+     * @throws InsufficientCapacityException if the load needs fewer trucks than allocated,
+     *                                       or a transporter lacks its trucks
+     */
+    @Transactional
+    public List<Booking> createBookings(BatchBookingRequest request) {
+        Set<UUID> bidIds = new HashSet<>();
+        for (BatchBookingRequest.Item item : request.getBookings()) {
+            if (!bidIds.add(item.getBidId())) {
+                throw new InvalidBatchBookingException("Bid " + item.getBidId() + " appears more than once in the batch");
+            }
         }
 
-        // 4. Deduct allocated trucks from transporter's available pool
-        availableTruck.setCount(availableTruck.getCount() - request.getAllocatedTrucks());
-        transporterRepository.save(transporter);
+        Load load = loadRepository.findById(request.getLoadId())
+                .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", request.getLoadId()));
+        MarketplaceRules.verifyBookable(load);
 
-        // 5. Mark this bid as ACCEPTED
-        bid.setStatus(BidStatus.ACCEPTED);
-        bidRepository.save(bid);
+        int allocatedTrucks = request.getBookings().stream().mapToInt(BatchBookingRequest.Item::getAllocatedTrucks).sum();
+        if (allocatedTrucks > load.getRemainingTrucks()) {
+            throw new InsufficientCapacityException(String.format(
+                    "Load %s needs %d more trucks, but %d were allocated",
+                    load.getLoadId(), load.getRemainingTrucks(), allocatedTrucks));
+        }
 
-        // 6. Reject all other pending bids for this load
-        List<Bid> otherBids = bidRepository.findByLoadId(load.getLoadId());
-        otherBids.forEach(otherBid -> {
-            if (!otherBid.getBidId().equals(bidId) && otherBid.getStatus() == BidStatus.PENDING) {
-                otherBid.setStatus(BidStatus.REJECTED);
-                bidRepository.save(otherBid);
+        Map<UUID, Bid> bids = bidRepository.findAllById(
+                        request.getBookings().stream().map(BatchBookingRequest.Item::getBidId).toList()).stream()
+                .collect(Collectors.toMap(Bid::getBidId, Function.identity()));
+        Map<UUID, Transporter> transporters = transporterRepository.findForReservationByTransporterIdIn(
+                        bids.values().stream().map(Bid::getTransporterId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Transporter::getTransporterId, Function.identity()));
+
+        List<BidAward> awards = new ArrayList<>(request.getBookings().size());
+        for (BatchBookingRequest.Item item : request.getBookings()) {
+            Bid bid = bids.get(item.getBidId());
+            if (bid == null) {
+                throw new ResourceNotFoundException("Bid", "bidId", item.getBidId());
             }
-        });
+            Transporter transporter = transporters.get(bid.getTransporterId());
+            if (transporter == null) {
+                throw new ResourceNotFoundException("Transporter", "transporterId", bid.getTransporterId());
+            }
+            awards.add(new BidAward(bid, transporter, item.getAllocatedTrucks(), item.getFinalRate()));
+        }
+        return bookAll(load, awards);
+    }
+
+    /**
+     * Book several pending bids of one load in the current transaction
+     *
+     * Each award reserves its transporter's trucks and becomes a booking as
+     * in createBooking, but the other pending bids are rejected only once the
+     * load is fully BOOKED, so a load can be split across transporters. The
+     * transporters must have been read with findForReservationByTransporterId
+     * or its bulk form.
+     *
+     * @throws InvalidStatusTransitionException if the load is cancelled, or a bid isn't a PENDING bid on it
+     * @throws InsufficientCapacityException if a transporter lacks the awarded trucks
+     */
+    @Transactional
+    public List<Booking> bookAll(Load load, List<BidAward> awards) {
+        MarketplaceRules.verifyBookable(load);
+        availabilityService.prefetch(awards.stream().map(BidAward::transporter).toList());
+
+        List<Booking> bookings = new ArrayList<>(awards.size());
+        for (BidAward award : awards) {
+            Bid bid = award.bid();
+            if (!bid.getLoadId().equals(load.getLoadId()) || bid.getStatus() != BidStatus.PENDING) {
+                throw new InvalidStatusTransitionException(
+                        "Bid " + bid.getBidId() + " is not a PENDING bid on load " + load.getLoadId());
+            }
+            bookings.add(book(load, bid, award.transporter(), award.trucks(), award.finalRate()));
+        }
+
+        if (load.getStatus() == LoadStatus.BOOKED) {
+            rejectPendingBids(load, awards.stream().map(award -> award.bid().getBidId()).collect(Collectors.toSet()));
+        }
+        loadRepository.save(load);
+        eventPublisher.publishEvent(LoadEvent.statusChanged(load));
+        return bookings;
+    }
+
+    /**
+     * Reserve the transporter's trucks for the load's window, accept the bid,
+     * store its booking and take the trucks off the load's remaining trucks;
+     * the caller saves the load
+     */
+    private Booking book(Load load, Bid bid, Transporter transporter, int trucks, double finalRate) {
+
+        // Pick the trucks to reserve for the load's window
+        ReservationWindow window = availabilityService.window(load.getLoadingDate());
+        AvailableTruck allocated = MarketplaceRules.allocateTrucks(transporter, load, trucks,
+                truckTypeService.compatibility(), availabilityService.freeTrucks(transporter, window));
+        eventPublisher.publishEvent(TransporterEvent.updated(transporter));
+
+        // Mark this bid as ACCEPTED
+        bid.setStatus(BidStatus.ACCEPTED);
+        bidRepository.save(bid);
 
-        // 7. Create booking entity
         Booking booking = Booking.builder()
                 .loadId(bid.getLoadId())
                 .bidId(bid.getBidId())
                 .transporterId(bid.getTransporterId())
-                .allocatedTrucks(request.getAllocatedTrucks())
-                .finalRate(request.getFinalRate())
-                .truckType(load.getTruckType())
+                .allocatedTrucks(trucks)
+                .finalRate(finalRate)
+                .truckTypeId(allocated.getTruckTypeId())
+                .truckType(allocated.getTruckType())
+                .reservedFrom(window.from())
+                .reservedUntil(window.until())
                 .status(BookingStatus.CONFIRMED)
                 .bookedAt(LocalDateTime.now())
                 .build();
 
         bookingRepository.save(booking);
+        availabilityService.invalidate(transporter.getTransporterId());
+        eventPublisher.publishEvent(LoadEvent.bookingCreated(load.getShipperId(), booking));
 
-        // 8. Update load's remaining trucks (BUG FIX: was setting noOfTrucks before)
-        load.setRemainingTrucks(load.getRemainingTrucks() - request.getAllocatedTrucks());
-
-        // 9. Mark load as BOOKED when all trucks are allocated
-        if (load.getRemainingTrucks() == 0) {
-            load.setStatus(LoadStatus.BOOKED);
-        }
-
-        loadRepository.save(load);
-
+        // Update load's remaining trucks; mark it BOOKED when all trucks are allocated
+        MarketplaceRules.applyAllocation(load, trucks);
         return booking;
     }
 
+    private void rejectPendingBids(Load load, Set<UUID> accepted) {
+        bidRepository.findByLoadId(load.getLoadId()).forEach(otherBid -> {
+            if (!accepted.contains(otherBid.getBidId()) && otherBid.getStatus() == BidStatus.PENDING) {
+                otherBid.setStatus(BidStatus.REJECTED);
+                bidRepository.save(otherBid);
+                eventPublisher.publishEvent(LoadEvent.bidRejected(load.getShipperId(), otherBid));
+            }
+        });
+    }
+
     /**
-     * Get booking by ID
+     * Get booking by ID; IDs the Bloom filter has never seen are rejected without a query
      *
      * @throws ResourceNotFoundException if booking doesn't exist
      */
+    @Transactional(readOnly = true)
     public Booking getBookingById(UUID bookingId) {
-        return bookingRepository.findById(bookingId)
+        return idFilters.find(ChangeEntityType.BOOKING, bookingId, () -> bookingRepository.findById(bookingId))
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", "bookingId", bookingId));
     }
 
@@ -137,13 +246,13 @@ public class BookingService {
      * Cancel a booking
      *
      * Business Rules:
-     * 1. Cannot cancel already cancelled bookings
-     * 2. Restore allocated trucks to transporter's available pool
+     * 1. Only CONFIRMED bookings can be cancelled
+     * 2. Release the trucks' reservation
      * 3. Update load's remainingTrucks
      * 4. If load was BOOKED, change status back to OPEN_FOR_BIDS
      *
      * @throws ResourceNotFoundException if booking, transporter, or load doesn't exist
-     * @throws InvalidStatusTransitionException if booking is already cancelled
+     * @throws InvalidStatusTransitionException if booking is already cancelled or completed
      */
     @Transactional
     public Booking cancelBooking(UUID bookingId) {
@@ -155,22 +264,20 @@ public class BookingService {
             throw new InvalidStatusTransitionException(
                     "Booking is already cancelled. Booking ID: " + bookingId);
         }
+        if (booking.getStatus() == BookingStatus.COMPLETED) {
+            throw new InvalidStatusTransitionException(
+                    "Cannot cancel completed booking. Booking ID: " + bookingId);
+        }
 
         // 1. Mark booking as cancelled
         booking.setStatus(BookingStatus.CANCELLED);
 
-        // 2. Restore trucks to transporter's available pool
-        Transporter transporter = transporterRepository.findById(booking.getTransporterId())
+        // 2. Release the reservation: a cancelled booking no longer counts against the transporter
+        Transporter transporter = transporterRepository.findForReservationByTransporterId(booking.getTransporterId())
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Transporter", "transporterId", booking.getTransporterId()));
-
-        // Find the truck type and restore count
-        transporter.getAvailableTrucks().stream()
-                .filter(truck -> truck.getTruckType().equalsIgnoreCase(booking.getTruckType()))
-                .findFirst()
-                .ifPresent(truck -> truck.setCount(truck.getCount() + booking.getAllocatedTrucks()));
-
-        transporterRepository.save(transporter);
+        availabilityService.invalidate(transporter.getTransporterId());
+        eventPublisher.publishEvent(TransporterEvent.updated(transporter));
 
         // 3. Update load's remaining trucks
         Load load = loadRepository.findById(booking.getLoadId())
@@ -184,8 +291,50 @@ public class BookingService {
         }
 
         loadRepository.save(load);
+        eventPublisher.publishEvent(LoadEvent.statusChanged(load));
 
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(LoadEvent.bookingCancelled(load.getShipperId(), saved));
+        return saved;
     }
 
-}
\ No newline at end of file
+    /**
+     * Complete a booking once its trip is over
+     *
+     * Business Rules:
+     * 1. Only CONFIRMED bookings can be completed
+     * 2. Release the trucks' reservation, even if its window hasn't ended
+     * 3. The load's remaining trucks and status are unchanged
+     *
+     * Bookings whose window has ended are also completed in bulk by BookingCompletionService
+     *
+     * @throws ResourceNotFoundException if booking or transporter doesn't exist
+     * @throws InvalidStatusTransitionException if booking is not CONFIRMED
+     */
+    @Transactional
+    public Booking completeBooking(UUID bookingId) {
+
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking", "bookingId", bookingId));
+
+        if (booking.getStatus() != BookingStatus.CONFIRMED) {
+            throw new InvalidStatusTransitionException(
+                    "Cannot complete " + booking.getStatus() + " booking. Booking ID: " + bookingId);
+        }
+
+        // 1. Mark booking as completed
+        booking.setStatus(BookingStatus.COMPLETED);
+
+        // 2. Release the reservation: only CONFIRMED bookings count against the transporter
+        Transporter transporter = transporterRepository.findForReservationByTransporterId(booking.getTransporterId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Transporter", "transporterId", booking.getTransporterId()));
+        availabilityService.invalidate(transporter.getTransporterId());
+        eventPublisher.publishEvent(TransporterEvent.updated(transporter));
+
+        Booking saved = bookingRepository.save(booking);
+        String shipperId = loadRepository.findById(booking.getLoadId()).map(Load::getShipperId).orElse(null);
+        eventPublisher.publishEvent(LoadEvent.bookingCompleted(shipperId, saved));
+        return saved;
+    }
+}
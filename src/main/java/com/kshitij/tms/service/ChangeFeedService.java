@@ -0,0 +1,171 @@
+package com.kshitij.tms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kshitij.tms.dto.ChangeFeedResponse;
+import com.kshitij.tms.dto.ChangeRecordResponse;
+import com.kshitij.tms.entity.ChangeEntityType;
+import com.kshitij.tms.entity.ChangeRecord;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.event.TransporterEvent;
+import com.kshitij.tms.repository.ChangeRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Change feed for incremental sync (transactional outbox)
+ *
+ * Every LoadEvent and TransporterEvent the services publish is written to
+ * the change_record table just before their transaction commits, in that
+ * same transaction. Consumers page through GET /api/changes?since=<cursor>
+ * in changeId order and upsert each payload by (entityType, entityId).
+ *
+ * Identity values are assigned at insert, not at commit, so a change can
+ * commit after one with a higher changeId. The feed therefore stops at a
+ * gap in the changeIds until the missing change commits, or until the gap
+ * is older than tms.changes.gap-timeout-ms: records are written just before
+ * commit, so a transaction that hasn't committed its change by then has
+ * rolled back. A gap counts from when this instance first saw a change
+ * above it, so clock skew between hosts doesn't matter; occurredAt is
+ * taken from the database clock for the same reason.
+ *
+ * Records older than the retention period are pruned; a consumer whose
+ * cursor falls behind that must resync from the regular endpoints.
+ */
+@Slf4j
+@Service
+public class ChangeFeedService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final ChangeRecordRepository changeRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+    // Highest changeIds seen, with when they were first seen, oldest first
+    private final Deque<Sighting> sightings = new ArrayDeque<>();
+    // Every changeId below this has committed or never will
+    private long settledBelow;
+
+    public ChangeFeedService(ChangeRecordRepository changeRecordRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${tms.changes.gap-timeout-ms:30000}") long gapTimeoutMs,
+                             @Value("${tms.changes.retention-hours:168}") long retentionHours) {
+        this.changeRecordRepository = changeRecordRepository;
+        this.objectMapper = objectMapper;
+        this.gapTimeoutNanos = gapTimeoutMs * 1_000_000;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onLoadEvent(LoadEvent event) {
+        record(event.type().entityType(), event.entityId(), event.type().eventName(), event.payload());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTransporterEvent(TransporterEvent event) {
+        record(ChangeEntityType.TRANSPORTER, event.transporterId(), TransporterEvent.CHANGE_TYPE, event.payload());
+    }
+
+    /**
+     * Next batch of changes after the cursor, oldest first
+     *
+     * @param since changeId of the last change already applied; 0 for the start of the feed
+     * @param limit batch size, capped at MAX_BATCH_SIZE
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedResponse getChanges(long since, int limit) {
+        int batchSize = Math.max(1, Math.min(limit, MAX_BATCH_SIZE));
+
+        // One extra row tells whether another batch is ready
+        List<ChangeRecord> records = changeRecordRepository
+                .findByChangeIdGreaterThanOrderByChangeIdAsc(since, PageRequest.of(0, batchSize + 1));
+        long settled = settledBelow(records.isEmpty() ? since : records.get(records.size() - 1).getChangeId());
+
+        List<ChangeRecordResponse> changes = new ArrayList<>(Math.min(records.size(), batchSize));
+        long nextCursor = since;
+        for (ChangeRecord record : records) {
+            if (changes.size() == batchSize) {
+                break;
+            }
+            // A change in the gap may still commit; pass it only once it can't
+            if (record.getChangeId() != nextCursor + 1 && record.getChangeId() > settled) {
+                break;
+            }
+            changes.add(ChangeRecordResponse.from(record));
+            nextCursor = record.getChangeId();
+        }
+        boolean hasMore = changes.size() == batchSize && records.size() > batchSize;
+        return new ChangeFeedResponse(changes, nextCursor, hasMore);
+    }
+
+    /**
+     * Cursor from which the feed returns every change that occurred at or after the given time
+     */
+    @Transactional(readOnly = true)
+    public long cursorAt(LocalDateTime time) {
+        return changeRecordRepository.findLastChangeIdBefore(time);
+    }
+
+    /**
+     * Drop changes older than the retention period
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${tms.changes.prune-interval-ms:3600000}")
+    public void pruneExpired() {
+        int pruned = changeRecordRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+        if (pruned > 0) {
+            log.debug("Pruned {} change records", pruned);
+        }
+    }
+
+    /**
+     * Notes the highest changeId just read and returns the changeId below
+     * which every gap is older than the timeout
+     */
+    private synchronized long settledBelow(long highestSeen) {
+        long now = System.nanoTime();
+        if (sightings.isEmpty() || sightings.peekLast().changeId() < highestSeen) {
+            sightings.addLast(new Sighting(highestSeen, now));
+        }
+        // Every changeId below one seen committed was assigned before that, so its transaction is over by now
+        while (!sightings.isEmpty() && now - sightings.peekFirst().seenAt() >= gapTimeoutNanos) {
+            settledBelow = Math.max(settledBelow, sightings.pollFirst().changeId());
+        }
+        return settledBelow;
+    }
+
+    private void record(ChangeEntityType entityType, UUID entityId, String changeType, Object payload) {
+        changeRecordRepository.save(ChangeRecord.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .changeType(changeType)
+                .payload(toJson(payload))
+                .build());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change payload", e);
+        }
+    }
+
+    private record Sighting(long changeId, long seenAt) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.kshitij.tms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kshitij.tms.cache.BoundedMap;
+import com.kshitij.tms.exception.InvalidIdempotencyKeyException;
+import com.kshitij.tms.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for retried writes (bid submission, booking creation)
+ *
+ * The first request with a key executes normally; its response is stored in
+ * the same transaction as the write and replayed for every retry until the
+ * key expires. Lookups hit a bounded in-memory cache first and fall back to
+ * the idempotency_key table, so retries landing on another node also replay.
+ *
+ * Concurrent duplicates on one node wait for the in-flight execution and
+ * share its outcome. Across nodes the table's primary key decides: the
+ * losing transaction rolls back and replays the winner's response.
+ * Failed executions are not recorded, so a retry after an error runs again.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    private final BoundedMap<String, StoredResponse> cache;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${tms.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${tms.idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = new BoundedMap<>(cacheSize, true);
+    }
+
+    /**
+     * Execute a write at most once per (scope, key)
+     *
+     * @param scope    namespace of the key, e.g. "bid" or "booking"
+     * @param key      client-supplied Idempotency-Key; null executes without protection
+     * @param request  everything that identifies the request, used to detect key reuse
+     * @param type     response type, used to deserialize a replayed response
+     * @param action   the write; runs inside the transaction that stores the response
+     * @throws InvalidIdempotencyKeyException if the key is malformed or was used for a different request
+     */
+    public <T> Result<T> execute(String scope, String key, Object request, Class<T> type, Supplier<T> action) {
+        if (key == null) {
+            return new Result<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(String.format(
+                    "%s header must be 1-%d characters", IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH));
+        }
+
+        String recordKey = scope + ":" + key;
+        String requestHash = fingerprint(request);
+
+        StoredResponse stored = lookup(recordKey);
+        if (stored != null) {
+            return replay(stored, requestHash, type);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(recordKey, execution);
+        if (running != null) {
+            return replay(await(running), requestHash, type);
+        }
+
+        try {
+            // The previous owner may have finished between the lookup and claiming the slot
+            stored = lookup(recordKey);
+            if (stored == null) {
+                stored = executeAndRecord(recordKey, requestHash, action);
+                cache.put(recordKey, stored.withoutValue());
+                execution.complete(stored);
+                return new Result<>(type.cast(stored.value()), false);
+            }
+            execution.complete(stored);
+            return replay(stored, requestHash, type);
+
+        } catch (DataIntegrityViolationException e) {
+            // Another node recorded this key first; our transaction was rolled back
+            StoredResponse winner = lookup(recordKey);
+            if (winner == null) {
+                execution.completeExceptionally(e);
+                throw e;
+            }
+            execution.complete(winner);
+            return replay(winner, requestHash, type);
+
+        } catch (RuntimeException | Error e) {
+            execution.completeExceptionally(e);
+            throw e;
+
+        } finally {
+            inFlight.remove(recordKey, execution);
+        }
+    }
+
+    /**
+     * Purge expired keys; the in-memory cache is LRU-bounded and checks expiry on read
+     */
+    @Scheduled(fixedDelayString = "${tms.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private StoredResponse executeAndRecord(String recordKey, String requestHash, Supplier<?> action) {
+        return transactionTemplate.execute(status -> {
+            Object value = action.get();
+
+            LocalDateTime now = LocalDateTime.now();
+            StoredResponse stored = new StoredResponse(requestHash, toJson(value), value, now.plus(ttl));
+            repository.deleteIfExpired(recordKey, now);
+            repository.insert(recordKey, requestHash, stored.body(), now, stored.expiresAt());
+            return stored;
+        });
+    }
+
+    private StoredResponse lookup(String recordKey) {
+        LocalDateTime now = LocalDateTime.now();
+
+        StoredResponse cached = cache.get(recordKey);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return cached;
+        }
+
+        StoredResponse stored = repository.findById(recordKey)
+                .filter(record -> record.getExpiresAt().isAfter(now))
+                .map(record -> new StoredResponse(
+                        record.getRequestHash(), record.getResponseBody(), null, record.getExpiresAt()))
+                .orElse(null);
+        if (stored != null) {
+            cache.put(recordKey, stored);
+        }
+        return stored;
+    }
+
+    private <T> Result<T> replay(StoredResponse stored, String requestHash, Class<T> type) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new InvalidIdempotencyKeyException(
+                    "Idempotency-Key was already used for a different request");
+        }
+        try {
+            return new Result<>(objectMapper.readValue(stored.body(), type), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is not a " + type.getSimpleName(), e);
+        }
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return new String(objectMapper.writeValueAsBytes(value), StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+
+    /**
+     * @param value the live response object, only present on the node that executed it
+     */
+    private record StoredResponse(String requestHash, String body, Object value, LocalDateTime expiresAt) {
+
+        StoredResponse withoutValue() {
+            return new StoredResponse(requestHash, body, null, expiresAt);
+        }
+    }
+
+    /**
+     * Outcome of an idempotent execution
+     *
+     * @param replayed true when the body is the stored response of an earlier request
+     */
+    public record Result<T>(T body, boolean replayed) {
+
+        public ResponseEntity<T> toResponseEntity() {
+            return toResponseEntity(HttpStatus.OK);
+        }
+
+        public ResponseEntity<T> toResponseEntity(HttpStatus status) {
+            return ResponseEntity.status(status)
+                    .header(REPLAYED_HEADER, String.valueOf(replayed))
+                    .body(body);
+        }
+    }
+}
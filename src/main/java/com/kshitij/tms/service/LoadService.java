@@ -3,26 +3,39 @@ package com.kshitij.tms.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
+import com.kshitij.tms.cache.EntityCache;
+import com.kshitij.tms.cache.IdFilters;
 import com.kshitij.tms.dto.LoadRequest;
 import com.kshitij.tms.dto.LoadUpdateRequest;
 import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.FieldSelection;
+import com.kshitij.tms.dto.LoadResponse;
 import com.kshitij.tms.entity.Load;
 import com.kshitij.tms.entity.LoadStatus;
 import com.kshitij.tms.entity.Bid;
 import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.ChangeEntityType;
 import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.entity.TruckType;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.exception.InvalidFieldSelectionException;
 import com.kshitij.tms.exception.InvalidStatusTransitionException;
 import com.kshitij.tms.exception.ResourceNotFoundException;
 import com.kshitij.tms.repository.LoadRepository;
 import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.SparseFieldsetRepository;
 import com.kshitij.tms.repository.TransporterRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 
@@ -33,11 +46,18 @@ public class LoadService {
     private final LoadRepository loadRepository;
     private final BidRepository bidRepository;
     private final TransporterRepository transporterRepository;
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityCache entityCache;
+    private final IdFilters idFilters;
+    private final TruckTypeService truckTypeService;
 
     /**
      * Create a new load with POSTED status
      */
+    @Transactional
     public Load createLoad(LoadRequest request) {
+        TruckType truckType = truckTypeService.resolve(request.getTruckType());
         Load load = Load.builder()
                 .shipperId(request.getShipperId())
                 .loadingCity(request.getLoadingCity())
@@ -46,36 +66,53 @@ public class LoadService {
                 .productType(request.getProductType())
                 .weight(request.getWeight())
                 .weightUnit(request.getWeightUnit())
-                .truckType(request.getTruckType())
+                .truckTypeId(truckType.getTruckTypeId())
+                .truckType(truckType.getName())
                 .noOfTrucks(request.getNoOfTrucks())
                 .remainingTrucks(request.getNoOfTrucks())  // Initially all trucks are available
                 .status(LoadStatus.POSTED)
                 .datePosted(LocalDateTime.now())
                 .build();
 
-        return loadRepository.save(load);
+        Load saved = loadRepository.save(load);
+        eventPublisher.publishEvent(LoadEvent.statusChanged(saved));
+        return saved;
     }
 
     /**
      * Get all loads (without filters)
      */
+    @Transactional(readOnly = true)
     public List<Load> getAllLoads() {
         return loadRepository.findAll();
     }
 
     /**
-     * Get load by ID
+     * Get load by ID; IDs the Bloom filter has never seen are rejected without a query
      * @throws ResourceNotFoundException if load doesn't exist
      */
+    @Transactional(readOnly = true)
     public Load getLoadById(UUID id) {
-        return loadRepository.findById(id)
+        return idFilters.find(ChangeEntityType.LOAD, id, () -> loadRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", id));
     }
 
+    /**
+     * Get load by ID for display, served from the hot-load cache when possible
+     * Write paths use getLoadById, which always reads the database
+     *
+     * @throws ResourceNotFoundException if load doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public LoadResponse getLoadResponse(UUID id) {
+        return entityCache.load(id, () -> LoadResponse.from(getLoadById(id)));
+    }
+
     /**
      * Update load details
      * @throws ResourceNotFoundException if load doesn't exist
      */
+    @Transactional
     public Load updateLoad(UUID id, LoadUpdateRequest request) {
         Load load = getLoadById(id);
 
@@ -85,13 +122,19 @@ public class LoadService {
         if (request.getProductType() != null) load.setProductType(request.getProductType());
         if (request.getWeight() != null) load.setWeight(request.getWeight());
         if (request.getWeightUnit() != null) load.setWeightUnit(request.getWeightUnit());
-        if (request.getTruckType() != null) load.setTruckType(request.getTruckType());
+        if (request.getTruckType() != null) {
+            TruckType truckType = truckTypeService.resolve(request.getTruckType());
+            load.setTruckTypeId(truckType.getTruckTypeId());
+            load.setTruckType(truckType.getName());
+        }
         if (request.getNoOfTrucks() != null) {
             load.setNoOfTrucks(request.getNoOfTrucks());
             load.setRemainingTrucks(request.getNoOfTrucks());
         }
 
-        return loadRepository.save(load);
+        Load saved = loadRepository.save(load);
+        eventPublisher.publishEvent(LoadEvent.statusChanged(saved));
+        return saved;
     }
 
     /**
@@ -126,10 +169,13 @@ public class LoadService {
         List<Bid> pendingBids = bidRepository.findByLoadIdAndStatus(loadId, BidStatus.PENDING);
         pendingBids.forEach(bid -> bid.setStatus(BidStatus.REJECTED));
         bidRepository.saveAll(pendingBids);
+        pendingBids.forEach(bid -> eventPublisher.publishEvent(LoadEvent.bidRejected(load.getShipperId(), bid)));
 
         // 2. Update load status to CANCELLED
         load.setStatus(LoadStatus.CANCELLED);
-        return loadRepository.save(load);
+        Load saved = loadRepository.save(load);
+        eventPublisher.publishEvent(LoadEvent.statusChanged(saved));
+        return saved;
     }
 
     /**
@@ -139,10 +185,11 @@ public class LoadService {
      *
      * @throws ResourceNotFoundException if load doesn't exist
      */
+    @Transactional(readOnly = true)
     public List<BestBidResponse> getBestBids(UUID loadId) {
 
-        Load load = loadRepository.findById(loadId)
-                .orElseThrow(() -> new ResourceNotFoundException("Load", "loadId", loadId));
+        // Existence check only; hot loads are answered from the cache
+        getLoadResponse(loadId);
 
         // Fetch only PENDING bids (only these are valid choices for acceptance)
         List<Bid> bids = bidRepository.findByLoadIdAndStatus(loadId, BidStatus.PENDING);
@@ -160,9 +207,7 @@ public class LoadService {
                                     "Transporter", "transporterId", bid.getTransporterId()));
 
                     // Best Bid Score Calculation
-                    // Lower rate is better (1/rate), higher rating is better
-                    double score = (1.0 / bid.getProposedRate()) * 0.7 +
-                            (transporter.getRating() / 5.0) * 0.3;
+                    double score = BestBidResponse.score(bid.getProposedRate(), transporter.getRating());
 
                     return BestBidResponse.builder()
                             .bidId(bid.getBidId())
@@ -179,30 +224,56 @@ public class LoadService {
     }
 
     /**
-     * Filter loads with pagination
+     * Filter loads with pagination, newest first
      * Supports filtering by shipperId and/or status
+     *
+     * Every filter combination has an index ending in datePosted,
+     * so pages are read in index order without a sort step.
+     * Rows are projected straight into LoadResponse; no entities are loaded.
      */
-    public Page<Load> filterLoads(String shipperId, LoadStatus status, int page, int size) {
+    @Transactional(readOnly = true)
+    public Page<LoadResponse> filterLoads(String shipperId, LoadStatus status, int page, int size) {
 
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = newestFirst(page, size);
 
         // CASE 1: No filters - return all
         if (shipperId == null && status == null) {
-            return loadRepository.findAll(pageable);
+            return loadRepository.findAllBy(pageable, LoadResponse.class);
         }
 
         // CASE 2: Only shipperId filter
         if (shipperId != null && status == null) {
-            return loadRepository.findByShipperId(shipperId, pageable);
+            return loadRepository.findByShipperId(shipperId, pageable, LoadResponse.class);
         }
 
         // CASE 3: Only status filter
         if (shipperId == null && status != null) {
-            return loadRepository.findByStatus(status, pageable);
+            return loadRepository.findByStatus(status, pageable, LoadResponse.class);
         }
 
         // CASE 4: Both filters applied
-        return loadRepository.findByShipperIdAndStatus(shipperId, status, pageable);
+        return loadRepository.findByShipperIdAndStatus(shipperId, status, pageable, LoadResponse.class);
+    }
+
+    /**
+     * Filter loads returning only the requested fields (sparse fieldset)
+     *
+     * @throws InvalidFieldSelectionException if a field isn't part of LoadResponse
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> filterLoadFields(String shipperId, LoadStatus status, int page, int size,
+                                                      List<String> fields) {
+        List<String> selected = FieldSelection.of(fields, LoadResponse.class);
+
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("shipperId", shipperId);
+        filters.put("status", status);
+
+        return sparseFieldsetRepository.findFields(Load.class, filters, selected, newestFirst(page, size));
+    }
+
+    private static Pageable newestFirst(int page, int size) {
+        return PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "datePosted"));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.exception.InsufficientCapacityException;
+import com.kshitij.tms.exception.InvalidStatusTransitionException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bid and booking rules, independent of where the state lives
+ *
+ * Applied by BidService and BookingService to entities loaded in the
+ * current transaction, and by the marketplace engine to its in-memory
+ * copies, so both paths accept, reject and mutate exactly alike.
+ */
+public final class MarketplaceRules {
+
+    private MarketplaceRules() {
+    }
+
+    /**
+     * Rule: Cannot bid on CANCELLED or BOOKED loads
+     *
+     * @throws InvalidStatusTransitionException if load is CANCELLED or BOOKED
+     */
+    public static void verifyBiddable(Load load) {
+        if (load.getStatus() == LoadStatus.CANCELLED) {
+            throw new InvalidStatusTransitionException(
+                    "Cannot bid on CANCELLED load. Load ID: " + load.getLoadId());
+        }
+
+        if (load.getStatus() == LoadStatus.BOOKED) {
+            throw new InvalidStatusTransitionException(
+                    "Cannot bid on BOOKED load. Load ID: " + load.getLoadId());
+        }
+    }
+
+    /**
+     * Rule: Transporter must have enough trucks of one type that can carry the
+     * load free around its loading date
+     *
+     * @param freeTrucks trucks of an inventory entry not reserved during the load's window
+     * @throws InsufficientCapacityException if transporter lacks required trucks
+     */
+    public static void verifyCapacity(Transporter transporter, Load load, int trucksOffered,
+                                      TruckCompatibility compatibility, ToIntFunction<AvailableTruck> freeTrucks) {
+        boolean hasSufficientTrucks = transporter.getAvailableTrucks().stream()
+                .anyMatch(truck ->
+                        compatibility.canCarry(truck.getTruckTypeId(), load.getTruckTypeId()) &&
+                                freeTrucks.applyAsInt(truck) >= trucksOffered
+                );
+
+        if (!hasSufficientTrucks) {
+            throw new InsufficientCapacityException(
+                    String.format("Transporter %s does not have %d trucks of type '%s' or a type that can carry it "
+                                    + "free around %s. Fleet: %s",
+                            transporter.getCompanyName(),
+                            trucksOffered,
+                            load.getTruckType(),
+                            load.getLoadingDate(),
+                            transporter.getAvailableTrucks())
+            );
+        }
+    }
+
+    /**
+     * Most trucks the transporter could be allocated for the load: the free
+     * trucks of its best inventory entry that can carry it, since a booking
+     * takes all its trucks from one entry
+     *
+     * @param freeTrucks trucks of an inventory entry not reserved during the load's window
+     */
+    public static int freeCapacity(Transporter transporter, Load load, TruckCompatibility compatibility,
+                                   ToIntFunction<AvailableTruck> freeTrucks) {
+        return transporter.getAvailableTrucks().stream()
+                .filter(truck -> compatibility.canCarry(truck.getTruckTypeId(), load.getTruckTypeId()))
+                .mapToInt(freeTrucks)
+                .max()
+                .orElse(0);
+    }
+
+    /**
+     * Status Transition Rule: First bid changes POSTED → OPEN_FOR_BIDS
+     *
+     * @return true if the status changed
+     */
+    public static boolean openForBids(Load load) {
+        if (load.getStatus() != LoadStatus.POSTED) {
+            return false;
+        }
+        load.setStatus(LoadStatus.OPEN_FOR_BIDS);
+        return true;
+    }
+
+    /**
+     * A repeat bid with unchanged terms leaves the pending bid as it is
+     */
+    public static boolean isRevision(Bid bid, double proposedRate, int trucksOffered) {
+        return isRevision(bid.getProposedRate(), bid.getTrucksOffered(), proposedRate, trucksOffered);
+    }
+
+    public static boolean isRevision(double currentRate, int currentTrucks, double proposedRate, int trucksOffered) {
+        return currentRate != proposedRate || currentTrucks != trucksOffered;
+    }
+
+    /**
+     * Rule: Cannot book cancelled loads
+     *
+     * @throws InvalidStatusTransitionException if load is cancelled
+     */
+    public static void verifyBookable(Load load) {
+        if (load.getStatus() == LoadStatus.CANCELLED) {
+            throw new InvalidStatusTransitionException(
+                    "Cannot book CANCELLED load. Load ID: " + load.getLoadId());
+        }
+    }
+
+    /**
+     * Verify truck availability and pick the inventory entry to reserve the
+     * allocated trucks from; the caller records the reservation
+     *
+     * All trucks come from one inventory entry: the load's own type when it
+     * has enough free, otherwise the first compatible type that does.
+     *
+     * @param freeTrucks trucks of an inventory entry not reserved during the load's window
+     * @return the truck entry to reserve from
+     * @throws InsufficientCapacityException if transporter lacks required trucks
+     */
+    public static AvailableTruck allocateTrucks(Transporter transporter, Load load, int allocatedTrucks,
+                                                TruckCompatibility compatibility,
+                                                ToIntFunction<AvailableTruck> freeTrucks) {
+
+        List<AvailableTruck> compatibleTrucks = transporter.getAvailableTrucks().stream()
+                .filter(truck -> compatibility.canCarry(truck.getTruckTypeId(), load.getTruckTypeId()))
+                .sorted(Comparator.comparing(truck -> truck.getTruckTypeId() != load.getTruckTypeId()))
+                .toList();
+        if (compatibleTrucks.isEmpty()) {
+            throw new InsufficientCapacityException(
+                    String.format("Transporter %s does not have trucks of type '%s' or a type that can carry it",
+                            transporter.getCompanyName(), load.getTruckType()));
+        }
+
+        // Verify sufficient capacity
+        return compatibleTrucks.stream()
+                .filter(truck -> freeTrucks.applyAsInt(truck) >= allocatedTrucks)
+                .findFirst()
+                .orElseThrow(() -> new InsufficientCapacityException(
+                        String.format("Transporter %s only has %d trucks of type '%s' free around %s, but %d requested",
+                                transporter.getCompanyName(),
+                                freeTrucks.applyAsInt(compatibleTrucks.get(0)),
+                                compatibleTrucks.get(0).getTruckType(),
+                                load.getLoadingDate(),
+                                allocatedTrucks)));
+    }
+
+    /**
+     * Update the load's remaining trucks, marking it BOOKED when all trucks are allocated
+     */
+    public static void applyAllocation(Load load, int allocatedTrucks) {
+        load.setRemainingTrucks(load.getRemainingTrucks() - allocatedTrucks);
+
+        if (load.getRemainingTrucks() == 0) {
+            load.setStatus(LoadStatus.BOOKED);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.kshitij.tms.service;
+
+import java.util.Arrays;
+
+/**
+ * Trucks reserved over time for one transporter and truck type
+ *
+ * A segment tree over hours since the epoch whose nodes are created only
+ * where reservations fall. reserve adds trucks to every hour of a range
+ * and maxReserved returns the busiest hour of a range, both in
+ * O(log hours). Not thread-safe.
+ */
+final class ReservationTree {
+
+    /**
+     * 2^24 hours is about 1900 years from 1970
+     */
+    static final int HOURS = 1 << 24;
+
+    // Node 0 is the shared empty node; the root is node 1
+    private int[] left = new int[64];
+    private int[] right = new int[64];
+    // Trucks added to every hour of the node's range
+    private int[] added = new int[64];
+    // Busiest hour of the node's range, counting added
+    private int[] max = new int[64];
+    private int nodes = 2;
+
+    /**
+     * Add trucks to every hour in [fromHour, untilHour)
+     */
+    void reserve(int fromHour, int untilHour, int trucks) {
+        if (fromHour < untilHour) {
+            add(1, 0, HOURS, fromHour, untilHour, trucks);
+        }
+    }
+
+    /**
+     * Most trucks reserved in any hour of [fromHour, untilHour)
+     */
+    int maxReserved(int fromHour, int untilHour) {
+        return fromHour < untilHour ? max(1, 0, HOURS, fromHour, untilHour) : 0;
+    }
+
+    private void add(int node, int low, int high, int from, int until, int trucks) {
+        if (from <= low && high <= until) {
+            added[node] += trucks;
+            max[node] += trucks;
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        if (from < mid) {
+            if (left[node] == 0) {
+                int child = newNode();
+                left[node] = child;
+            }
+            add(left[node], low, mid, from, until, trucks);
+        }
+        if (until > mid) {
+            if (right[node] == 0) {
+                int child = newNode();
+                right[node] = child;
+            }
+            add(right[node], mid, high, from, until, trucks);
+        }
+        max[node] = added[node] + Math.max(max[left[node]], max[right[node]]);
+    }
+
+    private int max(int node, int low, int high, int from, int until) {
+        if (node == 0) {
+            return 0;
+        }
+        if (from <= low && high <= until) {
+            return max[node];
+        }
+        int mid = (low + high) >>> 1;
+        int busiest = Integer.MIN_VALUE;
+        if (from < mid) {
+            busiest = max(left[node], low, mid, from, until);
+        }
+        if (until > mid) {
+            busiest = Math.max(busiest, max(right[node], mid, high, from, until));
+        }
+        return added[node] + busiest;
+    }
+
+    private int newNode() {
+        if (nodes == left.length) {
+            int capacity = nodes * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            added = Arrays.copyOf(added, capacity);
+            max = Arrays.copyOf(max, capacity);
+        }
+        return nodes++;
+    }
+}
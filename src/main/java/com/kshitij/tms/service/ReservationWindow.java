@@ -0,0 +1,36 @@
+package com.kshitij.tms.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Time a booking holds its trucks: from before the loading date, to reach
+ * the pickup, until the trip is over
+ */
+public record ReservationWindow(LocalDateTime from, LocalDateTime until) {
+
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    public static ReservationWindow around(LocalDateTime loadingDate, Duration lead, Duration trip) {
+        return new ReservationWindow(loadingDate.minus(lead), loadingDate.plus(trip));
+    }
+
+    /**
+     * First hour bucket the window touches
+     */
+    int fromHour() {
+        return clamp(Math.floorDiv(from.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_HOUR));
+    }
+
+    /**
+     * Hour bucket after the last one the window touches
+     */
+    int untilHour() {
+        return clamp(Math.floorDiv(until.toEpochSecond(ZoneOffset.UTC) + SECONDS_PER_HOUR - 1, SECONDS_PER_HOUR));
+    }
+
+    private static int clamp(long hour) {
+        return (int) Math.max(0, Math.min(ReservationTree.HOURS, hour));
+    }
+}
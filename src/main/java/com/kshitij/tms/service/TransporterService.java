@@ -1,37 +1,52 @@
 package com.kshitij.tms.service;
 
+import com.kshitij.tms.cache.EntityCache;
+import com.kshitij.tms.dto.LoadResponse;
 import com.kshitij.tms.dto.TransporterRequest;
+import com.kshitij.tms.dto.TransporterResponse;
 import com.kshitij.tms.dto.TransporterUpdateRequest;
 import com.kshitij.tms.dto.TruckRequest;
 import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.LoadStatus;
 import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.entity.TruckType;
+import com.kshitij.tms.event.TransporterEvent;
 import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.repository.LoadRepository;
 import com.kshitij.tms.repository.TransporterRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TransporterService {
 
     private final TransporterRepository transporterRepository;
+    private final LoadRepository loadRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityCache entityCache;
+    private final TruckTypeService truckTypeService;
 
     /**
      * Register a new transporter with available trucks
      */
+    @Transactional
     public Transporter createTransporter(TransporterRequest request) {
 
-        // Convert TruckRequest DTOs to AvailableTruck entities
-        List<AvailableTruck> trucks = request.getAvailableTrucks().stream()
-                .map(truckReq -> AvailableTruck.builder()
-                        .truckType(truckReq.getTruckType())
-                        .count(truckReq.getCount())
-                        .build())
-                .collect(Collectors.toList());
+        List<AvailableTruck> trucks = toAvailableTrucks(request.getAvailableTrucks());
 
         Transporter transporter = Transporter.builder()
                 .companyName(request.getCompanyName())
@@ -39,7 +54,9 @@ public class TransporterService {
                 .availableTrucks(trucks)
                 .build();
 
-        return transporterRepository.save(transporter);
+        Transporter saved = transporterRepository.save(transporter);
+        eventPublisher.publishEvent(TransporterEvent.updated(saved));
+        return saved;
     }
 
     /**
@@ -47,38 +64,94 @@ public class TransporterService {
      *
      * @throws ResourceNotFoundException if transporter doesn't exist
      */
+    @Transactional(readOnly = true)
     public Transporter getTransporterById(UUID transporterId) {
         return transporterRepository.findById(transporterId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Transporter", "transporterId", transporterId));
     }
 
+    /**
+     * Get transporter by ID for display, served from the hot-transporter cache when possible
+     *
+     * @throws ResourceNotFoundException if transporter doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public TransporterResponse getTransporterResponse(UUID transporterId) {
+        return entityCache.transporter(transporterId, () -> TransporterResponse.from(getTransporterById(transporterId)));
+    }
+
     /**
      * Update available trucks for a transporter
      * This replaces the entire truck list with the new one
      *
      * @throws ResourceNotFoundException if transporter doesn't exist
      */
+    @Transactional
     public Transporter updateTransporter(UUID transporterId, TransporterUpdateRequest request) {
 
         Transporter transporter = getTransporterById(transporterId);
 
-        // Convert TruckRequest DTOs to AvailableTruck entities
-        List<AvailableTruck> updatedTrucks = request.getAvailableTrucks().stream()
-                .map(truckReq -> AvailableTruck.builder()
-                        .truckType(truckReq.getTruckType())
-                        .count(truckReq.getCount())
-                        .build())
-                .collect(Collectors.toList());
+        List<AvailableTruck> updatedTrucks = toAvailableTrucks(request.getAvailableTrucks());
 
         transporter.setAvailableTrucks(updatedTrucks);
 
-        return transporterRepository.save(transporter);
+        Transporter saved = transporterRepository.save(transporter);
+        eventPublisher.publishEvent(TransporterEvent.updated(saved));
+        return saved;
+    }
+
+    /**
+     * Open loads (POSTED or OPEN_FOR_BIDS) the transporter has trucks for,
+     * newest first: loads of a type it holds, or of a type one of those can
+     * carry per the compatibility graph
+     *
+     * @throws ResourceNotFoundException if transporter doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public Page<LoadResponse> findMatchingLoads(UUID transporterId, int page, int size) {
+        Transporter transporter = getTransporterById(transporterId);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "datePosted"));
+
+        List<Short> heldTypes = transporter.getAvailableTrucks().stream()
+                .filter(truck -> truck.getCount() > 0)
+                .map(AvailableTruck::getTruckTypeId)
+                .toList();
+        if (heldTypes.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Set<Short> loadTypes = truckTypeService.compatibility().carriedBy(heldTypes);
+        return loadRepository.findByStatusInAndTruckTypeIdIn(
+                List.of(LoadStatus.POSTED, LoadStatus.OPEN_FOR_BIDS), loadTypes, pageable, LoadResponse.class);
+    }
+
+    /**
+     * Convert TruckRequest DTOs to AvailableTruck entities keyed by catalog code;
+     * spellings of the same truck type are merged into one entry
+     */
+    private List<AvailableTruck> toAvailableTrucks(List<TruckRequest> truckRequests) {
+        Map<Short, AvailableTruck> byCode = new LinkedHashMap<>();
+        for (TruckRequest truckReq : truckRequests) {
+            TruckType truckType = truckTypeService.resolve(truckReq.getTruckType());
+            byCode.merge(truckType.getTruckTypeId(),
+                    AvailableTruck.builder()
+                            .truckTypeId(truckType.getTruckTypeId())
+                            .truckType(truckType.getName())
+                            .count(truckReq.getCount())
+                            .build(),
+                    (existing, added) -> {
+                        existing.setCount(existing.getCount() + added.getCount());
+                        return existing;
+                    });
+        }
+        return new ArrayList<>(byCode.values());
     }
 
     /**
      * Get all transporters
      */
+    @Transactional(readOnly = true)
     public List<Transporter> getAllTransporters() {
         return transporterRepository.findAll();
     }
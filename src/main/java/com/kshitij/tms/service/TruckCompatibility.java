@@ -0,0 +1,110 @@
+package com.kshitij.tms.service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which truck types can carry loads of which, with the compatibility graph's
+ * transitive closure precomputed
+ *
+ * Row t is a bitset over truck-type codes: bit l is set when trucks of type
+ * t can carry a load of type l, directly or through a chain of edges. A
+ * capacity check is one array lookup and a bit test. Instances are
+ * immutable; TruckTypeService swaps in a new one when the graph changes.
+ */
+public final class TruckCompatibility {
+
+    /**
+     * No edges: every load needs its exact truck type
+     */
+    public static final TruckCompatibility EXACT = new TruckCompatibility(new long[0][]);
+
+    private final long[][] carries;
+
+    private TruckCompatibility(long[][] carries) {
+        this.carries = carries;
+    }
+
+    /**
+     * @param edges truck-type code to the codes of the types it can stand in for
+     */
+    public static TruckCompatibility of(Map<Short, ? extends Collection<Short>> edges) {
+        int size = 0;
+        for (Map.Entry<Short, ? extends Collection<Short>> edge : edges.entrySet()) {
+            size = Math.max(size, edge.getKey() + 1);
+            for (short target : edge.getValue()) {
+                size = Math.max(size, target + 1);
+            }
+        }
+
+        int words = (size + 63) >>> 6;
+        long[][] carries = new long[size][];
+        edges.forEach((truckTypeId, targets) -> {
+            if (!targets.isEmpty()) {
+                long[] row = new long[words];
+                set(row, truckTypeId);
+                targets.forEach(target -> set(row, target));
+                carries[truckTypeId] = row;
+            }
+        });
+
+        // Warshall's closure over bit rows: whatever k reaches, everything reaching k reaches too
+        for (int k = 0; k < size; k++) {
+            long[] reachedFromK = carries[k];
+            if (reachedFromK == null) {
+                continue;
+            }
+            for (long[] row : carries) {
+                if (row != null && row != reachedFromK && isSet(row, k)) {
+                    for (int w = 0; w < words; w++) {
+                        row[w] |= reachedFromK[w];
+                    }
+                }
+            }
+        }
+        return new TruckCompatibility(carries);
+    }
+
+    /**
+     * Whether trucks of truckTypeId can carry a load asking for loadTruckTypeId
+     */
+    public boolean canCarry(short truckTypeId, short loadTruckTypeId) {
+        if (truckTypeId == loadTruckTypeId) {
+            return true;
+        }
+        if (truckTypeId < 0 || truckTypeId >= carries.length || loadTruckTypeId < 0) {
+            return false;
+        }
+        long[] row = carries[truckTypeId];
+        return row != null && loadTruckTypeId < row.length << 6 && isSet(row, loadTruckTypeId);
+    }
+
+    /**
+     * Load truck types that trucks of any of the given types can carry
+     */
+    public Set<Short> carriedBy(Collection<Short> truckTypeIds) {
+        Set<Short> loadTypes = new LinkedHashSet<>(truckTypeIds);
+        for (short truckTypeId : truckTypeIds) {
+            long[] row = truckTypeId >= 0 && truckTypeId < carries.length ? carries[truckTypeId] : null;
+            if (row == null) {
+                continue;
+            }
+            for (int w = 0; w < row.length; w++) {
+                for (long bits = row[w]; bits != 0; bits &= bits - 1) {
+                    loadTypes.add((short) ((w << 6) + Long.numberOfTrailingZeros(bits)));
+                }
+            }
+        }
+        return loadTypes;
+    }
+
+    private static void set(long[] row, int bit) {
+        row[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean isSet(long[] row, int bit) {
+        return (row[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
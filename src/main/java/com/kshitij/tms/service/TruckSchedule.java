@@ -0,0 +1,65 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Booking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trucks one transporter has reserved over time, with a ReservationTree
+ * per truck type
+ *
+ * Not thread-safe: AvailabilityService only shares instances it no longer
+ * changes, and the engine changes its own under the transporter's lock.
+ */
+public final class TruckSchedule {
+
+    public record Reservation(short truckTypeId, ReservationWindow window, int trucks) {
+    }
+
+    private final List<Reservation> reservations = new ArrayList<>();
+    private final Map<Short, ReservationTree> byTruckType = new HashMap<>();
+
+    /**
+     * Schedule of the given bookings' reservations
+     */
+    public static TruckSchedule of(Collection<Booking> bookings) {
+        TruckSchedule schedule = new TruckSchedule();
+        for (Booking booking : bookings) {
+            schedule.reserve(booking.getTruckTypeId(),
+                    new ReservationWindow(booking.getReservedFrom(), booking.getReservedUntil()),
+                    booking.getAllocatedTrucks());
+        }
+        return schedule;
+    }
+
+    public void reserve(short truckTypeId, ReservationWindow window, int trucks) {
+        reservations.add(new Reservation(truckTypeId, window, trucks));
+        byTruckType.computeIfAbsent(truckTypeId, id -> new ReservationTree())
+                .reserve(window.fromHour(), window.untilHour(), trucks);
+    }
+
+    /**
+     * Most trucks of the type reserved at any time in the window
+     */
+    public int reserved(short truckTypeId, ReservationWindow window) {
+        ReservationTree tree = byTruckType.get(truckTypeId);
+        return tree == null ? 0 : tree.maxReserved(window.fromHour(), window.untilHour());
+    }
+
+    /**
+     * Trucks of the inventory entry free for the whole window
+     */
+    public int free(AvailableTruck truck, ReservationWindow window) {
+        return truck.getCount() - reserved(truck.getTruckTypeId(), window);
+    }
+
+    public List<Reservation> reservations() {
+        return Collections.unmodifiableList(reservations);
+    }
+}
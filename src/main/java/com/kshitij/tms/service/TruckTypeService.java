@@ -0,0 +1,225 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.dto.TruckCompatibilityRequest;
+import com.kshitij.tms.dto.TruckTypeRequest;
+import com.kshitij.tms.entity.TruckType;
+import com.kshitij.tms.event.TruckTypeEvent;
+import com.kshitij.tms.exception.InvalidTruckTypeException;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.repository.TruckTypeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Truck-type catalog: maps free-form truck type names to SMALLINT codes
+ *
+ * Names are matched after trimming and lower-casing, so "Flatbed" and
+ * " flatbed" resolve to the same code. Resolved entries are cached for the
+ * life of the instance, once the transaction that resolved them commits;
+ * renames and deletes clear it when they commit. Unknown names are registered on first
+ * use, in the caller's transaction, unless tms.truck-types.auto-register is
+ * off, in which case they are rejected.
+ *
+ * Also owns the compatibility graph (which types can carry which loads):
+ * its closure is rebuilt after every change on this instance and every
+ * tms.truck-types.compatibility-refresh-ms for changes made elsewhere.
+ */
+@Service
+public class TruckTypeService {
+
+    private final TruckTypeRepository truckTypeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean autoRegister;
+
+    private final Map<String, TruckType> byNormalizedName = new ConcurrentHashMap<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile TruckCompatibility compatibility;
+
+    public TruckTypeService(TruckTypeRepository truckTypeRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${tms.truck-types.auto-register:true}") boolean autoRegister) {
+        this.truckTypeRepository = truckTypeRepository;
+        this.eventPublisher = eventPublisher;
+        this.autoRegister = autoRegister;
+    }
+
+    /**
+     * Catalog entry for a free-form truck type name
+     *
+     * @throws InvalidTruckTypeException if the name is unknown and auto-registration is off
+     */
+    public TruckType resolve(String name) {
+        String normalizedName = TruckType.normalize(name);
+        TruckType cached = byNormalizedName.get(normalizedName);
+        if (cached != null) {
+            return cached;
+        }
+        TruckType truckType = truckTypeRepository.findByNormalizedName(normalizedName)
+                .orElseGet(() -> register(name.trim(), normalizedName));
+        cache(normalizedName, truckType);
+        return truckType;
+    }
+
+    private TruckType register(String name, String normalizedName) {
+        if (!autoRegister) {
+            throw new InvalidTruckTypeException(String.format("Unknown truck type '%s'", name));
+        }
+        // Does nothing if another request registered the name first; its row is read back either way
+        truckTypeRepository.insertIfAbsent(name, normalizedName);
+        return truckTypeRepository.findByNormalizedName(normalizedName)
+                .orElseThrow(() -> new IllegalStateException("Truck type not registered: " + name));
+    }
+
+    /**
+     * A type registered by a transaction that rolls back must not stay cached
+     */
+    private void cache(String normalizedName, TruckType truckType) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            byNormalizedName.put(normalizedName, truckType);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                byNormalizedName.put(normalizedName, truckType);
+            }
+        });
+    }
+
+    /**
+     * Current compatibility closure, built from the catalog on first use
+     */
+    public TruckCompatibility compatibility() {
+        TruckCompatibility current = compatibility;
+        return current != null ? current : reloadCompatibility();
+    }
+
+    /**
+     * Picks up graph changes made on other instances
+     */
+    @Scheduled(fixedDelayString = "${tms.truck-types.compatibility-refresh-ms:30000}")
+    public void refreshCompatibility() {
+        reloadCompatibility();
+    }
+
+    /**
+     * After commit, so a concurrent resolve can't cache the old name again in between
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTruckTypeEvent(TruckTypeEvent event) {
+        byNormalizedName.clear();
+        reloadCompatibility();
+    }
+
+    private TruckCompatibility reloadCompatibility() {
+        // Serialized, so a slow reload can't overwrite the result of a newer one
+        reloadLock.lock();
+        try {
+            Map<Short, Set<Short>> edges = new HashMap<>();
+            for (TruckType truckType : truckTypeRepository.findAll()) {
+                if (truckType.getCarries() != null && !truckType.getCarries().isEmpty()) {
+                    edges.put(truckType.getTruckTypeId(), truckType.getCarries());
+                }
+            }
+            TruckCompatibility rebuilt = TruckCompatibility.of(edges);
+            compatibility = rebuilt;
+            return rebuilt;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * All catalog entries, by code
+     */
+    @Transactional(readOnly = true)
+    public List<TruckType> getAllTruckTypes() {
+        return truckTypeRepository.findAll(Sort.by("truckTypeId"));
+    }
+
+    /**
+     * Add a truck type to the catalog
+     *
+     * @throws DataIntegrityViolationException if the name is already in the catalog
+     */
+    @Transactional
+    public TruckType createTruckType(TruckTypeRequest request) {
+        String name = request.getName().trim();
+        return truckTypeRepository.saveAndFlush(TruckType.builder()
+                .name(name)
+                .normalizedName(TruckType.normalize(name))
+                .build());
+    }
+
+    /**
+     * Rename a truck type; loads, bookings and inventories keep the code
+     *
+     * @throws ResourceNotFoundException if the truck type doesn't exist
+     * @throws DataIntegrityViolationException if another entry already has the name
+     */
+    @Transactional
+    public TruckType renameTruckType(Short id, TruckTypeRequest request) {
+        TruckType truckType = getTruckTypeById(id);
+        String name = request.getName().trim();
+        truckType.setName(name);
+        truckType.setNormalizedName(TruckType.normalize(name));
+        TruckType saved = truckTypeRepository.saveAndFlush(truckType);
+        eventPublisher.publishEvent(new TruckTypeEvent(id));
+        return saved;
+    }
+
+    /**
+     * Replace the truck types whose loads this type can carry; chains are
+     * followed, so this type also carries whatever those types carry
+     *
+     * @throws ResourceNotFoundException if the truck type or a listed type doesn't exist
+     */
+    @Transactional
+    public TruckType setCarries(Short id, TruckCompatibilityRequest request) {
+        TruckType truckType = getTruckTypeById(id);
+        Set<Short> carries = new HashSet<>();
+        for (Short carried : request.getTruckTypeIds()) {
+            if (!carried.equals(id)) {
+                carries.add(getTruckTypeById(carried).getTruckTypeId());
+            }
+        }
+        truckType.setCarries(carries);
+        TruckType saved = truckTypeRepository.saveAndFlush(truckType);
+        eventPublisher.publishEvent(new TruckTypeEvent(id));
+        return saved;
+    }
+
+    /**
+     * Remove a truck type that no load, booking or inventory uses
+     *
+     * @throws ResourceNotFoundException if the truck type doesn't exist
+     * @throws DataIntegrityViolationException if the truck type is still referenced
+     */
+    @Transactional
+    public void deleteTruckType(Short id) {
+        truckTypeRepository.delete(getTruckTypeById(id));
+        truckTypeRepository.flush();
+        eventPublisher.publishEvent(new TruckTypeEvent(id));
+    }
+
+    private TruckType getTruckTypeById(Short id) {
+        return truckTypeRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("TruckType", "truckTypeId", id));
+    }
+}
@@ -0,0 +1,12 @@
+-- ============================================
+-- V10: Projection cursor for the marketplace engine
+-- ============================================
+-- One row per engine partition: the last journal sequence whose effects are
+-- in the database. Written in the same transaction as each projected batch,
+-- so replay after a restart re-projects only what is past the cursor.
+
+CREATE TABLE IF NOT EXISTS engine_projection (
+    partition_id  INTEGER NOT NULL,
+    last_sequence BIGINT NOT NULL,
+    CONSTRAINT pk_engine_projection PRIMARY KEY (partition_id)
+);
@@ -0,0 +1,73 @@
+-- ============================================
+-- V11: Truck-type catalog
+-- ============================================
+-- Truck types were free-form VARCHAR(50) in load, booking and
+-- transporter_trucks, matched with equalsIgnoreCase. Each distinct type now
+-- has one row here with a SMALLINT code, and those tables keep only the
+-- code. normalized_name (trimmed, lower case) is the matching key; name is
+-- the display form returned by the API.
+
+CREATE TABLE IF NOT EXISTS truck_type (
+    truck_type_id   SMALLINT GENERATED BY DEFAULT AS IDENTITY,
+    name            VARCHAR(50) NOT NULL,
+    normalized_name VARCHAR(50) NOT NULL,
+    CONSTRAINT pk_truck_type PRIMARY KEY (truck_type_id),
+    CONSTRAINT uk_truck_type_normalized_name UNIQUE (normalized_name)
+);
+
+-- Common types first, so they get the same codes everywhere
+INSERT INTO truck_type (name, normalized_name) VALUES
+    ('Container', 'container'),
+    ('Flatbed', 'flatbed'),
+    ('Open Body', 'open body'),
+    ('Trailer', 'trailer'),
+    ('Tanker', 'tanker'),
+    ('Refrigerated', 'refrigerated');
+
+-- Every other spelling in use; differently-cased spellings of one type share a row
+INSERT INTO truck_type (name, normalized_name)
+SELECT MIN(existing.name), LOWER(existing.name)
+FROM (
+    SELECT TRIM(truck_type) AS name FROM load
+    UNION SELECT TRIM(truck_type) FROM booking
+    UNION SELECT TRIM(truck_type) FROM transporter_trucks
+) existing
+WHERE LOWER(existing.name) NOT IN (SELECT normalized_name FROM truck_type)
+GROUP BY LOWER(existing.name);
+
+-- load
+ALTER TABLE load ADD COLUMN truck_type_id SMALLINT;
+UPDATE load SET truck_type_id =
+    (SELECT t.truck_type_id FROM truck_type t WHERE t.normalized_name = LOWER(TRIM(load.truck_type)));
+ALTER TABLE load ALTER COLUMN truck_type_id SET NOT NULL;
+ALTER TABLE load DROP COLUMN truck_type;
+ALTER TABLE load ADD CONSTRAINT fk_load_truck_type
+    FOREIGN KEY (truck_type_id) REFERENCES truck_type (truck_type_id);
+
+-- booking
+ALTER TABLE booking ADD COLUMN truck_type_id SMALLINT;
+UPDATE booking SET truck_type_id =
+    (SELECT t.truck_type_id FROM truck_type t WHERE t.normalized_name = LOWER(TRIM(booking.truck_type)));
+ALTER TABLE booking ALTER COLUMN truck_type_id SET NOT NULL;
+ALTER TABLE booking DROP COLUMN truck_type;
+ALTER TABLE booking ADD CONSTRAINT fk_booking_truck_type
+    FOREIGN KEY (truck_type_id) REFERENCES truck_type (truck_type_id);
+
+-- transporter_trucks: one row per type per transporter, counts of merged spellings summed
+CREATE TABLE transporter_trucks_by_type (
+    transporter_id UUID NOT NULL,
+    truck_type_id  SMALLINT NOT NULL,
+    count          INTEGER NOT NULL
+);
+INSERT INTO transporter_trucks_by_type (transporter_id, truck_type_id, count)
+SELECT trucks.transporter_id, t.truck_type_id, SUM(trucks.count)
+FROM transporter_trucks trucks
+JOIN truck_type t ON t.normalized_name = LOWER(TRIM(trucks.truck_type))
+GROUP BY trucks.transporter_id, t.truck_type_id;
+DROP TABLE transporter_trucks;
+ALTER TABLE transporter_trucks_by_type RENAME TO transporter_trucks;
+ALTER TABLE transporter_trucks ADD CONSTRAINT fk_trucks_transporter
+    FOREIGN KEY (transporter_id) REFERENCES transporter (transporter_id);
+ALTER TABLE transporter_trucks ADD CONSTRAINT fk_trucks_truck_type
+    FOREIGN KEY (truck_type_id) REFERENCES truck_type (truck_type_id);
+CREATE INDEX IF NOT EXISTS idx_trucks_transporter ON transporter_trucks (transporter_id);
@@ -0,0 +1,17 @@
+-- ============================================
+-- V12: Truck-type compatibility graph
+-- ============================================
+-- A row (truck_type_id, carries_truck_type_id) lets trucks of truck_type_id
+-- carry loads that ask for carries_truck_type_id. Edges chain: if A carries
+-- B and B carries C, A carries C. Without rows a load needs its exact type,
+-- as before.
+
+CREATE TABLE IF NOT EXISTS truck_type_compatibility (
+    truck_type_id         SMALLINT NOT NULL,
+    carries_truck_type_id SMALLINT NOT NULL,
+    CONSTRAINT pk_truck_type_compatibility PRIMARY KEY (truck_type_id, carries_truck_type_id),
+    CONSTRAINT fk_compatibility_truck_type FOREIGN KEY (truck_type_id)
+        REFERENCES truck_type (truck_type_id) ON DELETE CASCADE,
+    CONSTRAINT fk_compatibility_carries_truck_type FOREIGN KEY (carries_truck_type_id)
+        REFERENCES truck_type (truck_type_id) ON DELETE CASCADE
+);
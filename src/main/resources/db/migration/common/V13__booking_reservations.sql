@@ -0,0 +1,29 @@
+-- ============================================
+-- V13: Bookings reserve trucks for a time window
+-- ============================================
+-- transporter_trucks.count was the number of trucks free right now:
+-- decremented when a booking was confirmed and restored on cancellation, so
+-- trucks booked for next week could not bid for today. It is now the fleet
+-- size, and each CONFIRMED booking reserves its trucks from reserved_from
+-- to reserved_until around the load's loading date.
+
+ALTER TABLE booking ADD COLUMN reserved_from TIMESTAMP(6);
+ALTER TABLE booking ADD COLUMN reserved_until TIMESTAMP(6);
+
+-- Existing bookings get the window of the default tms.availability.lead-hours
+-- and tms.availability.trip-hours
+UPDATE booking SET
+    reserved_from = (SELECT l.loading_date FROM load l WHERE l.load_id = booking.load_id) - INTERVAL '12' HOUR,
+    reserved_until = (SELECT l.loading_date FROM load l WHERE l.load_id = booking.load_id) + INTERVAL '72' HOUR;
+ALTER TABLE booking ALTER COLUMN reserved_from SET NOT NULL;
+ALTER TABLE booking ALTER COLUMN reserved_until SET NOT NULL;
+
+-- Trucks held by confirmed bookings go back into the fleet count
+UPDATE transporter_trucks SET count = count + COALESCE((
+    SELECT SUM(b.allocated_trucks) FROM booking b
+    WHERE b.transporter_id = transporter_trucks.transporter_id
+      AND b.truck_type_id = transporter_trucks.truck_type_id
+      AND b.status = 'CONFIRMED'), 0);
+
+-- A transporter's reservations still to come are read to build its schedule
+CREATE INDEX IF NOT EXISTS idx_booking_transporter_reserved ON booking (transporter_id, status, reserved_until);
@@ -0,0 +1,7 @@
+-- ============================================
+-- V14: Index for the booking completion job
+-- ============================================
+-- BookingCompletionService claims CONFIRMED bookings whose reservation has
+-- ended, oldest first; this serves both the filter and the order.
+
+CREATE INDEX IF NOT EXISTS idx_booking_status_reserved ON booking (status, reserved_until);
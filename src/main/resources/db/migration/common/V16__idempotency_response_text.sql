@@ -0,0 +1,7 @@
+-- ============================================
+-- V16: Unbounded idempotent responses
+-- ============================================
+-- A batch booking response (up to 100 bookings) doesn't fit VARCHAR(4000);
+-- an overflowing insert failed and rolled back the write it protects.
+
+ALTER TABLE idempotency_key ALTER COLUMN response_body SET DATA TYPE TEXT;
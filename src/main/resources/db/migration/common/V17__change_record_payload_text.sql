@@ -0,0 +1,7 @@
+-- ============================================
+-- V17: Unbounded change payloads
+-- ============================================
+-- A load or transporter payload can outgrow VARCHAR(4000); the change record
+-- is written in the transaction it describes, so an overflow rolled that back.
+
+ALTER TABLE change_record ALTER COLUMN payload SET DATA TYPE TEXT;
@@ -0,0 +1,67 @@
+-- ============================================
+-- V1: Core tables
+-- ============================================
+-- Column names are snake_case: Spring's physical naming strategy maps the
+-- entities' camelCase names (e.g. @Column(name = "loadId")) to load_id.
+-- Matches the schema previously generated by ddl-auto=update, so existing
+-- databases can be baselined at this version.
+
+CREATE TABLE transporter (
+    transporter_id UUID NOT NULL,
+    company_name   VARCHAR(100) NOT NULL,
+    rating         DOUBLE PRECISION NOT NULL,
+    version        BIGINT,
+    CONSTRAINT pk_transporter PRIMARY KEY (transporter_id),
+    CONSTRAINT uk_transporter_company UNIQUE (company_name)
+);
+
+CREATE TABLE transporter_trucks (
+    transporter_id UUID NOT NULL,
+    truck_type     VARCHAR(50) NOT NULL,
+    count          INTEGER NOT NULL,
+    CONSTRAINT fk_trucks_transporter FOREIGN KEY (transporter_id) REFERENCES transporter (transporter_id)
+);
+
+CREATE TABLE load (
+    load_id          UUID NOT NULL,
+    shipper_id       VARCHAR(50) NOT NULL,
+    loading_city     VARCHAR(100) NOT NULL,
+    unloading_city   VARCHAR(100) NOT NULL,
+    loading_date     TIMESTAMP(6) NOT NULL,
+    product_type     VARCHAR(100) NOT NULL,
+    weight           DOUBLE PRECISION NOT NULL,
+    weight_unit      VARCHAR(10) NOT NULL,
+    truck_type       VARCHAR(50) NOT NULL,
+    no_of_trucks     INTEGER NOT NULL,
+    remaining_trucks INTEGER NOT NULL,
+    status           VARCHAR(20) NOT NULL,
+    date_posted      TIMESTAMP(6) NOT NULL,
+    version          BIGINT,
+    CONSTRAINT pk_load PRIMARY KEY (load_id)
+);
+
+CREATE TABLE bid (
+    bid_id         UUID NOT NULL,
+    load_id        UUID NOT NULL,
+    transporter_id UUID NOT NULL,
+    proposed_rate  DOUBLE PRECISION NOT NULL,
+    trucks_offered INTEGER NOT NULL,
+    status         VARCHAR(20) NOT NULL,
+    submitted_at   TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_bid PRIMARY KEY (bid_id)
+);
+
+CREATE TABLE booking (
+    booking_id       UUID NOT NULL,
+    load_id          UUID NOT NULL,
+    bid_id           UUID NOT NULL,
+    transporter_id   UUID NOT NULL,
+    allocated_trucks INTEGER NOT NULL,
+    final_rate       DOUBLE PRECISION NOT NULL,
+    status           VARCHAR(20) NOT NULL,
+    booked_at        TIMESTAMP(6) NOT NULL,
+    truck_type       VARCHAR(50) NOT NULL,
+    version          BIGINT,
+    CONSTRAINT pk_booking PRIMARY KEY (booking_id),
+    CONSTRAINT uk_booking_bid UNIQUE (bid_id)
+);
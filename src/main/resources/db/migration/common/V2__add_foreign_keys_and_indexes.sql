@@ -0,0 +1,28 @@
+-- ============================================
+-- V2: Query indexes
+-- ============================================
+-- Previously applied by hand from database_constraints.sql.
+-- IF NOT EXISTS keeps this safe on baselined databases where Hibernate
+-- already created the single-column indexes from the entity annotations.
+-- The foreign keys need a vendor-specific existence check, so they live in
+-- {vendor}/V2_1__add_foreign_keys.sql.
+
+-- Load: GET /api/loads filters (shipperId, status, shipperId + status)
+CREATE INDEX IF NOT EXISTS idx_load_status ON load (status);
+CREATE INDEX IF NOT EXISTS idx_load_shipper_status ON load (shipper_id, status);
+CREATE INDEX IF NOT EXISTS idx_load_date_posted ON load (date_posted);
+
+-- Bid: findByLoadIdAndStatus (best bids, cancel load) and transporter filters
+CREATE INDEX IF NOT EXISTS idx_bid_load_status ON bid (load_id, status);
+CREATE INDEX IF NOT EXISTS idx_bid_transporter_status ON bid (transporter_id, status);
+CREATE INDEX IF NOT EXISTS idx_bid_status ON bid (status);
+CREATE INDEX IF NOT EXISTS idx_bid_submitted ON bid (submitted_at);
+
+-- Booking: lookups by load and transporter (bid_id is covered by uk_booking_bid)
+CREATE INDEX IF NOT EXISTS idx_booking_load ON booking (load_id);
+CREATE INDEX IF NOT EXISTS idx_booking_transporter ON booking (transporter_id);
+CREATE INDEX IF NOT EXISTS idx_booking_status ON booking (status);
+CREATE INDEX IF NOT EXISTS idx_booking_date ON booking (booked_at);
+
+-- Element collection join column
+CREATE INDEX IF NOT EXISTS idx_trucks_transporter ON transporter_trucks (transporter_id);
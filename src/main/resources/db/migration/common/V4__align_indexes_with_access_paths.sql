@@ -0,0 +1,33 @@
+-- ============================================
+-- V4: Indexes designed around the repository access paths
+-- ============================================
+-- GET /api/loads pages are ordered by date_posted DESC, so each filter gets
+-- an index that ends in date_posted: the page is read in index order and
+-- the scan stops after LIMIT rows instead of sorting every match.
+--
+--   findAll(page)                    -> idx_load_date_posted
+--   findByStatus(page)               -> idx_load_status_posted
+--   findByShipperId(page)            -> idx_load_shipper_posted
+--   findByShipperIdAndStatus(page)   -> idx_load_shipper_status_posted
+--
+-- Bid lookups by load / transporter keep their (x, status) composites, which
+-- also serve the single-column finders through their leading column.
+-- Indexes no query uses are dropped to cut write amplification on the hot
+-- bid and booking tables.
+
+DROP INDEX IF EXISTS idx_load_status;
+DROP INDEX IF EXISTS idx_load_shipper_status;
+DROP INDEX IF EXISTS idx_load_shipper;
+
+CREATE INDEX IF NOT EXISTS idx_load_status_posted ON load (status, date_posted);
+CREATE INDEX IF NOT EXISTS idx_load_shipper_posted ON load (shipper_id, date_posted);
+CREATE INDEX IF NOT EXISTS idx_load_shipper_status_posted ON load (shipper_id, status, date_posted);
+
+-- Superseded by the (load_id, status) / (transporter_id, status) composites
+DROP INDEX IF EXISTS idx_bid_load;
+DROP INDEX IF EXISTS idx_bid_transporter;
+-- No query filters or sorts on these
+DROP INDEX IF EXISTS idx_bid_submitted;
+DROP INDEX IF EXISTS idx_booking_status;
+DROP INDEX IF EXISTS idx_booking_date;
+DROP INDEX IF EXISTS idx_booking_bid;
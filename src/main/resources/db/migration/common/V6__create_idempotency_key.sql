@@ -0,0 +1,19 @@
+-- ============================================
+-- V6: Idempotency keys for retried writes
+-- ============================================
+-- One row per (scope, Idempotency-Key) holding the fingerprint of the
+-- original request and its serialized response. Written in the same
+-- transaction as the bid or booking, so the primary key doubles as the
+-- cross-node guard against executing a retry twice. Rows past expires_at
+-- are purged by IdempotencyService.
+
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    record_key    VARCHAR(140) NOT NULL,
+    request_hash  VARCHAR(64) NOT NULL,
+    response_body VARCHAR(4000) NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    expires_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (record_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_expires ON idempotency_key (expires_at);
@@ -0,0 +1,33 @@
+-- ============================================
+-- V7: In-place bid revisions
+-- ============================================
+-- A transporter revising a bid updates its PENDING row instead of adding a
+-- new one; the superseded terms move to bid_revision. bid gets a version
+-- column so a revision can't silently overwrite a concurrent booking.
+
+ALTER TABLE bid ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS bid_revision (
+    revision_id    BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    bid_id         UUID NOT NULL,
+    proposed_rate  DOUBLE PRECISION NOT NULL,
+    trucks_offered INTEGER NOT NULL,
+    submitted_at   TIMESTAMP(6) NOT NULL,
+    revised_at     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_bid_revision PRIMARY KEY (revision_id),
+    CONSTRAINT fk_bid_revision_bid FOREIGN KEY (bid_id) REFERENCES bid (bid_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_bid_revision_bid ON bid_revision (bid_id);
+
+-- Collapse repeat PENDING bids from before upserts: the newest one stays
+-- active, older ones are superseded
+UPDATE bid SET status = 'REJECTED'
+WHERE status = 'PENDING'
+  AND EXISTS (
+      SELECT 1 FROM bid newer
+      WHERE newer.load_id = bid.load_id
+        AND newer.transporter_id = bid.transporter_id
+        AND newer.status = 'PENDING'
+        AND (newer.submitted_at > bid.submitted_at
+             OR (newer.submitted_at = bid.submitted_at AND newer.bid_id > bid.bid_id)));
@@ -0,0 +1,19 @@
+-- ============================================
+-- V9: Transactional outbox for the change feed
+-- ============================================
+-- One row per state change, written in the transaction that made the change.
+-- change_id is the feed cursor (GET /api/changes?since=); payload is the
+-- entity's full state as JSON, so consumers upsert by (entity_type, entity_id).
+
+CREATE TABLE IF NOT EXISTS change_record (
+    change_id   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id   UUID NOT NULL,
+    change_type VARCHAR(30) NOT NULL,
+    payload     VARCHAR(4000) NOT NULL,
+    occurred_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_change_record PRIMARY KEY (change_id)
+);
+
+-- Retention pruning deletes by age
+CREATE INDEX IF NOT EXISTS idx_change_record_occurred ON change_record (occurred_at);
@@ -0,0 +1,17 @@
+-- ============================================
+-- V2.1: Referential integrity
+-- ============================================
+-- H2 counterpart of postgresql/V2_1; IF NOT EXISTS skips constraints a
+-- baselined database already has.
+
+ALTER TABLE bid
+    ADD CONSTRAINT IF NOT EXISTS fk_bid_load FOREIGN KEY (load_id) REFERENCES load (load_id) ON DELETE CASCADE;
+ALTER TABLE bid
+    ADD CONSTRAINT IF NOT EXISTS fk_bid_transporter FOREIGN KEY (transporter_id) REFERENCES transporter (transporter_id) ON DELETE CASCADE;
+
+ALTER TABLE booking
+    ADD CONSTRAINT IF NOT EXISTS fk_booking_load FOREIGN KEY (load_id) REFERENCES load (load_id) ON DELETE CASCADE;
+ALTER TABLE booking
+    ADD CONSTRAINT IF NOT EXISTS fk_booking_bid FOREIGN KEY (bid_id) REFERENCES bid (bid_id) ON DELETE CASCADE;
+ALTER TABLE booking
+    ADD CONSTRAINT IF NOT EXISTS fk_booking_transporter FOREIGN KEY (transporter_id) REFERENCES transporter (transporter_id) ON DELETE CASCADE;
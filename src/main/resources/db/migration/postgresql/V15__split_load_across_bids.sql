@@ -0,0 +1,12 @@
+-- ============================================
+-- V15: A load can be booked across several bids
+-- ============================================
+-- Allocation (POST /api/loads/{id}/allocation) books several pending bids
+-- of one load in a transaction, and partially booked loads already took a
+-- second booking, so a load can have many ACCEPTED bids. bid.bid_id stays
+-- unique in booking, so each bid is still booked at most once.
+--
+-- The V3 index contradicted partial booking from the start: on PostgreSQL
+-- a second booking on a partially booked load failed on it.
+
+DROP INDEX IF EXISTS uk_one_accepted_bid_per_load;
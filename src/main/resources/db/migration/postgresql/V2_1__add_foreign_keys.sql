@@ -0,0 +1,51 @@
+-- ============================================
+-- V2.1: Referential integrity
+-- ============================================
+-- Databases baselined at V1 already have these constraints, under the same
+-- names, from the hand-applied database_constraints.sql. PostgreSQL has no
+-- ADD CONSTRAINT IF NOT EXISTS, so each one is added only if it is missing.
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints
+                   WHERE table_name = 'bid' AND constraint_name = 'fk_bid_load') THEN
+        ALTER TABLE bid
+            ADD CONSTRAINT fk_bid_load FOREIGN KEY (load_id) REFERENCES load (load_id) ON DELETE CASCADE;
+    END IF;
+END $$;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints
+                   WHERE table_name = 'bid' AND constraint_name = 'fk_bid_transporter') THEN
+        ALTER TABLE bid
+            ADD CONSTRAINT fk_bid_transporter FOREIGN KEY (transporter_id) REFERENCES transporter (transporter_id) ON DELETE CASCADE;
+    END IF;
+END $$;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints
+                   WHERE table_name = 'booking' AND constraint_name = 'fk_booking_load') THEN
+        ALTER TABLE booking
+            ADD CONSTRAINT fk_booking_load FOREIGN KEY (load_id) REFERENCES load (load_id) ON DELETE CASCADE;
+    END IF;
+END $$;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints
+                   WHERE table_name = 'booking' AND constraint_name = 'fk_booking_bid') THEN
+        ALTER TABLE booking
+            ADD CONSTRAINT fk_booking_bid FOREIGN KEY (bid_id) REFERENCES bid (bid_id) ON DELETE CASCADE;
+    END IF;
+END $$;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints
+                   WHERE table_name = 'booking' AND constraint_name = 'fk_booking_transporter') THEN
+        ALTER TABLE booking
+            ADD CONSTRAINT fk_booking_transporter FOREIGN KEY (transporter_id) REFERENCES transporter (transporter_id) ON DELETE CASCADE;
+    END IF;
+END $$;
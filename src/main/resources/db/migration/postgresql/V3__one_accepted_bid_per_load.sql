@@ -0,0 +1,10 @@
+-- ============================================
+-- V3: Only one ACCEPTED bid per load
+-- ============================================
+-- Partial unique index (PostgreSQL only). H2 has no partial indexes, and
+-- BookingService never enforced the rule, so H2 doesn't enforce it at all.
+-- Superseded by V15: the rule contradicts partial booking.
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_one_accepted_bid_per_load
+    ON bid (load_id)
+    WHERE status = 'ACCEPTED';
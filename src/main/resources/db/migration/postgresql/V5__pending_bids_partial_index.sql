@@ -0,0 +1,10 @@
+-- ============================================
+-- V5: Partial index for open bids on a load
+-- ============================================
+-- findByLoadIdAndStatus(loadId, PENDING) backs best-bids, load cancellation
+-- and booking. PENDING bids are a small, churning fraction of the table, so
+-- a partial index stays small and hot in cache compared to (load_id, status).
+
+CREATE INDEX IF NOT EXISTS idx_bid_load_pending
+    ON bid (load_id)
+    WHERE status = 'PENDING';
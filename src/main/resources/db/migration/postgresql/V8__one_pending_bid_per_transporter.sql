@@ -0,0 +1,13 @@
+-- ============================================
+-- V8: One active bid per transporter per load
+-- ============================================
+-- Backs the bid upsert in BidService.submitBid: a concurrent duplicate
+-- insert fails here instead of creating a second PENDING row. Its leading
+-- load_id column also serves findByLoadIdAndStatus(loadId, PENDING), so the
+-- narrower V5 partial index is dropped.
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_bid_pending_load_transporter
+    ON bid (load_id, transporter_id)
+    WHERE status = 'PENDING';
+
+DROP INDEX IF EXISTS idx_bid_load_pending;
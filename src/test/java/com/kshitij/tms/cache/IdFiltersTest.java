@@ -0,0 +1,183 @@
+package com.kshitij.tms.cache;
+
+import com.kshitij.tms.dto.ChangeFeedResponse;
+import com.kshitij.tms.dto.ChangeRecordResponse;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.BookingStatus;
+import com.kshitij.tms.entity.ChangeEntityType;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.service.ChangeFeedService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for IdFilters
+ * Filters are built from an in-memory H2 database migrated by Flyway;
+ * the change feed is mocked
+ */
+class IdFiltersTest {
+
+    private JdbcTemplate jdbc;
+    private ChangeFeedService changeFeedService;
+    private SimpleMeterRegistry meterRegistry;
+    private IdFilters idFilters;
+    private UUID existingLoadId;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:idfilters;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/common", "classpath:db/migration/h2").load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+
+        existingLoadId = UUID.randomUUID();
+        jdbc.update("INSERT INTO load (load_id, shipper_id, loading_city, unloading_city, loading_date, product_type, "
+                        + "weight, weight_unit, truck_type_id, no_of_trucks, remaining_trucks, status, date_posted, version) "
+                        + "VALUES (?, 'SHIP1', 'Mumbai', 'Pune', ?, 'Steel', 10, 'TON', "
+                        + "(SELECT truck_type_id FROM truck_type WHERE normalized_name = 'container'), 5, 5, "
+                        + "'POSTED', ?, 0)",
+                existingLoadId, LocalDateTime.now(), LocalDateTime.now());
+
+        changeFeedService = mock(ChangeFeedService.class);
+        when(changeFeedService.cursorAt(any())).thenReturn(0L);
+        when(changeFeedService.getChanges(anyLong(), anyInt())).thenReturn(new ChangeFeedResponse(List.of(), 0, false));
+        meterRegistry = new SimpleMeterRegistry();
+        idFilters = new IdFilters(dataSource, new DataSourceTransactionManager(dataSource), changeFeedService,
+                meterRegistry, true, 0.01, 1000, 1, 10_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idFilters.shutdown();
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testBeforeBuild_EveryLookupQueries() {
+        // Given
+        AtomicInteger queries = new AtomicInteger();
+
+        // When
+        idFilters.find(ChangeEntityType.LOAD, UUID.randomUUID(), () -> {
+            queries.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // Then
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void testUnknownId_RejectedWithoutQuery() throws Exception {
+        // Given
+        build();
+        AtomicInteger queries = new AtomicInteger();
+
+        // When
+        Optional<String> result = idFilters.find(ChangeEntityType.LOAD, UUID.randomUUID(), () -> {
+            queries.incrementAndGet();
+            return Optional.of("unexpected");
+        });
+
+        // Then
+        assertTrue(result.isEmpty());
+        assertEquals(0, queries.get());
+        assertEquals(1.0, meterRegistry.get("tms.bloom.lookups").tag("entity", "load").tag("outcome", "rejected")
+                .counter().count());
+    }
+
+    @Test
+    void testExistingId_Queried() throws Exception {
+        // Given
+        build();
+
+        // When
+        Optional<String> result = idFilters.find(ChangeEntityType.LOAD, existingLoadId, () -> Optional.of("load"));
+
+        // Then
+        assertEquals(Optional.of("load"), result);
+    }
+
+    @Test
+    void testCreatedId_FoundImmediately() throws Exception {
+        // Given
+        build();
+        Booking booking = Booking.builder()
+                .bookingId(UUID.randomUUID())
+                .loadId(existingLoadId)
+                .status(BookingStatus.CONFIRMED)
+                .build();
+
+        // When
+        idFilters.onLoadEvent(LoadEvent.bookingCreated("SHIP1", booking));
+
+        // Then
+        assertEquals(Optional.of("booking"),
+                idFilters.find(ChangeEntityType.BOOKING, booking.getBookingId(), () -> Optional.of("booking")));
+    }
+
+    @Test
+    void testIdCreatedOnAnotherInstance_AddedFromChangeFeed() throws Exception {
+        // Given
+        build();
+        UUID remoteBidId = UUID.randomUUID();
+        ChangeRecordResponse change = new ChangeRecordResponse(
+                7, ChangeEntityType.BID, remoteBidId, "bid-added", "{}", LocalDateTime.now());
+        when(changeFeedService.getChanges(0, ChangeFeedService.MAX_BATCH_SIZE))
+                .thenReturn(new ChangeFeedResponse(List.of(change), 7, false));
+
+        // When
+        idFilters.refresh();
+
+        // Then
+        assertEquals(Optional.of("bid"), idFilters.find(ChangeEntityType.BID, remoteBidId, () -> Optional.of("bid")));
+    }
+
+    @Test
+    void testFalsePositiveRateWithinTarget() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01, 1024 * 1024);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        // When
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID()))
+                .count();
+
+        // Then - about 1 000 expected
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    private void build() throws InterruptedException {
+        idFilters.buildOnStartup();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!IdFilters.ENTITY_TYPES.stream().allMatch(idFilters::isReady) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(idFilters.isReady(ChangeEntityType.LOAD));
+    }
+}
@@ -0,0 +1,209 @@
+package com.kshitij.tms.cache;
+
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlight
+ */
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong clock;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        singleFlight = new SingleFlight<>("test", 200, 100, meterRegistry, clock::get);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallers_ShareOneExecution() throws Exception {
+        // Given - the loader blocks until every caller has arrived
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.get("load", () -> {
+            executions.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            return "v1";
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            followers.add(executor.submit(() -> singleFlight.get("load", () -> {
+                executions.incrementAndGet();
+                return "other";
+            })));
+        }
+        awaitCount("coalesced", 10);
+        release.countDown();
+
+        // Then
+        assertEquals("v1", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("v1", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(10.0 / 11, singleFlight.coalescingRatio(), 1e-9);
+    }
+
+    @Test
+    void testRecentResult_ServedWhileRevalidating() throws Exception {
+        // Given - a result from 100 ms ago and a refresh in flight
+        singleFlight.get("load", () -> "v1");
+        clock.addAndGet(100_000_000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        Future<String> refresh = executor.submit(() -> singleFlight.get("load", () -> {
+            refreshStarted.countDown();
+            await(release);
+            return "v2";
+        }));
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        String served = singleFlight.get("load", () -> "unused");
+        release.countDown();
+
+        // Then
+        assertEquals("v1", served);
+        assertEquals("v2", refresh.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, count("stale"));
+    }
+
+    @Test
+    void testNoRefreshInFlight_LoaderRuns() {
+        // Given
+        singleFlight.get("load", () -> "v1");
+
+        // When - within the window, but nothing is revalidating
+        String value = singleFlight.get("load", () -> "v2");
+
+        // Then
+        assertEquals("v2", value);
+        assertEquals(2.0, count("executed"));
+    }
+
+    @Test
+    void testResultOlderThanWindow_CallerWaitsForRefresh() throws Exception {
+        // Given
+        singleFlight.get("load", () -> "v1");
+        clock.addAndGet(500_000_000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.get("load", () -> {
+            refreshStarted.countDown();
+            await(release);
+            return "v2";
+        }));
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<String> waiter = executor.submit(() -> singleFlight.get("load", () -> "unused"));
+        awaitCount("coalesced", 1);
+        release.countDown();
+
+        // Then
+        assertEquals("v2", waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLoaderException_SharedAndNotKept() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.get("missing", () -> {
+            leaderStarted.countDown();
+            await(release);
+            throw new ResourceNotFoundException("Load", "loadId", "missing");
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> singleFlight.get("missing", () -> "unused"));
+        awaitCount("coalesced", 1);
+
+        // When
+        release.countDown();
+
+        // Then
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceNotFoundException.class, leaderError.getCause());
+        assertInstanceOf(ResourceNotFoundException.class, followerError.getCause());
+        assertEquals("found", singleFlight.get("missing", () -> "found"));
+    }
+
+    @Test
+    void testInvalidate_ResultComputedBeforeWriteNotServed() throws Exception {
+        // Given - a lookup is running when a write commits
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        Future<String> beforeWrite = executor.submit(() -> singleFlight.get("load", () -> {
+            leaderStarted.countDown();
+            await(release);
+            return "before-write";
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        singleFlight.invalidate("load");
+        String afterWrite = singleFlight.get("load", () -> "after-write");
+        release.countDown();
+
+        // Then
+        assertEquals("after-write", afterWrite);
+        assertEquals("before-write", beforeWrite.get(5, TimeUnit.SECONDS));
+        assertEquals(2.0, count("executed"));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("tms.singleflight.requests")
+                .tag("name", "test")
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+
+    private void awaitCount(String outcome, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count(outcome) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, count(outcome));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.kshitij.tms.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TinyLfuCache and the HotKeyTracker behind it
+ */
+class TinyLfuCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong clock;
+    private HotKeyTracker<String> tracker;
+    private TinyLfuCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        tracker = new HotKeyTracker<>(1000, 5);
+        cache = new TinyLfuCache<>("test", 3, 1000, tracker, meterRegistry, clock::get);
+    }
+
+    @Test
+    void testHit_LoaderNotCalled() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("tender-1", () -> "v" + loads.incrementAndGet());
+
+        // When
+        String value = cache.get("tender-1", () -> "v" + loads.incrementAndGet());
+
+        // Then
+        assertEquals("v1", value);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("tms.cache.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testScan_DoesNotDisplaceHotEntries() {
+        // Given - three hot tenders read repeatedly
+        for (int i = 0; i < 5; i++) {
+            List.of("hot-1", "hot-2", "hot-3").forEach(key -> cache.get(key, () -> key));
+        }
+
+        // When - a listing walks a thousand cold IDs once each
+        IntStream.range(0, 1000).mapToObj(i -> "cold-" + i).forEach(key -> cache.get(key, () -> key));
+
+        // Then
+        assertTrue(cache.contains("hot-1"));
+        assertTrue(cache.contains("hot-2"));
+        assertTrue(cache.contains("hot-3"));
+        assertEquals(1000.0, meterRegistry.get("tms.cache.admissions").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void testHotterNewcomer_EvictsLeastRecentlyUsed() {
+        // Given
+        List.of("a", "b", "c").forEach(key -> cache.get(key, () -> key));
+
+        // When - "d" becomes more popular than anything cached
+        for (int i = 0; i < 3; i++) {
+            cache.get("d", () -> "d");
+        }
+
+        // Then
+        assertTrue(cache.contains("d"));
+        assertFalse(cache.contains("a"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testExpiredEntry_Reloaded() {
+        // Given
+        cache.get("tender-1", () -> "old");
+        clock.addAndGet(2_000_000_000L);
+
+        // When
+        String value = cache.get("tender-1", () -> "new");
+
+        // Then
+        assertEquals("new", value);
+    }
+
+    @Test
+    void testInvalidateDuringLoad_ValueNotCached() {
+        // When - a write commits while the miss is being loaded
+        cache.get("tender-1", () -> {
+            cache.invalidate("tender-1");
+            return "before-write";
+        });
+
+        // Then
+        assertFalse(cache.contains("tender-1"));
+    }
+
+    @Test
+    void testTracker_TopKeysHottestFirst() {
+        // Given
+        HotKeyTracker<String> hotKeys = new HotKeyTracker<>(1000, 3);
+        record(hotKeys, "tender-a", 50);
+        record(hotKeys, "tender-b", 20);
+        IntStream.range(0, 200).forEach(i -> hotKeys.record("once-" + i));
+        record(hotKeys, "tender-c", 10);
+
+        // When
+        List<Map.Entry<String, Integer>> top = hotKeys.top(2);
+
+        // Then
+        assertEquals(List.of("tender-a", "tender-b"), top.stream().map(Map.Entry::getKey).toList());
+        assertTrue(top.get(0).getValue() >= 50);
+    }
+
+    private static void record(HotKeyTracker<String> tracker, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+}
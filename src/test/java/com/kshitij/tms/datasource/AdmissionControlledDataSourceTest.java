@@ -0,0 +1,75 @@
+package com.kshitij.tms.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the connection admission guard
+ * An in-memory H2 database stands in for the pool; the guard allows two connections
+ */
+class AdmissionControlledDataSourceTest {
+
+    private AdmissionControlledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1");
+        dataSource = new AdmissionControlledDataSource("primary", h2, 2, 50);
+    }
+
+    @Test
+    void testRejectsWhenAllPermitsHeld() throws Exception {
+        // Given
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+
+            // When / Then
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertEquals(1, dataSource.getRejected());
+        }
+    }
+
+    @Test
+    void testCloseReturnsPermit() throws Exception {
+        // Given
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        // When
+        connection.close();
+
+        // Then
+        assertEquals(2, dataSource.getAvailablePermits());
+        assertTrue(connection.isClosed());
+    }
+
+    @Test
+    void testDoubleCloseReturnsPermitOnce() throws Exception {
+        // Given
+        Connection connection = dataSource.getConnection();
+
+        // When
+        connection.close();
+        connection.close();
+
+        // Then
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void testConnectionDelegatesToTarget() throws Exception {
+        // When
+        try (Connection connection = dataSource.getConnection()) {
+
+            // Then
+            assertTrue(connection.createStatement().executeQuery("SELECT 1").next());
+            assertEquals(1, dataSource.getAvailablePermits());
+        }
+    }
+}
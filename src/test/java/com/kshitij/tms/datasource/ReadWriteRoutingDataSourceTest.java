@@ -0,0 +1,117 @@
+package com.kshitij.tms.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for read/write routing
+ * Uses two separate in-memory H2 databases as primary and replica, each
+ * holding a marker row, so every query reveals where it was routed
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate replicaAdmin;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("routing_primary");
+        replica = h2("routing_replica");
+        new JdbcTemplate(primary).execute("CREATE TABLE node (name VARCHAR(20)); INSERT INTO node VALUES ('primary')");
+        replicaAdmin = new JdbcTemplate(replica);
+        replicaAdmin.execute("CREATE TABLE node (name VARCHAR(20)); INSERT INTO node VALUES ('replica')");
+        replicaAdmin.execute("CREATE TABLE lag (seconds DOUBLE); INSERT INTO lag VALUES (0)");
+
+        lagMonitor = new ReplicaLagMonitor(replica, "SELECT seconds FROM lag", 2000);
+        lagMonitor.checkLag();
+
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, lagMonitor));
+        jdbcTemplate = new JdbcTemplate(routing);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        replicaAdmin.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testReadOnlyTransaction_RoutesToReplica() {
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void testReadWriteTransaction_RoutesToPrimary() {
+        assertEquals("primary", readWrite.execute(status -> currentNode()));
+    }
+
+    @Test
+    void testNoTransaction_RoutesToPrimary() {
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void testReplicaLagging_FallsBackToPrimary() {
+        replicaAdmin.update("UPDATE lag SET seconds = 5");
+        lagMonitor.checkLag();
+
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals(5000, lagMonitor.getLastLagMillis());
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+
+        // Caught up again: back in rotation
+        replicaAdmin.update("UPDATE lag SET seconds = 0.5");
+        lagMonitor.checkLag();
+
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void testReplicaUnreachable_FallsBackToPrimary() {
+        replicaAdmin.execute("DROP TABLE lag");
+        lagMonitor.checkLag();
+
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void testPinnedForReadYourWrites_RoutesToPrimary() {
+        RoutingContext.pinToPrimary();
+
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,132 @@
+package com.kshitij.tms.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CommandJournal
+ * Tests round trips across segments and recovery from torn or corrupt records
+ */
+class CommandJournalTest {
+
+    private static final int SEGMENT_BYTES = 80;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRead_ReturnsRecordsInAppendOrderAcrossSegments() throws IOException {
+        // Given - 37-byte records, so each 80-byte segment holds two
+        try (CommandJournal journal = new CommandJournal(dir, SEGMENT_BYTES, false)) {
+            for (long sequence = 1; sequence <= 5; sequence++) {
+                journal.append(sequence, EngineCodec.SUBMIT_BID, payload((byte) sequence));
+            }
+        }
+
+        // When
+        List<CommandJournal.Entry> entries = CommandJournal.read(dir);
+
+        // Then
+        assertEquals(3, segmentCount());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), entries.stream().map(CommandJournal.Entry::sequence).toList());
+        assertEquals(EngineCodec.SUBMIT_BID, entries.get(4).type());
+        assertArrayEquals(payload((byte) 5), entries.get(4).payload());
+    }
+
+    @Test
+    void testRead_StopsAtCorruptRecord() throws IOException {
+        // Given
+        try (CommandJournal journal = new CommandJournal(dir, SEGMENT_BYTES, false)) {
+            journal.append(1, EngineCodec.SUBMIT_BID, payload((byte) 1));
+            journal.append(2, EngineCodec.OUTCOME, payload((byte) 2));
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Flip the last payload byte of the second record
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 2L * recordBytes() - 1);
+        }
+
+        // When
+        List<CommandJournal.Entry> entries = CommandJournal.read(dir);
+
+        // Then
+        assertEquals(1, entries.size());
+        assertEquals(1L, entries.get(0).sequence());
+    }
+
+    @Test
+    void testRead_IgnoresRecordWithoutLength() throws IOException {
+        // Given - a crash after the body was written but before its length
+        try (CommandJournal journal = new CommandJournal(dir, SEGMENT_BYTES, false)) {
+            journal.append(1, EngineCodec.SUBMIT_BID, payload((byte) 1));
+            journal.append(2, EngineCodec.OUTCOME, payload((byte) 2));
+        }
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES), recordBytes());
+        }
+
+        // When
+        List<CommandJournal.Entry> entries = CommandJournal.read(dir);
+
+        // Then
+        assertEquals(List.of(1L), entries.stream().map(CommandJournal.Entry::sequence).toList());
+    }
+
+    @Test
+    void testReset_DeletesAllSegments() throws IOException {
+        // Given
+        CommandJournal journal = new CommandJournal(dir, SEGMENT_BYTES, false);
+        journal.append(1, EngineCodec.SUBMIT_BID, payload((byte) 1));
+
+        // When
+        journal.reset();
+        journal.append(2, EngineCodec.SUBMIT_BID, payload((byte) 2));
+        journal.close();
+
+        // Then
+        assertEquals(List.of(2L), CommandJournal.read(dir).stream().map(CommandJournal.Entry::sequence).toList());
+    }
+
+    @Test
+    void testAppend_RecordLargerThanSegment_ThrowsException() {
+        // Given
+        try (CommandJournal journal = new CommandJournal(dir, SEGMENT_BYTES, false)) {
+
+            // When & Then
+            assertThrows(IllegalArgumentException.class,
+                    () -> journal.append(1, EngineCodec.SUBMIT_BID, new byte[SEGMENT_BYTES]));
+        }
+    }
+
+    private static byte[] payload(byte value) {
+        byte[] payload = new byte[20];
+        payload[payload.length - 1] = value;
+        return payload;
+    }
+
+    // header (length + crc) + sequence + type + payload
+    private static int recordBytes() {
+        return 2 * Integer.BYTES + Long.BYTES + 1 + 20;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        return segments().size();
+    }
+}
@@ -0,0 +1,71 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BookingRequest;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.LoadStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Marketplace contract against the in-memory engine, plus restart recovery
+ */
+@SpringBootTest(properties = {
+        "tms.engine.enabled=true",
+        "tms.engine.partitions=2",
+        "tms.engine.journal-dir=target/engine-test/${random.uuid}"
+})
+class EngineMarketplaceContractTest extends MarketplaceContractTest {
+
+    @Autowired
+    private MarketplaceEngine engine;
+
+    @Override
+    protected Bid submitBid(BidRequest request) {
+        return engine.submitBid(request);
+    }
+
+    @Override
+    protected Booking createBooking(UUID bidId, BookingRequest request) {
+        return engine.createBooking(bidId, request);
+    }
+
+    @Override
+    protected List<BestBidResponse> bestBids(UUID loadId) {
+        return engine.bestBids(loadId);
+    }
+
+    @Override
+    protected void settle() {
+        engine.awaitProjection();
+    }
+
+    @Test
+    void restart_RestoresPendingBidsAndCapacity() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID transporterId = createTransporter(3);
+        Bid bid = submitBid(bidRequest(loadId, transporterId, 50_000.0, 2));
+
+        // When
+        engine.stop();
+        engine.start();
+        Booking booking = createBooking(bid.getBidId(), new BookingRequest(2, 50_000.0));
+        settle();
+
+        // Then
+        assertEquals(bid.getBidId(), booking.getBidId());
+        assertEquals(BidStatus.ACCEPTED, bidRepository.findById(bid.getBidId()).orElseThrow().getStatus());
+        assertEquals(LoadStatus.BOOKED, load(loadId).getStatus());
+        assertEquals(1, freeTrucks(transporterId, loadId));
+    }
+}
@@ -0,0 +1,610 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.dto.AllocationResponse;
+import com.kshitij.tms.controller.BookingController;
+import com.kshitij.tms.dto.BatchBookingRequest;
+import com.kshitij.tms.dto.BatchBookingResponse;
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BookingRequest;
+import com.kshitij.tms.dto.BookingResponse;
+import com.kshitij.tms.dto.LoadRequest;
+import com.kshitij.tms.dto.TruckCompatibilityRequest;
+import com.kshitij.tms.dto.TransporterRequest;
+import com.kshitij.tms.dto.TruckRequest;
+import com.kshitij.tms.dto.TruckTypeRequest;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.Booking;
+import com.kshitij.tms.entity.BookingStatus;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.entity.WeightUnit;
+import com.kshitij.tms.exception.InsufficientCapacityException;
+import com.kshitij.tms.exception.InvalidStatusTransitionException;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.service.AllocationObjective;
+import com.kshitij.tms.service.AllocationService;
+import com.kshitij.tms.service.AvailabilityService;
+import com.kshitij.tms.service.BidService;
+import com.kshitij.tms.service.BookingCompletionService;
+import com.kshitij.tms.service.BookingService;
+import com.kshitij.tms.service.IdempotencyService;
+import com.kshitij.tms.service.LoadService;
+import com.kshitij.tms.service.ReservationWindow;
+import com.kshitij.tms.service.TransporterService;
+import com.kshitij.tms.service.TruckTypeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bid and booking scenarios every marketplace implementation must pass
+ *
+ * Run once against BidService/BookingService and once against the
+ * in-memory engine; each subclass decides how bids and bookings are
+ * submitted and how to wait until the database reflects them.
+ */
+abstract class MarketplaceContractTest {
+
+    @Autowired
+    protected LoadService loadService;
+
+    @Autowired
+    protected TransporterService transporterService;
+
+    @Autowired
+    protected BidService bidService;
+
+    @Autowired
+    protected BookingService bookingService;
+
+    @Autowired
+    protected AllocationService allocationService;
+
+    @Autowired
+    protected BookingCompletionService bookingCompletionService;
+
+    @Autowired
+    protected TruckTypeService truckTypeService;
+
+    @Autowired
+    protected AvailabilityService availabilityService;
+
+    @Autowired
+    protected BookingController bookingController;
+
+    @Autowired
+    protected LoadRepository loadRepository;
+
+    @Autowired
+    protected BidRepository bidRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected abstract Bid submitBid(BidRequest request);
+
+    protected abstract Booking createBooking(UUID bidId, BookingRequest request);
+
+    protected abstract List<BestBidResponse> bestBids(UUID loadId);
+
+    /**
+     * Wait until every accepted bid and booking is in the database
+     */
+    protected abstract void settle();
+
+    @Test
+    void firstBid_OpensLoadAndStoresPendingBid() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID transporterId = createTransporter(3);
+
+        // When
+        Bid bid = submitBid(bidRequest(loadId, transporterId, 50_000.0, 2));
+        settle();
+
+        // Then
+        assertEquals(BidStatus.PENDING, bid.getStatus());
+        assertEquals(LoadStatus.OPEN_FOR_BIDS, load(loadId).getStatus());
+        Bid stored = bidRepository.findById(bid.getBidId()).orElseThrow();
+        assertEquals(BidStatus.PENDING, stored.getStatus());
+        assertEquals(50_000.0, stored.getProposedRate());
+        assertEquals(2, stored.getTrucksOffered());
+    }
+
+    @Test
+    void repeatBid_RevisesExistingBidInPlace() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID transporterId = createTransporter(3);
+        Bid first = submitBid(bidRequest(loadId, transporterId, 50_000.0, 2));
+
+        // When
+        Bid second = submitBid(bidRequest(loadId, transporterId, 45_000.0, 1));
+        settle();
+
+        // Then
+        assertEquals(first.getBidId(), second.getBidId());
+        assertEquals(1, bidRepository.findByLoadId(loadId).size());
+        Bid stored = bidRepository.findById(first.getBidId()).orElseThrow();
+        assertEquals(45_000.0, stored.getProposedRate());
+        assertEquals(1, stored.getTrucksOffered());
+        assertEquals(1, bidService.getBidRevisions(first.getBidId()).size());
+    }
+
+    @Test
+    void bestBids_RankedByRateAndRating() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID cheapId = createTransporter(3, 3.0);
+        UUID ratedId = createTransporter(3, 5.0);
+        UUID expensiveId = createTransporter(3, 5.0);
+        submitBid(bidRequest(loadId, expensiveId, 2.0, 1));
+        submitBid(bidRequest(loadId, cheapId, 1.0, 1));
+        submitBid(bidRequest(loadId, ratedId, 1.0, 1));
+
+        // When
+        List<BestBidResponse> bestBids = bestBids(loadId);
+
+        // Then
+        assertEquals(List.of(ratedId, cheapId, expensiveId),
+                bestBids.stream().map(BestBidResponse::getTransporterId).toList());
+        assertEquals(BestBidResponse.score(1.0, 5.0), bestBids.get(0).getScore(), 1e-9);
+        assertEquals(3.0, bestBids.get(1).getTransporterRating());
+    }
+
+    @Test
+    void bestBids_RejectedBidLeavesRanking() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID keptId = createTransporter(3);
+        UUID rejectedId = createTransporter(3);
+        submitBid(bidRequest(loadId, keptId, 50_000.0, 1));
+        Bid rejected = submitBid(bidRequest(loadId, rejectedId, 40_000.0, 1));
+        settle();
+
+        // When
+        bidService.rejectBid(rejected.getBidId());
+
+        // Then
+        assertEquals(List.of(keptId), bestBids(loadId).stream().map(BestBidResponse::getTransporterId).toList());
+    }
+
+    @Test
+    void bestBids_UnknownLoad_ThrowsException() {
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> bestBids(UUID.randomUUID()));
+    }
+
+    @Test
+    void bid_InsufficientTrucks_ThrowsException() {
+        // Given
+        UUID loadId = createLoad(5);
+        UUID transporterId = createTransporter(2);
+
+        // When & Then
+        assertThrows(InsufficientCapacityException.class,
+                () -> submitBid(bidRequest(loadId, transporterId, 50_000.0, 3)));
+        settle();
+        assertTrue(bidRepository.findByLoadId(loadId).isEmpty());
+        assertEquals(LoadStatus.POSTED, load(loadId).getStatus());
+    }
+
+    @Test
+    void bid_CancelledLoad_ThrowsException() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID transporterId = createTransporter(3);
+        loadService.cancelLoad(loadId);
+
+        // When & Then
+        InvalidStatusTransitionException exception = assertThrows(InvalidStatusTransitionException.class,
+                () -> submitBid(bidRequest(loadId, transporterId, 50_000.0, 2)));
+        assertTrue(exception.getMessage().contains("CANCELLED"));
+    }
+
+    @Test
+    void bid_BookedLoad_ThrowsException() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID winnerId = createTransporter(3);
+        UUID lateId = createTransporter(3);
+        Bid winning = submitBid(bidRequest(loadId, winnerId, 50_000.0, 2));
+        createBooking(winning.getBidId(), new BookingRequest(2, 50_000.0));
+
+        // When & Then
+        InvalidStatusTransitionException exception = assertThrows(InvalidStatusTransitionException.class,
+                () -> submitBid(bidRequest(loadId, lateId, 40_000.0, 2)));
+        assertTrue(exception.getMessage().contains("BOOKED"));
+    }
+
+    @Test
+    void booking_AcceptsBidRejectsOthersAndReservesTrucks() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID winnerId = createTransporter(3);
+        UUID loserId = createTransporter(3);
+        Bid winning = submitBid(bidRequest(loadId, winnerId, 50_000.0, 2));
+        Bid losing = submitBid(bidRequest(loadId, loserId, 55_000.0, 2));
+
+        // When
+        Booking booking = createBooking(winning.getBidId(), new BookingRequest(2, 49_000.0));
+        settle();
+
+        // Then
+        assertEquals(BookingStatus.CONFIRMED, booking.getStatus());
+        assertEquals(winnerId, booking.getTransporterId());
+        assertEquals(BidStatus.ACCEPTED, bidRepository.findById(winning.getBidId()).orElseThrow().getStatus());
+        assertEquals(BidStatus.REJECTED, bidRepository.findById(losing.getBidId()).orElseThrow().getStatus());
+        assertEquals(1, freeTrucks(winnerId, loadId));
+        assertEquals(3, freeTrucks(loserId, loadId));
+        assertEquals(3, fleet(winnerId));
+        Load load = load(loadId);
+        assertEquals(LoadStatus.BOOKED, load.getStatus());
+        assertEquals(0, load.getRemainingTrucks());
+        assertEquals(49_000.0, jdbcTemplate.queryForObject(
+                "SELECT final_rate FROM booking WHERE booking_id = ?", Double.class, booking.getBookingId()));
+    }
+
+    @Test
+    void booking_PartialAllocation_KeepsLoadOpen() {
+        // Given
+        UUID loadId = createLoad(3);
+        UUID transporterId = createTransporter(3);
+        Bid bid = submitBid(bidRequest(loadId, transporterId, 50_000.0, 2));
+
+        // When
+        createBooking(bid.getBidId(), new BookingRequest(2, 50_000.0));
+        settle();
+
+        // Then
+        Load load = load(loadId);
+        assertEquals(LoadStatus.OPEN_FOR_BIDS, load.getStatus());
+        assertEquals(1, load.getRemainingTrucks());
+        assertEquals(1, freeTrucks(transporterId, loadId));
+    }
+
+    @Test
+    void booking_CancelledLoad_ThrowsException() {
+        // Given
+        UUID loadId = createLoad(2);
+        UUID transporterId = createTransporter(3);
+        Bid bid = submitBid(bidRequest(loadId, transporterId, 50_000.0, 2));
+        settle();
+        loadService.cancelLoad(loadId);
+
+        // When & Then
+        assertThrows(InvalidStatusTransitionException.class,
+                () -> createBooking(bid.getBidId(), new BookingRequest(2, 50_000.0)));
+        settle();
+        assertEquals(3, freeTrucks(transporterId, loadId));
+    }
+
+    @Test
+    void booking_TrucksAlreadyAllocatedElsewhere_ThrowsException() {
+        // Given - two open bids covering the transporter's whole fleet each
+        UUID firstLoadId = createLoad(2);
+        UUID secondLoadId = createLoad(2);
+        UUID transporterId = createTransporter(2);
+        Bid first = submitBid(bidRequest(firstLoadId, transporterId, 50_000.0, 2));
+        Bid second = submitBid(bidRequest(secondLoadId, transporterId, 50_000.0, 2));
+        createBooking(first.getBidId(), new BookingRequest(2, 50_000.0));
+
+        // When & Then
+        assertThrows(InsufficientCapacityException.class,
+                () -> createBooking(second.getBidId(), new BookingRequest(2, 50_000.0)));
+        settle();
+        assertEquals(0, freeTrucks(transporterId, secondLoadId));
+        assertEquals(BidStatus.PENDING, bidRepository.findById(second.getBidId()).orElseThrow().getStatus());
+        assertEquals(2, load(secondLoadId).getRemainingTrucks());
+    }
+
+    @Test
+    void booking_TrucksReservedForOneTrip_FreeForALaterLoad() {
+        // Given - the whole fleet booked for a load a week out
+        LocalDateTime loadingDate = LocalDateTime.now().plusDays(7);
+        UUID bookedLoadId = createLoad(2, "Container", loadingDate);
+        UUID overlappingLoadId = createLoad(2, "Container", loadingDate.plusDays(1));
+        UUID laterLoadId = createLoad(2, "Container", loadingDate.plusDays(30));
+        UUID transporterId = createTransporter(2);
+        Bid booked = submitBid(bidRequest(bookedLoadId, transporterId, 50_000.0, 2));
+        createBooking(booked.getBidId(), new BookingRequest(2, 50_000.0));
+
+        // When
+        Bid later = submitBid(bidRequest(laterLoadId, transporterId, 50_000.0, 2));
+        Booking booking = createBooking(later.getBidId(), new BookingRequest(2, 50_000.0));
+        settle();
+
+        // Then
+        assertEquals(BookingStatus.CONFIRMED, booking.getStatus());
+        assertThrows(InsufficientCapacityException.class,
+                () -> submitBid(bidRequest(overlappingLoadId, transporterId, 50_000.0, 1)));
+        assertEquals(0, freeTrucks(transporterId, laterLoadId));
+        assertEquals(2, fleet(transporterId));
+    }
+
+    @Test
+    void completion_ReleasesTrucksBeforeTheWindowEnds() {
+        // Given - the whole fleet booked for a load a week out
+        LocalDateTime loadingDate = LocalDateTime.now().plusDays(7);
+        UUID bookedLoadId = createLoad(2, "Container", loadingDate);
+        UUID overlappingLoadId = createLoad(2, "Container", loadingDate.plusDays(1));
+        UUID transporterId = createTransporter(2);
+        Bid booked = submitBid(bidRequest(bookedLoadId, transporterId, 50_000.0, 2));
+        Booking booking = createBooking(booked.getBidId(), new BookingRequest(2, 50_000.0));
+        settle();
+
+        // When
+        Booking completed = bookingService.completeBooking(booking.getBookingId());
+        Bid overlapping = submitBid(bidRequest(overlappingLoadId, transporterId, 50_000.0, 2));
+        createBooking(overlapping.getBidId(), new BookingRequest(2, 50_000.0));
+        settle();
+
+        // Then
+        assertEquals(BookingStatus.COMPLETED, completed.getStatus());
+        assertEquals(LoadStatus.BOOKED, load(bookedLoadId).getStatus());
+        assertEquals(0, freeTrucks(transporterId, overlappingLoadId));
+        assertThrows(InvalidStatusTransitionException.class,
+                () -> bookingService.cancelBooking(booking.getBookingId()));
+    }
+
+    @Test
+    void completion_DueBookingsCompletedInBulk() {
+        // Given - two bookings whose reservations have ended
+        UUID firstLoadId = createLoad(1);
+        UUID secondLoadId = createLoad(1);
+        UUID firstTransporterId = createTransporter(1);
+        UUID secondTransporterId = createTransporter(1);
+        Booking first = createBooking(submitBid(bidRequest(firstLoadId, firstTransporterId, 50_000.0, 1)).getBidId(),
+                new BookingRequest(1, 50_000.0));
+        Booking second = createBooking(submitBid(bidRequest(secondLoadId, secondTransporterId, 50_000.0, 1)).getBidId(),
+                new BookingRequest(1, 50_000.0));
+        settle();
+        jdbcTemplate.update("UPDATE booking SET reserved_until = ? WHERE booking_id IN (?, ?)",
+                LocalDateTime.now().minusHours(1), first.getBookingId(), second.getBookingId());
+        long version = transporterVersion(firstTransporterId);
+
+        // When
+        int completed = bookingCompletionService.completeDueBookings();
+
+        // Then
+        assertTrue(completed >= 2);
+        assertEquals(BookingStatus.COMPLETED, bookingService.getBookingById(first.getBookingId()).getStatus());
+        assertEquals(BookingStatus.COMPLETED, bookingService.getBookingById(second.getBookingId()).getStatus());
+        assertEquals(version + 1, transporterVersion(firstTransporterId));
+        assertEquals(0, bookingCompletionService.completeDueBookings());
+    }
+
+    @Test
+    void allocation_SplitsLoadAcrossCheapestBids() {
+        // Given - five trucks needed; the cheapest bidder only has two free around the loading date
+        UUID loadId = createLoad(5);
+        UUID cheapestId = createTransporter(2);
+        UUID cheapId = createTransporter(3);
+        UUID dearId = createTransporter(3);
+        Bid cheapest = submitBid(bidRequest(loadId, cheapestId, 40_000.0, 2));
+        Bid cheap = submitBid(bidRequest(loadId, cheapId, 45_000.0, 3));
+        Bid dear = submitBid(bidRequest(loadId, dearId, 50_000.0, 3));
+        settle();
+
+        // When
+        AllocationResponse preview = allocationService.planAllocation(loadId, AllocationObjective.COST, false);
+        AllocationResponse allocation = allocationService.allocate(loadId, AllocationObjective.COST, false);
+        settle();
+
+        // Then
+        assertFalse(preview.booked());
+        assertEquals(preview.awards().stream().map(AllocationResponse.Award::bidId).toList(),
+                allocation.awards().stream().map(AllocationResponse.Award::bidId).toList());
+        assertTrue(allocation.booked());
+        assertEquals(5, allocation.allocatedTrucks());
+        assertEquals(2 * 40_000.0 + 3 * 45_000.0, allocation.totalCost());
+        assertEquals(BidStatus.ACCEPTED, bidRepository.findById(cheapest.getBidId()).orElseThrow().getStatus());
+        assertEquals(BidStatus.ACCEPTED, bidRepository.findById(cheap.getBidId()).orElseThrow().getStatus());
+        assertEquals(BidStatus.REJECTED, bidRepository.findById(dear.getBidId()).orElseThrow().getStatus());
+        assertEquals(LoadStatus.BOOKED, load(loadId).getStatus());
+        assertEquals(0, freeTrucks(cheapestId, loadId));
+        assertEquals(0, freeTrucks(cheapId, loadId));
+        assertThrows(InvalidStatusTransitionException.class,
+                () -> allocationService.allocate(loadId, AllocationObjective.COST, false));
+    }
+
+    @Test
+    void batchBooking_BooksEveryBidOrNone() {
+        // Given - the second transporter can't cover the trucks asked of it
+        UUID loadId = createLoad(5);
+        UUID firstId = createTransporter(3);
+        UUID secondId = createTransporter(1);
+        Bid first = submitBid(bidRequest(loadId, firstId, 40_000.0, 3));
+        Bid second = submitBid(bidRequest(loadId, secondId, 45_000.0, 1));
+        settle();
+        BatchBookingRequest overbooked = BatchBookingRequest.builder()
+                .loadId(loadId)
+                .bookings(List.of(
+                        new BatchBookingRequest.Item(first.getBidId(), 3, 40_000.0),
+                        new BatchBookingRequest.Item(second.getBidId(), 2, 45_000.0)))
+                .build();
+        BatchBookingRequest request = BatchBookingRequest.builder()
+                .loadId(loadId)
+                .bookings(List.of(
+                        new BatchBookingRequest.Item(first.getBidId(), 3, 40_000.0),
+                        new BatchBookingRequest.Item(second.getBidId(), 1, 45_000.0)))
+                .build();
+
+        // When
+        assertThrows(InsufficientCapacityException.class, () -> bookingService.createBookings(overbooked));
+        int remainingAfterFailure = load(loadId).getRemainingTrucks();
+        BidStatus firstAfterFailure = bidRepository.findById(first.getBidId()).orElseThrow().getStatus();
+        List<Booking> bookings = bookingService.createBookings(request);
+        settle();
+
+        // Then
+        assertEquals(5, remainingAfterFailure);
+        assertEquals(BidStatus.PENDING, firstAfterFailure);
+        assertEquals(2, bookings.size());
+        assertEquals(1, load(loadId).getRemainingTrucks());
+        assertEquals(LoadStatus.OPEN_FOR_BIDS, load(loadId).getStatus());
+        assertEquals(BidStatus.ACCEPTED, bidRepository.findById(second.getBidId()).orElseThrow().getStatus());
+        assertEquals(0, freeTrucks(firstId, loadId));
+        assertEquals(0, freeTrucks(secondId, loadId));
+    }
+
+    @Test
+    void batchBooking_ManyBookingsWithIdempotencyKey_Replayed() {
+        // Given - twenty bookings serialize to far more than 4000 characters
+        UUID loadId = createLoad(20);
+        List<BatchBookingRequest.Item> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Bid bid = submitBid(bidRequest(loadId, createTransporter(1), 40_000.0 + i, 1));
+            items.add(new BatchBookingRequest.Item(bid.getBidId(), 1, 40_000.0 + i));
+        }
+        settle();
+        BatchBookingRequest request = BatchBookingRequest.builder().loadId(loadId).bookings(items).build();
+        String key = UUID.randomUUID().toString();
+
+        // When
+        ResponseEntity<BatchBookingResponse> first = bookingController.createBookings(key, request);
+        ResponseEntity<BatchBookingResponse> retry = bookingController.createBookings(key, request);
+        settle();
+
+        // Then
+        assertEquals("false", first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(20, first.getBody().bookings().size());
+        assertEquals(first.getBody().bookings().stream().map(BookingResponse::bookingId).toList(),
+                retry.getBody().bookings().stream().map(BookingResponse::bookingId).toList());
+        assertEquals(LoadStatus.BOOKED, load(loadId).getStatus());
+    }
+
+    @Test
+    void allocation_WholeBids_PartiallyBookedLoadStaysOpen() {
+        // Given - no combination of whole bids covers all four trucks
+        UUID loadId = createLoad(4);
+        UUID firstId = createTransporter(3);
+        UUID secondId = createTransporter(3);
+        Bid first = submitBid(bidRequest(loadId, firstId, 40_000.0, 3));
+        Bid second = submitBid(bidRequest(loadId, secondId, 30_000.0, 3));
+        settle();
+
+        // When
+        AllocationResponse allocation = allocationService.allocate(loadId, AllocationObjective.COST, true);
+        settle();
+
+        // Then
+        assertEquals(1, allocation.awards().size());
+        assertEquals(second.getBidId(), allocation.awards().get(0).bidId());
+        assertEquals(3, allocation.awards().get(0).trucks());
+        assertEquals(BidStatus.PENDING, bidRepository.findById(first.getBidId()).orElseThrow().getStatus());
+        Load load = load(loadId);
+        assertEquals(LoadStatus.OPEN_FOR_BIDS, load.getStatus());
+        assertEquals(1, load.getRemainingTrucks());
+    }
+
+    @Test
+    void booking_CompatibleTruckType_TakesCarrierTrucks() {
+        // Given - a load needing one type, a transporter holding another
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        short boxId = truckTypeService.createTruckType(new TruckTypeRequest("Box " + suffix)).getTruckTypeId();
+        short haulerId = truckTypeService.createTruckType(new TruckTypeRequest("Hauler " + suffix)).getTruckTypeId();
+        UUID loadId = createLoad(2, "Box " + suffix);
+        UUID transporterId = transporterService.createTransporter(TransporterRequest.builder()
+                .companyName("Contract Carrier " + UUID.randomUUID())
+                .rating(4.0)
+                .availableTrucks(List.of(new TruckRequest("Hauler " + suffix, 3)))
+                .build()).getTransporterId();
+        assertThrows(InsufficientCapacityException.class,
+                () -> submitBid(bidRequest(loadId, transporterId, 50_000.0, 2)));
+
+        // When
+        truckTypeService.setCarries(haulerId, new TruckCompatibilityRequest(List.of(boxId)));
+        Bid bid = submitBid(bidRequest(loadId, transporterId, 50_000.0, 2));
+        Booking booking = createBooking(bid.getBidId(), new BookingRequest(2, 50_000.0));
+        settle();
+
+        // Then
+        assertEquals(haulerId, booking.getTruckTypeId());
+        assertEquals(1, freeTrucks(transporterId, loadId));
+        assertEquals(haulerId, jdbcTemplate.queryForObject(
+                "SELECT truck_type_id FROM booking WHERE booking_id = ?", Short.class, booking.getBookingId()));
+    }
+
+    @Test
+    void booking_UnknownBid_ThrowsException() {
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> createBooking(UUID.randomUUID(), new BookingRequest(1, 50_000.0)));
+    }
+
+    protected UUID createLoad(int trucks) {
+        return createLoad(trucks, "Container");
+    }
+
+    protected UUID createLoad(int trucks, String truckType) {
+        return createLoad(trucks, truckType, LocalDateTime.now().plusDays(7));
+    }
+
+    protected UUID createLoad(int trucks, String truckType, LocalDateTime loadingDate) {
+        return loadService.createLoad(LoadRequest.builder()
+                .shipperId("SHIP-CONTRACT")
+                .loadingCity("Mumbai")
+                .unloadingCity("Delhi")
+                .loadingDate(loadingDate)
+                .productType("Electronics")
+                .weight(1_000.0)
+                .weightUnit(WeightUnit.KG)
+                .truckType(truckType)
+                .noOfTrucks(trucks)
+                .build()).getLoadId();
+    }
+
+    protected UUID createTransporter(int containerTrucks) {
+        return createTransporter(containerTrucks, 4.0);
+    }
+
+    protected UUID createTransporter(int containerTrucks, double rating) {
+        return transporterService.createTransporter(TransporterRequest.builder()
+                .companyName("Contract Carrier " + UUID.randomUUID())
+                .rating(rating)
+                .availableTrucks(List.of(new TruckRequest("container", containerTrucks)))
+                .build()).getTransporterId();
+    }
+
+    protected static BidRequest bidRequest(UUID loadId, UUID transporterId, double rate, int trucks) {
+        return new BidRequest(loadId, transporterId, rate, trucks);
+    }
+
+    protected Load load(UUID loadId) {
+        return loadRepository.findById(loadId).orElseThrow();
+    }
+
+    protected long transporterVersion(UUID transporterId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT version FROM transporter WHERE transporter_id = ?", Long.class, transporterId);
+    }
+
+    protected int fleet(UUID transporterId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count FROM transporter_trucks WHERE transporter_id = ?", Integer.class, transporterId);
+    }
+
+    /**
+     * Trucks of the transporter's single inventory entry free around the load's loading date
+     */
+    protected int freeTrucks(UUID transporterId, UUID loadId) {
+        short truckTypeId = jdbcTemplate.queryForObject(
+                "SELECT truck_type_id FROM transporter_trucks WHERE transporter_id = ?", Short.class, transporterId);
+        ReservationWindow window = availabilityService.window(load(loadId).getLoadingDate());
+        return fleet(transporterId) - availabilityService.readSchedule(transporterId).reserved(truckTypeId, window);
+    }
+}
@@ -0,0 +1,118 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Heap held by open bids as Bid entities in per-load lists (the engine's
+ * previous layout) versus OpenBidStore columns, and the time to score every
+ * load's bids in each
+ *
+ * Heap is measured as used memory after GC with the structure reachable,
+ * minus used memory before it was built; run with a fixed heap for stable
+ * numbers.
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.jvmArgs="-Xms2g -Xmx2g" \
+ *       -Dexec.mainClass=com.kshitij.tms.engine.OpenBidFootprintBenchmark -Dtms.footprint.bids=1000000
+ */
+public class OpenBidFootprintBenchmark {
+
+    private static final double RATING = 4.0;
+
+    public static void main(String[] args) {
+        int bids = Integer.getInteger("tms.footprint.bids", 1_000_000);
+        int bidsPerLoad = Integer.getInteger("tms.footprint.bidsPerLoad", 20);
+        int loads = Math.max(1, bids / bidsPerLoad);
+
+        List<UUID> loadIds = new ArrayList<>(loads);
+        for (int i = 0; i < loads; i++) {
+            loadIds.add(UUID.randomUUID());
+        }
+        LocalDateTime submittedAt = LocalDateTime.now();
+
+        System.out.println("layout,bids,loads,heap_bytes,bytes_per_bid,score_all_ms");
+
+        long before = usedHeap();
+        Map<UUID, List<Bid>> entities = new HashMap<>();
+        for (int i = 0; i < bids; i++) {
+            UUID loadId = loadIds.get(i % loads);
+            entities.computeIfAbsent(loadId, id -> new ArrayList<>()).add(Bid.builder()
+                    .bidId(UUID.randomUUID())
+                    .loadId(loadId)
+                    .transporterId(UUID.randomUUID())
+                    .proposedRate(10_000.0 + i % 5_000)
+                    .trucksOffered(1 + i % 5)
+                    .status(BidStatus.PENDING)
+                    .submittedAt(submittedAt.plusNanos(i * 1_000L))
+                    .build());
+        }
+        report("entity_list", bids, loads, usedHeap() - before, () -> scoreEntities(entities, loadIds));
+        entities.clear();
+
+        before = usedHeap();
+        OpenBidStore store = new OpenBidStore(1024);
+        for (int i = 0; i < bids; i++) {
+            store.add(loadIds.get(i % loads), UUID.randomUUID(), UUID.randomUUID(),
+                    10_000.0 + i % 5_000, 1 + i % 5, submittedAt.plusNanos(i * 1_000L));
+        }
+        report("open_bid_store", bids, loads, usedHeap() - before, () -> scoreStore(store, loadIds));
+    }
+
+    private static void report(String layout, int bids, int loads, long heapBytes, Runnable scoreAll) {
+        // Warm up, then time
+        for (int i = 0; i < 3; i++) {
+            scoreAll.run();
+        }
+        long start = System.nanoTime();
+        scoreAll.run();
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%.1f%n",
+                layout, bids, loads, heapBytes, heapBytes / bids, millis);
+    }
+
+    private static double scoreEntities(Map<UUID, List<Bid>> entities, List<UUID> loadIds) {
+        double total = 0;
+        for (UUID loadId : loadIds) {
+            double best = 0;
+            for (Bid bid : entities.get(loadId)) {
+                if (bid.getStatus() == BidStatus.PENDING) {
+                    best = Math.max(best, BestBidResponse.score(bid.getProposedRate(), RATING));
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static double scoreStore(OpenBidStore store, List<UUID> loadIds) {
+        double total = 0;
+        for (UUID loadId : loadIds) {
+            double best = 0;
+            for (int row = store.start(loadId), end = store.end(loadId); row < end; row++) {
+                if (store.status(row) == BidStatus.PENDING) {
+                    best = Math.max(best, BestBidResponse.score(store.proposedRate(row), RATING));
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
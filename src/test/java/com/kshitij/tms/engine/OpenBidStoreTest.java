@@ -0,0 +1,178 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OpenBidStore
+ * Tests per-load slices, lookups, scoring, removal and compaction
+ */
+class OpenBidStoreTest {
+
+    private OpenBidStore store;
+    private UUID loadId;
+    private UUID otherLoadId;
+
+    @BeforeEach
+    void setUp() {
+        store = new OpenBidStore(4);
+        loadId = UUID.randomUUID();
+        otherLoadId = UUID.randomUUID();
+    }
+
+    @Test
+    void testAdd_RoundTripsEveryColumn() {
+        // Given
+        UUID bidId = UUID.randomUUID();
+        UUID transporterId = UUID.randomUUID();
+        LocalDateTime submittedAt = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000);
+
+        // When
+        int row = store.add(loadId, bidId, transporterId, 45_000.5, 3, submittedAt);
+        Bid bid = store.toBid(loadId, row);
+
+        // Then
+        assertEquals(bidId, bid.getBidId());
+        assertEquals(loadId, bid.getLoadId());
+        assertEquals(transporterId, bid.getTransporterId());
+        assertEquals(45_000.5, bid.getProposedRate());
+        assertEquals(3, bid.getTrucksOffered());
+        assertEquals(submittedAt, bid.getSubmittedAt());
+        assertEquals(BidStatus.PENDING, bid.getStatus());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testSlices_KeepEachLoadsBidsApartWhileGrowing() {
+        // Given - interleaved adds force both slices to move several times
+        List<UUID> bidIds = new ArrayList<>();
+        List<UUID> otherBidIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bidIds.add(add(loadId, 1_000.0 + i));
+            otherBidIds.add(add(otherLoadId, 2_000.0 + i));
+        }
+
+        // When & Then
+        assertEquals(100, store.size());
+        assertEquals(50, store.end(loadId) - store.start(loadId));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(1_000.0 + i, store.proposedRate(store.find(loadId, bidIds.get(i))));
+            assertEquals(2_000.0 + i, store.proposedRate(store.find(otherLoadId, otherBidIds.get(i))));
+        }
+        assertEquals(-1, store.find(loadId, otherBidIds.get(0)));
+    }
+
+    @Test
+    void testFindByTransporter_MatchesStatus() {
+        // Given
+        UUID transporterId = UUID.randomUUID();
+        int row = store.add(loadId, UUID.randomUUID(), transporterId, 1_000.0, 1, LocalDateTime.now());
+
+        // When
+        store.setStatus(row, BidStatus.ACCEPTED);
+
+        // Then
+        assertEquals(-1, store.findByTransporter(loadId, transporterId, BidStatus.PENDING));
+        assertEquals(row, store.findByTransporter(loadId, transporterId, BidStatus.ACCEPTED));
+        assertEquals(0, store.count(loadId, BidStatus.PENDING));
+    }
+
+    @Test
+    void testRanked_BestScoreFirstAndSkipsOtherStatuses() {
+        // Given
+        add(loadId, 2.0);                                   // 0.35 + 0.30
+        UUID cheap = add(loadId, 1.0);                      // 0.70 + 0.18
+        UUID accepted = add(loadId, 0.5);                   // would rank first
+        UUID rated = add(loadId, 1.0);                      // 0.70 + 0.30
+        store.setStatus(store.find(loadId, accepted), BidStatus.ACCEPTED);
+        double[] ratings = {5.0, 3.0, 5.0, 5.0};
+
+        // When
+        int[] ranked = store.ranked(loadId, BidStatus.PENDING, ratings);
+
+        // Then
+        assertEquals(3, ranked.length);
+        assertEquals(rated, store.bidId(ranked[0]));
+        assertEquals(cheap, store.bidId(ranked[1]));
+        assertEquals(2.0, store.proposedRate(ranked[2]));
+    }
+
+    @Test
+    void testRemove_LastBidTakesTheRow() {
+        // Given
+        UUID first = add(loadId, 1.0);
+        UUID second = add(loadId, 2.0);
+        UUID third = add(loadId, 3.0);
+
+        // When
+        store.remove(loadId, store.find(loadId, first));
+
+        // Then
+        assertEquals(2, store.size());
+        assertEquals(-1, store.find(loadId, first));
+        assertEquals(3.0, store.proposedRate(store.find(loadId, third)));
+        assertEquals(2.0, store.proposedRate(store.find(loadId, second)));
+    }
+
+    @Test
+    void testRemove_RowOfAnotherLoad_ThrowsException() {
+        // Given
+        add(loadId, 1.0);
+        int otherRow = store.find(otherLoadId, add(otherLoadId, 2.0));
+
+        // When & Then
+        assertThrows(IndexOutOfBoundsException.class, () -> store.remove(loadId, otherRow));
+    }
+
+    @Test
+    void testRemoveLoad_ReleasedRowsAreReusedBeforeGrowing() {
+        // Given - fill and release many short-lived loads around one long-lived load
+        UUID kept = add(loadId, 7.0);
+        for (int i = 0; i < 1_000; i++) {
+            UUID transient_ = UUID.randomUUID();
+            for (int j = 0; j < 5; j++) {
+                add(transient_, j);
+            }
+            store.removeLoad(transient_);
+            add(loadId, i);
+        }
+
+        // When
+        long footprint = store.footprintBytes();
+
+        // Then - 1001 live bids; without compaction every released slice would stay allocated
+        assertEquals(1_001, store.size());
+        assertEquals(7.0, store.proposedRate(store.find(loadId, kept)));
+        assertTrue(footprint <= 4_096L * OpenBidStore.ROW_BYTES, "footprint " + footprint);
+    }
+
+    @Test
+    void testAddAll_CopiesLoadFromAnotherStore() {
+        // Given
+        OpenBidStore source = new OpenBidStore(4);
+        UUID bidId = UUID.randomUUID();
+        source.add(loadId, bidId, UUID.randomUUID(), 900.0, 2, LocalDateTime.now());
+
+        // When
+        store.addAll(loadId, source);
+
+        // Then
+        assertEquals(900.0, store.proposedRate(store.find(loadId, bidId)));
+        assertEquals(1, store.size());
+    }
+
+    private UUID add(UUID load, double rate) {
+        UUID bidId = UUID.randomUUID();
+        store.add(load, bidId, UUID.randomUUID(), rate, 1, LocalDateTime.now());
+        return bidId;
+    }
+}
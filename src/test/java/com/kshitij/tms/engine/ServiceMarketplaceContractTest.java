@@ -0,0 +1,38 @@
+package com.kshitij.tms.engine;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BookingRequest;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.Booking;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Marketplace contract against BidService and BookingService (engine disabled)
+ */
+@SpringBootTest
+class ServiceMarketplaceContractTest extends MarketplaceContractTest {
+
+    @Override
+    protected Bid submitBid(BidRequest request) {
+        return bidService.submitBid(request);
+    }
+
+    @Override
+    protected Booking createBooking(UUID bidId, BookingRequest request) {
+        return bookingService.createBooking(bidId, request);
+    }
+
+    @Override
+    protected List<BestBidResponse> bestBids(UUID loadId) {
+        return loadService.getBestBids(loadId);
+    }
+
+    @Override
+    protected void settle() {
+        // Services write synchronously
+    }
+}
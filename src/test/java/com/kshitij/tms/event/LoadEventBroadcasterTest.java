@@ -0,0 +1,170 @@
+package com.kshitij.tms.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kshitij.tms.controller.LoadController;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.service.LoadService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Unit tests for LoadEventBroadcaster
+ * Subscribers are real SSE requests against LoadController through MockMvc
+ */
+class LoadEventBroadcasterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoadEventBroadcaster broadcaster;
+    private MockMvc mockMvc;
+    private UUID loadId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new LoadEventBroadcaster(
+                new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry, 60_000, 100);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new LoadController(mock(LoadService.class), null, null, broadcaster, null, Optional.empty()))
+                .build();
+        loadId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void testEventFannedOutToEverySubscriberOfTheLoad() throws Exception {
+        // Given
+        MockHttpServletResponse first = subscribe("/api/loads/" + loadId + "/events");
+        MockHttpServletResponse second = subscribe("/api/loads/" + loadId + "/events");
+
+        // When
+        broadcaster.onLoadEvent(LoadEvent.bidAdded("SHIP1", bid(9500)));
+
+        // Then - serialized once, delivered to both
+        awaitContains(first, "event:bid-added");
+        awaitContains(second, "event:bid-added");
+        assertTrue(first.getContentAsString().contains("\"proposedRate\":9500.0"));
+        assertEquals(1.0, publishedCount());
+    }
+
+    @Test
+    void testShipperStreamReceivesEventsOfItsLoadsOnly() throws Exception {
+        // Given
+        MockHttpServletResponse shipper = subscribe("/api/loads/events?shipperId=SHIP1");
+
+        // When
+        broadcaster.onLoadEvent(LoadEvent.bidAdded("SHIP2", bid(8000)));
+        broadcaster.onLoadEvent(LoadEvent.statusChanged(load(LoadStatus.BOOKED)));
+
+        // Then
+        awaitContains(shipper, "\"status\":\"BOOKED\"");
+        assertTrue(shipper.getContentAsString().contains("event:status-changed"));
+        assertFalse(shipper.getContentAsString().contains("bid-added"));
+    }
+
+    @Test
+    void testNoSubscribers_NothingSerialized() {
+        broadcaster.onLoadEvent(LoadEvent.bidAdded("SHIP1", bid(9500)));
+
+        assertEquals(0.0, publishedCount());
+    }
+
+    @Test
+    void testHeartbeatsReachIdleStreams() throws Exception {
+        // Given
+        MockHttpServletResponse response = subscribe("/api/loads/" + loadId + "/events");
+
+        // When
+        broadcaster.sendHeartbeats();
+
+        // Then
+        awaitContains(response, ":heartbeat");
+    }
+
+    @Test
+    void testSubscribersReleasedOnShutdown() throws Exception {
+        // Given
+        subscribe("/api/loads/" + loadId + "/events");
+        subscribe("/api/loads/events?shipperId=SHIP1");
+        assertEquals(2, broadcaster.subscriberCount());
+
+        // When
+        broadcaster.shutdown();
+
+        // Then
+        await(() -> broadcaster.subscriberCount() == 0);
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    private MockHttpServletResponse subscribe(String path) throws Exception {
+        MvcResult result = mockMvc.perform(get(path))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return result.getResponse();
+    }
+
+    private Bid bid(double rate) {
+        return Bid.builder()
+                .bidId(UUID.randomUUID())
+                .loadId(loadId)
+                .transporterId(UUID.randomUUID())
+                .proposedRate(rate)
+                .trucksOffered(2)
+                .status(BidStatus.PENDING)
+                .submittedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private Load load(LoadStatus status) {
+        return Load.builder()
+                .loadId(loadId)
+                .shipperId("SHIP1")
+                .status(status)
+                .build();
+    }
+
+    private double publishedCount() {
+        return meterRegistry.get("tms.live-updates.events").tag("outcome", "published").counter().count();
+    }
+
+    private static void awaitContains(MockHttpServletResponse response, String text) throws Exception {
+        await(() -> {
+            try {
+                return response.getContentAsString().contains(text);
+            } catch (Exception e) {
+                return false;
+            }
+        });
+        assertTrue(response.getContentAsString().contains(text), response.getContentAsString());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
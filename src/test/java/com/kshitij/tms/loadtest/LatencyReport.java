@@ -0,0 +1,128 @@
+package com.kshitij.tms.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency and error accounting for a workload run
+ *
+ * Latencies are recorded in microseconds from the request's intended start
+ * time, so queueing inside the driver or the server is not hidden
+ * (coordinated omission). The driver only reports samples whose intended
+ * start falls after the warmup period.
+ */
+public class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    public LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public void record(Operation operation, long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        histograms.get(operation).recordValue(Math.max(micros, 1));
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    public long totalCount() {
+        return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    public long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Latency percentile across all operations, in milliseconds
+     */
+    public double percentileMillis(double percentile) {
+        Histogram combined = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        histograms.values().forEach(combined::add);
+        return millis(combined.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Print the summary table and write it as CSV, alongside an HdrHistogram
+     * log with the full distribution of every operation, so runs can be
+     * diffed or plotted later.
+     *
+     * @return the path of the CSV summary
+     */
+    public Path write(WorkloadConfig config, double measuredSeconds, PrintStream out) throws IOException {
+        Files.createDirectories(config.getOutputDir());
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        String baseName = config.getLabel() + "-" + stamp;
+        Path csv = config.getOutputDir().resolve(baseName + ".csv");
+        Path hlog = config.getOutputDir().resolve(baseName + ".hlog");
+
+        StringBuilder table = new StringBuilder(
+                "operation,endpoint,count,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms\n");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            table.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n",
+                    operation,
+                    operation.getEndpoint(),
+                    histogram.getTotalCount(),
+                    errors.get(operation).sum(),
+                    histogram.getTotalCount() / measuredSeconds,
+                    millis(histogram.getValueAtPercentile(50.0)),
+                    millis(histogram.getValueAtPercentile(99.0)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        }
+        Files.writeString(csv, table);
+
+        try (PrintStream logStream = new PrintStream(Files.newOutputStream(hlog))) {
+            HistogramLogWriter writer = new HistogramLogWriter(logStream);
+            writer.outputComment("label=" + config.getLabel()
+                    + " rate=" + config.getRatePerSecond()
+                    + " duration=" + config.getDurationSeconds()
+                    + " mix=" + config.getMix());
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            for (Operation operation : Operation.values()) {
+                Histogram histogram = histograms.get(operation);
+                if (histogram.getTotalCount() > 0) {
+                    histogram.setTag(operation.name());
+                    writer.outputIntervalHistogram(histogram);
+                }
+            }
+        }
+
+        out.println();
+        out.println("Workload '" + config.getLabel() + "' - " + measuredSeconds + "s measured");
+        out.print(table);
+        out.println("Results written to " + csv.toAbsolutePath() + " and " + hlog.getFileName());
+        return csv;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
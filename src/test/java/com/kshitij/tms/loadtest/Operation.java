@@ -0,0 +1,26 @@
+package com.kshitij.tms.loadtest;
+
+/**
+ * Operations issued by the workload driver, one per REST endpoint under test
+ *
+ * Each operation is recorded in its own latency histogram so results can be
+ * compared endpoint by endpoint across runs.
+ */
+public enum Operation {
+    POST_LOAD("POST /api/loads"),
+    LIST_LOADS("GET /api/loads"),
+    GET_LOAD("GET /api/loads/{id}"),
+    BEST_BIDS("GET /api/loads/{loadId}/best-bids"),
+    SUBMIT_BID("POST /api/bids"),
+    CREATE_BOOKING("POST /api/bookings");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
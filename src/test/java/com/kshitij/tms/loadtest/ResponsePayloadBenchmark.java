@@ -0,0 +1,103 @@
+package com.kshitij.tms.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.entity.WeightUnit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Payload size and serialization cost of a GET /api/loads page
+ *
+ * Compares the previous entity response, the LoadResponse record and a
+ * sparse fieldset (?fields=loadId,status,remainingTrucks), serialized with
+ * the same Jackson settings Spring Boot uses.
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.kshitij.tms.loadtest.ResponsePayloadBenchmark -Dtms.payload.pageSize=20
+ */
+public class ResponsePayloadBenchmark {
+
+    private static final List<String> SPARSE_FIELDS = List.of("loadId", "status", "remainingTrucks");
+
+    public static void main(String[] args) throws Exception {
+        int pageSize = Integer.getInteger("tms.payload.pageSize", 20);
+        int iterations = Integer.getInteger("tms.payload.iterations", 20_000);
+
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        PageRequest pageable = PageRequest.of(0, pageSize);
+        List<Load> loads = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            loads.add(load(i));
+        }
+
+        Map<String, Supplier<Page<?>>> variants = new LinkedHashMap<>();
+        variants.put("entity", () -> new PageImpl<>(loads, pageable, 1000));
+        variants.put("response_record", () -> new PageImpl<>(loads.stream().map(LoadResponse::from).toList(), pageable, 1000));
+        variants.put("sparse_3_fields", () -> new PageImpl<>(loads.stream().map(ResponsePayloadBenchmark::sparse).toList(), pageable, 1000));
+
+        System.out.println("variant,page_size,bytes,bytes_per_item,serialize_us");
+        for (Map.Entry<String, Supplier<Page<?>>> variant : variants.entrySet()) {
+            Page<?> page = variant.getValue().get();
+            int bytes = mapper.writeValueAsBytes(page).length;
+
+            // Warm up, then time
+            for (int i = 0; i < iterations; i++) {
+                mapper.writeValueAsBytes(page);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                mapper.writeValueAsBytes(page);
+            }
+            double micros = (System.nanoTime() - start) / 1000.0 / iterations;
+
+            System.out.printf(Locale.ROOT, "%s,%d,%d,%d,%.2f%n",
+                    variant.getKey(), pageSize, bytes, bytes / pageSize, micros);
+        }
+    }
+
+    private static Map<String, Object> sparse(Load load) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("loadId", load.getLoadId());
+        row.put("status", load.getStatus());
+        row.put("remainingTrucks", load.getRemainingTrucks());
+        return row;
+    }
+
+    private static Load load(int i) {
+        return Load.builder()
+                .loadId(UUID.randomUUID())
+                .shipperId("SHIP" + i)
+                .loadingCity("Mumbai")
+                .unloadingCity("Delhi")
+                .loadingDate(LocalDateTime.now().plusDays(7))
+                .productType("General Goods")
+                .weight(1000 + i)
+                .weightUnit(WeightUnit.KG)
+                .truckTypeId((short) 1)
+                .truckType("Container")
+                .noOfTrucks(5)
+                .remainingTrucks(3)
+                .status(LoadStatus.OPEN_FOR_BIDS)
+                .datePosted(LocalDateTime.now())
+                .version(2L)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.kshitij.tms.loadtest;
+
+import com.kshitij.tms.TmsApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares application startup time with Flyway + ddl-auto=validate against
+ * the previous ddl-auto=update setup
+ *
+ * Both modes boot against the same database; Flyway runs first so the
+ * update mode sees an existing schema, which is the situation on every node
+ * restart in production. The gap grows with schema size, since update
+ * inspects every table, column and index through JDBC metadata on each boot.
+ * Point it at Postgres with -Dspring.datasource.url=...
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.kshitij.tms.loadtest.StartupBenchmark -Dtms.startup.iterations=10
+ */
+public class StartupBenchmark {
+
+    private enum Mode {
+        FLYWAY_VALIDATE(),
+        DDL_UPDATE("--spring.flyway.enabled=false", "--spring.jpa.hibernate.ddl-auto=update");
+
+        private final String[] args;
+
+        Mode(String... args) {
+            this.args = args;
+        }
+    }
+
+    private static final String[] COMMON_ARGS = {
+            "--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN"
+    };
+
+    public static void main(String[] args) throws IOException {
+        int iterations = Integer.getInteger("tms.startup.iterations", 5);
+        Path outputDir = Path.of(System.getProperty("tms.loadtest.outputDir", "target/loadtest"));
+
+        // Untimed boot per mode: class loading and JIT, plus schema creation for Flyway
+        for (Mode mode : Mode.values()) {
+            boot(mode);
+        }
+
+        // Interleave the modes so JIT warmup and OS caching don't favour whichever runs last
+        Map<Mode, List<Long>> samples = new EnumMap<>(Mode.class);
+        for (int i = 0; i < iterations; i++) {
+            for (Mode mode : Mode.values()) {
+                samples.computeIfAbsent(mode, m -> new ArrayList<>()).add(boot(mode));
+            }
+        }
+
+        StringBuilder table = new StringBuilder("mode,iterations,min_ms,median_ms,max_ms\n");
+        samples.forEach((mode, times) -> {
+            times.sort(Long::compare);
+            table.append(String.format(Locale.ROOT, "%s,%d,%d,%d,%d%n", mode, iterations,
+                    times.get(0), times.get(times.size() / 2), times.get(times.size() - 1)));
+        });
+
+        Files.createDirectories(outputDir);
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path csv = outputDir.resolve("startup-" + stamp + ".csv");
+        Files.writeString(csv, table);
+
+        System.out.println();
+        System.out.print(table);
+        System.out.println("Results written to " + csv.toAbsolutePath());
+    }
+
+    private static long boot(Mode mode) {
+        String[] bootArgs = Arrays.copyOf(COMMON_ARGS, COMMON_ARGS.length + mode.args.length);
+        System.arraycopy(mode.args, 0, bootArgs, COMMON_ARGS.length, mode.args.length);
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext ignored = SpringApplication.run(TmsApplication.class, bootArgs)) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.kshitij.tms.loadtest;
+
+import com.kshitij.tms.TmsApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares throughput, latency and memory of platform-thread and
+ * virtual-thread request handling under the same workload
+ *
+ * Each mode boots the application in-process and runs the WorkloadDriver
+ * against it, while heap use and platform thread count are sampled every
+ * 100 ms. The driver shares the JVM in both modes, so its own footprint
+ * cancels out in the comparison. Offer more load than the platform pool can
+ * absorb (its 200 Tomcat threads blocked on JDBC) to see the difference:
+ *
+ *   mvn -Pjava21 test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.kshitij.tms.loadtest.ThreadingBenchmark -Dtms.loadtest.rate=1500
+ *
+ * The virtual mode is skipped on JVMs older than 21.
+ */
+public class ThreadingBenchmark {
+
+    private enum Mode {
+        PLATFORM(),
+        VIRTUAL("--spring.threads.virtual.enabled=true", "--tms.datasource.admission.enabled=true");
+
+        private final String[] args;
+
+        Mode(String... args) {
+            this.args = args;
+        }
+    }
+
+    private static final String[] COMMON_ARGS = {
+            "--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN"
+    };
+
+    public static void main(String[] args) throws Exception {
+        WorkloadConfig config = WorkloadConfig.fromSystemProperties();
+        boolean virtualThreadsSupported = Runtime.version().feature() >= 21;
+
+        StringBuilder table = new StringBuilder(
+                "mode,requests,errors,throughput_rps,p50_ms,p99_ms,peak_heap_mb,heap_after_gc_mb,peak_platform_threads\n");
+        for (Mode mode : Mode.values()) {
+            if (mode == Mode.VIRTUAL && !virtualThreadsSupported) {
+                System.out.println("Skipping VIRTUAL mode: Java " + Runtime.version().feature() + " has no virtual threads");
+                continue;
+            }
+            table.append(run(mode, config.toBuilder().label("threads-" + mode.name().toLowerCase()).build()));
+        }
+
+        Files.createDirectories(config.getOutputDir());
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path csv = config.getOutputDir().resolve("threading-" + stamp + ".csv");
+        Files.writeString(csv, table);
+
+        System.out.println();
+        System.out.print(table);
+        System.out.println("Results written to " + csv.toAbsolutePath());
+    }
+
+    private static String run(Mode mode, WorkloadConfig config) throws Exception {
+        String[] bootArgs = Arrays.copyOf(COMMON_ARGS, COMMON_ARGS.length + mode.args.length);
+        System.arraycopy(mode.args, 0, bootArgs, COMMON_ARGS.length, mode.args.length);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicLong peakThreads = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(TmsApplication.class, bootArgs)) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.gc();
+            sampler.scheduleAtFixedRate(() -> {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            }, 0, 100, TimeUnit.MILLISECONDS);
+
+            LatencyReport report = new WorkloadDriver(config, baseUrl).run();
+
+            sampler.shutdown();
+            System.gc();
+            long heapAfterGc = memory.getHeapMemoryUsage().getUsed();
+            return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%d,%d,%d%n",
+                    mode,
+                    report.totalCount(),
+                    report.totalErrors(),
+                    report.totalCount() / (double) config.getDurationSeconds(),
+                    report.percentileMillis(50.0),
+                    report.percentileMillis(99.0),
+                    peakHeap.get() / (1024 * 1024),
+                    heapAfterGc / (1024 * 1024),
+                    peakThreads.get());
+        } finally {
+            sampler.shutdownNow();
+        }
+    }
+}
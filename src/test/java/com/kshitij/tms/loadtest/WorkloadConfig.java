@@ -0,0 +1,88 @@
+package com.kshitij.tms.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Workload driver settings, read from -Dtms.loadtest.* system properties
+ *
+ * Example:
+ * -Dtms.loadtest.rate=500 -Dtms.loadtest.duration=120
+ * -Dtms.loadtest.mix=SUBMIT_BID:50,BEST_BIDS:30,CREATE_BOOKING:20
+ *
+ * When baseUrl is blank the driver boots the application in-process on a
+ * random port, using whatever spring.datasource.* settings are in effect
+ * (in-memory H2 from the test classpath by default, or a local Postgres).
+ */
+@Getter
+@Builder(toBuilder = true)
+public class WorkloadConfig {
+
+    private static final String PREFIX = "tms.loadtest.";
+    private static final String DEFAULT_MIX =
+            "POST_LOAD:10,LIST_LOADS:10,GET_LOAD:20,BEST_BIDS:20,SUBMIT_BID:35,CREATE_BOOKING:5";
+
+    private final String baseUrl;
+    private final double ratePerSecond;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final boolean poissonArrivals;
+    private final Map<Operation, Integer> mix;
+    private final int transporters;
+    private final int seedLoads;
+    private final long randomSeed;
+    private final String label;
+    private final Path outputDir;
+
+    public static WorkloadConfig fromSystemProperties() {
+        return WorkloadConfig.builder()
+                .baseUrl(property("baseUrl", ""))
+                .ratePerSecond(Double.parseDouble(property("rate", "200")))
+                .durationSeconds(Integer.parseInt(property("duration", "60")))
+                .warmupSeconds(Integer.parseInt(property("warmup", "10")))
+                .poissonArrivals(!"uniform".equalsIgnoreCase(property("arrivals", "poisson")))
+                .mix(parseMix(property("mix", DEFAULT_MIX)))
+                .transporters(Integer.parseInt(property("transporters", "50")))
+                .seedLoads(Integer.parseInt(property("seedLoads", "100")))
+                .randomSeed(Long.parseLong(property("seed", "42")))
+                .label(property("label", "run"))
+                .outputDir(Path.of(property("outputDir", "target/loadtest")))
+                .build();
+    }
+
+    /**
+     * Parses "OPERATION:weight,..." into a weight per operation.
+     * Operations left out of the mix are never issued.
+     */
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected OPERATION:weight");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weight cannot be negative: " + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix must contain at least one operation with positive weight");
+        }
+        return weights;
+    }
+
+    public boolean isEmbedded() {
+        return baseUrl == null || baseUrl.isBlank();
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+}
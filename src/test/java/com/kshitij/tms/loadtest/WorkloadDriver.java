@@ -0,0 +1,302 @@
+package com.kshitij.tms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kshitij.tms.TmsApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model workload driver for the REST API
+ *
+ * Simulates shippers posting loads, transporters bidding and shippers booking.
+ * Requests are issued at a fixed arrival rate (Poisson or uniform) regardless
+ * of how fast the server answers, so saturation shows up as latency instead of
+ * silently lowering the offered load. Each request runs on its own virtual
+ * thread when the JVM supports them.
+ *
+ * Run against an in-process instance on H2:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.kshitij.tms.loadtest.WorkloadDriver -Dtms.loadtest.label=baseline
+ *
+ * Add -Dspring.datasource.url=jdbc:postgresql://localhost:5432/tmsdb (plus username/password)
+ * to boot against Postgres, or -Dtms.loadtest.baseUrl=http://host:8080 to target a running server.
+ */
+public class WorkloadDriver {
+
+    private static final String[] TRUCK_TYPES = {"Container", "Flatbed", "Open Body"};
+    private static final String[] CITIES = {"Mumbai", "Delhi", "Pune", "Chennai", "Kolkata", "Jaipur"};
+    private static final int POOL_SIZE = 4096;
+
+    private final WorkloadConfig config;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final LatencyReport report = new LatencyReport();
+
+    private final List<UUID> transporterIds = new ArrayList<>();
+    private final IdPool openLoads = new IdPool(POOL_SIZE);
+    private final IdPool pendingBids = new IdPool(POOL_SIZE);
+    private final AtomicLong shipperSequence = new AtomicLong();
+
+    public WorkloadDriver(WorkloadConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.executor = newRequestExecutor();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        WorkloadConfig config = WorkloadConfig.fromSystemProperties();
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = config.getBaseUrl();
+        if (config.isEmbedded()) {
+            context = SpringApplication.run(TmsApplication.class,
+                    "--server.port=0", "--spring.jpa.show-sql=false");
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+        }
+
+        try {
+            new WorkloadDriver(config, baseUrl).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    public LatencyReport run() throws Exception {
+        seed();
+
+        Operation[] schedule = weightedOperations();
+        SplittableRandom arrivals = new SplittableRandom(config.getRandomSeed());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / config.getRatePerSecond();
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+
+        double offset = 0;
+        while (true) {
+            long intendedStart = start + (long) offset;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = schedule[arrivals.nextInt(schedule.length)];
+            boolean measured = intendedStart >= measureFrom;
+            executor.execute(() -> execute(operation, intendedStart, measured));
+
+            offset += config.isPoissonArrivals()
+                    ? -Math.log(1.0 - arrivals.nextDouble()) * meanGapNanos
+                    : meanGapNanos;
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+
+        report.write(config, config.getDurationSeconds(), System.out);
+        return report;
+    }
+
+    /**
+     * Register transporters and post an initial set of loads (with one bid each)
+     * so reads and bookings have something to work on from the first second.
+     * Seeding requests are not measured.
+     */
+    private void seed() throws IOException, InterruptedException {
+        for (int i = 0; i < config.getTransporters(); i++) {
+            Map<String, Object> body = Map.of(
+                    "companyName", "Loadtest Carrier " + UUID.randomUUID(),
+                    "rating", 1.0 + (i % 5),
+                    "availableTrucks", List.of(
+                            Map.of("truckType", TRUCK_TYPES[0], "count", 1000),
+                            Map.of("truckType", TRUCK_TYPES[1], "count", 1000),
+                            Map.of("truckType", TRUCK_TYPES[2], "count", 1000)));
+            JsonNode transporter = send("POST", "/api/transporters", body).json;
+            transporterIds.add(UUID.fromString(transporter.path("transporterId").asText()));
+        }
+        for (int i = 0; i < config.getSeedLoads(); i++) {
+            postLoad();
+            submitBid();
+        }
+    }
+
+    private void execute(Operation operation, long intendedStart, boolean measured) {
+        boolean success;
+        try {
+            success = switch (operation) {
+                case POST_LOAD -> postLoad();
+                case LIST_LOADS -> send("GET", "/api/loads?status=OPEN_FOR_BIDS&page=0&size=20", null).ok;
+                case GET_LOAD -> get("/api/loads/", openLoads.pick(), "");
+                case BEST_BIDS -> get("/api/loads/", openLoads.pick(), "/best-bids");
+                case SUBMIT_BID -> submitBid();
+                case CREATE_BOOKING -> createBooking();
+            };
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (measured) {
+            report.record(operation, System.nanoTime() - intendedStart, success);
+        }
+    }
+
+    private boolean postLoad() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> body = Map.of(
+                "shipperId", "SHIP" + (shipperSequence.incrementAndGet() % 200),
+                "loadingCity", CITIES[random.nextInt(CITIES.length)],
+                "unloadingCity", CITIES[random.nextInt(CITIES.length)],
+                "loadingDate", LocalDateTime.now().plusDays(7).toString(),
+                "productType", "General Goods",
+                "weight", 500 + random.nextInt(20_000),
+                "weightUnit", "KG",
+                "truckType", TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)],
+                "noOfTrucks", 1 + random.nextInt(10));
+        Response response = send("POST", "/api/loads", body);
+        if (response.ok) {
+            openLoads.add(UUID.fromString(response.json.path("loadId").asText()));
+        }
+        return response.ok;
+    }
+
+    private boolean submitBid() throws IOException, InterruptedException {
+        UUID loadId = openLoads.pick();
+        if (loadId == null) {
+            return postLoad();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> body = Map.of(
+                "loadId", loadId,
+                "transporterId", transporterIds.get(random.nextInt(transporterIds.size())),
+                "proposedRate", 5_000 + random.nextInt(50_000),
+                "trucksOffered", 1 + random.nextInt(3));
+        Response response = send("POST", "/api/bids", body);
+        if (response.ok) {
+            pendingBids.add(UUID.fromString(response.json.path("bidId").asText()));
+        }
+        return response.ok;
+    }
+
+    private boolean createBooking() throws IOException, InterruptedException {
+        UUID bidId = pendingBids.pick();
+        if (bidId == null) {
+            return submitBid();
+        }
+        Map<String, Object> body = Map.of("allocatedTrucks", 1, "finalRate", 10_000);
+        return send("POST", "/api/bookings?bidId=" + bidId, body).ok;
+    }
+
+    private boolean get(String prefix, UUID id, String suffix) throws IOException, InterruptedException {
+        if (id == null) {
+            return postLoad();
+        }
+        return send("GET", prefix + id + suffix, null).ok;
+    }
+
+    private Response send(String method, String path, Object body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        boolean ok = response.statusCode() / 100 == 2;
+        JsonNode json = ok && response.body().length > 0 ? objectMapper.readTree(response.body()) : null;
+        return new Response(ok, json);
+    }
+
+    private Operation[] weightedOperations() {
+        List<Operation> slots = new ArrayList<>();
+        config.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        return slots.toArray(Operation[]::new);
+    }
+
+    /**
+     * Virtual-thread-per-request executor when running on Java 21+, falling back
+     * to a cached platform thread pool on older JVMs (the project targets 17).
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private record Response(boolean ok, JsonNode json) {
+    }
+
+    /**
+     * Fixed-size ring of recently created ids; new ids overwrite the oldest.
+     * Keeps the working set bounded so long runs don't grow without limit.
+     */
+    private static final class IdPool {
+
+        private final AtomicReferenceArray<UUID> slots;
+        private final AtomicLong writes = new AtomicLong();
+
+        IdPool(int size) {
+            this.slots = new AtomicReferenceArray<>(size);
+        }
+
+        void add(UUID id) {
+            slots.set((int) (writes.getAndIncrement() % slots.length()), id);
+        }
+
+        UUID pick() {
+            long filled = Math.min(writes.get(), slots.length());
+            if (filled == 0) {
+                return null;
+            }
+            return slots.get(ThreadLocalRandom.current().nextInt((int) filled));
+        }
+    }
+}
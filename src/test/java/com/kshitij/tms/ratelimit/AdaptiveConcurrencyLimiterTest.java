@@ -0,0 +1,125 @@
+package com.kshitij.tms.ratelimit;
+
+import com.kshitij.tms.ratelimit.AdaptiveConcurrencyLimiter.Permit;
+import com.kshitij.tms.ratelimit.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter
+ * Latencies are passed in explicitly, so no request actually waits
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter("writes",
+                new ConcurrencyLimitProperties.Limit(10, 2, 20, 100, 0.5), meterRegistry);
+    }
+
+    @Test
+    void testRejectsBeyondLimit() {
+        // Given
+        List<Permit> permits = acquire(10, Priority.CRITICAL);
+
+        // When
+        Permit rejected = limiter.tryAcquire("bookings", Priority.CRITICAL);
+
+        // Then
+        assertEquals(10, permits.size());
+        assertNull(rejected);
+        assertEquals(1.0, meterRegistry.get("tms.concurrency.requests")
+                .tag("group", "bookings").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void testLowPriorityShedFirst() {
+        // Given - half the limit in use
+        acquire(5, Priority.NORMAL);
+
+        // When
+        Permit listRead = limiter.tryAcquire("loads", Priority.LOW);
+        Permit booking = limiter.tryAcquire("bookings", Priority.CRITICAL);
+
+        // Then
+        assertNull(listRead);
+        assertNotNull(booking);
+    }
+
+    @Test
+    void testSlowResponsesShrinkLimit() {
+        // Given
+        Permit permit = limiter.tryAcquire("bids", Priority.NORMAL);
+
+        // When
+        permit.release(SLOW, false);
+
+        // Then
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void testLimitNeverBelowMinimum() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("bids", Priority.NORMAL).release(FAST, true);
+        }
+
+        // Then
+        assertEquals(2, limiter.getLimit());
+        assertEquals(2.0, meterRegistry.get("tms.concurrency.limit").tag("limiter", "writes").gauge().value());
+    }
+
+    @Test
+    void testGrowsOnlyWhenLimitIsUsed() {
+        // Given - a lone request barely uses the limit
+        limiter.tryAcquire("bids", Priority.NORMAL).release(FAST, false);
+        assertEquals(10, limiter.getLimit());
+
+        // When - a burst fills it
+        List<Permit> permits = acquire(9, Priority.NORMAL);
+        permits.forEach(permit -> permit.release(FAST, false));
+
+        // Then - the requests that started with at least half the limit in use raise it
+        assertEquals(15, limiter.getLimit());
+    }
+
+    @Test
+    void testReleaseWithoutSampleKeepsLimit() {
+        // Given
+        Permit permit = limiter.tryAcquire("loads", Priority.NORMAL);
+
+        // When
+        permit.releaseWithoutSample();
+
+        // Then
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    private List<Permit> acquire(int count, Priority priority) {
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Permit permit = limiter.tryAcquire("bids", priority);
+            if (permit != null) {
+                permits.add(permit);
+            }
+        }
+        return permits;
+    }
+}
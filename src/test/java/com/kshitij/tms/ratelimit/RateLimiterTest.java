@@ -0,0 +1,167 @@
+package com.kshitij.tms.ratelimit;
+
+import com.kshitij.tms.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimiter
+ * Time is driven by a manual clock so refill behaviour is deterministic
+ */
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Policy bids = new RateLimitProperties.Policy();
+        bids.setRequestsPerSecond(2);
+        bids.setBurst(3);
+        bids.getOverrides().put("BIG-CARRIER", new RateLimitProperties.Limit(100, 100));
+
+        properties = new RateLimitProperties();
+        properties.getPolicies().put(RateLimiter.BIDS, bids);
+
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new RateLimiter(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    void testBurstAllowedThenRejected() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire(RateLimiter.BIDS, "T1");
+        }
+
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> rateLimiter.acquire(RateLimiter.BIDS, "T1"));
+        assertEquals(1, ex.getRetryAfterSeconds());
+        assertEquals(1.0, rejectedCount());
+    }
+
+    @Test
+    void testRefillsAtConfiguredRate() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire(RateLimiter.BIDS, "T1");
+        }
+
+        // 2 per second: one permit every 500 ms
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        rateLimiter.acquire(RateLimiter.BIDS, "T1");
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquire(RateLimiter.BIDS, "T1"));
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire(RateLimiter.BIDS, "T1");
+        }
+
+        assertDoesNotThrow(() -> rateLimiter.acquire(RateLimiter.BIDS, "T2"));
+    }
+
+    @Test
+    void testPerKeyOverride() {
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.acquire(RateLimiter.BIDS, "BIG-CARRIER");
+        }
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquire(RateLimiter.BIDS, "BIG-CARRIER"));
+    }
+
+    @Test
+    void testUnconfiguredPolicyOrDisabled_NotLimited() {
+        for (int i = 0; i < 1000; i++) {
+            rateLimiter.acquire(RateLimiter.LOADS, "SHIP1");
+        }
+
+        properties.setEnabled(false);
+        for (int i = 0; i < 1000; i++) {
+            rateLimiter.acquire(RateLimiter.BIDS, "T1");
+        }
+    }
+
+    @Test
+    void testIdleBucketsEvicted() {
+        rateLimiter.acquire(RateLimiter.BIDS, "T1");
+        rateLimiter.acquire(RateLimiter.BIDS, "T2");
+        assertEquals(2, rateLimiter.trackedKeys(RateLimiter.BIDS));
+
+        // Still refilling: kept
+        rateLimiter.evictIdle();
+        assertEquals(2, rateLimiter.trackedKeys(RateLimiter.BIDS));
+
+        // Full again: evicting is indistinguishable from keeping
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        rateLimiter.evictIdle();
+        assertEquals(0, rateLimiter.trackedKeys(RateLimiter.BIDS));
+    }
+
+    @Test
+    void testMapBounded_NewKeysShareOverflowBucket() {
+        properties.setMaxKeys(2);
+        rateLimiter.acquire(RateLimiter.BIDS, "T1");
+        rateLimiter.acquire(RateLimiter.BIDS, "T2");
+
+        // T3..T5 land in the shared overflow bucket (burst 3)
+        rateLimiter.acquire(RateLimiter.BIDS, "T3");
+        rateLimiter.acquire(RateLimiter.BIDS, "T4");
+        rateLimiter.acquire(RateLimiter.BIDS, "T5");
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquire(RateLimiter.BIDS, "T6"));
+        assertEquals(3, rateLimiter.trackedKeys(RateLimiter.BIDS));
+    }
+
+    @Test
+    void testConcurrentAcquire_ExactlyBurstGranted() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads * 10; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        rateLimiter.acquire(RateLimiter.BIDS, "T1");
+                        return true;
+                    } catch (RateLimitExceededException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int granted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(5, TimeUnit.SECONDS)) {
+                    granted++;
+                }
+            }
+            assertEquals(3, granted);
+            assertEquals(threads * 10 - 3, rejectedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double rejectedCount() {
+        return meterRegistry.get("tms.ratelimit.requests")
+                .tag("policy", RateLimiter.BIDS)
+                .tag("outcome", "rejected")
+                .counter()
+                .count();
+    }
+}
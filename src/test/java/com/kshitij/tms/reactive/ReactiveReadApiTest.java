@@ -0,0 +1,225 @@
+package com.kshitij.tms.reactive;
+
+import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.entity.LoadStatus;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the reactive read API over H2's R2DBC driver
+ * The schema is created by Flyway over JDBC; both drivers open the same
+ * in-memory database, and the API reads through a pool of four connections
+ */
+class ReactiveReadApiTest {
+
+    private static final String DATABASE = "reactiveapi;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private JdbcTemplate jdbc;
+    private ConnectionPool pool;
+    private ReactiveLoadRepository loadRepository;
+    private WebTestClient client;
+    private UUID loadId;
+    private UUID cheapBidId;
+    private UUID topRatedBidId;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + DATABASE);
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/common", "classpath:db/migration/h2").load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+
+        LocalDateTime now = LocalDateTime.now();
+        loadId = insertLoad("SHIP1", LoadStatus.OPEN_FOR_BIDS, now.minusHours(3));
+        insertLoad("SHIP1", LoadStatus.POSTED, now.minusHours(2));
+        insertLoad("SHIP1", LoadStatus.CANCELLED, now.minusHours(1));
+        insertLoad("SHIP2", LoadStatus.POSTED, now);
+
+        UUID lowRated = insertTransporter(2.0);
+        UUID highRated = insertTransporter(5.0);
+        cheapBidId = insertBid(loadId, lowRated, 1.0, "PENDING");
+        topRatedBidId = insertBid(loadId, highRated, 50_000, "PENDING");
+        insertBid(loadId, highRated, 40_000, "REJECTED");
+
+        pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(ConnectionFactoryOptions.parse("r2dbc:h2:mem:///" + DATABASE)
+                        .mutate()
+                        .option(ConnectionFactoryOptions.USER, "sa")
+                        .option(ConnectionFactoryOptions.PASSWORD, "")
+                        .build()))
+                .maxSize(4)
+                .build());
+        DatabaseClient databaseClient = DatabaseClient.create(pool);
+        loadRepository = new ReactiveLoadRepository(databaseClient);
+        ReactiveBidRepository bidRepository = new ReactiveBidRepository(databaseClient);
+        client = WebTestClient
+                .bindToController(new ReactiveLoadController(loadRepository, bidRepository),
+                        new ReactiveBidController(bidRepository))
+                .controllerAdvice(new ReactiveExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.dispose();
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testFilterLoads_NewestFirst() {
+        // When
+        List<LoadResponse> loads = client.get().uri("/api/loads?shipperId=SHIP1&size=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(LoadResponse.class)
+                .returnResult().getResponseBody();
+
+        // Then
+        assertNotNull(loads);
+        assertEquals(List.of(LoadStatus.CANCELLED, LoadStatus.POSTED, LoadStatus.OPEN_FOR_BIDS),
+                loads.stream().map(LoadResponse::status).toList());
+    }
+
+    @Test
+    void testFilterLoads_ByStatusAndPage() {
+        // When
+        List<LoadResponse> loads = client.get().uri("/api/loads?status=POSTED&page=1&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(LoadResponse.class)
+                .returnResult().getResponseBody();
+
+        // Then - second newest POSTED load
+        assertNotNull(loads);
+        assertEquals(1, loads.size());
+        assertEquals("SHIP1", loads.get(0).shipperId());
+    }
+
+    @Test
+    void testFilterLoads_StreamsNdjson() {
+        // When
+        Flux<LoadResponse> stream = client.get().uri("/api/loads?size=100")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(LoadResponse.class)
+                .getResponseBody();
+
+        // Then
+        StepVerifier.create(stream)
+                .expectNextMatches(load -> load.shipperId().equals("SHIP2"))
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    void testFilterBids_ByLoadAndStatus() {
+        // When
+        List<BidResponse> bids = client.get().uri("/api/bids?loadId=" + loadId + "&status=PENDING")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BidResponse.class)
+                .returnResult().getResponseBody();
+
+        // Then
+        assertNotNull(bids);
+        assertEquals(Set.of(cheapBidId, topRatedBidId),
+                Set.copyOf(bids.stream().map(BidResponse::bidId).toList()));
+    }
+
+    @Test
+    void testBestBids_RankedByScore() {
+        // When
+        List<BestBidResponse> bestBids = client.get().uri("/api/loads/" + loadId + "/best-bids")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BestBidResponse.class)
+                .returnResult().getResponseBody();
+
+        // Then - same scoring as LoadService; the rejected bid is left out
+        assertNotNull(bestBids);
+        assertEquals(List.of(cheapBidId, topRatedBidId), bestBids.stream().map(BestBidResponse::getBidId).toList());
+        assertEquals(BestBidResponse.score(1.0, 2.0), bestBids.get(0).getScore(), 1e-9);
+    }
+
+    @Test
+    void testBestBids_UnknownLoad_NotFound() {
+        client.get().uri("/api/loads/" + UUID.randomUUID() + "/best-bids")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404);
+    }
+
+    @Test
+    void testManyConcurrentReaders_FewThreads() {
+        // Given
+        int readers = 10_000;
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        // When - every reader subscribes at once; four connections serve them all
+        Flux<Long> counts = Flux.range(0, readers)
+                .flatMap(i -> loadRepository.findLoads("SHIP1", null, 0, 10)
+                        .doOnNext(load -> threads.add(Thread.currentThread().getName()))
+                        .count(), readers);
+
+        // Then
+        StepVerifier.create(counts)
+                .expectNextCount(readers)
+                .expectComplete()
+                .verify(Duration.ofSeconds(60));
+        assertTrue(threads.size() <= 4, "threads used: " + threads);
+    }
+
+    private UUID insertLoad(String shipperId, LoadStatus status, LocalDateTime datePosted) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO load (load_id, shipper_id, loading_city, unloading_city, loading_date, product_type, "
+                        + "weight, weight_unit, truck_type_id, no_of_trucks, remaining_trucks, status, date_posted, version) "
+                        + "VALUES (?, ?, 'Mumbai', 'Pune', ?, 'Steel', 10, 'TON', "
+                        + "(SELECT truck_type_id FROM truck_type WHERE normalized_name = 'container'), 5, 5, "
+                        + "?, ?, 0)",
+                id, shipperId, datePosted.plusDays(7), status.name(), datePosted);
+        return id;
+    }
+
+    private UUID insertTransporter(double rating) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO transporter (transporter_id, company_name, rating, version) VALUES (?, ?, ?, 0)",
+                id, "Carrier " + id, rating);
+        return id;
+    }
+
+    private UUID insertBid(UUID load, UUID transporterId, double proposedRate, String status) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO bid (bid_id, load_id, transporter_id, proposed_rate, trucks_offered, status, "
+                        + "submitted_at) VALUES (?, ?, ?, ?, 1, ?, ?)",
+                id, load, transporterId, proposedRate, status, LocalDateTime.now());
+        return id;
+    }
+}
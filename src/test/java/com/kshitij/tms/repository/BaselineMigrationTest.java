@@ -0,0 +1,61 @@
+package com.kshitij.tms.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Databases baselined at V1 already have the foreign keys the hand-applied
+ * database_constraints.sql created; the migrations after V1 must skip them
+ * rather than fail on "constraint already exists"
+ */
+class BaselineMigrationTest {
+
+    private EmbeddedPostgres postgres;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void testMigration_BaselinedDatabaseWithHandAppliedConstraints() throws IOException {
+        // Given - the V1 schema plus the constraints of database_constraints.sql, without Flyway history
+        postgres = EmbeddedPostgres.start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/common")
+                .target("1").load().migrate();
+        jdbc.execute("DROP TABLE flyway_schema_history");
+        jdbc.execute("ALTER TABLE bid ADD CONSTRAINT fk_bid_load FOREIGN KEY (load_id) "
+                + "REFERENCES load (load_id) ON DELETE CASCADE");
+        jdbc.execute("ALTER TABLE bid ADD CONSTRAINT fk_bid_transporter FOREIGN KEY (transporter_id) "
+                + "REFERENCES transporter (transporter_id) ON DELETE CASCADE");
+        jdbc.execute("ALTER TABLE booking ADD CONSTRAINT fk_booking_load FOREIGN KEY (load_id) "
+                + "REFERENCES load (load_id) ON DELETE CASCADE");
+        jdbc.execute("ALTER TABLE booking ADD CONSTRAINT fk_booking_bid FOREIGN KEY (bid_id) "
+                + "REFERENCES bid (bid_id) ON DELETE CASCADE");
+        jdbc.execute("ALTER TABLE booking ADD CONSTRAINT fk_booking_transporter FOREIGN KEY (transporter_id) "
+                + "REFERENCES transporter (transporter_id) ON DELETE CASCADE");
+
+        // When
+        Flyway.configure().dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .baselineOnMigrate(true).baselineVersion("1")
+                .load().migrate();
+
+        // Then
+        assertEquals(5, jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.table_constraints "
+                + "WHERE constraint_type = 'FOREIGN KEY' AND table_name IN ('bid', 'booking') "
+                + "AND constraint_name IN ('fk_bid_load', 'fk_bid_transporter', 'fk_booking_load', "
+                + "'fk_booking_bid', 'fk_booking_transporter')", Integer.class));
+        assertTrue(jdbc.queryForObject("SELECT COUNT(*) FROM flyway_schema_history WHERE success", Integer.class) > 1);
+    }
+}
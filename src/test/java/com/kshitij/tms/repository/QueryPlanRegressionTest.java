@@ -0,0 +1,606 @@
+package com.kshitij.tms.repository;
+
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.dto.LoadResponse;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.BookingStatus;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query plan regression suite for the repository layer
+ *
+ * Runs every repository query and bulk update against an embedded PostgreSQL seeded with a
+ * production-shaped dataset, captures the SQL Hibernate actually issues with
+ * its bound parameters, and EXPLAINs it. A test fails if any filtered query
+ * plans a sequential scan, which means an index was dropped or no longer
+ * matches the query. Queries without a WHERE clause (findAll, page counts)
+ * read the whole table by definition and are exempt, as are scans of the
+ * truck-type catalog and its compatibility graph, which fit in a single page.
+ *
+ * Plans are written to target/query-plans for inspection.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({QueryPlanRegressionTest.StatementCaptureConfig.class, SparseFieldsetRepository.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanRegressionTest {
+
+    private static final Path PLAN_DIR = Path.of("target", "query-plans");
+    private static final Set<String> SINGLE_PAGE_TABLES = Set.of("truck_type", "truck_type_compatibility");
+    private static final ObjectMapper PLAN_READER = new ObjectMapper();
+    private static final Pageable NEWEST_FIRST = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "datePosted"));
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    @Autowired
+    private BidRepository bidRepository;
+
+    @Autowired
+    private BidRevisionRepository bidRevisionRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransporterRepository transporterRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private SparseFieldsetRepository sparseFieldsetRepository;
+
+    @Autowired
+    private ChangeRecordRepository changeRecordRepository;
+
+    @Autowired
+    private TruckTypeRepository truckTypeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementCapture capture;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) throws IOException {
+        if (postgres == null) {
+            postgres = EmbeddedPostgres.start();
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+    }
+
+    /**
+     * Seed a dataset large enough that the planner prefers indexes wherever
+     * they apply. Status mix follows production: most loads and bids are
+     * closed, a small fraction is open for bidding.
+     */
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute("""
+                INSERT INTO transporter (transporter_id, company_name, rating, version)
+                SELECT md5('t' || g)::uuid, 'Carrier ' || g, 1 + (g % 5), 0
+                FROM generate_series(1, 2000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO transporter_trucks (transporter_id, truck_type_id, count)
+                SELECT md5('t' || g)::uuid, t.truck_type_id, 50
+                FROM generate_series(1, 2000) g CROSS JOIN truck_type t
+                WHERE t.normalized_name IN ('container', 'flatbed')
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO load (load_id, shipper_id, loading_city, unloading_city, loading_date, product_type,
+                                  weight, weight_unit, truck_type_id, no_of_trucks, remaining_trucks, status,
+                                  date_posted, version)
+                SELECT md5('l' || g)::uuid, 'SHIP' || (g % 500), 'Mumbai', 'Delhi', now() + interval '7 days',
+                       'Steel', 1000, 'KG', (SELECT truck_type_id FROM truck_type WHERE normalized_name = 'container'), 5, 5,
+                       CASE WHEN g % 50 = 0 THEN 'POSTED'
+                            WHEN g % 50 = 1 THEN 'OPEN_FOR_BIDS'
+                            WHEN g % 50 < 10 THEN 'CANCELLED'
+                            ELSE 'BOOKED' END,
+                       now() - g * interval '1 minute', 0
+                FROM generate_series(1, 50000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO bid (bid_id, load_id, transporter_id, proposed_rate, trucks_offered, status, submitted_at)
+                SELECT md5('b' || g)::uuid, md5('l' || (g % 50000 + 1))::uuid, md5('t' || (g % 2000 + 1))::uuid,
+                       1000 + g % 9000, 1 + g % 3,
+                       CASE WHEN g <= 50000 AND g % 50 = 0 THEN 'ACCEPTED'
+                            WHEN g <= 50000 AND g % 50 = 1 THEN 'PENDING'
+                            ELSE 'REJECTED' END,
+                       now() - g * interval '1 second'
+                FROM generate_series(1, 200000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO booking (booking_id, load_id, bid_id, transporter_id, allocated_trucks, final_rate,
+                                     status, booked_at, truck_type_id, reserved_from, reserved_until, version)
+                SELECT md5('k' || g)::uuid, md5('l' || (g % 50000 + 1))::uuid, md5('b' || g)::uuid,
+                       md5('t' || (g % 2000 + 1))::uuid, 1, 5000, 'CONFIRMED', now(),
+                       (SELECT truck_type_id FROM truck_type WHERE normalized_name = 'container'),
+                       now() - g * interval '1 hour', now() - g * interval '1 hour' + interval '84 hours', 0
+                FROM generate_series(1, 50000) g
+                WHERE g % 50 = 0
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO bid_revision (bid_id, proposed_rate, trucks_offered, submitted_at, revised_at)
+                SELECT md5('b' || (g % 200000 + 1))::uuid, 1000 + g % 9000, 1 + g % 3,
+                       now() - g * interval '1 second', now()
+                FROM generate_series(1, 100000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO idempotency_key (record_key, request_hash, response_body, created_at, expires_at)
+                SELECT 'bid:key-' || g, md5('h' || g), '{}', now(), now() + g * interval '1 second'
+                FROM generate_series(1, 50000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO change_record (entity_type, entity_id, change_type, payload, occurred_at)
+                SELECT 'LOAD', md5('l' || (g % 50000 + 1))::uuid, 'status-changed', '{}',
+                       now() - (100000 - g) * interval '6 seconds'
+                FROM generate_series(1, 100000) g
+                """);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    }
+
+    @BeforeEach
+    void resetCapture() {
+        capture.clear();
+    }
+
+    // ---------- LoadRepository ----------
+
+    @Test
+    void loadFindById() {
+        loadRepository.findById(id("l", 42));
+        assertNoSequentialScan("load_findById");
+    }
+
+    @Test
+    void loadFindByShipperId() {
+        loadRepository.findByShipperId("SHIP7", NEWEST_FIRST, LoadResponse.class);
+        assertNoSequentialScan("load_findByShipperId");
+    }
+
+    @Test
+    void loadFindByStatus() {
+        loadRepository.findByStatus(LoadStatus.OPEN_FOR_BIDS, NEWEST_FIRST, LoadResponse.class);
+        assertNoSequentialScan("load_findByStatus");
+    }
+
+    @Test
+    void loadFindByShipperIdAndStatus() {
+        loadRepository.findByShipperIdAndStatus("SHIP1", LoadStatus.OPEN_FOR_BIDS, NEWEST_FIRST, LoadResponse.class);
+        assertNoSequentialScan("load_findByShipperIdAndStatus");
+    }
+
+    @Test
+    void loadFindByStatusInAndTruckTypeIdIn() {
+        loadRepository.findByStatusInAndTruckTypeIdIn(List.of(LoadStatus.POSTED, LoadStatus.OPEN_FOR_BIDS),
+                List.of((short) 1, (short) 2), NEWEST_FIRST, LoadResponse.class);
+        assertNoSequentialScan("load_findByStatusInAndTruckTypeIdIn");
+    }
+
+    @Test
+    void loadFindAllPage() {
+        loadRepository.findAllBy(NEWEST_FIRST, LoadResponse.class);
+        assertNoSequentialScan("load_findAll_page");
+    }
+
+    @Test
+    void loadFindShipperIdByLoadId() {
+        loadRepository.findShipperIdByLoadId(id("l", 42));
+        assertNoSequentialScan("load_findShipperIdByLoadId");
+    }
+
+    // ---------- BidRepository ----------
+
+    @Test
+    void bidFindById() {
+        bidRepository.findById(id("b", 42));
+        assertNoSequentialScan("bid_findById");
+    }
+
+    @Test
+    void bidFindByLoadId() {
+        bidRepository.findByLoadId(id("l", 42));
+        assertNoSequentialScan("bid_findByLoadId");
+    }
+
+    @Test
+    void bidFindByTransporterId() {
+        bidRepository.findByTransporterId(id("t", 42), BidResponse.class);
+        assertNoSequentialScan("bid_findByTransporterId");
+    }
+
+    @Test
+    void bidFindByStatus() {
+        bidRepository.findByStatus(BidStatus.PENDING, BidResponse.class);
+        assertNoSequentialScan("bid_findByStatus");
+    }
+
+    @Test
+    void bidFindByLoadIdAndTransporterId() {
+        bidRepository.findByLoadIdAndTransporterId(id("l", 42), id("t", 42), BidResponse.class);
+        assertNoSequentialScan("bid_findByLoadIdAndTransporterId");
+    }
+
+    @Test
+    void bidFindByLoadIdAndPendingStatus() {
+        bidRepository.findByLoadIdAndStatus(id("l", 2), BidStatus.PENDING);
+        assertNoSequentialScan("bid_findByLoadIdAndStatus_pending");
+    }
+
+    @Test
+    void bidFindByLoadIdAndRejectedStatus() {
+        bidRepository.findByLoadIdAndStatus(id("l", 42), BidStatus.REJECTED, BidResponse.class);
+        assertNoSequentialScan("bid_findByLoadIdAndStatus_rejected");
+    }
+
+    @Test
+    void bidFindByTransporterIdAndStatus() {
+        bidRepository.findByTransporterIdAndStatus(id("t", 42), BidStatus.PENDING, BidResponse.class);
+        assertNoSequentialScan("bid_findByTransporterIdAndStatus");
+    }
+
+    @Test
+    void bidFindByLoadIdAndTransporterIdAndStatus() {
+        bidRepository.findByLoadIdAndTransporterIdAndStatus(id("l", 42), id("t", 42), BidStatus.PENDING, BidResponse.class);
+        assertNoSequentialScan("bid_findByLoadIdAndTransporterIdAndStatus");
+    }
+
+    @Test
+    void bidFindActiveByLoadIdAndTransporterId() {
+        bidRepository.findByLoadIdAndTransporterIdAndStatus(id("l", 2), id("t", 2), BidStatus.PENDING);
+        assertNoSequentialScan("bid_findByLoadIdAndTransporterIdAndStatus_active");
+    }
+
+    // ---------- BidRevisionRepository ----------
+
+    @Test
+    void bidRevisionFindByBidId() {
+        bidRevisionRepository.findByBidIdOrderByRevisionIdAsc(id("b", 42));
+        assertNoSequentialScan("bidRevision_findByBidIdOrderByRevisionIdAsc");
+    }
+
+    // ---------- BookingRepository ----------
+
+    @Test
+    void bookingFindById() {
+        bookingRepository.findById(id("k", 50));
+        assertNoSequentialScan("booking_findById");
+    }
+
+    @Test
+    void bookingFindByLoadId() {
+        bookingRepository.findByLoadId(id("l", 51));
+        assertNoSequentialScan("booking_findByLoadId");
+    }
+
+    @Test
+    void bookingFindByTransporterIdAndStatusAndReservedUntilAfter() {
+        bookingRepository.findByTransporterIdAndStatusAndReservedUntilAfter(
+                id("t", 1), BookingStatus.CONFIRMED, LocalDateTime.now());
+        assertNoSequentialScan("booking_findByTransporterIdAndStatusAndReservedUntilAfter");
+    }
+
+    @Test
+    void bookingFindByTransporterIdInAndStatusAndReservedUntilAfter() {
+        bookingRepository.findByTransporterIdInAndStatusAndReservedUntilAfter(
+                List.of(id("t", 1), id("t", 2)), BookingStatus.CONFIRMED, LocalDateTime.now());
+        assertNoSequentialScan("booking_findByTransporterIdInAndStatusAndReservedUntilAfter");
+    }
+
+    @Test
+    void bookingClaimDue() {
+        bookingRepository.claimDue(LocalDateTime.now().minusDays(30), PageRequest.of(0, 500));
+        assertTrue(capture.statements().stream().anyMatch(statement -> statement.sql().endsWith("skip locked")),
+                "Due bookings must be claimed with SKIP LOCKED");
+        assertNoSequentialScan("booking_claimDue");
+    }
+
+    @Test
+    void bookingCompleteAll() {
+        bookingRepository.completeAll(List.of(id("k", 50), id("k", 100)));
+        assertNoSequentialScan("booking_completeAll");
+    }
+
+    // ---------- TransporterRepository ----------
+
+    @Test
+    void transporterFindByIdWithTrucks() {
+        transporterRepository.findById(id("t", 42));
+        assertNoSequentialScan("transporter_findById");
+    }
+
+    @Test
+    void transporterFindForReservation() {
+        transporterRepository.findForReservationByTransporterId(id("t", 42));
+        assertNoSequentialScan("transporter_findForReservationByTransporterId");
+    }
+
+    @Test
+    void transporterFindForReservationIn() {
+        transporterRepository.findForReservationByTransporterIdIn(List.of(id("t", 1), id("t", 2)));
+        assertNoSequentialScan("transporter_findForReservationByTransporterIdIn");
+    }
+
+    @Test
+    void transporterTouchAll() {
+        transporterRepository.touchAll(List.of(id("t", 1), id("t", 2)));
+        assertNoSequentialScan("transporter_touchAll");
+    }
+
+    // ---------- SparseFieldsetRepository ----------
+
+    @Test
+    void sparseLoadFieldsByShipperId() {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("shipperId", "SHIP7");
+        filters.put("status", null);
+        sparseFieldsetRepository.findFields(Load.class, filters, List.of("loadId", "status"), NEWEST_FIRST);
+        assertNoSequentialScan("sparse_loadFieldsByShipperId");
+    }
+
+    @Test
+    void sparseBidFieldsByLoadId() {
+        sparseFieldsetRepository.findFields(Bid.class, Map.of("loadId", id("l", 42)),
+                List.of("bidId", "proposedRate"), Sort.unsorted());
+        assertNoSequentialScan("sparse_bidFieldsByLoadId");
+    }
+
+    // ---------- IdempotencyRecordRepository ----------
+
+    @Test
+    void idempotencyInsert() {
+        idempotencyRecordRepository.insert("bid:new-key", "hash", "{}", LocalDateTime.now(),
+                LocalDateTime.now().plusHours(24));
+        assertNoSequentialScan("idempotency_insert");
+    }
+
+    @Test
+    void idempotencyDeleteIfExpired() {
+        idempotencyRecordRepository.deleteIfExpired("bid:key-42", LocalDateTime.now());
+        assertNoSequentialScan("idempotency_deleteIfExpired");
+    }
+
+    @Test
+    void idempotencyDeleteExpired() {
+        idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        assertNoSequentialScan("idempotency_deleteExpired");
+    }
+
+    // ---------- ChangeRecordRepository ----------
+
+    @Test
+    void changeFindByChangeIdGreaterThan() {
+        changeRecordRepository.findByChangeIdGreaterThanOrderByChangeIdAsc(99000, PageRequest.of(0, 501));
+        assertNoSequentialScan("change_findByChangeIdGreaterThan");
+    }
+
+    @Test
+    void changeDeleteOlderThan() {
+        changeRecordRepository.deleteOlderThan(LocalDateTime.now().minusHours(160));
+        assertNoSequentialScan("change_deleteOlderThan");
+    }
+
+    @Test
+    void changeFindLastChangeIdBefore() {
+        changeRecordRepository.findLastChangeIdBefore(LocalDateTime.now().minusMinutes(1));
+        assertNoSequentialScan("change_findLastChangeIdBefore");
+    }
+
+    // ---------- TruckTypeRepository ----------
+
+    @Test
+    void truckTypeFindByNormalizedName() {
+        truckTypeRepository.findByNormalizedName("flatbed");
+        assertNoSequentialScan("truckType_findByNormalizedName");
+    }
+
+    @Test
+    void truckTypeInsertIfAbsent() {
+        truckTypeRepository.insertIfAbsent("Flatbed", "flatbed");
+        assertNoSequentialScan("truckType_insertIfAbsent");
+    }
+
+    /**
+     * Matches the md5-derived ids used by the seed data
+     */
+    private UUID id(String prefix, int n) {
+        return jdbcTemplate.queryForObject("SELECT md5(?)::uuid", UUID.class, prefix + n);
+    }
+
+    private void assertNoSequentialScan(String name) {
+        List<StatementCapture.Captured> statements = capture.statements();
+        assertFalse(statements.isEmpty(), "No SQL captured for " + name);
+
+        List<String> failures = new ArrayList<>();
+        StringBuilder plans = new StringBuilder();
+        for (StatementCapture.Captured statement : statements) {
+            String plan = explain(statement);
+            plans.append("-- ").append(statement.sql()).append('\n').append(plan).append("\n\n");
+
+            boolean filtered = statement.sql().toLowerCase(Locale.ROOT).contains(" where ");
+            if (filtered && scansLargeTable(plan)) {
+                failures.add(statement.sql() + "\n" + plan);
+            }
+        }
+        writePlans(name, plans.toString());
+
+        assertTrue(failures.isEmpty(), name + " planned a sequential scan:\n" + String.join("\n", failures));
+    }
+
+    private static boolean scansLargeTable(String plan) {
+        try {
+            return PLAN_READER.readTree(plan).findParents("Node Type").stream()
+                    .anyMatch(node -> node.path("Node Type").asText().equals("Seq Scan")
+                            && !SINGLE_PAGE_TABLES.contains(node.path("Relation Name").asText()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+    }
+
+    private String explain(StatementCapture.Captured statement) {
+        try (Connection connection = capture.target().getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql())) {
+            for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                explain.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rs = explain.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("EXPLAIN failed for: " + statement.sql(), e);
+        }
+    }
+
+    private void writePlans(String name, String plans) {
+        try {
+            Files.createDirectories(PLAN_DIR);
+            Files.writeString(PLAN_DIR.resolve(name + ".txt"), plans);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write query plan for " + name, e);
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor(StatementCapture statementCapture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? statementCapture.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Records the SQL and bound parameters of every query and update executed through the
+     * wrapped DataSource, so the exact statements Hibernate generates can be
+     * EXPLAINed with the same values.
+     */
+    static class StatementCapture {
+
+        record Captured(String sql, Map<Integer, Object> parameters) {
+        }
+
+        private final List<Captured> statements = new CopyOnWriteArrayList<>();
+        private DataSource target;
+
+        DataSource wrap(DataSource dataSource) {
+            this.target = dataSource;
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                        Object result = invoke(dataSource, method, args);
+                        return result instanceof Connection connection ? wrap(connection) : result;
+                    });
+        }
+
+        DataSource target() {
+            return target;
+        }
+
+        List<Captured> statements() {
+            return List.copyOf(statements);
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                            return wrap(statement, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement wrap(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                            parameters.put(index, args[1]);
+                        } else if ((name.equals("executeQuery") || name.equals("executeUpdate"))
+                                && (args == null || args.length == 0)) {
+                            statements.add(new Captured(sql, new TreeMap<>(parameters)));
+                        } else if (name.equals("clearParameters")) {
+                            parameters.clear();
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
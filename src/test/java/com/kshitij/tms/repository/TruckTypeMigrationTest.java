@@ -0,0 +1,66 @@
+package com.kshitij.tms.repository;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * V11 moves free-form truck types into the catalog: spellings differing only
+ * in case or surrounding whitespace share one code, and inventory rows of
+ * merged spellings are summed
+ */
+class TruckTypeMigrationTest {
+
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testMigration_MergesSpellingsIntoCatalogCodes() {
+        // Given
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:trucktypes;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        jdbc = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .target("10").load().migrate();
+
+        UUID transporterId = UUID.randomUUID();
+        UUID loadId = UUID.randomUUID();
+        jdbc.update("INSERT INTO transporter (transporter_id, company_name, rating, version) VALUES (?, 'Carrier', 4, 0)",
+                transporterId);
+        jdbc.update("INSERT INTO transporter_trucks (transporter_id, truck_type, count) VALUES (?, 'Flatbed', 3), "
+                + "(?, ' FLATBED', 2), (?, 'Lowbed', 1)", transporterId, transporterId, transporterId);
+        jdbc.update("INSERT INTO load (load_id, shipper_id, loading_city, unloading_city, loading_date, product_type, "
+                        + "weight, weight_unit, truck_type, no_of_trucks, remaining_trucks, status, date_posted, version) "
+                        + "VALUES (?, 'SHIP1', 'Mumbai', 'Pune', ?, 'Steel', 10, 'TON', 'lowbed ', 5, 5, 'POSTED', ?, 0)",
+                loadId, LocalDateTime.now(), LocalDateTime.now());
+
+        // When
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/common", "classpath:db/migration/h2").load().migrate();
+
+        // Then
+        Short flatbed = jdbc.queryForObject(
+                "SELECT truck_type_id FROM truck_type WHERE normalized_name = 'flatbed'", Short.class);
+        Short lowbed = jdbc.queryForObject(
+                "SELECT truck_type_id FROM truck_type WHERE normalized_name = 'lowbed'", Short.class);
+        assertEquals(5, jdbc.queryForObject("SELECT count FROM transporter_trucks "
+                + "WHERE transporter_id = ? AND truck_type_id = ?", Integer.class, transporterId, flatbed));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM transporter_trucks WHERE transporter_id = ?",
+                Integer.class, transporterId));
+        assertEquals(lowbed, jdbc.queryForObject("SELECT truck_type_id FROM load WHERE load_id = ?",
+                Short.class, loadId));
+        assertEquals("Lowbed", jdbc.queryForObject("SELECT name FROM truck_type WHERE truck_type_id = ?",
+                String.class, lowbed));
+    }
+}
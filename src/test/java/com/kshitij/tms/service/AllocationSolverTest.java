@@ -0,0 +1,124 @@
+package com.kshitij.tms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AllocationSolver
+ */
+class AllocationSolverTest {
+
+    @Test
+    void testSplitBids_CheapestFirstUpToCapacity() {
+        // Given - values are negated rates
+        AllocationSolver.Option[] options = {
+                new AllocationSolver.Option(3, -50_000),
+                new AllocationSolver.Option(3, -40_000),
+                new AllocationSolver.Option(2, -45_000)
+        };
+
+        // When
+        int[] trucks = AllocationSolver.solve(5, options, false);
+
+        // Then
+        assertArrayEquals(new int[]{0, 3, 2}, trucks);
+    }
+
+    @Test
+    void testSplitBids_NotEnoughCapacity_AllocatesWhatIsFree() {
+        // Given
+        AllocationSolver.Option[] options = {
+                new AllocationSolver.Option(2, -40_000),
+                new AllocationSolver.Option(0, -10_000)
+        };
+
+        // When
+        int[] trucks = AllocationSolver.solve(5, options, false);
+
+        // Then
+        assertArrayEquals(new int[]{2, 0}, trucks);
+    }
+
+    @Test
+    void testWholeBids_CoverAsManyTrucksAsPossibleBeforeValue() {
+        // Given - the cheapest bid alone leaves a truck uncovered
+        AllocationSolver.Option[] options = {
+                new AllocationSolver.Option(4, -10_000),
+                new AllocationSolver.Option(3, -40_000),
+                new AllocationSolver.Option(2, -45_000)
+        };
+
+        // When
+        int[] trucks = AllocationSolver.solve(5, options, true);
+
+        // Then
+        assertArrayEquals(new int[]{0, 3, 2}, trucks);
+    }
+
+    @Test
+    void testWholeBids_MatchesExhaustiveSearch() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            // Given
+            int n = 1 + random.nextInt(10);
+            int load = 1 + random.nextInt(20);
+            AllocationSolver.Option[] options = new AllocationSolver.Option[n];
+            for (int i = 0; i < n; i++) {
+                options[i] = new AllocationSolver.Option(random.nextInt(8), -(1 + random.nextInt(100)));
+            }
+
+            // When
+            int[] trucks = AllocationSolver.solve(load, options, true);
+
+            // Then
+            int bestCovered = -1;
+            double bestValue = 0;
+            for (int subset = 0; subset < 1 << n; subset++) {
+                int covered = 0;
+                double value = 0;
+                for (int i = 0; i < n; i++) {
+                    if ((subset & 1 << i) != 0) {
+                        covered += options[i].capacity();
+                        value += options[i].capacity() * options[i].unitValue();
+                    }
+                }
+                if (covered <= load && (covered > bestCovered || covered == bestCovered && value > bestValue)) {
+                    bestCovered = covered;
+                    bestValue = value;
+                }
+            }
+            int covered = 0;
+            double value = 0;
+            for (int i = 0; i < n; i++) {
+                assertTrue(trucks[i] == 0 || trucks[i] == options[i].capacity());
+                covered += trucks[i];
+                value += trucks[i] * options[i].unitValue();
+            }
+            assertEquals(bestCovered, covered);
+            assertEquals(bestValue, value, 1e-9);
+        }
+    }
+
+    @Test
+    void testWholeBids_ThousandsOfBids() {
+        // Given
+        Random random = new Random(11);
+        AllocationSolver.Option[] options = new AllocationSolver.Option[5_000];
+        for (int i = 0; i < options.length; i++) {
+            options[i] = new AllocationSolver.Option(1 + random.nextInt(10), -(1_000 + random.nextInt(50_000)));
+        }
+
+        // When
+        int[] trucks = AllocationSolver.solve(100, options, true);
+
+        // Then
+        int covered = 0;
+        for (int allocated : trucks) {
+            covered += allocated;
+        }
+        assertEquals(100, covered);
+    }
+}
@@ -0,0 +1,323 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.dto.BidIngestionStatus;
+import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.LoadStatus;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.exception.InvalidStatusTransitionException;
+import com.kshitij.tms.exception.RateLimitExceededException;
+import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.TransporterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BidIngestionService
+ * The writer runs against an in-memory H2 database migrated by Flyway;
+ * lookups and the synchronous bid path are mocked
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BidIngestionServiceTest {
+
+    @Mock
+    private BidService bidService;
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @Mock
+    private LoadRepository loadRepository;
+
+    @Mock
+    private TransporterRepository transporterRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private JdbcTemplate jdbc;
+    private SimpleMeterRegistry meterRegistry;
+    private Load load;
+    private Transporter transporter;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ingestion;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/common", "classpath:db/migration/h2").load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+        meterRegistry = new SimpleMeterRegistry();
+
+        load = Load.builder()
+                .loadId(UUID.randomUUID())
+                .truckTypeId((short) 1)
+                .truckType("Container")
+                .status(LoadStatus.POSTED)
+                .build();
+        transporter = Transporter.builder()
+                .transporterId(UUID.randomUUID())
+                .companyName("Fast Logistics")
+                .availableTrucks(new ArrayList<>(List.of(new AvailableTruck((short) 1, "Container", 5))))
+                .build();
+
+        jdbc.update("INSERT INTO transporter (transporter_id, company_name, rating, version) VALUES (?, ?, 4.5, 0)",
+                transporter.getTransporterId(), transporter.getCompanyName());
+        jdbc.update("INSERT INTO load (load_id, shipper_id, loading_city, unloading_city, loading_date, product_type, "
+                        + "weight, weight_unit, truck_type_id, no_of_trucks, remaining_trucks, status, date_posted, version) "
+                        + "VALUES (?, 'SHIP1', 'Mumbai', 'Pune', ?, 'Steel', 10, 'TON', "
+                        + "(SELECT truck_type_id FROM truck_type WHERE normalized_name = 'container'), 5, 5, "
+                        + "'POSTED', ?, 0)",
+                load.getLoadId(), LocalDateTime.now(), LocalDateTime.now());
+
+        when(loadRepository.findById(load.getLoadId())).thenReturn(Optional.of(load));
+        when(loadRepository.findAllById(List.of(load.getLoadId()))).thenReturn(List.of(load));
+        when(transporterRepository.findById(transporter.getTransporterId())).thenReturn(Optional.of(transporter));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    private BidIngestionService service(int queueCapacity) {
+        return service(queueCapacity, Duration.ofSeconds(30));
+    }
+
+    private BidIngestionService service(int queueCapacity, Duration shutdownTimeout) {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(jdbc.getDataSource());
+        return new BidIngestionService(bidService, bidRepository, loadRepository, transporterRepository,
+                new NamedParameterJdbcTemplate(jdbc), new TransactionTemplate(transactionManager), eventPublisher, meterRegistry,
+                queueCapacity, 100, 60_000, 1000, 60_000, 1000, shutdownTimeout);
+    }
+
+    private BidRequest request(double rate) {
+        return BidRequest.builder()
+                .loadId(load.getLoadId())
+                .transporterId(transporter.getTransporterId())
+                .proposedRate(rate)
+                .trucksOffered(2)
+                .build();
+    }
+
+    @Test
+    void testSubmit_QueuedThenPersistedUnderReturnedId() {
+        // Given
+        BidIngestionService ingestion = service(100);
+        ingestion.start();
+
+        // When
+        BidResponse response = ingestion.submit(request(9500));
+        ingestion.stop();
+
+        // Then
+        assertEquals(BidStatus.PENDING, response.status());
+        assertEquals(BidIngestionStatus.State.PERSISTED, ingestion.getStatus(response.bidId()).state());
+        assertEquals(9500.0, jdbc.queryForObject(
+                "SELECT proposed_rate FROM bid WHERE bid_id = ? AND status = 'PENDING'", Double.class, response.bidId()));
+        assertEquals("OPEN_FOR_BIDS", jdbc.queryForObject(
+                "SELECT status FROM load WHERE load_id = ?", String.class, load.getLoadId()));
+        verify(bidService, never()).submitBid(any());
+        assertEquals(List.of(LoadEvent.Type.STATUS_CHANGED, LoadEvent.Type.BID_ADDED), publishedTypes());
+    }
+
+    @Test
+    void testSubmit_InvalidBid_RejectedBeforeQueueing() {
+        // Given
+        doThrow(new InvalidStatusTransitionException("Cannot bid on CANCELLED load"))
+                .when(bidService).validateBid(load, transporter, 2);
+        BidIngestionService ingestion = service(100);
+        ingestion.start();
+
+        // When & Then
+        assertThrows(InvalidStatusTransitionException.class, () -> ingestion.submit(request(9500)));
+        ingestion.stop();
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM bid", Integer.class));
+    }
+
+    @Test
+    void testSubmit_BufferFull_TooManyRequests() throws Exception {
+        // Given - a pending bid exists, so the writer revises it and blocks in the synchronous path
+        jdbc.update("INSERT INTO bid (bid_id, load_id, transporter_id, proposed_rate, trucks_offered, status, "
+                        + "submitted_at, version) VALUES (?, ?, ?, 9900, 2, 'PENDING', ?, 0)",
+                UUID.randomUUID(), load.getLoadId(), transporter.getTransporterId(), LocalDateTime.now());
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bidService.submitBid(any())).thenAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Bid.builder().bidId(UUID.randomUUID()).build();
+        });
+        BidIngestionService ingestion = service(2);
+        ingestion.start();
+        ingestion.submit(request(9500));
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+
+        // When
+        ingestion.submit(request(9400));
+        ingestion.submit(request(9300));
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> ingestion.submit(request(9200)));
+        release.countDown();
+        ingestion.stop();
+
+        // Then
+        assertEquals(1, ex.getRetryAfterSeconds());
+        assertEquals(0, ingestion.queueDepth());
+        assertEquals(1.0, meterRegistry.get("tms.bids.ingestion").tag("outcome", "buffer_full").counter().count());
+        verify(bidService, times(3)).submitBid(any());
+    }
+
+    @Test
+    void testStop_StuckWriter_InterruptedAndQueueRejected() throws Exception {
+        // Given - the writer is stuck revising a pending bid, with two more bids queued behind it
+        jdbc.update("INSERT INTO bid (bid_id, load_id, transporter_id, proposed_rate, trucks_offered, status, "
+                        + "submitted_at, version) VALUES (?, ?, ?, 9900, 2, 'PENDING', ?, 0)",
+                UUID.randomUUID(), load.getLoadId(), transporter.getTransporterId(), LocalDateTime.now());
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(bidService.submitBid(any())).thenAnswer(invocation -> {
+            writerBusy.countDown();
+            try {
+                new CountDownLatch(1).await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return Bid.builder().bidId(UUID.randomUUID()).build();
+        });
+        BidIngestionService ingestion = service(10, Duration.ofMillis(200));
+        ingestion.start();
+        BidResponse stuck = ingestion.submit(request(9500));
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+        BidResponse queued = ingestion.submit(request(9400));
+
+        // When
+        long started = System.nanoTime();
+        ingestion.stop();
+
+        // Then
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(0, ingestion.queueDepth());
+        assertEquals(BidIngestionStatus.State.REJECTED, ingestion.getStatus(queued.bidId()).state());
+        assertEquals(BidIngestionStatus.State.REJECTED, ingestion.getStatus(stuck.bidId()).state());
+    }
+
+    @Test
+    void testRepeatBid_RevisesPendingBid() {
+        // Given - the first bid is stored; the repeat goes through the synchronous revision path
+        BidIngestionService ingestion = service(100);
+        ingestion.start();
+        BidResponse first = ingestion.submit(request(9500));
+        when(bidService.submitBid(any())).thenAnswer(invocation ->
+                Bid.builder().bidId(first.bidId()).status(BidStatus.PENDING).build());
+
+        // When
+        BidResponse repeat = ingestion.submit(request(9000));
+        ingestion.stop();
+
+        // Then
+        BidIngestionStatus status = ingestion.getStatus(repeat.bidId());
+        assertEquals(BidIngestionStatus.State.REVISED, status.state());
+        assertEquals(first.bidId(), status.persistedBidId());
+        verify(bidService).submitBid(any());
+    }
+
+    @Test
+    void testLoadBookedAfterValidation_Rejected() {
+        // Given - cached state still says POSTED
+        jdbc.update("UPDATE load SET status = 'BOOKED' WHERE load_id = ?", load.getLoadId());
+        BidIngestionService ingestion = service(100);
+        ingestion.start();
+
+        // When
+        BidResponse response = ingestion.submit(request(9500));
+        ingestion.stop();
+
+        // Then
+        BidIngestionStatus status = ingestion.getStatus(response.bidId());
+        assertEquals(BidIngestionStatus.State.REJECTED, status.state());
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM bid", Integer.class));
+    }
+
+    @Test
+    void testWriteBatch_ManyBidsInOneInsert() {
+        // Given - twenty transporters bidding on the same load
+        BidIngestionService ingestion = service(100);
+        List<BidIngestionService.PendingBid> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            UUID transporterId = UUID.randomUUID();
+            jdbc.update("INSERT INTO transporter (transporter_id, company_name, rating, version) VALUES (?, ?, 4, 0)",
+                    transporterId, "Carrier " + i);
+            batch.add(new BidIngestionService.PendingBid(UUID.randomUUID(), load.getLoadId(), "SHIP1", transporterId,
+                    9000 + i, 1, LocalDateTime.now()));
+        }
+
+        // When
+        ingestion.writeBatch(batch);
+
+        // Then
+        assertEquals(20, jdbc.queryForObject("SELECT COUNT(*) FROM bid WHERE status = 'PENDING'", Integer.class));
+        assertEquals(20.0, meterRegistry.get("tms.bids.ingestion").tag("outcome", "persisted").counter().count());
+        batch.forEach(bid -> assertEquals(BidIngestionStatus.State.PERSISTED, ingestion.getStatus(bid.bidId()).state()));
+        assertEquals(1, publishedTypes().stream().filter(type -> type == LoadEvent.Type.STATUS_CHANGED).count());
+    }
+
+    @Test
+    void testWriteBatch_LoadAlreadyOpen_NoStatusChange() {
+        // Given
+        jdbc.update("UPDATE load SET status = 'OPEN_FOR_BIDS' WHERE load_id = ?", load.getLoadId());
+        BidIngestionService ingestion = service(100);
+        List<BidIngestionService.PendingBid> batch = List.of(new BidIngestionService.PendingBid(UUID.randomUUID(),
+                load.getLoadId(), "SHIP1", transporter.getTransporterId(), 9500, 2, LocalDateTime.now()));
+
+        // When
+        ingestion.writeBatch(batch);
+
+        // Then
+        assertEquals(List.of(LoadEvent.Type.BID_ADDED), publishedTypes());
+        verify(loadRepository, never()).findAllById(any());
+    }
+
+    private List<LoadEvent.Type> publishedTypes() {
+        ArgumentCaptor<LoadEvent> events = ArgumentCaptor.forClass(LoadEvent.class);
+        verify(eventPublisher, atLeast(0)).publishEvent(events.capture());
+        return events.getAllValues().stream().map(LoadEvent::type).toList();
+    }
+}
@@ -1,19 +1,28 @@
 package com.kshitij.tms.service;
 
+import com.kshitij.tms.cache.EntityCache;
+import com.kshitij.tms.cache.IdFilters;
 import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BidRevisionRequest;
+import com.kshitij.tms.dto.BidResponse;
 import com.kshitij.tms.entity.*;
 import com.kshitij.tms.exception.InsufficientCapacityException;
+import com.kshitij.tms.exception.InvalidFieldSelectionException;
 import com.kshitij.tms.exception.InvalidStatusTransitionException;
 import com.kshitij.tms.exception.ResourceNotFoundException;
 import com.kshitij.tms.repository.BidRepository;
+import com.kshitij.tms.repository.BidRevisionRepository;
 import com.kshitij.tms.repository.LoadRepository;
 import com.kshitij.tms.repository.TransporterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -38,6 +47,24 @@ class BidServiceTest {
     @Mock
     private TransporterRepository transporterRepository;
 
+    @Mock
+    private BidRevisionRepository bidRevisionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TruckTypeService truckTypeService;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Spy
+    private IdFilters idFilters = new IdFilters(null, null, null, new SimpleMeterRegistry(), false, 0.01, 1000, 1, 10_000);
+
     @InjectMocks
     private BidService bidService;
 
@@ -50,6 +77,8 @@ class BidServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(truckTypeService.compatibility()).thenReturn(TruckCompatibility.EXACT);
+        lenient().when(availabilityService.freeTrucks(any(), any())).thenReturn(AvailableTruck::getCount);
         loadId = UUID.randomUUID();
         transporterId = UUID.randomUUID();
         bidId = UUID.randomUUID();
@@ -57,6 +86,7 @@ class BidServiceTest {
         testLoad = Load.builder()
                 .loadId(loadId)
                 .shipperId("SHIP123")
+                .truckTypeId((short) 1)
                 .truckType("Container")
                 .status(LoadStatus.POSTED)
                 .noOfTrucks(5)
@@ -64,6 +94,7 @@ class BidServiceTest {
                 .build();
 
         AvailableTruck truck = AvailableTruck.builder()
+                .truckTypeId((short) 1)
                 .truckType("Container")
                 .count(10)
                 .build();
@@ -218,6 +249,7 @@ class BidServiceTest {
                 .trucksOffered(3)
                 .build();
 
+        testLoad.setTruckTypeId((short) 2);
         testLoad.setTruckType("Flatbed");  // Transporter only has "Container"
 
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
@@ -229,6 +261,128 @@ class BidServiceTest {
         });
     }
 
+    @Test
+    void testSubmitBid_RepeatBidRevisesInPlace() {
+        // Given
+        BidRequest request = BidRequest.builder()
+                .loadId(loadId)
+                .transporterId(transporterId)
+                .proposedRate(9000)
+                .trucksOffered(4)
+                .build();
+
+        testLoad.setStatus(LoadStatus.OPEN_FOR_BIDS);
+
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(bidRepository.findByLoadIdAndTransporterIdAndStatus(loadId, transporterId, BidStatus.PENDING))
+                .thenReturn(Optional.of(testBid));
+        when(bidRepository.save(testBid)).thenReturn(testBid);
+
+        // When
+        Bid result = bidService.submitBid(request);
+
+        // Then - same row, new terms, old terms in history
+        assertEquals(bidId, result.getBidId());
+        assertEquals(9000, result.getProposedRate());
+        assertEquals(4, result.getTrucksOffered());
+        verify(bidRevisionRepository).save(argThat(revision ->
+                revision.getBidId().equals(bidId)
+                        && revision.getProposedRate() == 10000
+                        && revision.getTrucksOffered() == 3));
+    }
+
+    @Test
+    void testSubmitBid_RepeatBidWithSameTerms_NoRevision() {
+        // Given
+        BidRequest request = BidRequest.builder()
+                .loadId(loadId)
+                .transporterId(transporterId)
+                .proposedRate(10000)
+                .trucksOffered(3)
+                .build();
+
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(bidRepository.findByLoadIdAndTransporterIdAndStatus(loadId, transporterId, BidStatus.PENDING))
+                .thenReturn(Optional.of(testBid));
+
+        // When
+        Bid result = bidService.submitBid(request);
+
+        // Then
+        assertSame(testBid, result);
+        verify(bidRepository, never()).save(any(Bid.class));
+        verifyNoInteractions(bidRevisionRepository);
+    }
+
+    @Test
+    void testReviseBid_LowerRate() {
+        // Given
+        BidRevisionRequest request = BidRevisionRequest.builder()
+                .proposedRate(8500)
+                .trucksOffered(3)
+                .build();
+
+        when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(bidRepository.save(testBid)).thenReturn(testBid);
+
+        // When
+        Bid result = bidService.reviseBid(bidId, request);
+
+        // Then - truck count unchanged, so capacity isn't re-checked
+        assertEquals(8500, result.getProposedRate());
+        verify(bidRevisionRepository, times(1)).save(any());
+        verifyNoInteractions(transporterRepository);
+    }
+
+    @Test
+    void testReviseBid_MoreTrucksThanAvailable() {
+        // Given
+        BidRevisionRequest request = BidRevisionRequest.builder()
+                .proposedRate(10000)
+                .trucksOffered(20)
+                .build();
+
+        when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+
+        // When & Then
+        assertThrows(InsufficientCapacityException.class, () -> bidService.reviseBid(bidId, request));
+        verifyNoInteractions(bidRevisionRepository);
+    }
+
+    @Test
+    void testReviseBid_LoadBooked() {
+        // Given - the bid is still PENDING, but the load closed before it was rejected
+        testLoad.setStatus(LoadStatus.BOOKED);
+        BidRevisionRequest request = BidRevisionRequest.builder()
+                .proposedRate(8500)
+                .trucksOffered(2)
+                .build();
+
+        when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+
+        // When & Then - fewer trucks still needs a biddable load
+        assertThrows(InvalidStatusTransitionException.class, () -> bidService.reviseBid(bidId, request));
+        verifyNoInteractions(bidRevisionRepository);
+        verify(bidRepository, never()).save(any(Bid.class));
+    }
+
+    @Test
+    void testReviseBid_NotPending() {
+        // Given
+        testBid.setStatus(BidStatus.ACCEPTED);
+        when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
+
+        // When & Then
+        assertThrows(InvalidStatusTransitionException.class, () ->
+                bidService.reviseBid(bidId, new BidRevisionRequest(9000, 3)));
+    }
+
     @Test
     void testRejectBid_Success() {
         // Given
@@ -283,29 +437,36 @@ class BidServiceTest {
     @Test
     void testFilterBids_AllFilters() {
         // Given
-        List<Bid> bids = Arrays.asList(testBid);
-        when(bidRepository.findByLoadIdAndTransporterIdAndStatus(loadId, transporterId, BidStatus.PENDING))
+        List<BidResponse> bids = Arrays.asList(BidResponse.from(testBid));
+        when(bidRepository.findByLoadIdAndTransporterIdAndStatus(loadId, transporterId, BidStatus.PENDING, BidResponse.class))
                 .thenReturn(bids);
 
         // When
-        List<Bid> result = bidService.filterBids(loadId, transporterId, BidStatus.PENDING);
+        List<BidResponse> result = bidService.filterBids(loadId, transporterId, BidStatus.PENDING);
 
         // Then
         assertEquals(1, result.size());
-        assertEquals(testBid, result.get(0));
+        assertEquals(testBid.getBidId(), result.get(0).bidId());
     }
 
     @Test
     void testFilterBids_NoFilters() {
         // Given
-        List<Bid> bids = Arrays.asList(testBid);
-        when(bidRepository.findAll()).thenReturn(bids);
+        List<BidResponse> bids = Arrays.asList(BidResponse.from(testBid));
+        when(bidRepository.findAllBy(BidResponse.class)).thenReturn(bids);
 
         // When
-        List<Bid> result = bidService.filterBids(null, null, null);
+        List<BidResponse> result = bidService.filterBids(null, null, null);
 
         // Then
         assertEquals(1, result.size());
-        verify(bidRepository, times(1)).findAll();
+        verify(bidRepository, times(1)).findAllBy(BidResponse.class);
+    }
+
+    @Test
+    void testFilterBidFields_UnknownField() {
+        // When & Then
+        assertThrows(InvalidFieldSelectionException.class, () ->
+                bidService.filterBidFields(loadId, null, null, List.of("bidId", "password")));
     }
-}
\ No newline at end of file
+}
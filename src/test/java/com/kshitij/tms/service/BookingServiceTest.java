@@ -1,23 +1,31 @@
 package com.kshitij.tms.service;
 
+import com.kshitij.tms.cache.IdFilters;
+import com.kshitij.tms.dto.BatchBookingRequest;
 import com.kshitij.tms.dto.BookingRequest;
 import com.kshitij.tms.entity.*;
 import com.kshitij.tms.exception.InsufficientCapacityException;
+import com.kshitij.tms.exception.InvalidBatchBookingException;
 import com.kshitij.tms.exception.InvalidStatusTransitionException;
 import com.kshitij.tms.exception.ResourceNotFoundException;
 import com.kshitij.tms.repository.BidRepository;
 import com.kshitij.tms.repository.BookingRepository;
 import com.kshitij.tms.repository.LoadRepository;
 import com.kshitij.tms.repository.TransporterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.ToIntFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,6 +50,18 @@ class BookingServiceTest {
     @Mock
     private TransporterRepository transporterRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TruckTypeService truckTypeService;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Spy
+    private IdFilters idFilters = new IdFilters(null, null, null, new SimpleMeterRegistry(), false, 0.01, 1000, 1, 10_000);
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -50,6 +70,7 @@ class BookingServiceTest {
     private Transporter testTransporter;
     private Booking testBooking;
     private AvailableTruck availableTruck;
+    private TruckSchedule schedule;
 
     private UUID loadId;
     private UUID bidId;
@@ -58,6 +79,14 @@ class BookingServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(truckTypeService.compatibility()).thenReturn(TruckCompatibility.EXACT);
+        schedule = new TruckSchedule();
+        lenient().when(availabilityService.window(any())).thenAnswer(invocation ->
+                ReservationWindow.around(invocation.getArgument(0), Duration.ofHours(12), Duration.ofHours(72)));
+        lenient().when(availabilityService.freeTrucks(any(), any())).thenAnswer(invocation -> {
+            ReservationWindow window = invocation.getArgument(1);
+            return (ToIntFunction<AvailableTruck>) truck -> schedule.free(truck, window);
+        });
         loadId = UUID.randomUUID();
         bidId = UUID.randomUUID();
         transporterId = UUID.randomUUID();
@@ -66,7 +95,9 @@ class BookingServiceTest {
         testLoad = Load.builder()
                 .loadId(loadId)
                 .shipperId("SHIP123")
+                .truckTypeId((short) 1)
                 .truckType("Container")
+                .loadingDate(LocalDateTime.now().plusDays(7))
                 .status(LoadStatus.OPEN_FOR_BIDS)
                 .noOfTrucks(5)
                 .remainingTrucks(5)
@@ -82,6 +113,7 @@ class BookingServiceTest {
                 .build();
 
         availableTruck = AvailableTruck.builder()
+                .truckTypeId((short) 1)
                 .truckType("Container")
                 .count(10)
                 .build();
@@ -100,6 +132,7 @@ class BookingServiceTest {
                 .transporterId(transporterId)
                 .allocatedTrucks(3)
                 .finalRate(10000)
+                .truckTypeId((short) 1)
                 .truckType("Container")
                 .status(BookingStatus.CONFIRMED)
                 .bookedAt(LocalDateTime.now())
@@ -116,7 +149,7 @@ class BookingServiceTest {
 
         when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
-        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(transporterRepository.findForReservationByTransporterId(transporterId)).thenReturn(Optional.of(testTransporter));
         when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
         when(bidRepository.findByLoadId(loadId)).thenReturn(Arrays.asList(testBid));
 
@@ -128,8 +161,9 @@ class BookingServiceTest {
         assertEquals(BookingStatus.CONFIRMED, result.getStatus());
         assertEquals(3, result.getAllocatedTrucks());
 
-        // Verify trucks were deducted
-        assertEquals(7, availableTruck.getCount());  // 10 - 3 = 7
+        // Verify trucks were reserved, not deducted from the fleet
+        assertEquals(10, availableTruck.getCount());
+        verify(availabilityService).invalidate(transporterId);
 
         // Verify remaining trucks updated
         assertEquals(2, testLoad.getRemainingTrucks());  // 5 - 3 = 2
@@ -149,7 +183,7 @@ class BookingServiceTest {
 
         when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
-        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(transporterRepository.findForReservationByTransporterId(transporterId)).thenReturn(Optional.of(testTransporter));
         when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
         when(bidRepository.findByLoadId(loadId)).thenReturn(Arrays.asList(testBid));
 
@@ -206,7 +240,7 @@ class BookingServiceTest {
 
         when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
-        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(transporterRepository.findForReservationByTransporterId(transporterId)).thenReturn(Optional.of(testTransporter));
 
         // When & Then
         assertThrows(InsufficientCapacityException.class, () -> {
@@ -222,11 +256,12 @@ class BookingServiceTest {
                 .finalRate(10000)
                 .build();
 
+        testLoad.setTruckTypeId((short) 2);
         testLoad.setTruckType("Flatbed");  // Transporter only has "Container"
 
         when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
-        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(transporterRepository.findForReservationByTransporterId(transporterId)).thenReturn(Optional.of(testTransporter));
 
         // When & Then
         assertThrows(InsufficientCapacityException.class, () -> {
@@ -234,6 +269,178 @@ class BookingServiceTest {
         });
     }
 
+    @Test
+    void testCreateBooking_CompatibleTruckTypeAllocated() {
+        // Given
+        BookingRequest request = BookingRequest.builder()
+                .allocatedTrucks(3)
+                .finalRate(10000)
+                .build();
+
+        testLoad.setTruckTypeId((short) 2);
+        testLoad.setTruckType("Flatbed");  // Container trucks may carry Flatbed loads
+        when(truckTypeService.compatibility())
+                .thenReturn(TruckCompatibility.of(Map.of((short) 1, List.of((short) 2))));
+
+        when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(transporterRepository.findForReservationByTransporterId(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bidRepository.findByLoadId(loadId)).thenReturn(Arrays.asList(testBid));
+
+        // When
+        Booking result = bookingService.createBooking(bidId, request);
+
+        // Then
+        assertEquals(testLoad.getLoadingDate().minusHours(12), result.getReservedFrom());
+        assertEquals((short) 1, result.getTruckTypeId());
+        assertEquals("Container", result.getTruckType());
+    }
+
+    @Test
+    void testCreateBooking_TrucksReservedAroundLoadingDate() {
+        // Given: 8 of 10 Containers booked a day after this load's loading date
+        BookingRequest request = BookingRequest.builder()
+                .allocatedTrucks(3)
+                .finalRate(10000)
+                .build();
+        schedule.reserve((short) 1, ReservationWindow.around(testLoad.getLoadingDate().plusDays(1),
+                Duration.ofHours(12), Duration.ofHours(72)), 8);
+
+        when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(transporterRepository.findForReservationByTransporterId(transporterId))
+                .thenReturn(Optional.of(testTransporter));
+
+        // When & Then
+        assertThrows(InsufficientCapacityException.class, () -> bookingService.createBooking(bidId, request));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void testCreateBooking_TrucksReservedForLaterTripStillFree() {
+        // Given: 8 of 10 Containers booked a month later
+        BookingRequest request = BookingRequest.builder()
+                .allocatedTrucks(3)
+                .finalRate(10000)
+                .build();
+        schedule.reserve((short) 1, ReservationWindow.around(testLoad.getLoadingDate().plusDays(30),
+                Duration.ofHours(12), Duration.ofHours(72)), 8);
+
+        when(bidRepository.findById(bidId)).thenReturn(Optional.of(testBid));
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(transporterRepository.findForReservationByTransporterId(transporterId))
+                .thenReturn(Optional.of(testTransporter));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bidRepository.findByLoadId(loadId)).thenReturn(Arrays.asList(testBid));
+
+        // When
+        Booking result = bookingService.createBooking(bidId, request);
+
+        // Then
+        assertEquals(testLoad.getLoadingDate().plusHours(72), result.getReservedUntil());
+    }
+
+    @Test
+    void testCreateBookings_Success() {
+        // Given
+        Transporter otherTransporter = Transporter.builder()
+                .transporterId(UUID.randomUUID())
+                .companyName("Quick Haul")
+                .rating(4.0)
+                .availableTrucks(new ArrayList<>(List.of(AvailableTruck.builder()
+                        .truckTypeId((short) 1).truckType("Container").count(4).build())))
+                .build();
+        Bid otherBid = Bid.builder()
+                .bidId(UUID.randomUUID())
+                .loadId(loadId)
+                .transporterId(otherTransporter.getTransporterId())
+                .proposedRate(11000)
+                .trucksOffered(2)
+                .status(BidStatus.PENDING)
+                .build();
+        BatchBookingRequest request = BatchBookingRequest.builder()
+                .loadId(loadId)
+                .bookings(List.of(
+                        new BatchBookingRequest.Item(bidId, 3, 10000),
+                        new BatchBookingRequest.Item(otherBid.getBidId(), 2, 11000)))
+                .build();
+
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(bidRepository.findAllById(any())).thenReturn(List.of(testBid, otherBid));
+        when(transporterRepository.findForReservationByTransporterIdIn(any()))
+                .thenReturn(List.of(testTransporter, otherTransporter));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bidRepository.findByLoadId(loadId)).thenReturn(List.of(testBid, otherBid));
+
+        // When
+        List<Booking> result = bookingService.createBookings(request);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(bidId, result.get(0).getBidId());
+        assertEquals(2, result.get(1).getAllocatedTrucks());
+        assertEquals(0, testLoad.getRemainingTrucks());
+        assertEquals(LoadStatus.BOOKED, testLoad.getStatus());
+        assertEquals(BidStatus.ACCEPTED, otherBid.getStatus());
+        verify(loadRepository, times(1)).save(testLoad);
+    }
+
+    @Test
+    void testCreateBookings_MoreTrucksThanRemaining() {
+        // Given
+        BatchBookingRequest request = BatchBookingRequest.builder()
+                .loadId(loadId)
+                .bookings(List.of(
+                        new BatchBookingRequest.Item(bidId, 3, 10000),
+                        new BatchBookingRequest.Item(UUID.randomUUID(), 3, 11000)))
+                .build();
+
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+
+        // When & Then
+        assertThrows(InsufficientCapacityException.class, () -> bookingService.createBookings(request));
+        verify(bidRepository, never()).findAllById(any());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateBookings_BidNotFound() {
+        // Given
+        UUID missingBidId = UUID.randomUUID();
+        BatchBookingRequest request = BatchBookingRequest.builder()
+                .loadId(loadId)
+                .bookings(List.of(
+                        new BatchBookingRequest.Item(bidId, 3, 10000),
+                        new BatchBookingRequest.Item(missingBidId, 1, 11000)))
+                .build();
+
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(bidRepository.findAllById(any())).thenReturn(List.of(testBid));
+        when(transporterRepository.findForReservationByTransporterIdIn(any())).thenReturn(List.of(testTransporter));
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.createBookings(request));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateBookings_DuplicateBid() {
+        // Given - 2 + 2 trucks would pass the remaining-trucks check, but it's one bid
+        BatchBookingRequest request = BatchBookingRequest.builder()
+                .loadId(loadId)
+                .bookings(List.of(
+                        new BatchBookingRequest.Item(bidId, 2, 10000),
+                        new BatchBookingRequest.Item(bidId, 2, 10000)))
+                .build();
+
+        // When & Then
+        InvalidBatchBookingException ex = assertThrows(InvalidBatchBookingException.class,
+                () -> bookingService.createBookings(request));
+        assertTrue(ex.getMessage().contains(bidId.toString()));
+        verifyNoInteractions(loadRepository, bookingRepository);
+    }
+
     @Test
     void testCancelBooking_Success() {
         // Given
@@ -241,7 +448,7 @@ class BookingServiceTest {
         testLoad.setRemainingTrucks(0);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
-        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(transporterRepository.findForReservationByTransporterId(transporterId)).thenReturn(Optional.of(testTransporter));
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
         when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
 
@@ -251,8 +458,9 @@ class BookingServiceTest {
         // Then
         assertEquals(BookingStatus.CANCELLED, result.getStatus());
 
-        // Verify trucks were restored
-        assertEquals(13, availableTruck.getCount());  // 10 + 3 = 13
+        // Verify the reservation was released
+        assertEquals(10, availableTruck.getCount());
+        verify(availabilityService).invalidate(transporterId);
 
         // Verify load status changed to OPEN_FOR_BIDS
         assertEquals(LoadStatus.OPEN_FOR_BIDS, testLoad.getStatus());
@@ -284,6 +492,50 @@ class BookingServiceTest {
         });
     }
 
+    @Test
+    void testCancelBooking_AlreadyCompleted() {
+        // Given
+        testBooking.setStatus(BookingStatus.COMPLETED);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
+
+        // When & Then
+        assertThrows(InvalidStatusTransitionException.class, () -> bookingService.cancelBooking(bookingId));
+        verify(transporterRepository, never()).findForReservationByTransporterId(any());
+    }
+
+    @Test
+    void testCompleteBooking_Success() {
+        // Given
+        testLoad.setStatus(LoadStatus.BOOKED);
+        testLoad.setRemainingTrucks(0);
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
+        when(transporterRepository.findForReservationByTransporterId(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
+
+        // When
+        Booking result = bookingService.completeBooking(bookingId);
+
+        // Then
+        assertEquals(BookingStatus.COMPLETED, result.getStatus());
+        verify(availabilityService).invalidate(transporterId);
+        assertEquals(LoadStatus.BOOKED, testLoad.getStatus());
+        assertEquals(0, testLoad.getRemainingTrucks());
+        verify(loadRepository, never()).save(any());
+    }
+
+    @Test
+    void testCompleteBooking_NotConfirmed() {
+        // Given
+        testBooking.setStatus(BookingStatus.CANCELLED);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
+
+        // When & Then
+        assertThrows(InvalidStatusTransitionException.class, () -> bookingService.completeBooking(bookingId));
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void testGetBookingById_Success() {
         // Given
@@ -0,0 +1,197 @@
+package com.kshitij.tms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kshitij.tms.dto.ChangeFeedResponse;
+import com.kshitij.tms.dto.ChangeRecordResponse;
+import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.Bid;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.ChangeEntityType;
+import com.kshitij.tms.entity.ChangeRecord;
+import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.event.TransporterEvent;
+import com.kshitij.tms.repository.ChangeRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ChangeFeedService
+ */
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedServiceTest {
+
+    @Mock
+    private ChangeRecordRepository changeRecordRepository;
+
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        changeFeedService = new ChangeFeedService(
+                changeRecordRepository, new ObjectMapper().registerModule(new JavaTimeModule()), 30_000, 24);
+    }
+
+    @Test
+    void testLoadEvent_RecordedWithEntityAndPayload() {
+        // Given
+        Bid bid = Bid.builder()
+                .bidId(UUID.randomUUID())
+                .loadId(UUID.randomUUID())
+                .transporterId(UUID.randomUUID())
+                .proposedRate(9500)
+                .trucksOffered(2)
+                .status(BidStatus.REJECTED)
+                .submittedAt(LocalDateTime.now())
+                .build();
+
+        // When
+        changeFeedService.onLoadEvent(LoadEvent.bidRejected("SHIP1", bid));
+
+        // Then
+        ArgumentCaptor<ChangeRecord> captor = ArgumentCaptor.forClass(ChangeRecord.class);
+        verify(changeRecordRepository).save(captor.capture());
+        ChangeRecord record = captor.getValue();
+        assertEquals(ChangeEntityType.BID, record.getEntityType());
+        assertEquals(bid.getBidId(), record.getEntityId());
+        assertEquals("bid-rejected", record.getChangeType());
+        assertTrue(record.getPayload().contains("\"status\":\"REJECTED\""));
+    }
+
+    @Test
+    void testTransporterEvent_Recorded() {
+        // Given
+        Transporter transporter = Transporter.builder()
+                .transporterId(UUID.randomUUID())
+                .companyName("Fast Logistics")
+                .rating(4.5)
+                .availableTrucks(List.of(new AvailableTruck((short) 1, "Container", 3)))
+                .build();
+
+        // When
+        changeFeedService.onTransporterEvent(TransporterEvent.updated(transporter));
+
+        // Then
+        ArgumentCaptor<ChangeRecord> captor = ArgumentCaptor.forClass(ChangeRecord.class);
+        verify(changeRecordRepository).save(captor.capture());
+        assertEquals(ChangeEntityType.TRANSPORTER, captor.getValue().getEntityType());
+        assertEquals("transporter-updated", captor.getValue().getChangeType());
+        assertTrue(captor.getValue().getPayload().contains("\"count\":3"));
+    }
+
+    @Test
+    void testGetChanges_FullBatch_HasMoreAndAdvancesCursor() {
+        // Given - one row more than requested is available
+        when(changeRecordRepository.findByChangeIdGreaterThanOrderByChangeIdAsc(eq(10L), any(Pageable.class)))
+                .thenReturn(records(11, 13));
+
+        // When
+        ChangeFeedResponse response = changeFeedService.getChanges(10, 2);
+
+        // Then
+        assertEquals(2, response.changes().size());
+        assertEquals(12, response.nextCursor());
+        assertTrue(response.hasMore());
+    }
+
+    @Test
+    void testGetChanges_CaughtUp_CursorUnchanged() {
+        // Given
+        when(changeRecordRepository.findByChangeIdGreaterThanOrderByChangeIdAsc(eq(42L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        ChangeFeedResponse response = changeFeedService.getChanges(42, 500);
+
+        // Then
+        assertTrue(response.changes().isEmpty());
+        assertEquals(42, response.nextCursor());
+        assertFalse(response.hasMore());
+    }
+
+    @Test
+    void testGetChanges_BatchCapped() {
+        // When
+        changeFeedService.getChanges(0, 1_000_000);
+
+        // Then
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(changeRecordRepository).findByChangeIdGreaterThanOrderByChangeIdAsc(eq(0L), page.capture());
+        assertEquals(ChangeFeedService.MAX_BATCH_SIZE + 1, page.getValue().getPageSize());
+    }
+
+    @Test
+    void testGetChanges_OpenGap_StopsBeforeIt() {
+        // Given - change 13 was assigned but hasn't committed yet
+        when(changeRecordRepository.findByChangeIdGreaterThanOrderByChangeIdAsc(eq(10L), any(Pageable.class)))
+                .thenReturn(withIds(11, 12, 14));
+
+        // When
+        ChangeFeedResponse response = changeFeedService.getChanges(10, 500);
+
+        // Then
+        assertEquals(List.of(11L, 12L), response.changes().stream().map(ChangeRecordResponse::changeId).toList());
+        assertEquals(12, response.nextCursor());
+        assertFalse(response.hasMore());
+    }
+
+    @Test
+    void testGetChanges_GapOlderThanTimeout_Skipped() {
+        // Given - no timeout, so a gap seen once counts as rolled back
+        changeFeedService = new ChangeFeedService(
+                changeRecordRepository, new ObjectMapper().registerModule(new JavaTimeModule()), 0, 24);
+        when(changeRecordRepository.findByChangeIdGreaterThanOrderByChangeIdAsc(eq(10L), any(Pageable.class)))
+                .thenReturn(withIds(11, 14, 15));
+
+        // When
+        ChangeFeedResponse response = changeFeedService.getChanges(10, 500);
+
+        // Then
+        assertEquals(List.of(11L, 14L, 15L), response.changes().stream().map(ChangeRecordResponse::changeId).toList());
+        assertEquals(15, response.nextCursor());
+    }
+
+    @Test
+    void testPruneExpired_DeletesOlderThanRetention() {
+        // When
+        changeFeedService.pruneExpired();
+
+        // Then
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(changeRecordRepository).deleteOlderThan(cutoff.capture());
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+    }
+
+    private static List<ChangeRecord> records(long fromId, long toId) {
+        return withIds(LongStream.rangeClosed(fromId, toId).toArray());
+    }
+
+    private static List<ChangeRecord> withIds(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(id -> ChangeRecord.builder()
+                        .changeId(id)
+                        .entityType(ChangeEntityType.LOAD)
+                        .entityId(UUID.randomUUID())
+                        .changeType("status-changed")
+                        .payload("{}")
+                        .occurredAt(LocalDateTime.now().minusSeconds(5))
+                        .build())
+                .toList();
+    }
+}
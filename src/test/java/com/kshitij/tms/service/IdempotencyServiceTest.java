@@ -0,0 +1,239 @@
+package com.kshitij.tms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kshitij.tms.dto.BidRequest;
+import com.kshitij.tms.dto.BidResponse;
+import com.kshitij.tms.entity.BidStatus;
+import com.kshitij.tms.entity.IdempotencyRecord;
+import com.kshitij.tms.exception.InvalidIdempotencyKeyException;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdempotencyService
+ * The repository is mocked; transactions run against a mock transaction manager
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private IdempotencyService idempotencyService;
+    private BidRequest request;
+    private BidResponse response;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(
+                repository, new TransactionTemplate(transactionManager), objectMapper, 24, 100);
+
+        request = BidRequest.builder()
+                .loadId(UUID.randomUUID())
+                .transporterId(UUID.randomUUID())
+                .proposedRate(9500)
+                .trucksOffered(2)
+                .build();
+        response = new BidResponse(UUID.randomUUID(), request.getLoadId(), request.getTransporterId(),
+                9500, 2, BidStatus.PENDING, LocalDateTime.now().withNano(0));
+        executions = new AtomicInteger();
+    }
+
+    private Supplier<BidResponse> submit() {
+        return () -> {
+            executions.incrementAndGet();
+            return response;
+        };
+    }
+
+    @Test
+    void testExecute_NoKey_AlwaysExecutes() {
+        // When
+        idempotencyService.execute("bid", null, request, BidResponse.class, submit());
+        idempotencyService.execute("bid", null, request, BidResponse.class, submit());
+
+        // Then
+        assertEquals(2, executions.get());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testExecute_Retry_ReplaysWithoutExecuting() {
+        // Given
+        when(repository.findById("bid:key-1")).thenReturn(Optional.empty());
+
+        // When
+        IdempotencyService.Result<BidResponse> first =
+                idempotencyService.execute("bid", "key-1", request, BidResponse.class, submit());
+        IdempotencyService.Result<BidResponse> retry =
+                idempotencyService.execute("bid", "key-1", request, BidResponse.class, submit());
+
+        // Then
+        assertEquals(1, executions.get());
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(response, retry.body());
+        verify(repository, times(1)).insert(eq("bid:key-1"), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void testExecute_SameKeyDifferentPayload_Rejected() {
+        // Given
+        when(repository.findById("bid:key-1")).thenReturn(Optional.empty());
+        idempotencyService.execute("bid", "key-1", request, BidResponse.class, submit());
+
+        request.setProposedRate(12000);
+
+        // When & Then
+        assertThrows(InvalidIdempotencyKeyException.class, () ->
+                idempotencyService.execute("bid", "key-1", request, BidResponse.class, submit()));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_KeyTooLong_Rejected() {
+        assertThrows(InvalidIdempotencyKeyException.class, () ->
+                idempotencyService.execute("bid", "k".repeat(101), request, BidResponse.class, submit()));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void testExecute_RecordedByAnotherNode_ReplaysFromDatabase() throws Exception {
+        // Given
+        when(repository.findById("bid:key-1")).thenReturn(Optional.of(storedRecord()));
+
+        // When
+        IdempotencyService.Result<BidResponse> result =
+                idempotencyService.execute("bid", "key-1", request, BidResponse.class, submit());
+
+        // Then
+        assertTrue(result.replayed());
+        assertEquals(response, result.body());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void testExecute_LostInsertRace_ReplaysWinner() throws Exception {
+        // Given - another node commits the same key while we execute
+        when(repository.findById("bid:key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(storedRecord()));
+        doThrow(new DuplicateKeyException("pk_idempotency_key"))
+                .when(repository).insert(eq("bid:key-1"), anyString(), anyString(), any(), any());
+
+        // When
+        IdempotencyService.Result<BidResponse> result =
+                idempotencyService.execute("bid", "key-1", request, BidResponse.class, submit());
+
+        // Then
+        assertTrue(result.replayed());
+        assertEquals(response, result.body());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testExecute_Failure_NotRecorded() {
+        // Given
+        when(repository.findById("bid:key-1")).thenReturn(Optional.empty());
+
+        // When
+        assertThrows(ResourceNotFoundException.class, () ->
+                idempotencyService.execute("bid", "key-1", request, BidResponse.class, () -> {
+                    throw new ResourceNotFoundException("Load", "loadId", request.getLoadId());
+                }));
+        IdempotencyService.Result<BidResponse> retry =
+                idempotencyService.execute("bid", "key-1", request, BidResponse.class, submit());
+
+        // Then - the retry runs for real
+        assertFalse(retry.replayed());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicates_CoalesceOnFirst() throws Exception {
+        // Given
+        when(repository.findById("bid:key-1")).thenReturn(Optional.empty());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<BidResponse> slowSubmit = () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // When
+            Future<IdempotencyService.Result<BidResponse>> first = executor.submit(() ->
+                    idempotencyService.execute("bid", "key-1", request, BidResponse.class, slowSubmit));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<IdempotencyService.Result<BidResponse>> second = executor.submit(() ->
+                    idempotencyService.execute("bid", "key-1", request, BidResponse.class, slowSubmit));
+            Future<IdempotencyService.Result<BidResponse>> third = executor.submit(() ->
+                    idempotencyService.execute("bid", "key-1", request, BidResponse.class, slowSubmit));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+            assertTrue(second.get(5, TimeUnit.SECONDS).replayed());
+            assertTrue(third.get(5, TimeUnit.SECONDS).replayed());
+            assertEquals(response, second.get().body());
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private IdempotencyRecord storedRecord() throws Exception {
+        byte[] requestJson = objectMapper.writeValueAsBytes(request);
+        return IdempotencyRecord.builder()
+                .recordKey("bid:key-1")
+                .requestHash(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(requestJson)))
+                .responseBody(objectMapper.writeValueAsString(response))
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+    }
+}
@@ -1,28 +1,40 @@
 package com.kshitij.tms.service;
 
+import com.kshitij.tms.cache.EntityCache;
+import com.kshitij.tms.cache.IdFilters;
 import com.kshitij.tms.dto.LoadRequest;
 import com.kshitij.tms.dto.BestBidResponse;
+import com.kshitij.tms.dto.LoadResponse;
 import com.kshitij.tms.entity.*;
+import com.kshitij.tms.event.LoadEvent;
+import com.kshitij.tms.exception.InvalidFieldSelectionException;
 import com.kshitij.tms.exception.InvalidStatusTransitionException;
 import com.kshitij.tms.exception.ResourceNotFoundException;
 import com.kshitij.tms.repository.BidRepository;
 import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.SparseFieldsetRepository;
 import com.kshitij.tms.repository.TransporterRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -41,6 +53,21 @@ class LoadServiceTest {
     @Mock
     private TransporterRepository transporterRepository;
 
+    @Mock
+    private SparseFieldsetRepository sparseFieldsetRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TruckTypeService truckTypeService;
+
+    @Spy
+    private EntityCache entityCache = new EntityCache(new SimpleMeterRegistry(), 100, 60_000, 1000, 10);
+
+    @Spy
+    private IdFilters idFilters = new IdFilters(null, null, null, new SimpleMeterRegistry(), false, 0.01, 1000, 1, 10_000);
+
     @InjectMocks
     private LoadService loadService;
 
@@ -59,6 +86,7 @@ class LoadServiceTest {
                 .productType("Electronics")
                 .weight(1000)
                 .weightUnit(WeightUnit.KG)
+                .truckTypeId((short) 1)
                 .truckType("Container")
                 .noOfTrucks(5)
                 .remainingTrucks(5)
@@ -78,10 +106,12 @@ class LoadServiceTest {
                 .productType("Electronics")
                 .weight(1000)
                 .weightUnit(WeightUnit.KG)
-                .truckType("Container")
+                .truckType(" container")
                 .noOfTrucks(5)
                 .build();
 
+        when(truckTypeService.resolve(" container"))
+                .thenReturn(new TruckType((short) 1, "Container", "container", Set.of()));
         when(loadRepository.save(any(Load.class))).thenReturn(testLoad);
 
         // When
@@ -92,7 +122,8 @@ class LoadServiceTest {
         assertEquals(LoadStatus.POSTED, result.getStatus());
         assertEquals(5, result.getRemainingTrucks());
         assertEquals(5, result.getNoOfTrucks());
-        verify(loadRepository, times(1)).save(any(Load.class));
+        verify(loadRepository, times(1)).save(argThat(load ->
+                load.getTruckTypeId() == 1 && load.getTruckType().equals("Container")));
     }
 
     @Test
@@ -120,6 +151,35 @@ class LoadServiceTest {
         });
     }
 
+    @Test
+    void testGetLoadResponse_RepeatReadServedFromCache() {
+        // Given
+        when(loadRepository.findById(testLoadId)).thenReturn(Optional.of(testLoad));
+
+        // When
+        LoadResponse first = loadService.getLoadResponse(testLoadId);
+        LoadResponse second = loadService.getLoadResponse(testLoadId);
+
+        // Then
+        assertEquals(testLoadId, second.loadId());
+        assertSame(first, second);
+        verify(loadRepository, times(1)).findById(testLoadId);
+    }
+
+    @Test
+    void testGetLoadResponse_EvictedWhenLoadChanges() {
+        // Given
+        when(loadRepository.findById(testLoadId)).thenReturn(Optional.of(testLoad));
+        loadService.getLoadResponse(testLoadId);
+
+        // When
+        entityCache.onLoadEvent(LoadEvent.statusChanged(testLoad));
+        loadService.getLoadResponse(testLoadId);
+
+        // Then
+        verify(loadRepository, times(2)).findById(testLoadId);
+    }
+
     @Test
     void testCancelLoad_Success() {
         // Given
@@ -229,37 +289,64 @@ class LoadServiceTest {
     @Test
     void testFilterLoads_WithShipperIdAndStatus() {
         // Given
-        PageRequest pageable = PageRequest.of(0, 10);
-        List<Load> loads = Arrays.asList(testLoad);
-        Page<Load> page = new PageImpl<>(loads, pageable, loads.size());
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "datePosted"));
+        List<LoadResponse> loads = Arrays.asList(LoadResponse.from(testLoad));
+        Page<LoadResponse> page = new PageImpl<>(loads, pageable, loads.size());
 
-        when(loadRepository.findByShipperIdAndStatus("SHIP123", LoadStatus.POSTED, pageable))
+        when(loadRepository.findByShipperIdAndStatus("SHIP123", LoadStatus.POSTED, pageable, LoadResponse.class))
                 .thenReturn(page);
 
         // When
-        Page<Load> result = loadService.filterLoads("SHIP123", LoadStatus.POSTED, 0, 10);
+        Page<LoadResponse> result = loadService.filterLoads("SHIP123", LoadStatus.POSTED, 0, 10);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        assertEquals(testLoad, result.getContent().get(0));
+        assertEquals(testLoadId, result.getContent().get(0).loadId());
     }
 
     @Test
     void testFilterLoads_NoFilters() {
         // Given
-        PageRequest pageable = PageRequest.of(0, 10);
-        List<Load> loads = Arrays.asList(testLoad);
-        Page<Load> page = new PageImpl<>(loads, pageable, loads.size());
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "datePosted"));
+        List<LoadResponse> loads = Arrays.asList(LoadResponse.from(testLoad));
+        Page<LoadResponse> page = new PageImpl<>(loads, pageable, loads.size());
 
-        when(loadRepository.findAll(pageable)).thenReturn(page);
+        when(loadRepository.findAllBy(pageable, LoadResponse.class)).thenReturn(page);
 
         // When
-        Page<Load> result = loadService.filterLoads(null, null, 0, 10);
+        Page<LoadResponse> result = loadService.filterLoads(null, null, 0, 10);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(loadRepository, times(1)).findAll(pageable);
+        verify(loadRepository, times(1)).findAllBy(pageable, LoadResponse.class);
+    }
+
+    @Test
+    void testFilterLoadFields_SelectsRequestedFields() {
+        // Given
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "datePosted"));
+        Map<String, Object> row = Map.of("loadId", testLoadId, "status", LoadStatus.POSTED);
+        Page<Map<String, Object>> page = new PageImpl<>(List.of(row), pageable, 1);
+
+        when(sparseFieldsetRepository.findFields(eq(Load.class), any(), eq(List.of("loadId", "status")), eq(pageable)))
+                .thenReturn(page);
+
+        // When
+        Page<Map<String, Object>> result = loadService.filterLoadFields(
+                "SHIP123", null, 0, 10, List.of("loadId", " status", "loadId"));
+
+        // Then
+        assertEquals(row, result.getContent().get(0));
+    }
+
+    @Test
+    void testFilterLoadFields_UnknownField() {
+        // When & Then - version is internal and not selectable
+        assertThrows(InvalidFieldSelectionException.class, () ->
+                loadService.filterLoadFields(null, null, 0, 10, List.of("loadId", "version")));
+
+        verifyNoInteractions(sparseFieldsetRepository);
     }
-}
\ No newline at end of file
+}
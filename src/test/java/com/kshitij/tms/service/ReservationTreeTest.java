@@ -0,0 +1,78 @@
+package com.kshitij.tms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the reservation segment tree and the schedule built on it
+ */
+class ReservationTreeTest {
+
+    @Test
+    void testMaxReserved_OverlappingRanges() {
+        // Given
+        ReservationTree tree = new ReservationTree();
+        tree.reserve(100, 110, 3);
+        tree.reserve(105, 120, 2);
+
+        // When & Then
+        assertEquals(5, tree.maxReserved(100, 200));
+        assertEquals(3, tree.maxReserved(100, 105));
+        assertEquals(2, tree.maxReserved(110, 120));
+        assertEquals(0, tree.maxReserved(120, 130));
+        assertEquals(0, tree.maxReserved(0, 100));
+    }
+
+    @Test
+    void testMaxReserved_MatchesBruteForce() {
+        // Given
+        Random random = new Random(42);
+        int base = 480_000;
+        int span = 2_000;
+        int[] hours = new int[span];
+        ReservationTree tree = new ReservationTree();
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(span);
+            int until = from + 1 + random.nextInt(100);
+            int trucks = 1 + random.nextInt(5);
+            tree.reserve(base + from, base + until, trucks);
+            for (int hour = from; hour < Math.min(until, span); hour++) {
+                hours[hour] += trucks;
+            }
+        }
+
+        // Then
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(span);
+            int until = Math.min(span, from + 1 + random.nextInt(200));
+            int expected = 0;
+            for (int hour = from; hour < until; hour++) {
+                expected = Math.max(expected, hours[hour]);
+            }
+            assertEquals(expected, tree.maxReserved(base + from, base + until));
+        }
+    }
+
+    @Test
+    void testSchedule_WindowsRoundOutToWholeHours() {
+        // Given
+        LocalDateTime loadingDate = LocalDateTime.of(2030, 1, 10, 8, 30);
+        TruckSchedule schedule = new TruckSchedule();
+        schedule.reserve((short) 1, ReservationWindow.around(loadingDate, Duration.ofHours(12), Duration.ofHours(72)), 4);
+
+        // When & Then
+        ReservationWindow justAfter = new ReservationWindow(loadingDate.plusHours(72), loadingDate.plusHours(80));
+        ReservationWindow wellAfter = new ReservationWindow(loadingDate.plusHours(73), loadingDate.plusHours(80));
+        assertEquals(4, schedule.reserved((short) 1, justAfter));
+        assertEquals(0, schedule.reserved((short) 1, wellAfter));
+        assertEquals(0, schedule.reserved((short) 2, justAfter));
+        assertEquals(1, schedule.reservations().size());
+    }
+}
@@ -1,11 +1,16 @@
 package com.kshitij.tms.service;
 
+import com.kshitij.tms.cache.EntityCache;
+import com.kshitij.tms.dto.LoadResponse;
 import com.kshitij.tms.dto.TransporterRequest;
 import com.kshitij.tms.dto.TransporterUpdateRequest;
 import com.kshitij.tms.dto.TruckRequest;
 import com.kshitij.tms.entity.AvailableTruck;
+import com.kshitij.tms.entity.LoadStatus;
 import com.kshitij.tms.entity.Transporter;
+import com.kshitij.tms.entity.TruckType;
 import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.repository.LoadRepository;
 import com.kshitij.tms.repository.TransporterRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,11 +18,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -29,6 +38,18 @@ class TransporterServiceTest {
     @Mock
     private TransporterRepository transporterRepository;
 
+    @Mock
+    private LoadRepository loadRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private TruckTypeService truckTypeService;
+
     @InjectMocks
     private TransporterService transporterService;
 
@@ -40,11 +61,13 @@ class TransporterServiceTest {
         transporterId = UUID.randomUUID();
 
         AvailableTruck truck1 = AvailableTruck.builder()
+                .truckTypeId((short) 1)
                 .truckType("Container")
                 .count(10)
                 .build();
 
         AvailableTruck truck2 = AvailableTruck.builder()
+                .truckTypeId((short) 2)
                 .truckType("Flatbed")
                 .count(5)
                 .build();
@@ -76,6 +99,8 @@ class TransporterServiceTest {
                 .availableTrucks(Arrays.asList(truckReq1, truckReq2))
                 .build();
 
+        when(truckTypeService.resolve("Container")).thenReturn(new TruckType((short) 1, "Container", "container", Set.of()));
+        when(truckTypeService.resolve("Flatbed")).thenReturn(new TruckType((short) 2, "Flatbed", "flatbed", Set.of()));
         when(transporterRepository.save(any(Transporter.class))).thenReturn(testTransporter);
 
         // When
@@ -126,6 +151,7 @@ class TransporterServiceTest {
                 .availableTrucks(Arrays.asList(truckReq))
                 .build();
 
+        when(truckTypeService.resolve("Container")).thenReturn(new TruckType((short) 1, "Container", "container", Set.of()));
         when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
         when(transporterRepository.save(any(Transporter.class))).thenReturn(testTransporter);
 
@@ -138,6 +164,30 @@ class TransporterServiceTest {
         verify(transporterRepository, times(1)).save(testTransporter);
     }
 
+    @Test
+    void testUpdateAvailableTrucks_MergesSpellingsOfOneTruckType() {
+        // Given
+        TransporterUpdateRequest request = TransporterUpdateRequest.builder()
+                .availableTrucks(Arrays.asList(
+                        TruckRequest.builder().truckType("Container").count(4).build(),
+                        TruckRequest.builder().truckType(" CONTAINER ").count(6).build()))
+                .build();
+
+        TruckType container = new TruckType((short) 1, "Container", "container", Set.of());
+        when(truckTypeService.resolve("Container")).thenReturn(container);
+        when(truckTypeService.resolve(" CONTAINER ")).thenReturn(container);
+        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(transporterRepository.save(any(Transporter.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Transporter result = transporterService.updateTransporter(transporterId, request);
+
+        // Then
+        assertEquals(1, result.getAvailableTrucks().size());
+        assertEquals(1, result.getAvailableTrucks().get(0).getTruckTypeId());
+        assertEquals(10, result.getAvailableTrucks().get(0).getCount());
+    }
+
     @Test
     void testGetAllTransporters() {
         // Given
@@ -152,4 +202,39 @@ class TransporterServiceTest {
         assertEquals(1, result.size());
         assertEquals(testTransporter, result.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindMatchingLoads_IncludesTypesCarriedThroughGraph() {
+        // Given
+        testTransporter.getAvailableTrucks().get(1).setCount(0);  // no Flatbeds free
+        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+        when(truckTypeService.compatibility())
+                .thenReturn(TruckCompatibility.of(Map.of((short) 1, List.of((short) 3))));
+        when(loadRepository.findByStatusInAndTruckTypeIdIn(
+                eq(List.of(LoadStatus.POSTED, LoadStatus.OPEN_FOR_BIDS)), eq(Set.of((short) 1, (short) 3)),
+                any(Pageable.class), eq(LoadResponse.class)))
+                .thenReturn(Page.empty());
+
+        // When
+        Page<LoadResponse> result = transporterService.findMatchingLoads(transporterId, 0, 10);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(loadRepository).findByStatusInAndTruckTypeIdIn(
+                any(), eq(Set.of((short) 1, (short) 3)), any(Pageable.class), eq(LoadResponse.class));
+    }
+
+    @Test
+    void testFindMatchingLoads_NoFreeTrucks() {
+        // Given
+        testTransporter.getAvailableTrucks().forEach(truck -> truck.setCount(0));
+        when(transporterRepository.findById(transporterId)).thenReturn(Optional.of(testTransporter));
+
+        // When
+        Page<LoadResponse> result = transporterService.findMatchingLoads(transporterId, 0, 10);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(loadRepository);
+    }
+}
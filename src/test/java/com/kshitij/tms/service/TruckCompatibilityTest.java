@@ -0,0 +1,66 @@
+package com.kshitij.tms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the precomputed compatibility closure
+ */
+class TruckCompatibilityTest {
+
+    @Test
+    void testExact_OnlySameTypeCarries() {
+        // When & Then
+        assertTrue(TruckCompatibility.EXACT.canCarry((short) 1, (short) 1));
+        assertFalse(TruckCompatibility.EXACT.canCarry((short) 1, (short) 2));
+        assertEquals(Set.of((short) 1, (short) 2), TruckCompatibility.EXACT.carriedBy(List.of((short) 1, (short) 2)));
+    }
+
+    @Test
+    void testOf_FollowsChains() {
+        // Given: 1 -> 2 -> 3, 4 -> 1
+        TruckCompatibility compatibility = TruckCompatibility.of(Map.of(
+                (short) 1, List.of((short) 2),
+                (short) 2, List.of((short) 3),
+                (short) 4, List.of((short) 1)));
+
+        // When & Then
+        assertTrue(compatibility.canCarry((short) 1, (short) 3));
+        assertTrue(compatibility.canCarry((short) 4, (short) 3));
+        assertFalse(compatibility.canCarry((short) 3, (short) 1));
+        assertFalse(compatibility.canCarry((short) 2, (short) 1));
+        assertEquals(Set.of((short) 2, (short) 3), compatibility.carriedBy(List.of((short) 2)));
+    }
+
+    @Test
+    void testOf_CycleMakesTypesInterchangeable() {
+        // Given
+        TruckCompatibility compatibility = TruckCompatibility.of(Map.of(
+                (short) 5, List.of((short) 6),
+                (short) 6, List.of((short) 5)));
+
+        // When & Then
+        assertTrue(compatibility.canCarry((short) 5, (short) 6));
+        assertTrue(compatibility.canCarry((short) 6, (short) 5));
+        assertFalse(compatibility.canCarry((short) 5, (short) 1));
+    }
+
+    @Test
+    void testOf_CodesBeyondOneWord() {
+        // Given
+        TruckCompatibility compatibility = TruckCompatibility.of(Map.of(
+                (short) 3, List.of((short) 200),
+                (short) 200, List.of((short) 70)));
+
+        // When & Then
+        assertTrue(compatibility.canCarry((short) 3, (short) 70));
+        assertFalse(compatibility.canCarry((short) 3, (short) 500));
+        assertFalse(compatibility.canCarry((short) 900, (short) 3));
+        assertEquals(Set.of((short) 3, (short) 70, (short) 200), compatibility.carriedBy(List.of((short) 3)));
+    }
+}
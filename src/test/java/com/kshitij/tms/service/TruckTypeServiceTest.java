@@ -0,0 +1,222 @@
+package com.kshitij.tms.service;
+
+import com.kshitij.tms.dto.LoadRequest;
+import com.kshitij.tms.dto.TruckCompatibilityRequest;
+import com.kshitij.tms.dto.TruckTypeRequest;
+import com.kshitij.tms.entity.Load;
+import com.kshitij.tms.entity.TruckType;
+import com.kshitij.tms.entity.WeightUnit;
+import com.kshitij.tms.exception.InvalidTruckTypeException;
+import com.kshitij.tms.exception.ResourceNotFoundException;
+import com.kshitij.tms.repository.LoadRepository;
+import com.kshitij.tms.repository.TruckTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the truck-type catalog against the Flyway-migrated database
+ */
+@SpringBootTest
+class TruckTypeServiceTest {
+
+    @Autowired
+    private TruckTypeService truckTypeService;
+
+    @Autowired
+    private TruckTypeRepository truckTypeRepository;
+
+    @Autowired
+    private LoadService loadService;
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void testResolve_IgnoresCaseAndWhitespace() {
+        // When
+        TruckType exact = truckTypeService.resolve("Flatbed");
+        TruckType spelled = truckTypeService.resolve("  FLATBED ");
+
+        // Then
+        assertEquals(exact.getTruckTypeId(), spelled.getTruckTypeId());
+        assertEquals("Flatbed", spelled.getName());
+    }
+
+    @Test
+    void testResolve_RegistersUnknownTypeOnce() {
+        // Given
+        String name = "Lowbed " + UUID.randomUUID().toString().substring(0, 8);
+
+        // When
+        TruckType registered = truckTypeService.resolve(name);
+        TruckType again = truckTypeService.resolve(name.toUpperCase());
+
+        // Then
+        assertEquals(registered.getTruckTypeId(), again.getTruckTypeId());
+        assertEquals(name, truckTypeRepository.findById(registered.getTruckTypeId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testResolve_RegistrationRolledBackWithCaller() {
+        // Given
+        String name = "Dumper " + UUID.randomUUID().toString().substring(0, 8);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // When - the caller's transaction registers the name, then rolls back
+        transaction.executeWithoutResult(status -> {
+            truckTypeService.resolve(name);
+            status.setRollbackOnly();
+        });
+
+        // Then - not in the catalog or the cache, and registered again on the next use
+        assertTrue(truckTypeRepository.findByNormalizedName(TruckType.normalize(name)).isEmpty());
+        TruckType registered = truckTypeService.resolve(name);
+        assertTrue(truckTypeRepository.existsById(registered.getTruckTypeId()));
+    }
+
+    @Test
+    void testResolve_UnknownTypeRejectedWhenAutoRegisterOff() {
+        // Given
+        TruckTypeService strict = new TruckTypeService(truckTypeRepository, eventPublisher, false);
+
+        // When & Then
+        assertEquals("Container", strict.resolve("container").getName());
+        assertThrows(InvalidTruckTypeException.class, () -> strict.resolve("Hovercraft"));
+    }
+
+    @Test
+    void testRename_LoadsKeepCodeAndShowNewName() {
+        // Given
+        String name = "Tipper " + UUID.randomUUID().toString().substring(0, 8);
+        Load load = loadService.createLoad(loadRequest(name));
+
+        // When
+        TruckType renamed = truckTypeService.renameTruckType(load.getTruckTypeId(),
+                TruckTypeRequest.builder().name(name + " XL").build());
+
+        // Then
+        Load reloaded = loadRepository.findById(load.getLoadId()).orElseThrow();
+        assertEquals(load.getTruckTypeId(), renamed.getTruckTypeId());
+        assertEquals(renamed.getTruckTypeId(), reloaded.getTruckTypeId());
+        assertEquals(name + " XL", reloaded.getTruckType());
+        assertEquals(renamed.getTruckTypeId(), truckTypeService.resolve(name + " xl").getTruckTypeId());
+    }
+
+    @Test
+    void testRename_OldNameResolvedDuringRenameNotCachedAfterCommit() throws Exception {
+        // Given
+        String name = "Hopper " + UUID.randomUUID().toString().substring(0, 8);
+        TruckType original = truckTypeService.resolve(name);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // When - another request resolves the old name before the rename commits
+        transaction.executeWithoutResult(status -> {
+            truckTypeService.renameTruckType(original.getTruckTypeId(),
+                    TruckTypeRequest.builder().name(name + " XL").build());
+            CompletableFuture.runAsync(() -> truckTypeService.resolve(name)).join();
+        });
+
+        // Then - the old name is no longer the renamed type
+        assertNotEquals(original.getTruckTypeId(), truckTypeService.resolve(name).getTruckTypeId());
+    }
+
+    @Test
+    void testDelete_TypeInUseIsRejected() {
+        // Given
+        String name = "Skip " + UUID.randomUUID().toString().substring(0, 8);
+        Load load = loadService.createLoad(loadRequest(name));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class,
+                () -> truckTypeService.deleteTruckType(load.getTruckTypeId()));
+        assertTrue(truckTypeRepository.existsById(load.getTruckTypeId()));
+    }
+
+    @Test
+    void testCreateAndDelete_UnusedType() {
+        // Given
+        String name = "Curtainsider " + UUID.randomUUID().toString().substring(0, 8);
+
+        // When
+        TruckType created = truckTypeService.createTruckType(TruckTypeRequest.builder().name(name).build());
+        truckTypeService.deleteTruckType(created.getTruckTypeId());
+
+        // Then
+        assertFalse(truckTypeRepository.existsById(created.getTruckTypeId()));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> truckTypeService.createTruckType(TruckTypeRequest.builder().name("container").build()));
+    }
+
+    @Test
+    void testSetCarries_ClosureReloadedAfterCommit() {
+        // Given: reefer -> box -> pallet
+        TruckType reefer = create("Reefer ");
+        TruckType box = create("Box ");
+        TruckType pallet = create("Pallet ");
+
+        // When
+        truckTypeService.setCarries(box.getTruckTypeId(),
+                new TruckCompatibilityRequest(List.of(pallet.getTruckTypeId(), box.getTruckTypeId())));
+        truckTypeService.setCarries(reefer.getTruckTypeId(),
+                new TruckCompatibilityRequest(List.of(box.getTruckTypeId())));
+
+        // Then
+        TruckCompatibility compatibility = truckTypeService.compatibility();
+        assertTrue(compatibility.canCarry(reefer.getTruckTypeId(), pallet.getTruckTypeId()));
+        assertFalse(compatibility.canCarry(pallet.getTruckTypeId(), box.getTruckTypeId()));
+        assertEquals(Set.of(pallet.getTruckTypeId()),
+                truckTypeRepository.findById(box.getTruckTypeId()).orElseThrow().getCarries());
+
+        // And removing the middle type cuts the chain
+        truckTypeService.deleteTruckType(box.getTruckTypeId());
+        assertFalse(truckTypeService.compatibility().canCarry(reefer.getTruckTypeId(), pallet.getTruckTypeId()));
+    }
+
+    @Test
+    void testSetCarries_UnknownTargetRejected() {
+        // Given
+        TruckType truckType = create("Tilt ");
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> truckTypeService.setCarries(truckType.getTruckTypeId(),
+                new TruckCompatibilityRequest(List.of(Short.MAX_VALUE))));
+    }
+
+    private TruckType create(String prefix) {
+        String name = prefix + UUID.randomUUID().toString().substring(0, 8);
+        return truckTypeService.createTruckType(TruckTypeRequest.builder().name(name).build());
+    }
+
+    private static LoadRequest loadRequest(String truckType) {
+        return LoadRequest.builder()
+                .shipperId("SHIP-" + UUID.randomUUID())
+                .loadingCity("Mumbai")
+                .unloadingCity("Delhi")
+                .loadingDate(LocalDateTime.now().plusDays(1))
+                .productType("Steel")
+                .weight(1000)
+                .weightUnit(WeightUnit.KG)
+                .truckType(truckType)
+                .noOfTrucks(2)
+                .build();
+    }
+}